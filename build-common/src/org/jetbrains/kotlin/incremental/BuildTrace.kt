@@ -0,0 +1,48 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.incremental
+
+import org.jetbrains.kotlin.utils.ChromeTraceEventSink
+import org.jetbrains.kotlin.utils.CompilerTracer
+import java.io.File
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Trace of a whole build into the file given by the -Xtrace-phases-to compiler argument: besides the compiler phases,
+ * it has the updates of incremental caches and lookups which build tools do after each compilation.
+ *
+ * A compiler called on a thread which runs [trace] traces into the same file.
+ * Compilers which run in the daemon or are loaded by another class loader can't see the sink of the build,
+ * so they are given their own trace files next to it, see [nextCompilerTracePath].
+ */
+class BuildTrace(private val tracePath: String) {
+    private val sink = ChromeTraceEventSink(File(tracePath))
+    private val compilationCount = AtomicInteger()
+
+    fun <T> trace(block: () -> T): T = CompilerTracer.withSink(sink, block)
+
+    // e.g. "trace.compiler1.json" for "trace.json"
+    fun nextCompilerTracePath(): String {
+        val file = File(tracePath)
+        return File(file.parentFile, "${file.nameWithoutExtension}.compiler${compilationCount.incrementAndGet()}.json").path
+    }
+
+    // Throws IOException if the trace file can't be written
+    fun close() {
+        sink.close()
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.incremental
+
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.util.io.IOUtil
+import org.jetbrains.kotlin.incremental.storage.ConstantsMapExternalizer
+import org.jetbrains.kotlin.incremental.storage.ProtoMapValue
+import org.jetbrains.kotlin.incremental.storage.ProtoMapValueExternalizer
+import org.jetbrains.kotlin.incremental.storage.StringToLongMapExternalizer
+import org.jetbrains.kotlin.load.kotlin.FileBasedKotlinClass
+import org.jetbrains.kotlin.load.kotlin.header.KotlinClassHeader
+import org.jetbrains.kotlin.name.ClassId
+import org.jetbrains.kotlin.name.FqName
+import org.jetbrains.kotlin.protobuf.MessageLite
+import org.jetbrains.kotlin.resolve.jvm.JvmClassName
+import org.jetbrains.kotlin.serialization.jvm.BitEncoding
+import org.jetbrains.kotlin.serialization.jvm.JvmProtoBufUtil
+import org.jetbrains.org.objectweb.asm.*
+import java.io.*
+import java.util.*
+import java.util.zip.ZipFile
+
+/**
+ * ABI of a single class from a classpath entry.
+ * [proto] is null for non-Kotlin classes and for multifile class facades,
+ * [abiHash] is only meaningful for non-Kotlin classes,
+ * [supertypes] are internal names of the direct superclass and interfaces.
+ */
+class ClassSnapshot(
+        val isPackageFacade: Boolean,
+        val proto: ProtoMapValue?,
+        val constants: Map<String, Any>,
+        val inlineFunctions: Map<String, Long>,
+        val abiHash: Long,
+        val supertypes: List<String>
+)
+
+/**
+ * ABI snapshot of a classpath entry (a jar or a class directory), keyed by internal class name.
+ * Comparing two snapshots of the same entry gives the same kind of [ChangeInfo]s that [IncrementalCacheImpl] reports
+ * for the module's own output, so classpath changes can be mapped to dirty sources via [getDirtyData].
+ */
+class ClasspathEntrySnapshot(val classes: Map<String, ClassSnapshot>) {
+    companion object {
+        val EMPTY = ClasspathEntrySnapshot(emptyMap())
+
+        fun create(entry: File): ClasspathEntrySnapshot {
+            val classes = HashMap<String, ClassSnapshot>()
+
+            forEachClassFile(entry) { location, bytes ->
+                val className = ClassReader(bytes).className
+                createClassSnapshot(location, bytes)?.let { classes[className] = it }
+            }
+
+            return ClasspathEntrySnapshot(classes)
+        }
+    }
+}
+
+/**
+ * Direct subtypes of the classes from a set of classpath snapshots.
+ * Lets [getDirtyData] follow a change through class hierarchies declared inside libraries,
+ * which are unknown to the incremental caches of the module being compiled.
+ */
+class ClasspathSubtypes(snapshots: Iterable<ClasspathEntrySnapshot>) {
+    private val subtypes = HashMap<FqName, MutableSet<FqName>>()
+
+    init {
+        for (snapshot in snapshots) {
+            for ((internalName, classSnapshot) in snapshot.classes) {
+                if (classSnapshot.isPackageFacade) continue
+
+                val fqName = JvmClassName.byInternalName(internalName).fqNameForClassNameWithoutDollars
+                for (supertype in classSnapshot.supertypes) {
+                    val supertypeFqName = JvmClassName.byInternalName(supertype).fqNameForClassNameWithoutDollars
+                    subtypes.getOrPut(supertypeFqName) { HashSet() }.add(fqName)
+                }
+            }
+        }
+    }
+
+    fun getSubtypesOf(fqName: FqName): Sequence<FqName> = subtypes[fqName]?.asSequence() ?: emptySequence()
+}
+
+fun classpathEntryChanges(old: ClasspathEntrySnapshot, new: ClasspathEntrySnapshot): CompilationResult {
+    val changes = ArrayList<ChangeInfo>()
+
+    for (internalName in old.classes.keys + new.classes.keys) {
+        val oldClass = old.classes[internalName]
+        val newClass = new.classes[internalName]
+        if (oldClass === newClass) continue
+
+        val className = JvmClassName.byInternalName(internalName)
+
+        if (oldClass == null || newClass == null ||
+            oldClass.isPackageFacade != newClass.isPackageFacade ||
+            (oldClass.proto == null) != (newClass.proto == null)
+        ) {
+            oldClass?.let { changes.addAll(classRemovedOrAdded(className, it, areSubclassesAffected = true)) }
+            newClass?.let { changes.addAll(classRemovedOrAdded(className, it, areSubclassesAffected = false)) }
+            continue
+        }
+
+        val fqName = className.fqName(newClass.isPackageFacade)
+        val oldProto = oldClass.proto
+        val newProto = newClass.proto
+
+        if (oldProto != null && newProto != null) {
+            val difference = difference(oldProto, newProto)
+
+            if (difference.isClassAffected) {
+                changes.add(ChangeInfo.SignatureChanged(fqName, difference.areSubclassesAffected))
+            }
+
+            if (difference.changedMembersNames.isNotEmpty()) {
+                changes.add(ChangeInfo.MembersChanged(fqName, difference.changedMembersNames))
+            }
+        }
+        else if (!newClass.isPackageFacade && oldClass.abiHash != newClass.abiHash) {
+            changes.add(ChangeInfo.SignatureChanged(fqName, areSubclassesAffected = true))
+        }
+
+        val changedMembers = changedKeys(oldClass.constants, newClass.constants) +
+                             changedKeys(oldClass.inlineFunctions, newClass.inlineFunctions).map { it.substringBefore("(") }
+        if (changedMembers.isNotEmpty()) {
+            changes.add(ChangeInfo.MembersChanged(fqName, changedMembers))
+        }
+    }
+
+    return CompilationResult(protoChanged = changes.isNotEmpty(), changes = changes.asSequence())
+}
+
+/**
+ * Stores the classpath snapshots of a compilation target, one file per classpath entry.
+ * A snapshot of a jar is considered up to date while the jar's length and modification time are unchanged.
+ * A directory's own length and modification time don't change when a class file inside it is edited,
+ * so a snapshot of a directory is compared by the paths, lengths and modification times of all class files inside it.
+ */
+class ClasspathSnapshotStorage(private val storageDir: File) {
+    companion object {
+        private val VERSION = 3
+    }
+
+    operator fun contains(entry: File): Boolean = snapshotFile(entry).exists()
+
+    fun load(entry: File): ClasspathEntrySnapshot? {
+        val file = snapshotFile(entry)
+        if (!file.exists()) return null
+
+        return try {
+            DataInputStream(BufferedInputStream(file.inputStream())).use { input ->
+                if (readHeader(input) == null) null else readSnapshot(input)
+            }
+        }
+        catch (e: IOException) {
+            null
+        }
+    }
+
+    /**
+     * Re-creates the snapshots of [entries] that changed since they were stored.
+     * Should be called after a successful compilation, so stored snapshots always describe the classpath the sources were compiled against.
+     */
+    fun update(entries: Iterable<File>) {
+        for (entry in entries) {
+            if (!entry.exists() || isUpToDate(entry)) continue
+
+            val file = snapshotFile(entry)
+            try {
+                val snapshot = ClasspathEntrySnapshot.create(entry)
+                file.parentFile.mkdirs()
+                DataOutputStream(BufferedOutputStream(file.outputStream())).use { output ->
+                    output.writeInt(VERSION)
+                    IOUtil.writeString(entry.canonicalPath, output)
+                    val (first, second) = entryStamp(entry)
+                    output.writeLong(first)
+                    output.writeLong(second)
+                    writeSnapshot(output, snapshot)
+                }
+            }
+            catch (e: IOException) {
+                file.delete()
+            }
+        }
+    }
+
+    fun clean() {
+        FileUtil.delete(storageDir)
+    }
+
+    private fun isUpToDate(entry: File): Boolean {
+        val file = snapshotFile(entry)
+        if (!file.exists()) return false
+
+        return try {
+            DataInputStream(BufferedInputStream(file.inputStream())).use { input ->
+                val header = readHeader(input)
+                header != null && header == entryStamp(entry)
+            }
+        }
+        catch (e: IOException) {
+            false
+        }
+    }
+
+    private fun readHeader(input: DataInput): Pair<Long, Long>? {
+        if (input.readInt() != VERSION) return null
+
+        IOUtil.readString(input)
+        return Pair(input.readLong(), input.readLong())
+    }
+
+    // (length, modification time) of a jar, (number of class files, hash of their relative paths, lengths and modification times) of a directory
+    private fun entryStamp(entry: File): Pair<Long, Long> {
+        if (!entry.isDirectory) return Pair(entry.length(), entry.lastModified())
+
+        val classFiles = entry.walk().filter { it.isFile && it.extension.equals("class", ignoreCase = true) }.sortedBy { it.path }.toList()
+        val description = StringBuilder()
+        for (classFile in classFiles) {
+            description.append(FileUtil.getRelativePath(entry, classFile)).append(':')
+                    .append(classFile.length()).append(':')
+                    .append(classFile.lastModified()).append('\n')
+        }
+        return Pair(classFiles.size.toLong(), description.toString().toByteArray().md5())
+    }
+
+    private fun snapshotFile(entry: File): File {
+        val path = FileUtil.toSystemIndependentName(entry.canonicalPath)
+        return File(storageDir, entry.name + "-" + java.lang.Long.toHexString(path.toByteArray().md5()))
+    }
+
+    private fun writeSnapshot(output: DataOutput, snapshot: ClasspathEntrySnapshot) {
+        output.writeInt(snapshot.classes.size)
+
+        for ((internalName, classSnapshot) in snapshot.classes) {
+            IOUtil.writeString(internalName, output)
+            output.writeBoolean(classSnapshot.isPackageFacade)
+            output.writeBoolean(classSnapshot.proto != null)
+            classSnapshot.proto?.let { ProtoMapValueExternalizer.save(output, it) }
+            ConstantsMapExternalizer.save(output, classSnapshot.constants)
+            StringToLongMapExternalizer.save(output, classSnapshot.inlineFunctions)
+            output.writeLong(classSnapshot.abiHash)
+            output.writeInt(classSnapshot.supertypes.size)
+            classSnapshot.supertypes.forEach { IOUtil.writeString(it, output) }
+        }
+    }
+
+    private fun readSnapshot(input: DataInput): ClasspathEntrySnapshot {
+        val size = input.readInt()
+        val classes = HashMap<String, ClassSnapshot>(size)
+
+        repeat(size) {
+            val internalName = IOUtil.readString(input)!!
+            val isPackageFacade = input.readBoolean()
+            val proto = if (input.readBoolean()) ProtoMapValueExternalizer.read(input) else null
+            val constants = ConstantsMapExternalizer.read(input) ?: emptyMap()
+            val inlineFunctions = StringToLongMapExternalizer.read(input) ?: emptyMap()
+            val abiHash = input.readLong()
+            val supertypes = (1..input.readInt()).map { IOUtil.readString(input)!! }
+            classes[internalName] = ClassSnapshot(isPackageFacade, proto, constants, inlineFunctions, abiHash, supertypes)
+        }
+
+        return ClasspathEntrySnapshot(classes)
+    }
+}
+
+private class ClasspathEntryKotlinClass(
+        override val location: String,
+        private val fileContents: ByteArray,
+        className: ClassId,
+        classVersion: Int,
+        classHeader: KotlinClassHeader,
+        innerClasses: InnerClassesInfo
+) : FileBasedKotlinClass(className, classVersion, classHeader, innerClasses) {
+    public override fun getFileContents(): ByteArray = fileContents
+}
+
+private fun createClassSnapshot(location: String, bytes: ByteArray): ClassSnapshot? {
+    val supertypes = ClassReader(bytes).let { listOfNotNull(it.superName) + it.interfaces }
+
+    val kotlinClass = FileBasedKotlinClass.create(bytes) {
+        className, classVersion, classHeader, innerClasses ->
+        ClasspathEntryKotlinClass(location, bytes, className, classVersion, classHeader, innerClasses)
+    } ?: return ClassSnapshot(isPackageFacade = false, proto = null, constants = emptyMap(), inlineFunctions = emptyMap(),
+                              abiHash = javaClassAbiHash(bytes), supertypes = supertypes)
+
+    if (kotlinClass.classId.isLocal) return null
+
+    val header = kotlinClass.classHeader
+    fun proto(isPackageFacade: Boolean): ProtoMapValue? {
+        val data = header.data ?: return null
+        val strings = header.strings ?: return null
+        return ProtoMapValue(isPackageFacade, BitEncoding.decodeBytes(data), strings)
+    }
+
+    val (isPackageFacade, proto) = when (header.kind) {
+        KotlinClassHeader.Kind.CLASS -> Pair(false, proto(isPackageFacade = false))
+        KotlinClassHeader.Kind.FILE_FACADE,
+        KotlinClassHeader.Kind.MULTIFILE_CLASS_PART -> Pair(true, proto(isPackageFacade = true))
+        KotlinClassHeader.Kind.MULTIFILE_CLASS -> Pair(true, null)
+        else -> return null
+    }
+
+    return ClassSnapshot(isPackageFacade, proto,
+                         constants = getConstantsMap(bytes) ?: emptyMap(),
+                         inlineFunctions = getInlineFunctionsMap(header, bytes),
+                         abiHash = 0,
+                         supertypes = supertypes)
+}
+
+/**
+ * Hash of the class structure without private members and method bodies,
+ * so that implementation-only changes of Java classes on the classpath do not cause recompilation.
+ */
+private fun javaClassAbiHash(bytes: ByteArray): Long {
+    val writer = ClassWriter(0)
+
+    ClassReader(bytes).accept(object : ClassVisitor(Opcodes.ASM5, writer) {
+        override fun visitField(access: Int, name: String, desc: String, signature: String?, value: Any?): FieldVisitor? =
+                if (access and Opcodes.ACC_PRIVATE != 0) null else super.visitField(access, name, desc, signature, value)
+
+        override fun visitMethod(access: Int, name: String, desc: String, signature: String?, exceptions: Array<out String>?): MethodVisitor? =
+                if (access and Opcodes.ACC_PRIVATE != 0) null else super.visitMethod(access, name, desc, signature, exceptions)
+    }, ClassReader.SKIP_CODE or ClassReader.SKIP_DEBUG or ClassReader.SKIP_FRAMES)
+
+    return writer.toByteArray().md5()
+}
+
+private fun classRemovedOrAdded(className: JvmClassName, snapshot: ClassSnapshot, areSubclassesAffected: Boolean): List<ChangeInfo> {
+    if (!snapshot.isPackageFacade) {
+        return listOf(ChangeInfo.SignatureChanged(className.fqName(isPackageFacade = false), areSubclassesAffected))
+    }
+
+    val names = HashSet<String>()
+    snapshot.proto?.let { proto ->
+        val packageData = JvmProtoBufUtil.readPackageDataFrom(proto.bytes, proto.strings)
+        val packageProto = packageData.packageProto
+        val members: List<MessageLite> = packageProto.functionList + packageProto.propertyList + packageProto.typeAliasList
+        names.addAll(members.filterNot { it.isPrivate }.names(packageData.nameResolver))
+    }
+    names.addAll(snapshot.constants.keys)
+    snapshot.inlineFunctions.keys.mapTo(names) { it.substringBefore("(") }
+
+    return if (names.isEmpty()) emptyList() else listOf(ChangeInfo.MembersChanged(className.packageFqName, names))
+}
+
+private fun JvmClassName.fqName(isPackageFacade: Boolean): FqName =
+        if (isPackageFacade) packageFqName else fqNameForClassNameWithoutDollars
+
+private fun <V> changedKeys(old: Map<String, V>, new: Map<String, V>): Collection<String> =
+        (old.keys + new.keys).filter { old[it] != new[it] }
+
+private fun forEachClassFile(entry: File, body: (location: String, bytes: ByteArray) -> Unit) {
+    if (entry.isDirectory) {
+        entry.walk().filter { it.isFile && it.extension.equals("class", ignoreCase = true) }.forEach {
+            body(it.absolutePath, it.readBytes())
+        }
+    }
+    else if (entry.isFile) {
+        ZipFile(entry).use { zip ->
+            for (zipEntry in zip.entries()) {
+                if (zipEntry.isDirectory || !zipEntry.name.endsWith(".class", ignoreCase = true)) continue
+
+                val bytes = zip.getInputStream(zipEntry).use { it.readBytes() }
+                body(entry.absolutePath + "!/" + zipEntry.name, bytes)
+            }
+        }
+    }
+}
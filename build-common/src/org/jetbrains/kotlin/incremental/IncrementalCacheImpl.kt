@@ -41,6 +41,7 @@ import org.jetbrains.kotlin.serialization.deserialization.TypeTable
 import org.jetbrains.kotlin.serialization.deserialization.supertypes
 import org.jetbrains.kotlin.serialization.jvm.BitEncoding
 import org.jetbrains.kotlin.serialization.jvm.JvmProtoBufUtil
+import org.jetbrains.kotlin.utils.CompilerTracer
 import org.jetbrains.kotlin.utils.singletonOrEmptyList
 import org.jetbrains.org.objectweb.asm.*
 import java.io.File
@@ -264,7 +265,10 @@ open class IncrementalCacheImpl<Target>(
         }
     }
 
-    fun clearCacheForRemovedClasses(): CompilationResult {
+    fun clearCacheForRemovedClasses(): CompilationResult =
+            CompilerTracer.trace(CompilerTracer.INCREMENTAL, "clear removed classes") { doClearCacheForRemovedClasses() }
+
+    private fun doClearCacheForRemovedClasses(): CompilationResult {
         val dirtyClasses = dirtyOutputClassesMap
                                 .getDirtyOutputClasses()
                                 .map(JvmClassName::byInternalName)
@@ -313,6 +317,7 @@ open class IncrementalCacheImpl<Target>(
         }
 
         removeAllFromClassStorage(dirtyClasses)
+        CompilerTracer.counter(CompilerTracer.INCREMENTAL, "removed classes", dirtyClasses.size.toLong())
 
         dirtyOutputClassesMap.clean()
         return changesInfo
@@ -435,22 +440,6 @@ open class IncrementalCacheImpl<Target>(
     }
 
     private inner class ConstantsMap(storageFile: File) : BasicStringMap<Map<String, Any>>(storageFile, ConstantsMapExternalizer) {
-        private fun getConstantsMap(bytes: ByteArray): Map<String, Any>? {
-            val result = HashMap<String, Any>()
-
-            ClassReader(bytes).accept(object : ClassVisitor(Opcodes.ASM5) {
-                override fun visitField(access: Int, name: String, desc: String, signature: String?, value: Any?): FieldVisitor? {
-                    val staticFinal = Opcodes.ACC_STATIC or Opcodes.ACC_FINAL or Opcodes.ACC_PRIVATE
-                    if (value != null && access and staticFinal == Opcodes.ACC_STATIC or Opcodes.ACC_FINAL) {
-                        result[name] = value
-                    }
-                    return null
-                }
-            }, ClassReader.SKIP_CODE or ClassReader.SKIP_DEBUG or ClassReader.SKIP_FRAMES)
-
-            return if (result.isEmpty()) null else result
-        }
-
         operator fun contains(className: JvmClassName): Boolean =
                 className.internalName in storage
 
@@ -646,33 +635,6 @@ open class IncrementalCacheImpl<Target>(
     }
 
     private inner class InlineFunctionsMap(storageFile: File) : BasicStringMap<Map<String, Long>>(storageFile, StringToLongMapExternalizer) {
-        private fun getInlineFunctionsMap(header: KotlinClassHeader, bytes: ByteArray): Map<String, Long> {
-            val inlineFunctions = inlineFunctionsJvmNames(header)
-            if (inlineFunctions.isEmpty()) return emptyMap()
-
-            val result = HashMap<String, Long>()
-
-            ClassReader(bytes).accept(object : ClassVisitor(Opcodes.ASM5) {
-                override fun visitMethod(access: Int, name: String, desc: String, signature: String?, exceptions: Array<out String>?): MethodVisitor? {
-                    val dummyClassWriter = ClassWriter(Opcodes.ASM5)
-
-                    return object : MethodVisitor(Opcodes.ASM5, dummyClassWriter.visitMethod(0, name, desc, null, exceptions)) {
-                        override fun visitEnd() {
-                            val jvmName = name + desc
-                            if (jvmName !in inlineFunctions) return
-
-                            val dummyBytes = dummyClassWriter.toByteArray()!!
-                            val hash = dummyBytes.md5()
-                            result[jvmName] = hash
-                        }
-                    }
-                }
-
-            }, 0)
-
-            return result
-        }
-
         fun process(kotlinClass: LocalFileKotlinClass, isPackage: Boolean): CompilationResult {
             return put(kotlinClass.className, getInlineFunctionsMap(kotlinClass.classHeader, kotlinClass.fileContents), isPackage)
         }
@@ -731,6 +693,49 @@ open class IncrementalCacheImpl<Target>(
     }
 }
 
+internal fun getConstantsMap(bytes: ByteArray): Map<String, Any>? {
+    val result = HashMap<String, Any>()
+
+    ClassReader(bytes).accept(object : ClassVisitor(Opcodes.ASM5) {
+        override fun visitField(access: Int, name: String, desc: String, signature: String?, value: Any?): FieldVisitor? {
+            val staticFinal = Opcodes.ACC_STATIC or Opcodes.ACC_FINAL or Opcodes.ACC_PRIVATE
+            if (value != null && access and staticFinal == Opcodes.ACC_STATIC or Opcodes.ACC_FINAL) {
+                result[name] = value
+            }
+            return null
+        }
+    }, ClassReader.SKIP_CODE or ClassReader.SKIP_DEBUG or ClassReader.SKIP_FRAMES)
+
+    return if (result.isEmpty()) null else result
+}
+
+internal fun getInlineFunctionsMap(header: KotlinClassHeader, bytes: ByteArray): Map<String, Long> {
+    val inlineFunctions = inlineFunctionsJvmNames(header)
+    if (inlineFunctions.isEmpty()) return emptyMap()
+
+    val result = HashMap<String, Long>()
+
+    ClassReader(bytes).accept(object : ClassVisitor(Opcodes.ASM5) {
+        override fun visitMethod(access: Int, name: String, desc: String, signature: String?, exceptions: Array<out String>?): MethodVisitor? {
+            val dummyClassWriter = ClassWriter(Opcodes.ASM5)
+
+            return object : MethodVisitor(Opcodes.ASM5, dummyClassWriter.visitMethod(0, name, desc, null, exceptions)) {
+                override fun visitEnd() {
+                    val jvmName = name + desc
+                    if (jvmName !in inlineFunctions) return
+
+                    val dummyBytes = dummyClassWriter.toByteArray()!!
+                    val hash = dummyBytes.md5()
+                    result[jvmName] = hash
+                }
+            }
+        }
+
+    }, 0)
+
+    return result
+}
+
 sealed class ChangeInfo(val fqName: FqName) {
     open class MembersChanged(fqName: FqName, val names: Collection<String>) : ChangeInfo(fqName) {
         override fun toStringProperties(): String = super.toStringProperties() + ", names = $names"
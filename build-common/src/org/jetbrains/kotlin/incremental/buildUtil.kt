@@ -36,6 +36,7 @@ import org.jetbrains.kotlin.modules.KotlinModuleXmlBuilder
 import org.jetbrains.kotlin.modules.TargetId
 import org.jetbrains.kotlin.name.FqName
 import org.jetbrains.kotlin.progress.CompilationCanceledStatus
+import org.jetbrains.kotlin.utils.CompilerTracer
 import org.jetbrains.kotlin.utils.keysToMap
 import java.io.File
 import java.util.*
@@ -121,13 +122,16 @@ fun<Target> updateIncrementalCaches(
 ): CompilationResult {
 
     var changesInfo = CompilationResult.NO_CHANGES
-    for (generatedFile in generatedFiles) {
-        val ic = getIncrementalCache(generatedFile.target)
-        when {
-            generatedFile is GeneratedJvmClass<Target> -> changesInfo += ic.saveFileToCache(generatedFile)
-            generatedFile.outputFile.isModuleMappingFile() -> changesInfo += ic.saveModuleMappingToCache(generatedFile.sourceFiles, generatedFile.outputFile)
+    CompilerTracer.trace(CompilerTracer.INCREMENTAL, "save generated files to caches") {
+        for (generatedFile in generatedFiles) {
+            val ic = getIncrementalCache(generatedFile.target)
+            when {
+                generatedFile is GeneratedJvmClass<Target> -> changesInfo += ic.saveFileToCache(generatedFile)
+                generatedFile.outputFile.isModuleMappingFile() -> changesInfo += ic.saveModuleMappingToCache(generatedFile.sourceFiles, generatedFile.outputFile)
+            }
         }
     }
+    CompilerTracer.counter(CompilerTracer.INCREMENTAL, "generated files", generatedFiles.size.toLong())
 
     if (!compiledWithErrors) {
         targets.forEach {
@@ -146,9 +150,11 @@ fun LookupStorage.update(
 ) {
     if (lookupTracker !is LookupTrackerImpl) throw AssertionError("Lookup tracker is expected to be LookupTrackerImpl, got ${lookupTracker.javaClass}")
 
-    removeLookupsFrom(filesToCompile.asSequence() + removedFiles.asSequence())
+    CompilerTracer.trace(CompilerTracer.INCREMENTAL, "update lookups") {
+        removeLookupsFrom(filesToCompile.asSequence() + removedFiles.asSequence())
 
-    addAll(lookupTracker.lookups.entrySet(), lookupTracker.pathInterner.values)
+        addAll(lookupTracker.lookups.entrySet(), lookupTracker.pathInterner.values)
+    }
 }
 
 fun<Target> OutputItemsCollectorImpl.generatedFiles(
@@ -179,9 +185,14 @@ data class DirtyData(
         val dirtyClassesFqNames: Iterable<FqName>
 )
 
+/**
+ * [classpathSubtypes] extends the class hierarchy known to [caches] with subtypes declared on the classpath,
+ * which is required when [this] describes changes of classpath entries rather than of the module's own output.
+ */
 fun <Target> CompilationResult.getDirtyData(
         caches: Iterable<IncrementalCacheImpl<Target>>,
-        log: (String)->Unit
+        log: (String)->Unit,
+        classpathSubtypes: ClasspathSubtypes? = null
 ): DirtyData {
     val dirtyLookupSymbols = HashSet<LookupSymbol>()
     val dirtyClassesFqNames = HashSet<FqName>()
@@ -190,7 +201,7 @@ fun <Target> CompilationResult.getDirtyData(
         log("Process $change")
 
         if (change is ChangeInfo.SignatureChanged) {
-            val fqNames = if (!change.areSubclassesAffected) listOf(change.fqName) else withSubtypes(change.fqName, caches)
+            val fqNames = if (!change.areSubclassesAffected) listOf(change.fqName) else withSubtypes(change.fqName, caches, classpathSubtypes)
 
             for (classFqName in fqNames) {
                 assert(!classFqName.isRoot) { "$classFqName is root when processing $change" }
@@ -201,7 +212,7 @@ fun <Target> CompilationResult.getDirtyData(
             }
         }
         else if (change is ChangeInfo.MembersChanged) {
-            val fqNames = withSubtypes(change.fqName, caches)
+            val fqNames = withSubtypes(change.fqName, caches, classpathSubtypes)
             // need to recompile subtypes because changed member might break override
             dirtyClassesFqNames.addAll(fqNames)
 
@@ -263,7 +274,8 @@ private fun findSrcDirRoot(file: File, roots: Iterable<File>): File? =
 
 private fun <Target> withSubtypes(
         typeFqName: FqName,
-        caches: Iterable<IncrementalCacheImpl<Target>>
+        caches: Iterable<IncrementalCacheImpl<Target>>,
+        classpathSubtypes: ClasspathSubtypes?
 ): Set<FqName> {
     val types = LinkedList(listOf(typeFqName))
     val subtypes = hashSetOf<FqName>()
@@ -273,6 +285,7 @@ private fun <Target> withSubtypes(
 
         caches.asSequence()
               .flatMap { it.getSubtypesOf(unprocessedType) }
+              .plus(classpathSubtypes?.getSubtypesOf(unprocessedType) ?: emptySequence())
               .filter { it !in subtypes }
               .forEach { types.addLast(it) }
 
@@ -627,11 +627,19 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
         else if (RangeCodegenUtil.isProgression(loopRangeType)) {
             generateForLoop(new ForInProgressionExpressionLoopGenerator(forExpression));
         }
+        else if (isCharSequenceIteration(loopRange)) {
+            generateForLoop(new ForInCharSequenceLoopGenerator(forExpression));
+        }
         else {
             generateForLoop(new IteratorForLoopGenerator(forExpression));
         }
     }
 
+    private boolean isCharSequenceIteration(@NotNull KtExpression loopRange) {
+        ResolvedCall<FunctionDescriptor> iteratorCall = bindingContext.get(LOOP_RANGE_ITERATOR_RESOLVED_CALL, loopRange);
+        return iteratorCall != null && RangeCodegenUtil.isCharSequenceIterator(iteratorCall.getResultingDescriptor());
+    }
+
     @Nullable
     private AbstractForLoopGenerator createOptimizedForLoopGeneratorOrNull(
             @NotNull KtForExpression forExpression,
@@ -667,10 +675,97 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
             assert extensionReceiver != null : "Extension receiver should be non-null for optimizable 'CharSequence.indices' call";
             return new ForInCharSequenceIndicesRangeLoopGenerator(forExpression, extensionReceiver);
         }
+        else if (RangeCodegenUtil.isOptimizableUntil(loopRangeCallee) ||
+                 RangeCodegenUtil.isOptimizableReversed(loopRangeCallee) ||
+                 RangeCodegenUtil.isOptimizableStep(loopRangeCallee)) {
+            ProgressionChainElement progression = createProgressionChainElementOrNull(loopRangeCall);
+            if (progression == null) return null;
+            Integer step = progression.getConstantStep();
+            if (step != null) {
+                return new ForInProgressionChainLoopGenerator(forExpression, progression, step);
+            }
+            return new ForInProgressionChainWithStepLoopGenerator(forExpression, progression);
+        }
+        else if (RangeCodegenUtil.isArrayOrIterableWithIndex(loopRangeCallee) && isDestructuredIndexedValue(forExpression)) {
+            ReceiverValue extensionReceiver = loopRangeCall.getExtensionReceiver();
+            assert extensionReceiver != null : "Extension receiver should be non-null for optimizable 'withIndex' call";
+            return new ForInWithIndexLoopGenerator(forExpression, extensionReceiver);
+        }
 
         return null;
     }
 
+    /**
+     * Returns an element of an optimizable chain of progression expressions such as <code>(a until b).reversed() step c</code>,
+     * or null if the call doesn't produce a progression which can be computed without creating it.
+     */
+    @Nullable
+    private ProgressionChainElement createProgressionChainElementOrNull(@NotNull ResolvedCall<? extends CallableDescriptor> call) {
+        CallableDescriptor callee = call.getResultingDescriptor();
+        if (RangeCodegenUtil.isOptimizableRangeTo(callee)) {
+            ReceiverValue from = call.getDispatchReceiver();
+            KtExpression to = getSingleArgumentExpression(call);
+            if (from == null || to == null) return null;
+            return new BoundsProgressionChainElement(from, to, 1);
+        }
+        else if (RangeCodegenUtil.isOptimizableDownTo(callee)) {
+            ReceiverValue from = call.getExtensionReceiver();
+            KtExpression to = getSingleArgumentExpression(call);
+            if (from == null || to == null) return null;
+            return new BoundsProgressionChainElement(from, to, -1);
+        }
+        else if (RangeCodegenUtil.isOptimizableUntil(callee)) {
+            ReceiverValue from = call.getExtensionReceiver();
+            KtExpression to = getSingleArgumentExpression(call);
+            if (from == null || to == null) return null;
+            return new UntilProgressionChainElement(from, to, RangeCodegenUtil.isUntilCheckingMinValue(callee));
+        }
+        else if (RangeCodegenUtil.isArrayOrPrimitiveArrayIndices(callee) ||
+                 RangeCodegenUtil.isCollectionIndices(callee) ||
+                 RangeCodegenUtil.isCharSequenceIndices(callee)) {
+            ReceiverValue receiver = call.getExtensionReceiver();
+            if (receiver == null) return null;
+            return new IndicesProgressionChainElement(receiver, callee);
+        }
+        else if (RangeCodegenUtil.isOptimizableReversed(callee)) {
+            ReceiverValue receiver = call.getExtensionReceiver();
+            if (receiver == null) return null;
+            return new ReversedProgressionChainElement(createProgressionChainElement(receiver));
+        }
+        else if (RangeCodegenUtil.isOptimizableStep(callee)) {
+            ReceiverValue receiver = call.getExtensionReceiver();
+            KtExpression step = getSingleArgumentExpression(call);
+            if (receiver == null || step == null) return null;
+            return new StepProgressionChainElement(createProgressionChainElement(receiver), step);
+        }
+
+        return null;
+    }
+
+    @NotNull
+    private ProgressionChainElement createProgressionChainElement(@NotNull ReceiverValue progression) {
+        if (progression instanceof ExpressionReceiver) {
+            ResolvedCall<? extends CallableDescriptor> call =
+                    RangeCodegenUtil.getRangeResolvedCall(((ExpressionReceiver) progression).getExpression(), bindingContext);
+            if (call != null) {
+                ProgressionChainElement element = createProgressionChainElementOrNull(call);
+                if (element != null) return element;
+            }
+        }
+        return new InstanceProgressionChainElement(progression);
+    }
+
+    private boolean isDestructuredIndexedValue(@NotNull KtForExpression forExpression) {
+        KtDestructuringDeclaration multiParameter = forExpression.getDestructuringParameter();
+        if (multiParameter == null) return false;
+
+        for (KtDestructuringDeclarationEntry entry : multiParameter.getEntries()) {
+            ResolvedCall<FunctionDescriptor> componentCall = bindingContext.get(COMPONENT_RESOLVED_CALL, entry);
+            if (componentCall == null || !RangeCodegenUtil.isIndexedValueComponent(componentCall.getResultingDescriptor())) return false;
+        }
+        return true;
+    }
+
     @Nullable
     private static KtExpression getSingleArgumentExpression(@NotNull ResolvedCall<? extends CallableDescriptor> resolvedCall) {
         List<ResolvedValueArgument> resolvedValueArguments = resolvedCall.getValueArgumentsByIndex();
@@ -807,14 +902,19 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
 
                 ResolvedCall<FunctionDescriptor> resolvedCall = bindingContext.get(COMPONENT_RESOLVED_CALL, variableDeclaration);
                 assert resolvedCall != null : "Resolved call is null for " + variableDeclaration.getText();
-                Call call = makeFakeCall(new TransientReceiver(elementType));
 
-                StackValue value = invokeFunction(call, resolvedCall, StackValue.local(loopParameterVar, asmElementType));
+                StackValue value = generateComponentValue(resolvedCall);
                 StackValue.local(componentVarIndex, componentAsmType).store(value, v);
                 v.visitLabel(variableStartLabel);
             }
         }
 
+        @NotNull
+        protected StackValue generateComponentValue(@NotNull ResolvedCall<FunctionDescriptor> componentCall) {
+            Call call = makeFakeCall(new TransientReceiver(elementType));
+            return invokeFunction(call, componentCall, StackValue.local(loopParameterVar, asmElementType));
+        }
+
         protected abstract void assignToLoopParameter();
 
         protected abstract void increment(@NotNull Label loopExit);
@@ -1256,8 +1356,8 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
     }
 
     private class ForInProgressionExpressionLoopGenerator extends AbstractForInProgressionOrRangeLoopGenerator {
-        private int incrementVar;
-        private Type incrementType;
+        protected int incrementVar;
+        protected Type incrementType;
 
         private ForInProgressionExpressionLoopGenerator(@NotNull KtForExpression forExpression) {
             super(forExpression);
@@ -1278,6 +1378,10 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
             assert incrementProp.size() == 1 : loopRangeType + " " + incrementProp.size();
             incrementType = asmType(incrementProp.iterator().next().getType());
 
+            storeProgressionParameters(asmLoopRangeType);
+        }
+
+        protected void storeProgressionParameters(@NotNull Type asmLoopRangeType) {
             gen(forExpression.getLoopRange(), asmLoopRangeType);
             v.dup();
             v.dup();
@@ -1347,6 +1451,473 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
         }
     }
 
+    private class ForInProgressionChainLoopGenerator extends AbstractForInRangeLoopGenerator {
+        private final ProgressionChainElement progression;
+
+        private ForInProgressionChainLoopGenerator(
+                @NotNull KtForExpression forExpression,
+                @NotNull ProgressionChainElement progression,
+                int step
+        ) {
+            super(forExpression, step);
+            this.progression = progression;
+        }
+
+        @Override
+        protected void storeRangeStartAndEnd() {
+            progression.store(loopParameter(), StackValue.local(endVar, asmElementType), null, asmElementType);
+        }
+    }
+
+    private class ForInProgressionChainWithStepLoopGenerator extends ForInProgressionExpressionLoopGenerator {
+        private final ProgressionChainElement progression;
+
+        private ForInProgressionChainWithStepLoopGenerator(
+                @NotNull KtForExpression forExpression,
+                @NotNull ProgressionChainElement progression
+        ) {
+            super(forExpression);
+            this.progression = progression;
+        }
+
+        @Override
+        protected void storeProgressionParameters(@NotNull Type asmLoopRangeType) {
+            progression.store(loopParameter(), StackValue.local(endVar, asmElementType), StackValue.local(incrementVar, incrementType),
+                              asmElementType);
+        }
+    }
+
+    /**
+     * A part of a chain of progression expressions, e.g. <code>a until b</code> in <code>(a until b).reversed() step c</code>.
+     * Instead of creating the progression, its first element, last element and step are computed right into local variables,
+     * with the same checks and overflow semantics as in the corresponding library functions.
+     */
+    private abstract class ProgressionChainElement {
+        /**
+         * Stores the first and the last elements of the progression to the given locals.
+         * <code>step</code> is null iff the step is known at compile time, see {@link #getConstantStep()}.
+         */
+        public abstract void store(@NotNull StackValue first, @NotNull StackValue last, @Nullable StackValue step, @NotNull Type elementType);
+
+        /**
+         * @return the step of the progression if it's known at compile time, or null otherwise
+         */
+        @Nullable
+        public abstract Integer getConstantStep();
+
+        @NotNull
+        protected Type getStepType(@NotNull Type elementType) {
+            return elementType.getSort() == Type.LONG ? Type.LONG_TYPE : Type.INT_TYPE;
+        }
+
+        /**
+         * <code>throw IllegalArgumentException(prefix + value + suffix)</code>
+         */
+        protected void genThrowIllegalArgument(@NotNull String prefix, @NotNull StackValue value, @NotNull String suffix) {
+            v.anew(Type.getObjectType("java/lang/IllegalArgumentException"));
+            v.dup();
+            genStringBuilderConstructor(v);
+            v.aconst(prefix);
+            genInvokeAppendMethod(v, JAVA_STRING_TYPE);
+            value.put(value.type, v);
+            genInvokeAppendMethod(v, value.type);
+            v.aconst(suffix);
+            genInvokeAppendMethod(v, JAVA_STRING_TYPE);
+            v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
+            v.invokespecial("java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+            v.athrow();
+        }
+    }
+
+    // a..b, a downTo b
+    private class BoundsProgressionChainElement extends ProgressionChainElement {
+        private final ReceiverValue from;
+        private final KtExpression to;
+        private final int step;
+
+        private BoundsProgressionChainElement(@NotNull ReceiverValue from, @NotNull KtExpression to, int step) {
+            this.from = from;
+            this.to = to;
+            this.step = step;
+        }
+
+        @Override
+        public void store(@NotNull StackValue first, @NotNull StackValue last, @Nullable StackValue step, @NotNull Type elementType) {
+            first.store(generateReceiverValue(from, false), v);
+            last.store(gen(to), v);
+        }
+
+        @Nullable
+        @Override
+        public Integer getConstantStep() {
+            return step;
+        }
+    }
+
+    // a until b
+    private class UntilProgressionChainElement extends ProgressionChainElement {
+        private final ReceiverValue from;
+        private final KtExpression to;
+        private final boolean checkMinValue;
+
+        private UntilProgressionChainElement(@NotNull ReceiverValue from, @NotNull KtExpression to, boolean checkMinValue) {
+            this.from = from;
+            this.to = to;
+            this.checkMinValue = checkMinValue;
+        }
+
+        @Override
+        public void store(@NotNull StackValue first, @NotNull StackValue last, @Nullable StackValue step, @NotNull Type elementType) {
+            first.store(generateReceiverValue(from, false), v);
+            last.store(gen(to), v);
+
+            if (checkMinValue) {
+                Label notMinValue = new Label();
+                last.put(elementType, v);
+                if (elementType.getSort() == Type.LONG) {
+                    v.lconst(Long.MIN_VALUE);
+                    v.lcmp();
+                    v.ifne(notMinValue);
+                }
+                else {
+                    v.iconst(elementType.getSort() == Type.CHAR ? Character.MIN_VALUE : Integer.MIN_VALUE);
+                    v.ificmpne(notMinValue);
+                }
+                genThrowIllegalArgument("The to argument value '", last, "' was too small.");
+                v.mark(notMinValue);
+            }
+
+            last.put(elementType, v);
+            genIncrement(elementType, -1, v);
+            last.store(StackValue.onStack(elementType), v);
+        }
+
+        @Nullable
+        @Override
+        public Integer getConstantStep() {
+            return 1;
+        }
+    }
+
+    // array.indices, collection.indices, charSequence.indices
+    private class IndicesProgressionChainElement extends ProgressionChainElement {
+        private final ReceiverValue receiverValue;
+        private final CallableDescriptor indices;
+
+        private IndicesProgressionChainElement(@NotNull ReceiverValue receiverValue, @NotNull CallableDescriptor indices) {
+            this.receiverValue = receiverValue;
+            this.indices = indices;
+        }
+
+        @Override
+        public void store(@NotNull StackValue first, @NotNull StackValue last, @Nullable StackValue step, @NotNull Type elementType) {
+            first.store(StackValue.constant(0, Type.INT_TYPE), v);
+
+            StackValue receiver = generateReceiverValue(receiverValue, false);
+            receiver.put(asmType(receiverValue.getType()), v);
+            if (RangeCodegenUtil.isArrayOrPrimitiveArrayIndices(indices)) {
+                v.arraylength();
+            }
+            else if (RangeCodegenUtil.isCollectionIndices(indices)) {
+                v.invokeinterface("java/util/Collection", "size", "()I");
+            }
+            else {
+                v.invokeinterface("java/lang/CharSequence", "length", "()I");
+            }
+            v.iconst(1);
+            v.sub(Type.INT_TYPE);
+            last.store(StackValue.onStack(Type.INT_TYPE), v);
+        }
+
+        @Nullable
+        @Override
+        public Integer getConstantStep() {
+            return 1;
+        }
+    }
+
+    // progression.reversed()
+    private class ReversedProgressionChainElement extends ProgressionChainElement {
+        private final ProgressionChainElement progression;
+
+        private ReversedProgressionChainElement(@NotNull ProgressionChainElement progression) {
+            this.progression = progression;
+        }
+
+        @Override
+        public void store(@NotNull StackValue first, @NotNull StackValue last, @Nullable StackValue step, @NotNull Type elementType) {
+            progression.store(first, last, step, elementType);
+
+            first.put(elementType, v);
+            last.put(elementType, v);
+            first.store(StackValue.onStack(elementType), v);
+            last.store(StackValue.onStack(elementType), v);
+
+            if (step != null) {
+                Type stepType = getStepType(elementType);
+                step.put(stepType, v);
+                v.neg(stepType);
+                step.store(StackValue.onStack(stepType), v);
+            }
+        }
+
+        @Nullable
+        @Override
+        public Integer getConstantStep() {
+            Integer step = progression.getConstantStep();
+            return step != null ? -step : null;
+        }
+    }
+
+    // progression step n
+    private class StepProgressionChainElement extends ProgressionChainElement {
+        private final ProgressionChainElement progression;
+        private final KtExpression stepExpression;
+
+        private StepProgressionChainElement(@NotNull ProgressionChainElement progression, @NotNull KtExpression stepExpression) {
+            this.progression = progression;
+            this.stepExpression = stepExpression;
+        }
+
+        @Override
+        public void store(@NotNull StackValue first, @NotNull StackValue last, @Nullable StackValue step, @NotNull Type elementType) {
+            assert step != null : "Step of 'step' progression is not a compile-time constant";
+            Type stepType = getStepType(elementType);
+
+            Integer innerStep = progression.getConstantStep();
+            progression.store(first, last, innerStep == null ? step : null, elementType);
+
+            int stepArgumentVar = myFrameMap.enterTemp(stepType);
+            StackValue stepArgument = StackValue.local(stepArgumentVar, stepType);
+            stepArgument.store(gen(stepExpression), v);
+
+            Label positiveStep = new Label();
+            stepArgument.put(stepType, v);
+            if (stepType == Type.LONG_TYPE) {
+                v.lconst(0L);
+                v.lcmp();
+            }
+            v.ifgt(positiveStep);
+            genThrowIllegalArgument("Step must be positive, was: ", stepArgument, ".");
+            v.mark(positiveStep);
+
+            if (innerStep != null) {
+                stepArgument.put(stepType, v);
+                if (innerStep < 0) {
+                    v.neg(stepType);
+                }
+            }
+            else {
+                Label innerStepPositive = new Label();
+                Label afterStep = new Label();
+                step.put(stepType, v);
+                if (stepType == Type.LONG_TYPE) {
+                    v.lconst(0L);
+                    v.lcmp();
+                }
+                v.ifgt(innerStepPositive);
+                stepArgument.put(stepType, v);
+                v.neg(stepType);
+                v.goTo(afterStep);
+                v.mark(innerStepPositive);
+                stepArgument.put(stepType, v);
+                v.mark(afterStep);
+            }
+            step.store(StackValue.onStack(stepType), v);
+
+            myFrameMap.leaveTemp(stepType);
+
+            // last = getProgressionLastElement(first, last, step)
+            first.put(stepType, v);
+            last.put(stepType, v);
+            step.put(stepType, v);
+            String descriptor = "(" + stepType.getDescriptor() + stepType.getDescriptor() + stepType.getDescriptor() + ")" + stepType.getDescriptor();
+            v.invokestatic("kotlin/internal/ProgressionUtilKt", "getProgressionLastElement", descriptor, false);
+            last.store(StackValue.onStack(stepType), v);
+        }
+
+        @Nullable
+        @Override
+        public Integer getConstantStep() {
+            return null;
+        }
+    }
+
+    // any other expression of a progression type
+    private class InstanceProgressionChainElement extends ProgressionChainElement {
+        private final ReceiverValue progression;
+
+        private InstanceProgressionChainElement(@NotNull ReceiverValue progression) {
+            this.progression = progression;
+        }
+
+        @Override
+        public void store(@NotNull StackValue first, @NotNull StackValue last, @Nullable StackValue step, @NotNull Type elementType) {
+            Type asmProgressionType = asmType(progression.getType());
+            generateReceiverValue(progression, false).put(asmProgressionType, v);
+            v.dup();
+            if (step != null) {
+                v.dup();
+            }
+
+            v.invokevirtual(asmProgressionType.getInternalName(), "getFirst", "()" + elementType.getDescriptor(), false);
+            first.store(StackValue.onStack(elementType), v);
+            v.invokevirtual(asmProgressionType.getInternalName(), "getLast", "()" + elementType.getDescriptor(), false);
+            last.store(StackValue.onStack(elementType), v);
+            if (step != null) {
+                Type stepType = getStepType(elementType);
+                v.invokevirtual(asmProgressionType.getInternalName(), "getStep", "()" + stepType.getDescriptor(), false);
+                step.store(StackValue.onStack(stepType), v);
+            }
+        }
+
+        @Nullable
+        @Override
+        public Integer getConstantStep() {
+            // ranges always have the step 1
+            return RangeCodegenUtil.isRange(progression.getType()) ? 1 : null;
+        }
+    }
+
+    private class ForInWithIndexLoopGenerator extends AbstractForLoopGenerator {
+        private final ReceiverValue receiverValue;
+        private final Type asmReceiverType;
+        private final boolean isArray;
+        private Type valueType;
+        private int indexVar;
+        private int arrayOrIteratorVar;
+        private int valueVar;
+
+        private ForInWithIndexLoopGenerator(@NotNull KtForExpression forExpression, @NotNull ReceiverValue receiverValue) {
+            super(forExpression);
+            this.receiverValue = receiverValue;
+            this.asmReceiverType = asmType(receiverValue.getType());
+            this.isArray = asmReceiverType.getSort() == Type.ARRAY;
+        }
+
+        @Override
+        public void beforeLoop() {
+            // IndexedValue instances are never created, so the loop parameter variable is not needed:
+            // the index and the value are stored to separate variables and read by component1() and component2() directly
+
+            indexVar = createLoopTempVariable(Type.INT_TYPE);
+            arrayOrIteratorVar = createLoopTempVariable(OBJECT_TYPE);
+
+            generateReceiverValue(receiverValue, false).put(asmReceiverType, v);
+            if (isArray) {
+                valueType = correctElementType(asmReceiverType);
+            }
+            else {
+                v.invokeinterface("java/lang/Iterable", "iterator", "()Ljava/util/Iterator;");
+                valueType = OBJECT_TYPE;
+            }
+            v.store(arrayOrIteratorVar, OBJECT_TYPE);
+
+            valueVar = createLoopTempVariable(valueType);
+
+            v.iconst(0);
+            v.store(indexVar, Type.INT_TYPE);
+        }
+
+        @Override
+        public void checkEmptyLoop(@NotNull Label loopExit) {
+        }
+
+        @Override
+        public void checkPreCondition(@NotNull Label loopExit) {
+            if (isArray) {
+                v.load(indexVar, Type.INT_TYPE);
+                v.load(arrayOrIteratorVar, OBJECT_TYPE);
+                v.arraylength();
+                v.ificmpge(loopExit);
+            }
+            else {
+                v.load(arrayOrIteratorVar, OBJECT_TYPE);
+                v.invokeinterface("java/util/Iterator", "hasNext", "()Z");
+                v.ifeq(loopExit);
+            }
+        }
+
+        @Override
+        protected void assignToLoopParameter() {
+            v.load(arrayOrIteratorVar, OBJECT_TYPE);
+            if (isArray) {
+                v.load(indexVar, Type.INT_TYPE);
+                v.aload(valueType);
+            }
+            else {
+                v.invokeinterface("java/util/Iterator", "next", "()Ljava/lang/Object;");
+            }
+            v.store(valueVar, valueType);
+        }
+
+        @NotNull
+        @Override
+        protected StackValue generateComponentValue(@NotNull ResolvedCall<FunctionDescriptor> componentCall) {
+            if ("component1".equals(componentCall.getResultingDescriptor().getName().asString())) {
+                return StackValue.local(indexVar, Type.INT_TYPE);
+            }
+            return StackValue.local(valueVar, valueType);
+        }
+
+        @Override
+        protected void increment(@NotNull Label loopExit) {
+            v.iinc(indexVar, 1);
+        }
+    }
+
+    private class ForInCharSequenceLoopGenerator extends AbstractForLoopGenerator {
+        private int indexVar;
+        private int charSequenceVar;
+
+        private ForInCharSequenceLoopGenerator(@NotNull KtForExpression forExpression) {
+            super(forExpression);
+        }
+
+        @Override
+        public void beforeLoop() {
+            super.beforeLoop();
+
+            indexVar = createLoopTempVariable(Type.INT_TYPE);
+            charSequenceVar = createLoopTempVariable(OBJECT_TYPE);
+
+            KtExpression loopRange = forExpression.getLoopRange();
+            KotlinType loopRangeType = bindingContext.getType(loopRange);
+            assert loopRangeType != null;
+            gen(loopRange, asmType(loopRangeType));
+            v.store(charSequenceVar, OBJECT_TYPE);
+
+            v.iconst(0);
+            v.store(indexVar, Type.INT_TYPE);
+        }
+
+        @Override
+        public void checkEmptyLoop(@NotNull Label loopExit) {
+        }
+
+        @Override
+        public void checkPreCondition(@NotNull Label loopExit) {
+            // the length is read on each iteration, as CharSequence.iterator() does
+            v.load(indexVar, Type.INT_TYPE);
+            v.load(charSequenceVar, OBJECT_TYPE);
+            v.invokeinterface("java/lang/CharSequence", "length", "()I");
+            v.ificmpge(loopExit);
+        }
+
+        @Override
+        protected void assignToLoopParameter() {
+            v.load(charSequenceVar, OBJECT_TYPE);
+            v.load(indexVar, Type.INT_TYPE);
+            v.invokeinterface("java/lang/CharSequence", "charAt", "(I)C");
+            StackValue.local(loopParameterVar, loopParameterType).store(StackValue.onStack(Type.CHAR_TYPE), v);
+        }
+
+        @Override
+        protected void increment(@NotNull Label loopExit) {
+            v.iinc(indexVar, 1);
+        }
+    }
+
 
     @Override
     public StackValue visitBreakExpression(@NotNull KtBreakExpression expression, StackValue receiver) {
@@ -2643,6 +3214,11 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
             return genSamInterfaceValue(argumentExpression, this);
         }
 
+        FusedCollectionChain fusedChain = FusedCollectionChain.create(expression, resolvedCall, this);
+        if (fusedChain != null) {
+            return fusedChain.generate();
+        }
+
         return invokeFunction(resolvedCall, receiver);
     }
 
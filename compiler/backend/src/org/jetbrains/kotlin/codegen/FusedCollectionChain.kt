@@ -0,0 +1,494 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen
+
+import com.intellij.psi.tree.IElementType
+import org.jetbrains.kotlin.builtins.KotlinBuiltIns
+import org.jetbrains.kotlin.codegen.state.KotlinTypeMapper
+import org.jetbrains.kotlin.config.JVMConfigurationKeys
+import org.jetbrains.kotlin.descriptors.*
+import org.jetbrains.kotlin.lexer.KtTokens
+import org.jetbrains.kotlin.name.FqName
+import org.jetbrains.kotlin.psi.*
+import org.jetbrains.kotlin.resolve.BindingContext
+import org.jetbrains.kotlin.resolve.DescriptorToSourceUtils
+import org.jetbrains.kotlin.resolve.DescriptorUtils
+import org.jetbrains.kotlin.resolve.calls.callUtil.getResolvedCall
+import org.jetbrains.kotlin.resolve.calls.model.ExpressionValueArgument
+import org.jetbrains.kotlin.resolve.calls.model.ResolvedCall
+import org.jetbrains.kotlin.resolve.constants.evaluate.ConstantExpressionEvaluator
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes
+import org.jetbrains.kotlin.types.KotlinType
+import org.jetbrains.kotlin.types.expressions.CaptureKind
+import org.jetbrains.kotlin.types.isFlexible
+import org.jetbrains.org.objectweb.asm.Label
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter
+
+/**
+ * Generates a chain of stdlib collection operations on an [Iterable], like `list.filter { ... }.map { ... }.sum()`,
+ * as a single loop over the source iterator, so that no intermediate list is created for the stages of the chain.
+ *
+ * Fusing the loops interleaves the evaluation of the lambdas of different stages, so a chain is only fused
+ * when this can't be observed: the lambdas of `filter`, `filterNot` and `map` stages may only contain expressions
+ * without side effects that can't throw, and the lambda of the terminal operation may additionally modify
+ * local variables.
+ */
+class FusedCollectionChain private constructor(
+        private val codegen: ExpressionCodegen,
+        private val source: KtExpression,
+        private val stages: List<Stage>,
+        private val terminal: Terminal
+) {
+    private enum class StageKind(val functionName: String) {
+        FILTER("filter"),
+        FILTER_NOT("filterNot"),
+        MAP("map")
+    }
+
+    private enum class TerminalKind {
+        COLLECT,
+        FOR_EACH,
+        COUNT,
+        COUNT_MATCHING,
+        SUM,
+        SUM_BY
+    }
+
+    private class Stage(val kind: StageKind, val lambda: KtFunctionLiteral, val lambdaDescriptor: FunctionDescriptor)
+
+    private class Terminal(
+            val kind: TerminalKind,
+            val lambda: KtFunctionLiteral?,
+            val lambdaDescriptor: FunctionDescriptor?,
+            val resultType: Type
+    )
+
+    fun generate(): StackValue {
+        return StackValue.operation(terminal.resultType) { v ->
+            generateLoop(v)
+            Unit
+        }
+    }
+
+    private fun generateLoop(v: InstructionAdapter) {
+        val frameMap = codegen.myFrameMap
+
+        // Iterator tmp<iterator> = source.iterator()
+        codegen.gen(source, ITERABLE_TYPE)
+        v.invokeinterface(ITERABLE_TYPE.internalName, "iterator", "()" + ITERATOR_TYPE.descriptor)
+        val iteratorIndex = frameMap.enterTemp(ITERATOR_TYPE)
+        v.store(iteratorIndex, ITERATOR_TYPE)
+
+        val accumulatorType = when (terminal.kind) {
+            TerminalKind.FOR_EACH -> null
+            TerminalKind.COLLECT -> ARRAY_LIST_TYPE
+            else -> terminal.resultType
+        }
+        val accumulatorIndex = if (accumulatorType != null) frameMap.enterTemp(accumulatorType) else -1
+        if (terminal.kind == TerminalKind.COLLECT) {
+            v.anew(ARRAY_LIST_TYPE)
+            v.dup()
+            v.invokespecial(ARRAY_LIST_TYPE.internalName, "<init>", "()V", false)
+            v.store(accumulatorIndex, ARRAY_LIST_TYPE)
+        }
+        else if (accumulatorType != null) {
+            AsmUtil.pushDefaultValueOnStack(accumulatorType, v)
+            v.store(accumulatorIndex, accumulatorType)
+        }
+
+        val loopStart = Label()
+        val loopEnd = Label()
+
+        v.mark(loopStart)
+        v.load(iteratorIndex, ITERATOR_TYPE)
+        v.invokeinterface(ITERATOR_TYPE.internalName, "hasNext", "()Z")
+        v.ifeq(loopEnd)
+
+        v.load(iteratorIndex, ITERATOR_TYPE)
+        v.invokeinterface(ITERATOR_TYPE.internalName, "next", "()" + AsmTypes.OBJECT_TYPE.descriptor)
+        var elementType = AsmTypes.OBJECT_TYPE
+
+        for (stage in stages) {
+            when (stage.kind) {
+                StageKind.FILTER, StageKind.FILTER_NOT -> {
+                    // The element is passed on as it is, so that a boxed element isn't unboxed for the predicate and boxed again
+                    AsmUtil.dup(v, elementType)
+                    val parameter = enterLambdaParameter(stage.lambdaDescriptor, elementType, v)
+                    codegen.gen(stage.lambda.bodyExpression, Type.BOOLEAN_TYPE)
+                    parameter.leave(v)
+
+                    val accepted = Label()
+                    if (stage.kind == StageKind.FILTER) v.ifne(accepted) else v.ifeq(accepted)
+                    AsmUtil.pop(v, elementType)
+                    v.goTo(loopStart)
+                    v.mark(accepted)
+                }
+                StageKind.MAP -> {
+                    val parameter = enterLambdaParameter(stage.lambdaDescriptor, elementType, v)
+                    val resultType = codegen.typeMapper.mapType(stage.lambdaDescriptor.returnType!!)
+                    codegen.gen(stage.lambda.bodyExpression, resultType)
+                    parameter.leave(v)
+                    elementType = resultType
+                }
+            }
+        }
+
+        when (terminal.kind) {
+            TerminalKind.COLLECT -> {
+                StackValue.coerce(elementType, AsmTypes.OBJECT_TYPE, v)
+                v.load(accumulatorIndex, ARRAY_LIST_TYPE)
+                v.swap()
+                v.invokeinterface(COLLECTION_TYPE.internalName, "add", "(" + AsmTypes.OBJECT_TYPE.descriptor + ")Z")
+                v.pop()
+            }
+            TerminalKind.FOR_EACH -> {
+                val parameter = enterLambdaParameter(terminal.lambdaDescriptor!!, elementType, v)
+                codegen.gen(terminal.lambda!!.bodyExpression, Type.VOID_TYPE)
+                parameter.leave(v)
+            }
+            TerminalKind.COUNT -> {
+                AsmUtil.pop(v, elementType)
+                v.iinc(accumulatorIndex, 1)
+            }
+            TerminalKind.COUNT_MATCHING -> {
+                val parameter = enterLambdaParameter(terminal.lambdaDescriptor!!, elementType, v)
+                codegen.gen(terminal.lambda!!.bodyExpression, Type.BOOLEAN_TYPE)
+                parameter.leave(v)
+                v.ifeq(loopStart)
+                v.iinc(accumulatorIndex, 1)
+            }
+            TerminalKind.SUM -> {
+                StackValue.coerce(elementType, accumulatorType!!, v)
+                v.load(accumulatorIndex, accumulatorType)
+                v.add(accumulatorType)
+                v.store(accumulatorIndex, accumulatorType)
+            }
+            TerminalKind.SUM_BY -> {
+                val parameter = enterLambdaParameter(terminal.lambdaDescriptor!!, elementType, v)
+                codegen.gen(terminal.lambda!!.bodyExpression, accumulatorType!!)
+                parameter.leave(v)
+                v.load(accumulatorIndex, accumulatorType)
+                v.add(accumulatorType)
+                v.store(accumulatorIndex, accumulatorType)
+            }
+        }
+
+        v.goTo(loopStart)
+        v.mark(loopEnd)
+
+        if (accumulatorType != null) {
+            v.load(accumulatorIndex, accumulatorType)
+            frameMap.leaveTemp(accumulatorType)
+        }
+        frameMap.leaveTemp(ITERATOR_TYPE)
+    }
+
+    private inner class LambdaParameter(val descriptor: ValueParameterDescriptor, val type: Type, val index: Int, val start: Label) {
+        fun leave(v: InstructionAdapter) {
+            val end = Label()
+            v.mark(end)
+            codegen.myFrameMap.leave(descriptor)
+            v.visitLocalVariable(descriptor.name.asString(), type.descriptor, null, start, end, index)
+        }
+    }
+
+    // Consumes the current element from the stack and stores it to the parameter of the given lambda
+    private fun enterLambdaParameter(lambdaDescriptor: FunctionDescriptor, elementType: Type, v: InstructionAdapter): LambdaParameter {
+        val descriptor = lambdaDescriptor.valueParameters.single()
+        val type = codegen.typeMapper.mapType(descriptor.type)
+        StackValue.coerce(elementType, type, v)
+        val index = codegen.myFrameMap.enter(descriptor, type)
+        v.store(index, type)
+
+        val start = Label()
+        v.mark(start)
+        return LambdaParameter(descriptor, type, index, start)
+    }
+
+    companion object {
+        private val COLLECTIONS_PACKAGE = FqName("kotlin.collections")
+
+        private val ITERABLE_TYPE = Type.getObjectType("java/lang/Iterable")
+        private val ITERATOR_TYPE = Type.getObjectType("java/util/Iterator")
+        private val COLLECTION_TYPE = Type.getObjectType("java/util/Collection")
+        private val ARRAY_LIST_TYPE = Type.getObjectType("java/util/ArrayList")
+
+        /** Binary operations that are resolved to operator or infix function calls */
+        private val OPERATOR_CALL_TOKENS = setOf<IElementType>(
+                KtTokens.PLUS, KtTokens.MINUS, KtTokens.MUL, KtTokens.DIV, KtTokens.PERC,
+                KtTokens.LT, KtTokens.GT, KtTokens.LTEQ, KtTokens.GTEQ, KtTokens.IDENTIFIER
+        )
+
+        private val DIVISION_OPERATIONS = setOf("div", "rem", "mod")
+
+        /**
+         * Returns a fused chain ending with the given call, or `null` if the call doesn't end a chain
+         * of at least two operations that can be fused.
+         */
+        @JvmStatic
+        fun create(expression: KtCallExpression, resolvedCall: ResolvedCall<*>, codegen: ExpressionCodegen): FusedCollectionChain? {
+            val state = codegen.state
+            if (state.isInlineDisabled || state.configuration.get(JVMConfigurationKeys.DISABLE_OPTIMIZATION, false)) return null
+
+            val bindingContext = codegen.bindingContext
+            val checker = FusionSafetyChecker(bindingContext)
+
+            val stages = arrayListOf<Stage>()
+            val terminal = createTerminal(resolvedCall, checker, codegen.typeMapper)
+            if (terminal == null) {
+                stages.add(createStage(resolvedCall, checker) ?: return null)
+            }
+
+            var source = explicitReceiver(expression) ?: return null
+            while (true) {
+                val receiverCall = (source as? KtDotQualifiedExpression)?.selectorExpression as? KtCallExpression ?: break
+                val receiverOfReceiver = explicitReceiver(receiverCall) ?: break
+                val stage = createStage(receiverCall.getResolvedCall(bindingContext) ?: break, checker) ?: break
+                stages.add(stage)
+                source = receiverOfReceiver
+            }
+
+            if (stages.isEmpty() || (terminal == null && stages.size < 2)) return null
+            stages.reverse()
+
+            return FusedCollectionChain(
+                    codegen, source, stages,
+                    terminal ?: Terminal(TerminalKind.COLLECT, null, null, codegen.typeMapper.mapReturnType(resolvedCall.resultingDescriptor))
+            )
+        }
+
+        private fun explicitReceiver(call: KtCallExpression): KtExpression? {
+            val qualified = call.parent as? KtDotQualifiedExpression ?: return null
+            if (qualified.selectorExpression != call) return null
+            return KtPsiUtil.deparenthesize(qualified.receiverExpression)
+        }
+
+        private fun createStage(resolvedCall: ResolvedCall<*>, checker: FusionSafetyChecker): Stage? {
+            val function = resolvedCall.getCollectionsFunction(KotlinBuiltIns.FQ_NAMES.iterable) ?: return null
+            val kind = StageKind.values().firstOrNull { it.functionName == function.name.asString() } ?: return null
+            val lambda = resolvedCall.getSingleLambdaArgument() ?: return null
+            val lambdaDescriptor = checker.getLambdaDescriptor(lambda) ?: return null
+            if (!checker.isPureBody(lambda)) return null
+            return Stage(kind, lambda, lambdaDescriptor)
+        }
+
+        private fun createTerminal(resolvedCall: ResolvedCall<*>, checker: FusionSafetyChecker, typeMapper: KotlinTypeMapper): Terminal? {
+            val function = resolvedCall.getCollectionsFunction(KotlinBuiltIns.FQ_NAMES.iterable, KotlinBuiltIns.FQ_NAMES.collection)
+                           ?: return null
+            val resultType = typeMapper.mapReturnType(resolvedCall.resultingDescriptor)
+            val isIterableReceiver = function.isExtensionOn(KotlinBuiltIns.FQ_NAMES.iterable)
+
+            if (function.valueParameters.isEmpty()) {
+                return when (function.name.asString()) {
+                    "count" -> Terminal(TerminalKind.COUNT, null, null, resultType)
+                    "sum" -> if (isIterableReceiver && AsmUtil.isPrimitive(resultType)) Terminal(TerminalKind.SUM, null, null, resultType) else null
+                    else -> null
+                }
+            }
+
+            if (!isIterableReceiver) return null
+            val kind = when (function.name.asString()) {
+                "forEach" -> TerminalKind.FOR_EACH
+                "count" -> TerminalKind.COUNT_MATCHING
+                "sumBy", "sumByDouble" -> TerminalKind.SUM_BY
+                else -> return null
+            }
+            val lambda = resolvedCall.getSingleLambdaArgument() ?: return null
+            val lambdaDescriptor = checker.getLambdaDescriptor(lambda) ?: return null
+            if (!checker.hasOnlyLocalEffects(lambda)) return null
+            return Terminal(kind, lambda, lambdaDescriptor, resultType)
+        }
+
+        private fun ResolvedCall<*>.getCollectionsFunction(vararg receivers: FqName): FunctionDescriptor? {
+            val function = resultingDescriptor.original as? FunctionDescriptor ?: return null
+            val container = function.containingDeclaration as? PackageFragmentDescriptor ?: return null
+            if (container.fqName != COLLECTIONS_PACKAGE || dispatchReceiver != null) return null
+            return if (receivers.any { function.isExtensionOn(it) }) function else null
+        }
+
+        private fun FunctionDescriptor.isExtensionOn(receiver: FqName): Boolean {
+            val classifier = extensionReceiverParameter?.type?.constructor?.declarationDescriptor ?: return false
+            return DescriptorUtils.getFqNameSafe(classifier) == receiver
+        }
+
+        private fun ResolvedCall<*>.getSingleLambdaArgument(): KtFunctionLiteral? {
+            val argument = valueArgumentsByIndex?.singleOrNull() as? ExpressionValueArgument ?: return null
+            val expression = KtPsiUtil.deparenthesize(argument.valueArgument?.getArgumentExpression())
+            return (expression as? KtLambdaExpression)?.functionLiteral
+        }
+    }
+
+    /**
+     * Decides whether the lambdas of a chain can be evaluated in the order of a fused loop.
+     */
+    private class FusionSafetyChecker(private val bindingContext: BindingContext) {
+        fun getLambdaDescriptor(lambda: KtFunctionLiteral): FunctionDescriptor? {
+            val descriptor = bindingContext.get(BindingContext.FUNCTION, lambda) ?: return null
+            val parameter = descriptor.valueParameters.singleOrNull() ?: return null
+            // An element of a platform type may be null and throw when unboxed or dereferenced,
+            // which would happen after the earlier stages of a fused loop have already been run for the preceding elements
+            return if (lambda.bodyExpression != null && !parameter.type.isFlexible()) descriptor else null
+        }
+
+        fun isPureBody(lambda: KtFunctionLiteral): Boolean {
+            val statement = lambda.bodyExpression?.statements?.singleOrNull() ?: return false
+            return isPure(statement, allowLocalVariables = false)
+        }
+
+        fun hasOnlyLocalEffects(lambda: KtFunctionLiteral): Boolean {
+            val statements = lambda.bodyExpression?.statements ?: return false
+            return statements.all { hasOnlyLocalEffects(it) }
+        }
+
+        private fun hasOnlyLocalEffects(statement: KtExpression?): Boolean {
+            return when (statement) {
+                is KtProperty ->
+                    statement.isLocal && !statement.hasDelegate() &&
+                    (statement.initializer == null || isPure(statement.initializer, allowLocalVariables = true))
+                is KtBinaryExpression -> {
+                    if (statement.operationToken !in KtTokens.ALL_ASSIGNMENTS) return isPure(statement, allowLocalVariables = true)
+                    isModifiableLocalVariable(statement.left) &&
+                    isPure(statement.right, allowLocalVariables = true) &&
+                    (statement.operationToken == KtTokens.EQ || isSafeOperatorCall(statement.operationReference, statement.right))
+                }
+                is KtUnaryExpression -> {
+                    if (statement.operationToken != KtTokens.PLUSPLUS && statement.operationToken != KtTokens.MINUSMINUS) {
+                        return isPure(statement, allowLocalVariables = true)
+                    }
+                    isModifiableLocalVariable(statement.baseExpression) && isSafeOperatorCall(statement.operationReference, null)
+                }
+                is KtIfExpression ->
+                    isPure(statement.condition, allowLocalVariables = true) &&
+                    hasOnlyLocalEffects(statement.then) &&
+                    (statement.`else` == null || hasOnlyLocalEffects(statement.`else`))
+                is KtBlockExpression -> statement.statements.all { hasOnlyLocalEffects(it) }
+                else -> isPure(statement, allowLocalVariables = true)
+            }
+        }
+
+        private fun isPure(expression: KtExpression?, allowLocalVariables: Boolean): Boolean {
+            return when (expression) {
+                is KtParenthesizedExpression -> isPure(expression.expression, allowLocalVariables)
+                is KtConstantExpression -> true
+                is KtStringTemplateExpression -> expression.entries.all { it is KtLiteralStringTemplateEntry || it is KtEscapeStringTemplateEntry }
+                is KtSimpleNameExpression -> isReadableValue(expression, allowLocalVariables) && !hasPlatformType(expression)
+                is KtDotQualifiedExpression -> {
+                    val selector = expression.selectorExpression
+                    isPure(expression.receiverExpression, allowLocalVariables) &&
+                    selector is KtSimpleNameExpression && isPropertyWithoutSideEffects(selector) && !hasPlatformType(expression)
+                }
+                is KtIsExpression -> isPure(expression.leftHandSide, allowLocalVariables)
+                is KtPrefixExpression -> {
+                    val token = expression.operationToken
+                    (token == KtTokens.EXCL || token == KtTokens.MINUS || token == KtTokens.PLUS) &&
+                    isSafeOperatorCall(expression.operationReference, null) &&
+                    isPure(expression.baseExpression, allowLocalVariables)
+                }
+                is KtBinaryExpression -> {
+                    val token = expression.operationToken
+                    val operandsArePure = isPure(expression.left, allowLocalVariables) && isPure(expression.right, allowLocalVariables)
+                    when (token) {
+                        KtTokens.ANDAND, KtTokens.OROR, KtTokens.EQEQEQ, KtTokens.EXCLEQEQEQ -> operandsArePure
+                        KtTokens.EQEQ, KtTokens.EXCLEQ ->
+                            operandsArePure && hasTrivialEquals(expression.left) && hasTrivialEquals(expression.right)
+                        in OPERATOR_CALL_TOKENS ->
+                            operandsArePure && isSafeOperatorCall(expression.operationReference, expression.right)
+                        else -> false
+                    }
+                }
+                is KtIfExpression ->
+                    isPure(expression.condition, allowLocalVariables) &&
+                    isPure(expression.then, allowLocalVariables) &&
+                    (expression.`else` == null || isPure(expression.`else`, allowLocalVariables))
+                is KtBlockExpression -> expression.statements.singleOrNull().let { it != null && isPure(it, allowLocalVariables) }
+                else -> false
+            }
+        }
+
+        private fun isReadableValue(expression: KtSimpleNameExpression, allowLocalVariables: Boolean): Boolean {
+            val descriptor = expression.getResolvedCall(bindingContext)?.resultingDescriptor ?: return false
+            return when (descriptor) {
+                is ValueParameterDescriptor -> true
+                is LocalVariableDescriptor -> !descriptor.isDelegated && (allowLocalVariables || !descriptor.isVar)
+                is PropertyDescriptor -> isPropertyWithoutSideEffects(expression)
+                else -> false
+            }
+        }
+
+        private fun isModifiableLocalVariable(expression: KtExpression?): Boolean {
+            val name = KtPsiUtil.deparenthesize(expression) as? KtSimpleNameExpression ?: return false
+            val descriptor = name.getResolvedCall(bindingContext)?.resultingDescriptor as? LocalVariableDescriptor ?: return false
+            // Variables captured by a non-inline closure may be observed by the source of the chain while it is iterated
+            return descriptor.isVar && !descriptor.isDelegated &&
+                   bindingContext.get(BindingContext.CAPTURED_IN_CLOSURE, descriptor) != CaptureKind.NOT_INLINE
+        }
+
+        private fun isPropertyWithoutSideEffects(expression: KtSimpleNameExpression): Boolean {
+            val property = expression.getResolvedCall(bindingContext)?.resultingDescriptor?.original as? PropertyDescriptor ?: return false
+            val container = property.containingDeclaration
+            if (container is ClassDescriptor && KotlinBuiltIns.isString(container.defaultType)) {
+                return property.name.asString() == "length"
+            }
+            if (property.isVar || property.modality != Modality.FINAL || property.extensionReceiverParameter != null) return false
+
+            val declaration = DescriptorToSourceUtils.descriptorToDeclaration(property)
+            return when (declaration) {
+                is KtProperty -> !declaration.hasDelegate() && declaration.getter == null
+                is KtParameter -> declaration.hasValOrVar()
+                else -> false
+            }
+        }
+
+        // Values of platform types may be null, so unboxing them or calling anything on them may throw
+        private fun hasPlatformType(expression: KtExpression): Boolean = bindingContext.getType(expression)?.isFlexible() ?: true
+
+        private fun hasTrivialEquals(expression: KtExpression?): Boolean {
+            if (expression == null) return false
+            if (KtPsiUtil.isNullConstant(expression)) return true
+            val type = bindingContext.getType(expression) ?: return false
+            return isPrimitiveOrString(type)
+        }
+
+        private fun isSafeOperatorCall(operationReference: KtSimpleNameExpression, argument: KtExpression?): Boolean {
+            val function = operationReference.getResolvedCall(bindingContext)?.resultingDescriptor ?: return false
+            val container = function.containingDeclaration as? ClassDescriptor ?: return false
+            val name = function.name.asString()
+
+            if (KotlinBuiltIns.isString(container.defaultType)) {
+                // String.plus calls toString() on its argument
+                return name == "compareTo" || name == "equals" ||
+                       (name == "plus" && argument != null && hasTrivialEquals(argument))
+            }
+            if (!KotlinBuiltIns.isPrimitiveClass(container)) return false
+            if (name !in DIVISION_OPERATIONS) return true
+
+            // Integral division by zero throws, floating point division doesn't
+            val receiverType = container.defaultType
+            if (KotlinBuiltIns.isDouble(receiverType) || KotlinBuiltIns.isFloat(receiverType)) return true
+            val divisor = argument?.let { ConstantExpressionEvaluator.getConstant(it, bindingContext) } ?: return false
+            val divisorType = bindingContext.getType(argument) ?: return false
+            val value = divisor.getValue(divisorType) as? Number ?: return false
+            return value.toDouble() != 0.0
+        }
+
+        private fun isPrimitiveOrString(type: KotlinType): Boolean {
+            val classifier = type.constructor.declarationDescriptor as? ClassDescriptor ?: return false
+            return KotlinBuiltIns.isPrimitiveClass(classifier) || KotlinBuiltIns.isString(classifier.defaultType)
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.jetbrains.kotlin.fileClasses.JvmFileClassInfo;
 import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.progress.ProgressIndicatorAndCompilationCanceledStatus;
 import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.utils.CompilerTracer;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -66,19 +67,37 @@ public class KotlinCodegenFacade {
         }
 
         Set<FqName> obsoleteMultifileClasses = new HashSet<FqName>(state.getObsoleteMultifileClasses());
-        for (FqName multifileClassFqName : Sets.union(filesInMultifileClasses.keySet(), obsoleteMultifileClasses)) {
-            doCheckCancelled(state);
-            generateMultifileClass(state, multifileClassFqName, filesInMultifileClasses.get(multifileClassFqName), errorHandler);
+        CompilerTracer.begin(CompilerTracer.BACKEND, "generate multifile classes");
+        try {
+            for (FqName multifileClassFqName : Sets.union(filesInMultifileClasses.keySet(), obsoleteMultifileClasses)) {
+                doCheckCancelled(state);
+                generateMultifileClass(state, multifileClassFqName, filesInMultifileClasses.get(multifileClassFqName), errorHandler);
+            }
+        }
+        finally {
+            CompilerTracer.end(CompilerTracer.BACKEND, "generate multifile classes");
         }
 
         Set<FqName> packagesWithObsoleteParts = new HashSet<FqName>(state.getPackagesWithObsoleteParts());
-        for (FqName packageFqName : Sets.union(packagesWithObsoleteParts, filesInPackages.keySet())) {
-            doCheckCancelled(state);
-            generatePackage(state, packageFqName, filesInPackages.get(packageFqName), errorHandler);
+        CompilerTracer.begin(CompilerTracer.BACKEND, "generate packages");
+        try {
+            for (FqName packageFqName : Sets.union(packagesWithObsoleteParts, filesInPackages.keySet())) {
+                doCheckCancelled(state);
+                generatePackage(state, packageFqName, filesInPackages.get(packageFqName), errorHandler);
+            }
+        }
+        finally {
+            CompilerTracer.end(CompilerTracer.BACKEND, "generate packages");
         }
 
         doCheckCancelled(state);
-        state.getFactory().done();
+        CompilerTracer.begin(CompilerTracer.BACKEND, "finish class files");
+        try {
+            state.getFactory().done();
+        }
+        finally {
+            CompilerTracer.end(CompilerTracer.BACKEND, "finish class files");
+        }
     }
 
     private static void doCheckCancelled(GenerationState state) {
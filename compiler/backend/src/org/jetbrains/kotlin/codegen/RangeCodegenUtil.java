@@ -72,7 +72,12 @@ public class RangeCodegenUtil {
 
     @Nullable
     public static ResolvedCall<? extends CallableDescriptor> getLoopRangeResolvedCall(@NotNull KtForExpression forExpression, @NotNull BindingContext bindingContext) {
-        KtExpression loopRange = KtPsiUtil.deparenthesize(forExpression.getLoopRange());
+        return getRangeResolvedCall(forExpression.getLoopRange(), bindingContext);
+    }
+
+    @Nullable
+    public static ResolvedCall<? extends CallableDescriptor> getRangeResolvedCall(@Nullable KtExpression rangeExpression, @NotNull BindingContext bindingContext) {
+        KtExpression loopRange = KtPsiUtil.deparenthesize(rangeExpression);
 
         if (loopRange instanceof KtQualifiedExpression) {
             KtQualifiedExpression qualifiedExpression = (KtQualifiedExpression) loopRange;
@@ -143,6 +148,77 @@ public class RangeCodegenUtil {
         return true;
     }
 
+    public static boolean isOptimizableUntil(@NotNull CallableDescriptor descriptor) {
+        if (!isTopLevelInPackage(descriptor, "until", "kotlin.ranges")) return false;
+
+        ReceiverParameterDescriptor extensionReceiver = descriptor.getExtensionReceiverParameter();
+        if (extensionReceiver == null) return false;
+        ClassifierDescriptor extensionReceiverClassifier = extensionReceiver.getType().getConstructor().getDeclarationDescriptor();
+        if (!isPrimitiveNumberClassDescriptor(extensionReceiverClassifier)) return false;
+
+        return true;
+    }
+
+    /**
+     * 'until' throws an exception if the bound is the minimal value of the element type, since the last element can't be represented.
+     * This happens when the bound has the same type as the elements of the resulting range, e.g. for 'Int.until(Int)'.
+     */
+    public static boolean isUntilCheckingMinValue(@NotNull CallableDescriptor descriptor) {
+        KotlinType returnType = descriptor.getReturnType();
+        if (returnType == null || descriptor.getValueParameters().size() != 1) return false;
+        PrimitiveType elementType = getPrimitiveRangeElementType(returnType);
+        if (elementType == null) return false;
+
+        ClassifierDescriptor boundClassifier = descriptor.getValueParameters().get(0).getType().getConstructor().getDeclarationDescriptor();
+        return boundClassifier instanceof ClassDescriptor &&
+               KotlinBuiltIns.isPrimitiveClass((ClassDescriptor) boundClassifier) &&
+               boundClassifier.getName().equals(elementType.getTypeName());
+    }
+
+    public static boolean isOptimizableReversed(@NotNull CallableDescriptor descriptor) {
+        return isTopLevelInPackage(descriptor, "reversed", "kotlin.ranges") && isProgressionExtension(descriptor);
+    }
+
+    public static boolean isOptimizableStep(@NotNull CallableDescriptor descriptor) {
+        return isTopLevelInPackage(descriptor, "step", "kotlin.ranges") && isProgressionExtension(descriptor);
+    }
+
+    private static boolean isProgressionExtension(@NotNull CallableDescriptor descriptor) {
+        ReceiverParameterDescriptor extensionReceiver = descriptor.getExtensionReceiverParameter();
+        return extensionReceiver != null && isProgression(extensionReceiver.getType());
+    }
+
+    public static boolean isArrayOrIterableWithIndex(@NotNull CallableDescriptor descriptor) {
+        if (!isTopLevelInPackage(descriptor, "withIndex", "kotlin.collections")) return false;
+
+        ReceiverParameterDescriptor extensionReceiver = descriptor.getExtensionReceiverParameter();
+        if (extensionReceiver == null) return false;
+        KotlinType extensionReceiverType = extensionReceiver.getType();
+        if (!KotlinBuiltIns.isArray(extensionReceiverType) && !KotlinBuiltIns.isPrimitiveArray(extensionReceiverType) &&
+            !KotlinBuiltIns.isIterableOrNullableIterable(extensionReceiverType)) {
+            return false;
+        }
+
+        return true;
+    }
+
+    public static boolean isIndexedValueComponent(@NotNull CallableDescriptor descriptor) {
+        DeclarationDescriptor containingDeclaration = descriptor.getContainingDeclaration();
+        return containingDeclaration instanceof ClassDescriptor &&
+               DescriptorUtils.getFqName(containingDeclaration).asString().equals("kotlin.collections.IndexedValue");
+    }
+
+    public static boolean isCharSequenceIterator(@NotNull CallableDescriptor descriptor) {
+        if (!isTopLevelInPackage(descriptor, "iterator", "kotlin.text")) return false;
+
+        ReceiverParameterDescriptor extensionReceiver = descriptor.getExtensionReceiverParameter();
+        if (extensionReceiver == null) return false;
+        KotlinType extensionReceiverType = extensionReceiver.getType();
+        if (!KotlinBuiltIns.isCharSequenceOrNullableCharSequence(extensionReceiverType)) return false;
+
+        return true;
+    }
+
     public static boolean isArrayOrPrimitiveArrayIndices(@NotNull CallableDescriptor descriptor) {
         if (!isTopLevelInPackage(descriptor, "indices", "kotlin.collections")) return false;
 
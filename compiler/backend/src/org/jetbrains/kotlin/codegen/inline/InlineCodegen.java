@@ -52,6 +52,7 @@ import org.jetbrains.kotlin.resolve.scopes.MemberScope;
 import org.jetbrains.kotlin.serialization.deserialization.descriptors.DeserializedCallableMemberDescriptor;
 import org.jetbrains.kotlin.types.expressions.DoubleColonLHS;
 import org.jetbrains.kotlin.types.expressions.LabelResolver;
+import org.jetbrains.kotlin.utils.CompilerTracer;
 import org.jetbrains.org.objectweb.asm.Label;
 import org.jetbrains.org.objectweb.asm.MethodVisitor;
 import org.jetbrains.org.objectweb.asm.Opcodes;
@@ -169,6 +170,11 @@ public class InlineCodegen extends CallGenerator {
             return;
         }
 
+        String traceName = CompilerTracer.isEnabled() ? DescriptorUtils.getFqName(functionDescriptor).asString() : null;
+        if (traceName != null) {
+            CompilerTracer.begin(CompilerTracer.INLINE, traceName);
+        }
+
         SMAPAndMethodNode nodeAndSmap = null;
         try {
             nodeAndSmap = createMethodNode(functionDescriptor, jvmSignature, codegen, context, callDefault);
@@ -185,6 +191,9 @@ public class InlineCodegen extends CallGenerator {
         }
         finally {
             state.getInlineCycleReporter().exitFromInliningOf(resolvedCall);
+            if (traceName != null) {
+                CompilerTracer.end(CompilerTracer.INLINE, traceName);
+            }
         }
     }
 
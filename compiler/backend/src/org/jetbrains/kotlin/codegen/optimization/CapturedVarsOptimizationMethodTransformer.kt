@@ -0,0 +1,258 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization
+
+import org.jetbrains.kotlin.codegen.optimization.common.OptimizationBasicInterpreter
+import org.jetbrains.kotlin.codegen.optimization.fixStack.top
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.tree.*
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue
+
+/**
+ * Replaces `kotlin.jvm.internal.Ref` wrappers of captured local variables that never leave the method with plain locals.
+ *
+ * A `var` captured in a lambda is wrapped into a `Ref` when it's declared. If all the lambdas capturing it are inlined,
+ * the `Ref` is only copied between locals and accessed through its `element` field, so its allocation is not needed:
+ * the field accesses become loads and stores of a new local variable of the element type.
+ */
+class CapturedVarsOptimizationMethodTransformer : MethodTransformer() {
+    override fun transform(internalClassName: String, methodNode: MethodNode) {
+        if (methodNode.instructions.toArray().none { it.isRefAllocation() }) return
+
+        Transformer(internalClassName, methodNode).run()
+    }
+
+    private class CapturedRef(val allocation: TypeInsnNode, val elementType: Type) {
+        val value = CapturedRefValue(this)
+
+        var escapes = false
+        var initialization: AbstractInsnNode? = null
+
+        val loads = hashSetOf<VarInsnNode>()
+        val stores = hashSetOf<VarInsnNode>()
+        val stackCopies = hashSetOf<AbstractInsnNode>()
+        val fieldAccesses = hashSetOf<FieldInsnNode>()
+
+        val canBeReplaced: Boolean
+            get() = !escapes && initialization != null
+    }
+
+    private class CapturedRefValue(val ref: CapturedRef) : BasicValue(Type.getObjectType(ref.allocation.desc)) {
+        override fun equals(other: Any?): Boolean = this === other
+
+        override fun hashCode(): Int = System.identityHashCode(this)
+    }
+
+    private class RefTrackingInterpreter(private val refs: Map<AbstractInsnNode, CapturedRef>) : OptimizationBasicInterpreter() {
+        override fun newOperation(insn: AbstractInsnNode): BasicValue =
+                refs[insn]?.value ?: if (insn.opcode == Opcodes.ACONST_NULL) NULL_VALUE else super.newOperation(insn)
+
+        override fun copyOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue {
+            if (value is CapturedRefValue) {
+                val ref = value.ref
+                when (insn.opcode) {
+                    Opcodes.ALOAD -> ref.loads.add(insn as VarInsnNode)
+                    Opcodes.ASTORE -> ref.stores.add(insn as VarInsnNode)
+                    Opcodes.DUP -> ref.stackCopies.add(insn)
+                    else -> ref.escapes = true
+                }
+            }
+            return super.copyOperation(insn, value)
+        }
+
+        override fun unaryOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue? {
+            if (value is CapturedRefValue) {
+                if (insn.opcode == Opcodes.GETFIELD && insn.isElementAccess(value.ref)) {
+                    value.ref.fieldAccesses.add(insn as FieldInsnNode)
+                }
+                else {
+                    value.ref.escapes = true
+                }
+            }
+            return super.unaryOperation(insn, value)
+        }
+
+        override fun binaryOperation(insn: AbstractInsnNode, value1: BasicValue, value2: BasicValue): BasicValue? {
+            if (value1 is CapturedRefValue) {
+                if (insn.opcode == Opcodes.PUTFIELD && insn.isElementAccess(value1.ref)) {
+                    value1.ref.fieldAccesses.add(insn as FieldInsnNode)
+                }
+                else {
+                    value1.ref.escapes = true
+                }
+            }
+            markEscaping(value2)
+            return super.binaryOperation(insn, value1, value2)
+        }
+
+        override fun ternaryOperation(insn: AbstractInsnNode, value1: BasicValue, value2: BasicValue, value3: BasicValue): BasicValue? {
+            markEscaping(value1)
+            markEscaping(value2)
+            markEscaping(value3)
+            return super.ternaryOperation(insn, value1, value2, value3)
+        }
+
+        override fun naryOperation(insn: AbstractInsnNode, values: MutableList<out BasicValue>): BasicValue? {
+            val receiver = values.singleOrNull()
+            if (receiver is CapturedRefValue && insn.isRefInitialization(receiver.ref)) {
+                receiver.ref.initialization = insn
+            }
+            else {
+                values.forEach { markEscaping(it) }
+            }
+            return super.naryOperation(insn, values)
+        }
+
+        override fun returnOperation(insn: AbstractInsnNode, value: BasicValue, expected: BasicValue) {
+            markEscaping(value)
+            super.returnOperation(insn, value, expected)
+        }
+
+        override fun merge(v: BasicValue, w: BasicValue): BasicValue {
+            if (v === w) return v
+
+            if (v is CapturedRefValue || w is CapturedRefValue) {
+                // A local holding a Ref is uninitialized before its declaration and is cleared with `null` after its scope
+                if (v is CapturedRefValue && w.isEmptyLocal()) return v
+                if (w is CapturedRefValue && v.isEmptyLocal()) return w
+
+                markEscaping(v)
+                markEscaping(w)
+            }
+            return super.merge(v, w)
+        }
+
+        private fun markEscaping(value: BasicValue?) {
+            if (value is CapturedRefValue) {
+                value.ref.escapes = true
+            }
+        }
+
+        private fun BasicValue.isEmptyLocal() = this === BasicValue.UNINITIALIZED_VALUE || this === NULL_VALUE
+
+        private fun AbstractInsnNode.isElementAccess(ref: CapturedRef) =
+                this is FieldInsnNode && owner == ref.allocation.desc && name == "element"
+
+        private fun AbstractInsnNode.isRefInitialization(ref: CapturedRef) =
+                opcode == Opcodes.INVOKESPECIAL && this is MethodInsnNode &&
+                owner == ref.allocation.desc && name == "<init>" && desc == "()V"
+    }
+
+    private class Transformer(private val internalClassName: String, private val methodNode: MethodNode) {
+        private val refs: Map<AbstractInsnNode, CapturedRef> = methodNode.instructions.toArray()
+                .filterIsInstance<TypeInsnNode>()
+                .filter { it.isRefAllocation() }
+                .associate { it to CapturedRef(it, REF_ELEMENT_TYPES[it.desc]!!) }
+
+        fun run() {
+            val frames = MethodTransformer.analyze(internalClassName, methodNode, RefTrackingInterpreter(refs))
+
+            // Stack manipulations other than DUP don't pass all the affected values through the interpreter,
+            // so Refs touched by them are found by frames
+            val insns = methodNode.instructions.toArray()
+            for (i in insns.indices) {
+                val frame = frames[i] ?: continue
+                when (insns[i].opcode) {
+                    Opcodes.POP ->
+                        (frame.top() as? CapturedRefValue)?.ref?.stackCopies?.add(insns[i])
+                    Opcodes.POP2, Opcodes.DUP_X1, Opcodes.DUP_X2, Opcodes.DUP2, Opcodes.DUP2_X1, Opcodes.DUP2_X2, Opcodes.SWAP ->
+                        for (index in Math.max(0, frame.stackSize - 4)..frame.stackSize - 1) {
+                            (frame.getStack(index) as? CapturedRefValue)?.ref?.escapes = true
+                        }
+                }
+            }
+
+            for (ref in refs.values) {
+                if (ref.canBeReplaced) {
+                    replaceWithLocal(ref)
+                }
+            }
+        }
+
+        private fun replaceWithLocal(ref: CapturedRef) {
+            val insnList = methodNode.instructions
+            val elementType = ref.elementType
+
+            val slot = methodNode.maxLocals
+            methodNode.maxLocals += elementType.size
+
+            updateLocalVariables(ref, slot)
+
+            for (fieldAccess in ref.fieldAccesses) {
+                val opcode = if (fieldAccess.opcode == Opcodes.GETFIELD) Opcodes.ILOAD else Opcodes.ISTORE
+                insnList.set(fieldAccess, VarInsnNode(elementType.getOpcode(opcode), slot))
+            }
+
+            val initialization = ref.initialization!!
+            insnList.insertBefore(initialization, InsnNode(elementType.defaultValueOpcode()))
+            insnList.set(initialization, VarInsnNode(elementType.getOpcode(Opcodes.ISTORE), slot))
+
+            insnList.remove(ref.allocation)
+            ref.stackCopies.forEach { insnList.remove(it) }
+            ref.loads.forEach { insnList.remove(it) }
+            ref.stores.forEach { insnList.remove(it) }
+        }
+
+        private fun updateLocalVariables(ref: CapturedRef, slot: Int) {
+            val refDescriptor = Type.getObjectType(ref.allocation.desc).descriptor
+            val insnList = methodNode.instructions
+            val accesses = (ref.loads + ref.stores).groupBy { it.`var` }
+
+            for (localVariable in methodNode.localVariables ?: return) {
+                if (localVariable.desc != refDescriptor) continue
+                val start = insnList.indexOf(localVariable.start)
+                val end = insnList.indexOf(localVariable.end)
+                val belongsToRef = accesses[localVariable.index].orEmpty().any { insnList.indexOf(it) in start..end }
+                if (belongsToRef) {
+                    localVariable.index = slot
+                    localVariable.desc = ref.elementType.descriptor
+                }
+            }
+        }
+    }
+
+    companion object {
+        private val NULL_VALUE = BasicValue(AsmTypes.OBJECT_TYPE)
+
+        private val REF_ELEMENT_TYPES = mapOf(
+                "ObjectRef" to AsmTypes.OBJECT_TYPE,
+                "BooleanRef" to Type.BOOLEAN_TYPE,
+                "CharRef" to Type.CHAR_TYPE,
+                "ByteRef" to Type.BYTE_TYPE,
+                "ShortRef" to Type.SHORT_TYPE,
+                "IntRef" to Type.INT_TYPE,
+                "LongRef" to Type.LONG_TYPE,
+                "FloatRef" to Type.FLOAT_TYPE,
+                "DoubleRef" to Type.DOUBLE_TYPE
+        ).mapKeys { AsmTypes.REF_TYPE_PREFIX + it.key }
+
+        private fun AbstractInsnNode.isRefAllocation() =
+                opcode == Opcodes.NEW && (this as TypeInsnNode).desc in REF_ELEMENT_TYPES
+
+        private fun Type.defaultValueOpcode(): Int =
+                when (sort) {
+                    Type.LONG -> Opcodes.LCONST_0
+                    Type.FLOAT -> Opcodes.FCONST_0
+                    Type.DOUBLE -> Opcodes.DCONST_0
+                    Type.OBJECT, Type.ARRAY -> Opcodes.ACONST_NULL
+                    else -> Opcodes.ICONST_0
+                }
+    }
+}
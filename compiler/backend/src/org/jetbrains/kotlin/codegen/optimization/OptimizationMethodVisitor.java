@@ -36,6 +36,7 @@ public class OptimizationMethodVisitor extends TransformationMethodVisitor {
             new RedundantNullCheckMethodTransformer(),
             new RedundantBoxingMethodTransformer(),
             new DeadCodeEliminationMethodTransformer(),
+            new CapturedVarsOptimizationMethodTransformer(),
             new RedundantGotoMethodTransformer(),
             new RedundantCoercionToUnitTransformer()
     };
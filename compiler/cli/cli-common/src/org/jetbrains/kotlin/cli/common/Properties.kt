@@ -18,6 +18,9 @@ package org.jetbrains.kotlin.cli.common
 
 val KOTLIN_COMPILER_ENVIRONMENT_KEEPALIVE_PROPERTY = "kotlin.environment.keepalive"
 
+// Only makes sense together with KOTLIN_COMPILER_ENVIRONMENT_KEEPALIVE_PROPERTY, see KotlinBinaryClassCache
+val KOTLIN_COMPILER_JAVA_CLASS_CACHE_PROPERTY = "kotlin.environment.java.class.cache"
+
 
 fun String?.toBooleanLenient(): Boolean? = when (this?.toLowerCase()) {
     null -> false
@@ -88,6 +88,14 @@ public class K2JVMCompilerArguments extends CommonCompilerArguments {
     @Argument(value = "Xload-script-configs", description = "Load script configuration files from project directory tree")
     public boolean loadScriptConfigs;
 
+    @Argument(value = "Xparallel-body-resolution", description = "Resolve function bodies using the given number of threads")
+    @ValueDescription("<threads>")
+    public String parallelBodyResolutionThreads;
+
+    @Argument(value = "Xtrace-phases-to", description = "Path to JSON file to write compiler phase timings to, in Chrome trace event format")
+    @ValueDescription("<path>")
+    public String tracePhasesOutputPath;
+
     // Paths to output directories for friend modules.
     public String[] friendPaths;
 
@@ -183,9 +183,20 @@ class AnalyzerWithCompilerReport(private val messageCollector: MessageCollector)
                 diagnostics: Diagnostics,
                 reporter: DiagnosticMessageReporter,
                 incompatibleFilesFound: Boolean): Boolean {
+            // Diagnostics are grouped by file and each file's diagnostics are sorted and reported separately
+            // (in the same order sortedDiagnostics() would give), so only one file's diagnostics are sorted at a time
+            val diagnosticsByFile = TreeMap<String, MutableList<Diagnostic>>()
+            for (diagnostic in diagnostics) {
+                val path = diagnostic.psiFile.viewProvider.virtualFile.path
+                diagnosticsByFile.getOrPut(path) { ArrayList() }.add(diagnostic)
+            }
+
             var hasErrors = false
-            for (diagnostic in sortedDiagnostics(diagnostics.all())) {
-                hasErrors = hasErrors or reportDiagnostic(diagnostic, reporter, incompatibleFilesFound)
+            while (diagnosticsByFile.isNotEmpty()) {
+                val fileDiagnostics = diagnosticsByFile.pollFirstEntry().value
+                for (diagnostic in sortedDiagnostics(fileDiagnostics)) {
+                    hasErrors = hasErrors or reportDiagnostic(diagnostic, reporter, incompatibleFilesFound)
+                }
             }
             return hasErrors
         }
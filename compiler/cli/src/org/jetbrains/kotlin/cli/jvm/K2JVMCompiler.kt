@@ -41,10 +41,14 @@ import org.jetbrains.kotlin.load.kotlin.JvmMetadataVersion
 import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCompilationComponents
 import org.jetbrains.kotlin.script.StandardScriptDefinition
 import org.jetbrains.kotlin.util.PerformanceCounter
+import org.jetbrains.kotlin.utils.ChromeTraceEventSink
+import org.jetbrains.kotlin.utils.CompilerTracer
 import org.jetbrains.kotlin.utils.KotlinPaths
 import org.jetbrains.kotlin.utils.KotlinPathsFromHomeDir
 import org.jetbrains.kotlin.utils.PathUtil
+import org.jetbrains.kotlin.utils.TraceEventSink
 import java.io.File
+import java.io.IOException
 import java.lang.management.ManagementFactory
 import java.util.concurrent.TimeUnit
 
@@ -135,8 +139,25 @@ class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
             }
         }
 
+        if (arguments.parallelBodyResolutionThreads != null) {
+            try {
+                configuration.put(JVMConfigurationKeys.PARALLEL_BODY_RESOLUTION_THREADS, arguments.parallelBodyResolutionThreads.toInt())
+            }
+            catch (e: NumberFormatException) {
+                messageCollector.report(CompilerMessageSeverity.ERROR,
+                                        "Invalid number of threads for body resolution: ${arguments.parallelBodyResolutionThreads}",
+                                        CompilerMessageLocation.NO_LOCATION)
+            }
+        }
+
         putAdvancedOptions(configuration, arguments)
 
+        // A build tool running the compiler in its own thread may have installed a sink for the whole build already
+        val traceEventSink = if (CompilerTracer.isEnabled()) null else arguments.tracePhasesOutputPath?.let { ChromeTraceEventSink(File(it)) }
+        if (traceEventSink != null) {
+            CompilerTracer.sink = traceEventSink
+        }
+
         messageCollector.report(CompilerMessageSeverity.LOGGING, "Configuring the compilation environment", CompilerMessageLocation.NO_LOCATION)
         try {
             val destination = arguments.destination
@@ -211,6 +232,19 @@ class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
             )
             return INTERNAL_ERROR
         }
+        finally {
+            if (traceEventSink != null) {
+                CompilerTracer.sink = TraceEventSink.NONE
+                try {
+                    traceEventSink.close()
+                }
+                catch (e: IOException) {
+                    messageCollector.report(CompilerMessageSeverity.WARNING,
+                                            "Could not write the trace of compiler phases to ${arguments.tracePhasesOutputPath}: ${e.message}",
+                                            CompilerMessageLocation.NO_LOCATION)
+                }
+            }
+        }
     }
 
     private fun createCoreEnvironment(rootDisposable: Disposable, configuration: CompilerConfiguration): KotlinCoreEnvironment {
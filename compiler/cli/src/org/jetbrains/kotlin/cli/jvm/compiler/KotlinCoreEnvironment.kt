@@ -59,6 +59,7 @@ import org.jetbrains.kotlin.asJava.LightClassGenerationSupport
 import org.jetbrains.kotlin.cli.common.CLIConfigurationKeys
 import org.jetbrains.kotlin.cli.common.CliModuleVisibilityManagerImpl
 import org.jetbrains.kotlin.cli.common.KOTLIN_COMPILER_ENVIRONMENT_KEEPALIVE_PROPERTY
+import org.jetbrains.kotlin.cli.common.KOTLIN_COMPILER_JAVA_CLASS_CACHE_PROPERTY
 import org.jetbrains.kotlin.cli.common.messages.CompilerMessageLocation
 import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity
 import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity.ERROR
@@ -82,6 +83,7 @@ import org.jetbrains.kotlin.name.isValidJavaFqName
 import org.jetbrains.kotlin.parsing.KotlinParserDefinition
 import org.jetbrains.kotlin.psi.KtFile
 import org.jetbrains.kotlin.resolve.CodeAnalyzerInitializer
+import org.jetbrains.kotlin.resolve.diagnostics.FileSuppressionIndexing
 import org.jetbrains.kotlin.resolve.jvm.KotlinJavaPsiFacade
 import org.jetbrains.kotlin.resolve.jvm.extensions.AnalysisCompletedHandlerExtension
 import org.jetbrains.kotlin.resolve.jvm.extensions.PackageFragmentProviderExtension
@@ -393,8 +395,9 @@ class KotlinCoreEnvironment private constructor(
             with(applicationEnvironment) {
                 registerFileType(KotlinFileType.INSTANCE, "kt")
                 registerFileType(KotlinFileType.INSTANCE, KotlinParserDefinition.STD_SCRIPT_SUFFIX)
-                registerParserDefinition(KotlinParserDefinition())
-                application.registerService(KotlinBinaryClassCache::class.java, KotlinBinaryClassCache())
+                registerParserDefinition(KotlinParserDefinition(parseBodiesLazily = false))
+                val cacheJavaClassesInJars = System.getProperty(KOTLIN_COMPILER_JAVA_CLASS_CACHE_PROPERTY).toBooleanLenient() ?: false
+                application.registerService(KotlinBinaryClassCache::class.java, KotlinBinaryClassCache(cacheJavaClassesInJars))
                 application.registerService(JavaClassSupers::class.java, JavaClassSupersImpl::class.java)
             }
         }
@@ -423,6 +426,7 @@ class KotlinCoreEnvironment private constructor(
                 registerService(LightClassGenerationSupport::class.java, cliLightClassGenerationSupport)
                 registerService(CliLightClassGenerationSupport::class.java, cliLightClassGenerationSupport)
                 registerService(CodeAnalyzerInitializer::class.java, cliLightClassGenerationSupport)
+                registerService(FileSuppressionIndexing::class.java, FileSuppressionIndexing())
 
                 val area = Extensions.getArea(this)
 
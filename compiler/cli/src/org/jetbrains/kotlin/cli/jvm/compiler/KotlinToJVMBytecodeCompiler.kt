@@ -51,6 +51,7 @@ import org.jetbrains.kotlin.progress.ProgressIndicatorAndCompilationCanceledStat
 import org.jetbrains.kotlin.psi.KtFile
 import org.jetbrains.kotlin.resolve.jvm.TopDownAnalyzerFacadeForJVM
 import org.jetbrains.kotlin.util.PerformanceCounter
+import org.jetbrains.kotlin.utils.CompilerTracer
 import org.jetbrains.kotlin.utils.KotlinPaths
 import org.jetbrains.kotlin.utils.PathUtil
 import org.jetbrains.kotlin.utils.newLinkedHashMapWithExpectedSize
@@ -369,26 +370,28 @@ object KotlinToJVMBytecodeCompiler {
 
         val analysisStart = PerformanceCounter.currentTime()
         val analyzerWithCompilerReport = AnalyzerWithCompilerReport(collector)
-        analyzerWithCompilerReport.analyzeAndReport(
-                environment.getSourceFiles(), object : AnalyzerWithCompilerReport.Analyzer {
-            override fun analyze(): AnalysisResult {
-                val sharedTrace = CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace()
-                val moduleContext =
-                        TopDownAnalyzerFacadeForJVM.createContextWithSealedModule(environment.project, environment.configuration)
-
-                return TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegration(
-                        moduleContext,
-                        environment.getSourceFiles(),
-                        sharedTrace,
-                        environment.configuration,
-                        JvmPackagePartProvider(environment)
-                )
-            }
+        CompilerTracer.trace(CompilerTracer.FRONTEND, "analyze") {
+            analyzerWithCompilerReport.analyzeAndReport(
+                    environment.getSourceFiles(), object : AnalyzerWithCompilerReport.Analyzer {
+                override fun analyze(): AnalysisResult {
+                    val sharedTrace = CliLightClassGenerationSupport.NoScopeRecordCliBindingTrace()
+                    val moduleContext =
+                            TopDownAnalyzerFacadeForJVM.createContextWithSealedModule(environment.project, environment.configuration)
+
+                    return TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegration(
+                            moduleContext,
+                            environment.getSourceFiles(),
+                            sharedTrace,
+                            environment.configuration,
+                            JvmPackagePartProvider(environment)
+                    )
+                }
 
-            override fun reportEnvironmentErrors() {
-                reportRuntimeConflicts(collector, environment.configuration.jvmClasspathRoots)
-            }
-        })
+                override fun reportEnvironmentErrors() {
+                    reportRuntimeConflicts(collector, environment.configuration.jvmClasspathRoots)
+                }
+            })
+        }
 
         val analysisNanos = PerformanceCounter.currentTime() - analysisStart
 
@@ -429,7 +432,9 @@ object KotlinToJVMBytecodeCompiler {
 
         val generationStart = PerformanceCounter.currentTime()
 
-        KotlinCodegenFacade.compileCorrectFiles(generationState, CompilationErrorHandler.THROW_EXCEPTION)
+        CompilerTracer.trace(CompilerTracer.BACKEND, "generate") {
+            KotlinCodegenFacade.compileCorrectFiles(generationState, CompilationErrorHandler.THROW_EXCEPTION)
+        }
 
         val generationNanos = PerformanceCounter.currentTime() - generationStart
         val desc = if (module != null) "target " + module.getModuleName() + "-" + module.getModuleType() + " " else ""
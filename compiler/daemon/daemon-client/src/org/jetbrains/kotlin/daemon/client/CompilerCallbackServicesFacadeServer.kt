@@ -18,6 +18,7 @@ package org.jetbrains.kotlin.daemon.client
 
 import com.intellij.openapi.progress.ProcessCanceledException
 import org.jetbrains.kotlin.daemon.common.CompilerCallbackServicesFacade
+import org.jetbrains.kotlin.daemon.common.InlineRegistration
 import org.jetbrains.kotlin.daemon.common.LoopbackNetworkInterface
 import org.jetbrains.kotlin.daemon.common.RmiFriendlyCompilationCanceledException
 import org.jetbrains.kotlin.daemon.common.SOCKET_ANY_FREE_PORT
@@ -61,6 +62,14 @@ class CompilerCallbackServicesFacadeServer(
         incrementalCompilationComponents!!.getIncrementalCache(target).registerInline(fromPath, jvmSignature, toPath)
     }
 
+    override fun incrementalCache_registerInlines(target: TargetId, inlines: Collection<InlineRegistration>) {
+        val incrementalCache = incrementalCompilationComponents!!.getIncrementalCache(target)
+
+        for (it in inlines) {
+            incrementalCache.registerInline(it.fromPath, it.jvmSignature, it.toPath)
+        }
+    }
+
     override fun incrementalCache_getClassFilePath(target: TargetId, internalClassName: String): String = incrementalCompilationComponents!!.getIncrementalCache(target).getClassFilePath(internalClassName)
 
     override fun incrementalCache_close(target: TargetId) {
@@ -25,6 +25,7 @@ import org.jetbrains.kotlin.utils.addToStdlib.check
 import java.io.File
 import java.io.OutputStream
 import java.io.PrintStream
+import java.rmi.RemoteException
 import java.rmi.server.UnicastRemoteObject
 import java.util.concurrent.Semaphore
 import java.util.concurrent.TimeUnit
@@ -259,6 +260,11 @@ object KotlinCompilerClient {
         val aliveWithOpts = walkDaemons(registryDir, compilerId, report = report)
                 .map { Pair(it, it.getDaemonJVMOptions()) }
                 .filter { it.second.isGood }
+                .toList()
+                // among equally sized daemons preferring ones that are already warmed up, but a cold one is still better than none
+                .map { Pair(it, it.first.warmUpProgressOrZero()) }
+                .sortedByDescending { it.second }
+                .map { it.first }
                 .sortedWith(compareByDescending(DaemonJVMOptionsMemoryComparator(), { it.second.get() }))
         val optsCopy = daemonJVMOptions.copy()
         // if required options fit into fattest running daemon - return the daemon and required options with memory params set to actual ones in the daemon
@@ -270,6 +276,16 @@ object KotlinCompilerClient {
     }
 
 
+    // fetched before sorting, so a daemon which died in the meantime doesn't break the lookup
+    private fun CompileService.warmUpProgressOrZero(): Int =
+            try {
+                getWarmUpProgress().let { if (it.isGood) it.get() else 0 }
+            }
+            catch (e: RemoteException) {
+                0
+            }
+
+
     private fun startDaemon(compilerId: CompilerId, daemonJVMOptions: DaemonJVMOptions, daemonOptions: DaemonOptions, reportingTargets: DaemonReportingTargets) {
         val javaExecutable = File(File(System.getProperty("java.home"), "bin"), "java")
         val platformSpecificOptions = listOf("-Djava.awt.headless=true") // hide daemon window
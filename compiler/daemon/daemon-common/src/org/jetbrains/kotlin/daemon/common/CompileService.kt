@@ -74,6 +74,10 @@ interface CompileService : Remote {
     @Throws(RemoteException::class)
     fun getDaemonOptions(): CallResult<DaemonOptions>
 
+    // in percents, 100 if warm-up is finished or disabled
+    @Throws(RemoteException::class)
+    fun getWarmUpProgress(): CallResult<Int>
+
     @Throws(RemoteException::class)
     fun getDaemonJVMOptions(): CallResult<DaemonJVMOptions>
 
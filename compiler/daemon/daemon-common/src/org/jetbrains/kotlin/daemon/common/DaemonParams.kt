@@ -17,6 +17,7 @@
 package org.jetbrains.kotlin.daemon.common
 
 import org.jetbrains.kotlin.cli.common.KOTLIN_COMPILER_ENVIRONMENT_KEEPALIVE_PROPERTY
+import org.jetbrains.kotlin.cli.common.KOTLIN_COMPILER_JAVA_CLASS_CACHE_PROPERTY
 import java.io.File
 import java.io.Serializable
 import java.lang.management.ManagementFactory
@@ -46,6 +47,9 @@ val COMPILE_DAEMON_DEFAULT_IDLE_TIMEOUT_S: Int = 7200 // 2 hours
 val COMPILE_DAEMON_DEFAULT_UNUSED_TIMEOUT_S: Int = 60
 val COMPILE_DAEMON_DEFAULT_SHUTDOWN_DELAY_MS: Long = 1000L // 1 sec
 val COMPILE_DAEMON_MEMORY_THRESHOLD_INFINITE: Long = 0L
+val COMPILE_DAEMON_MEMORY_PRESSURE_WATCH_DISABLED: Int = 0
+val COMPILE_DAEMON_DEFAULT_MEMORY_PRESSURE_THRESHOLD_PERCENT: Int = 85
+val COMPILE_DAEMON_MEMORY_PRESSURE_MAX_WAIT_MS: Long = 60000L // 1 min
 val COMPILE_DAEMON_FORCE_SHUTDOWN_DEFAULT_TIMEOUT_MS: Long = 10000L // 10 secs
 val COMPILE_DAEMON_TIMEOUT_INFINITE_MS: Long = 0L
 
@@ -206,6 +210,9 @@ data class DaemonOptions(
         var autoshutdownUnusedSeconds: Int = COMPILE_DAEMON_DEFAULT_UNUSED_TIMEOUT_S,
         var shutdownDelayMilliseconds: Long = COMPILE_DAEMON_DEFAULT_SHUTDOWN_DELAY_MS,
         var forceShutdownTimeoutMilliseconds: Long = COMPILE_DAEMON_FORCE_SHUTDOWN_DEFAULT_TIMEOUT_MS,
+        var memoryPressureThresholdPercent: Int = COMPILE_DAEMON_DEFAULT_MEMORY_PRESSURE_THRESHOLD_PERCENT,
+        var warmUp: Boolean = false,
+        var startupClassListPath: String = "",
         var verbose: Boolean = false,
         var reportPerf: Boolean = false
 ) : OptionsGroup {
@@ -218,6 +225,9 @@ data class DaemonOptions(
                        PropMapper(this, DaemonOptions::autoshutdownUnusedSeconds, fromString = { it.toInt() }, skipIf = { it == COMPILE_DAEMON_DEFAULT_UNUSED_TIMEOUT_S }, mergeDelimiter = "="),
                        PropMapper(this, DaemonOptions::shutdownDelayMilliseconds, fromString = { it.toLong() }, skipIf = { it == COMPILE_DAEMON_DEFAULT_SHUTDOWN_DELAY_MS }, mergeDelimiter = "="),
                        PropMapper(this, DaemonOptions::forceShutdownTimeoutMilliseconds, fromString = { it.toLong() }, skipIf = { it == COMPILE_DAEMON_FORCE_SHUTDOWN_DEFAULT_TIMEOUT_MS }, mergeDelimiter = "="),
+                       PropMapper(this, DaemonOptions::memoryPressureThresholdPercent, fromString = { it.toInt() }, skipIf = { it == COMPILE_DAEMON_DEFAULT_MEMORY_PRESSURE_THRESHOLD_PERCENT }, mergeDelimiter = "="),
+                       BoolPropMapper(this, DaemonOptions::warmUp),
+                       StringPropMapper(this, DaemonOptions::startupClassListPath, fromString = { it.trimQuotes() }),
                        BoolPropMapper(this, DaemonOptions::verbose),
                        BoolPropMapper(this, DaemonOptions::reportPerf))
 }
@@ -278,6 +288,7 @@ fun configureDaemonJVMOptions(opts: DaemonJVMOptions,
     if (inheritAdditionalProperties) {
         System.getProperty(COMPILE_DAEMON_LOG_PATH_PROPERTY)?.let { opts.jvmParams.add("D${COMPILE_DAEMON_LOG_PATH_PROPERTY}=\"$it\"") }
         System.getProperty(KOTLIN_COMPILER_ENVIRONMENT_KEEPALIVE_PROPERTY)?.let { opts.jvmParams.add("D${KOTLIN_COMPILER_ENVIRONMENT_KEEPALIVE_PROPERTY}") }
+        System.getProperty(KOTLIN_COMPILER_JAVA_CLASS_CACHE_PROPERTY)?.let { opts.jvmParams.add("D${KOTLIN_COMPILER_JAVA_CLASS_CACHE_PROPERTY}=$it") }
     }
     return opts
 }
@@ -18,6 +18,7 @@ package org.jetbrains.kotlin.daemon.common
 
 import java.lang.management.ManagementFactory
 import java.lang.management.ThreadMXBean
+import java.util.*
 import java.util.concurrent.atomic.AtomicLong
 
 interface PerfCounters {
@@ -165,10 +166,13 @@ class WallAndThreadAndMemoryTotalProfiler(val withGC: Boolean) : TotalProfiler()
 
 class WallAndThreadByClassProfiler() : TotalProfiler() {
 
+    // guarded by itself: the profiler is shared by concurrent calls (e.g. RPC callbacks); not a concurrent map because the key may be null
     val counters = hashMapOf<Any?, SimplePerfCountersWithTotal>()
 
-    override fun getCounters(): Map<Any?, PerfCounters> = counters
+    override fun getCounters(): Map<Any?, PerfCounters> = synchronized(counters) { HashMap(counters) }
 
-    override final inline fun <R> withMeasure(obj: Any?, body: () -> R): R =
-            withMeasureWallAndThreadTimes(counters.getOrPut(obj?.javaClass?.name, { SimplePerfCountersWithTotal(total) }), threadMXBean, body)
+    override final inline fun <R> withMeasure(obj: Any?, body: () -> R): R {
+        val counter = synchronized(counters) { counters.getOrPut(obj?.javaClass?.name, { SimplePerfCountersWithTotal(total) }) }
+        return withMeasureWallAndThreadTimes(counter, threadMXBean, body)
+    }
 }
@@ -24,8 +24,11 @@ import org.jetbrains.kotlin.cli.common.KOTLIN_COMPILER_ENVIRONMENT_KEEPALIVE_PRO
 import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
 import org.jetbrains.kotlin.config.Services
 import org.jetbrains.kotlin.daemon.common.*
+import org.jetbrains.kotlin.load.kotlin.DeserializedProtoDataCache
+import org.jetbrains.kotlin.load.kotlin.KotlinBinaryClassCache
 import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCompilationComponents
 import org.jetbrains.kotlin.progress.CompilationCanceledStatus
+import org.jetbrains.kotlin.utils.PathUtil
 import org.jetbrains.kotlin.utils.addToStdlib.check
 import java.io.BufferedOutputStream
 import java.io.File
@@ -43,6 +46,7 @@ import java.util.logging.Logger
 import kotlin.comparisons.compareByDescending
 import kotlin.concurrent.read
 import kotlin.concurrent.schedule
+import kotlin.concurrent.thread
 import kotlin.concurrent.write
 
 fun nowSeconds() = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime())
@@ -80,6 +84,8 @@ class CompileServiceImpl(
 
     init {
         System.setProperty(KOTLIN_COMPILER_ENVIRONMENT_KEEPALIVE_PROPERTY, "true")
+        // library metadata is the same in most of the compilations, so parsed protos are reused between them
+        System.setProperty(DeserializedProtoDataCache.ENABLED_PROPERTY, "true")
     }
 
     // wrapped in a class to encapsulate alive check logic
@@ -118,6 +124,19 @@ class CompileServiceImpl(
 
     private val rwlock = ReentrantReadWriteLock()
 
+    private val activeCompilationsCounter = AtomicInteger(0)
+    private val activeCompilationsLock = Object()
+
+    private val warmUp: DaemonWarmUp? = if (daemonOptions.warmUp) DaemonWarmUp(daemonOptions.startupClassListPath, PathUtil.getKotlinPathsForCompiler().runtimePath) else null
+
+    private val memoryWatcher: MemoryPressureWatcher? =
+            if (daemonOptions.memoryPressureThresholdPercent == COMPILE_DAEMON_MEMORY_PRESSURE_WATCH_DISABLED) null
+            else MemoryPressureWatcher(daemonOptions.memoryPressureThresholdPercent) {
+                timer.schedule(0) {
+                    releaseMemory()
+                }
+            }
+
     private var runFile: File
 
     init {
@@ -141,6 +160,8 @@ class CompileServiceImpl(
 
     override fun getDaemonJVMOptions(): CompileService.CallResult<DaemonJVMOptions> = ifAlive { daemonJVMOptions }
 
+    override fun getWarmUpProgress(): CompileService.CallResult<Int> = ifAlive { warmUp?.progress ?: 100 }
+
     override fun registerClient(aliveFlagPath: String?): CompileService.CallResult<Nothing> = ifAlive_Nothing {
         synchronized(state.clientProxies) {
             state.clientProxies.add(ClientOrSessionProxy(aliveFlagPath))
@@ -193,7 +214,7 @@ class CompileServiceImpl(
             (compilerId.compilerClasspath.all { expectedCompilerId.compilerClasspath.contains(it) }) &&
             !classpathWatcher.isChanged
 
-    override fun getUsedMemory(): CompileService.CallResult<Long> = ifAlive { usedMemory(withGC = true) }
+    override fun getUsedMemory(): CompileService.CallResult<Long> = ifAlive { usedMemory(withGC = false) }
 
     override fun shutdown(): CompileService.CallResult<Nothing> = ifAliveExclusive_Nothing(minAliveness = Aliveness.LastSession, ignoreCompilerChanged = true) {
         shutdownImpl()
@@ -279,6 +300,16 @@ class CompileServiceImpl(
         timer.schedule(0) {
             initiateElections()
         }
+        warmUp?.let { warmUp ->
+            thread(isDaemon = true, name = "warm-up", priority = Thread.MIN_PRIORITY) {
+                warmUp.run { args ->
+                    // not counted as a compilation, so it doesn't affect the shutdown conditions
+                    ifAlive {
+                        compiler[CompileService.TargetPlatform.JVM].exec(PrintStream(LogStream("warm-up")), *args)
+                    }.let { if (it.isGood) it.get() else null }
+                }
+            }
+        }
         timer.schedule(delay = DAEMON_PERIODIC_CHECK_INTERVAL_MS, period = DAEMON_PERIODIC_CHECK_INTERVAL_MS) {
             try {
                 periodicAndAfterSessionCheck()
@@ -375,6 +406,7 @@ class CompileServiceImpl(
         log.info("Shutdown started")
         state.alive.set(Aliveness.Dying.ordinal)
         UnicastRemoteObject.unexportObject(this, true)
+        memoryWatcher?.dispose()
         log.info("Shutdown complete")
         onShutdown()
     }
@@ -407,15 +439,22 @@ class CompileServiceImpl(
                           compilerMessagesStreamProxy: RemoteOutputStream,
                           serviceOutputStreamProxy: RemoteOutputStream,
                           operationsTracer: RemoteOperationsTracer?,
-                          body: (PrintStream, EventManger, Profiler) -> ExitCode): CompileService.CallResult<Int> =
-            ifAlive {
+                          body: (PrintStream, EventManger, Profiler) -> ExitCode): CompileService.CallResult<Int> {
+        // waiting happens before taking the read lock, otherwise releaseMemory could not take the write lock while compilations are queued
+        val memoryPressureMessage = enterCompilation()
+        try {
+            return ifAlive {
 
                 operationsTracer?.before("compile")
                 compilationsCounter.incrementAndGet()
-                val rpcProfiler = if (daemonOptions.reportPerf) WallAndThreadTotalProfiler() else DummyProfiler()
+                // reporting rpc calls by the client class to see the number of round trips for every callback service
+                val rpcProfiler = if (daemonOptions.reportPerf) WallAndThreadByClassProfiler() else DummyProfiler()
                 val eventManger = EventMangerImpl()
-                val compilerMessagesStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(compilerMessagesStreamProxy, rpcProfiler), 4096))
-                val serviceOutputStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(serviceOutputStreamProxy, rpcProfiler), 4096))
+                val compilerMessagesStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(compilerMessagesStreamProxy, rpcProfiler), REMOTE_STREAM_BUFFER_SIZE))
+                val serviceOutputStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(serviceOutputStreamProxy, rpcProfiler), REMOTE_STREAM_BUFFER_SIZE))
+                if (memoryPressureMessage != null && (daemonOptions.verbose || daemonOptions.reportPerf)) {
+                    serviceOutputStream.println(memoryPressureMessage)
+                }
                 try {
                     checkedCompile(args, serviceOutputStream, rpcProfiler) {
                         val res = body(compilerMessagesStream, eventManger, rpcProfiler).code
@@ -430,6 +469,46 @@ class CompileServiceImpl(
                     operationsTracer?.after("compile")
                 }
             }
+        }
+        finally {
+            synchronized(activeCompilationsLock) {
+                activeCompilationsCounter.decrementAndGet()
+                activeCompilationsLock.notifyAll()
+            }
+        }
+    }
+
+    // registering a compilation; while memory is short and other compilations are running, it is queued instead of risking OOM in all of them
+    // returns the message to report if the compilation had to wait
+    private fun enterCompilation(): String? {
+        val watcher = memoryWatcher
+        val startTime = System.nanoTime()
+        fun waitedMs() = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+        var waited = false
+        synchronized(activeCompilationsLock) {
+            while (watcher != null && watcher.isUnderPressure && activeCompilationsCounter.get() > 0 &&
+                   waitedMs() < COMPILE_DAEMON_MEMORY_PRESSURE_MAX_WAIT_MS) {
+                waited = true
+                activeCompilationsLock.wait(DAEMON_PERIODIC_CHECK_INTERVAL_MS)
+            }
+            activeCompilationsCounter.incrementAndGet()
+        }
+        if (watcher == null || !waited) return null
+
+        return "Memory pressure: compilation waited ${waitedMs()} ms for other compilations to finish (${watcher.pressureEvents} pressure events so far)".apply {
+            log.info(this)
+        }
+    }
+
+    private fun releaseMemory() {
+        // exclusive lock guarantees that no compilation is using the caches or the environment being dropped
+        ifAliveExclusive(minAliveness = Aliveness.LastSession, ignoreCompilerChanged = true) {
+            log.info("Memory pressure: dropping caches")
+            clearJarCache()
+            DeserializedProtoDataCache.getInstanceIfEnabled()?.clear()
+            KotlinCoreEnvironment.disposeApplicationEnvironment()
+        }
+    }
 
     private fun createCompileServices(facade: CompilerCallbackServicesFacade, eventManger: EventManger, rpcProfiler: Profiler): Services {
         val builder = Services.Builder()
@@ -463,7 +542,7 @@ class CompileServiceImpl(
                 val pc = profiler.getTotalCounters()
                 val rpc = rpcProfiler.getTotalCounters()
 
-                "PERF: Compile on daemon: ${pc.time.ms()} ms; thread: user ${pc.threadUserTime.ms()} ms, sys ${(pc.threadTime - pc.threadUserTime).ms()} ms; rpc: ${rpc.count} calls, ${rpc.time.ms()} ms, thread ${rpc.threadTime.ms()} ms; memory: ${endMem.kb()} kb (${"%+d".format(pc.memory.kb())} kb)".let {
+                "PERF: Compile on daemon: ${pc.time.ms()} ms; thread: user ${pc.threadUserTime.ms()} ms, sys ${(pc.threadTime - pc.threadUserTime).ms()} ms; rpc: ${rpc.count} calls, ${rpc.time.ms()} ms, thread ${rpc.threadTime.ms()} ms; memory: ${endMem.kb()} kb (${"%+d".format(pc.memory.kb())} kb); memory pressure events: ${memoryWatcher?.pressureEvents ?: 0}".let {
                     serviceOut.println(it)
                     log.info(it)
                 }
@@ -488,6 +567,7 @@ class CompileServiceImpl(
     private fun clearJarCache() {
         ZipHandler.clearFileAccessorCache()
         (KotlinCoreEnvironment.applicationEnvironment?.jarFileSystem as? CoreJarFileSystem)?.clearHandlersCache()
+        KotlinBinaryClassCache.onJarFileSystemCleared()
     }
 
     // copied (with edit) from gradle plugin
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon
+
+import org.jetbrains.kotlin.cli.common.ExitCode
+import java.io.File
+import java.io.IOException
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.logging.Level
+import java.util.logging.Logger
+import kotlin.system.measureTimeMillis
+
+
+val DAEMON_WARM_UP_ITERATIONS = 5
+
+
+/**
+ * Brings the daemon JVM into a "warm" state before the first real compilation:
+ * preloads classes from the startup class list (if given) and compiles a synthetic workload several times,
+ * so the parser, resolve, codegen and the inliner get JIT-compiled
+ */
+class DaemonWarmUp(
+        private val startupClassListPath: String,
+        private val stdlibPath: File?,
+        private val iterations: Int = DAEMON_WARM_UP_ITERATIONS
+) {
+
+    private val log by lazy { Logger.getLogger("warm-up") }
+
+    private val totalSteps = iterations + (if (startupClassListPath.isNotBlank()) 1 else 0)
+    private val stepsDone = AtomicInteger(0)
+
+    // in percents
+    val progress: Int get() = if (totalSteps == 0) 100 else stepsDone.get() * 100 / totalSteps
+
+    // compile returns null if the compilation could not be started, e.g. because the daemon is shutting down
+    fun run(compile: (args: Array<String>) -> ExitCode?) {
+        log.info("Warm-up started")
+        if (startupClassListPath.isNotBlank()) {
+            preloadClasses(File(startupClassListPath))
+            stepsDone.incrementAndGet()
+        }
+
+        val workDir = createTempDir("kotlin-daemon-warm-up")
+        try {
+            val source = File(workDir, "warmUp.kt").apply { writeText(WARM_UP_SOURCE) }
+            val classpathArgs =
+                    if (stdlibPath != null && stdlibPath.exists()) arrayOf("-no-stdlib", "-classpath", stdlibPath.absolutePath)
+                    else emptyArray()
+            val args = arrayOf(source.absolutePath, "-d", File(workDir, "out").absolutePath, "-module-name", "warmUp") + classpathArgs
+            for (iteration in 1..iterations) {
+                var exitCode: ExitCode? = null
+                val time = measureTimeMillis { exitCode = compile(args) }
+                if (exitCode == null) {
+                    log.info("Warm-up interrupted: the daemon is not accepting compilations")
+                    break
+                }
+                if (exitCode != ExitCode.OK) {
+                    log.warning("Warm-up compilation $iteration of $iterations finished with $exitCode in $time ms")
+                }
+                else {
+                    log.info("Warm-up compilation $iteration of $iterations done in $time ms")
+                }
+                stepsDone.incrementAndGet()
+            }
+        }
+        catch (e: Exception) {
+            log.log(Level.WARNING, "Warm-up failed", e)
+        }
+        finally {
+            workDir.deleteRecursively()
+            // reporting warm-up as done even if it failed, it is not a reason to avoid the daemon
+            stepsDone.set(totalSteps)
+        }
+        log.info("Warm-up finished")
+    }
+
+    private fun preloadClasses(classList: File) {
+        val classLoader = this.javaClass.classLoader
+        var loaded = 0
+        try {
+            classList.forEachLine { line ->
+                // supporting both binary names and the internal names used in the JVM class lists
+                val className = line.trim().replace('/', '.')
+                if (className.isNotEmpty() && !className.startsWith("#")) {
+                    try {
+                        Class.forName(className, false, classLoader)
+                        loaded++
+                    }
+                    catch (e: ClassNotFoundException) {
+                        // the list may be recorded for a different compiler version, ignoring
+                    }
+                    catch (e: LinkageError) {
+                        // ditto
+                    }
+                }
+            }
+        }
+        catch (e: IOException) {
+            log.log(Level.WARNING, "Unable to read startup class list $classList", e)
+        }
+        log.info("Preloaded $loaded classes from $classList")
+    }
+}
+
+
+// covers the main compiler parts: declarations and generics for resolve, control flow, lambdas and inline functions for codegen and the inliner
+private val WARM_UP_SOURCE = """
+package warmUp
+
+interface Shape {
+    val area: Double
+    fun scale(factor: Double): Shape
+}
+
+data class Rect(val width: Double, val height: Double) : Shape {
+    override val area: Double get() = width * height
+    override fun scale(factor: Double) = Rect(width * factor, height * factor)
+}
+
+data class Circle(val radius: Double) : Shape {
+    override val area: Double get() = Math.PI * radius * radius
+    override fun scale(factor: Double) = Circle(radius * factor)
+}
+
+sealed class Expr {
+    class Num(val value: Int) : Expr()
+    class Sum(val left: Expr, val right: Expr) : Expr()
+    class Mul(val left: Expr, val right: Expr) : Expr()
+}
+
+fun eval(e: Expr): Int = when (e) {
+    is Expr.Num -> e.value
+    is Expr.Sum -> eval(e.left) + eval(e.right)
+    is Expr.Mul -> eval(e.left) * eval(e.right)
+}
+
+class Registry<K : Comparable<K>, V>(private val default: () -> V) {
+    private val entries = hashMapOf<K, V>()
+
+    operator fun get(key: K): V = entries.getOrPut(key, default)
+
+    operator fun set(key: K, value: V) {
+        entries[key] = value
+    }
+
+    inline fun <R> withSorted(block: (List<K>) -> R): R = block(keys().sorted())
+
+    fun keys(): Collection<K> = entries.keys
+}
+
+inline fun <T, R> T.transform(times: Int, f: (T) -> R): List<R> {
+    val result = ArrayList<R>(times)
+    for (i in 0..times - 1) {
+        result.add(f(this))
+    }
+    return result
+}
+
+inline fun measure(name: String, block: () -> Unit): String {
+    val start = System.nanoTime()
+    block()
+    return name + ": " + (System.nanoTime() - start)
+}
+
+fun shapes(): List<Shape> = (1..100).map { if (it % 2 == 0) Rect(it.toDouble(), 2.0) else Circle(it.toDouble()) }
+
+fun main(args: Array<String>) {
+    var total = 0.0
+    val report = measure("shapes") {
+        total = shapes().filter { it.area > 10.0 }.map { it.scale(2.0) }.sumByDouble { it.area }
+    }
+    val registry = Registry<String, MutableList<Int>> { arrayListOf() }
+    for ((index, arg) in args.withIndex()) {
+        registry[arg].add(index)
+    }
+    val sorted = registry.withSorted { keys -> keys.joinToString() }
+    val exprs = 10.transform(5) { Expr.Sum(Expr.Num(it), Expr.Mul(Expr.Num(2), Expr.Num(it))) }
+    val lazyValue = lazy { exprs.map(::eval).fold(0) { acc, v -> acc + v } }
+    val text = buildString {
+        append(report)
+        append(sorted)
+        append(lazyValue.value)
+        append(total)
+    }
+    var i = 0
+    do {
+        i += text.length
+    } while (i < 1000)
+    println(text.substring(0, Math.min(text.length, 10)) + i)
+}
+"""
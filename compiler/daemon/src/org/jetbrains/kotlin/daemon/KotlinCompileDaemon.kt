@@ -111,6 +111,11 @@ object KotlinCompileDaemon {
                 throw IllegalArgumentException("Unknown arguments: " + filteredArgs.joinToString(" "))
             }
 
+            daemonOptions.memoryPressureThresholdPercent.let {
+                if (it != COMPILE_DAEMON_MEMORY_PRESSURE_WATCH_DISABLED && it !in 1..100)
+                    throw IllegalArgumentException("Invalid memory pressure threshold: $it%, expected a value within 1..100 or 0 to disable")
+            }
+
             log.info("starting daemon")
 
             // TODO: find minimal set of permissions and restore security management
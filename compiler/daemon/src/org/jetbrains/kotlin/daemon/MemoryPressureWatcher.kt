@@ -0,0 +1,67 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon
+
+import java.lang.management.ManagementFactory
+import java.lang.management.MemoryNotificationInfo
+import java.lang.management.MemoryPoolMXBean
+import java.lang.management.MemoryType
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.logging.Logger
+import javax.management.Notification
+import javax.management.NotificationEmitter
+import javax.management.NotificationListener
+
+/**
+ * Watches heap pools for the usage after GC crossing the given percentage of the pool maximum.
+ * It relies on JMX collection usage thresholds. No polling or explicit GC is involved.
+ */
+class MemoryPressureWatcher(thresholdPercent: Int, private val onPressure: () -> Unit) {
+    init {
+        require(thresholdPercent in 1..100) { "Memory pressure threshold should be within 1..100 percent, got $thresholdPercent" }
+    }
+
+    private val log by lazy { Logger.getLogger("memory watcher") }
+
+    private val pools: List<MemoryPoolMXBean> =
+            ManagementFactory.getMemoryPoolMXBeans().filter { it.type == MemoryType.HEAP && it.isCollectionUsageThresholdSupported && it.usage.max > 0 }
+
+    private val pressureEventsCounter = AtomicInteger(0)
+
+    private val listener = NotificationListener { notification: Notification, handback: Any? ->
+        if (notification.type == MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED) {
+            pressureEventsCounter.incrementAndGet()
+            log.info("Memory usage after GC exceeded the threshold: ${notification.message}")
+            onPressure()
+        }
+    }
+
+    init {
+        for (pool in pools) {
+            pool.collectionUsageThreshold = pool.usage.max / 100 * thresholdPercent
+        }
+        (ManagementFactory.getMemoryMXBean() as NotificationEmitter).addNotificationListener(listener, null, null)
+    }
+
+    val pressureEvents: Int get() = pressureEventsCounter.get()
+
+    val isUnderPressure: Boolean get() = pools.any { it.isCollectionUsageThresholdExceeded }
+
+    fun dispose() {
+        (ManagementFactory.getMemoryMXBean() as NotificationEmitter).removeNotificationListener(listener)
+    }
+}
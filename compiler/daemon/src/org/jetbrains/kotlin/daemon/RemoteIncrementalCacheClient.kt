@@ -18,30 +18,74 @@ package org.jetbrains.kotlin.daemon
 
 import org.jetbrains.kotlin.daemon.common.CompilerCallbackServicesFacade
 import org.jetbrains.kotlin.daemon.common.DummyProfiler
+import org.jetbrains.kotlin.daemon.common.InlineRegistration
 import org.jetbrains.kotlin.daemon.common.Profiler
 import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCache
 import org.jetbrains.kotlin.load.kotlin.incremental.components.JvmPackagePartProto
 import org.jetbrains.kotlin.modules.TargetId
 
-class RemoteIncrementalCacheClient(val facade: CompilerCallbackServicesFacade, val target: TargetId, val profiler: Profiler = DummyProfiler()): IncrementalCache {
+/**
+ * Caches don't change on the client side while the compilation is running, so query results are memoized here and every query
+ * goes over RMI at most once; inline registrations are sent in a single batch on close or at the end of the compilation
+ */
+class RemoteIncrementalCacheClient(val facade: CompilerCallbackServicesFacade, val target: TargetId, eventManger: EventManger, val profiler: Profiler = DummyProfiler()): IncrementalCache {
+
+    private val obsoletePackageParts by lazy { profiler.withMeasure(this) { facade.incrementalCache_getObsoletePackageParts(target) } }
+    private val obsoleteMultifileClasses by lazy { profiler.withMeasure(this) { facade.incrementalCache_getObsoleteMultifileClassFacades(target) } }
+    private val moduleMappingData by lazy { profiler.withMeasure(this) { facade.incrementalCache_getModuleMappingData(target) } }
 
-    override fun getObsoletePackageParts(): Collection<String> = profiler.withMeasure(this) { facade.incrementalCache_getObsoletePackageParts(target) }
+    private val multifileFacadeParts = NullableValuesCache<Collection<String>>()
+    private val packagePartData = NullableValuesCache<JvmPackagePartProto>()
+    private val multifileFacades = NullableValuesCache<String>()
+    private val classFilePaths = hashMapOf<String, String>()
 
-    override fun getObsoleteMultifileClasses(): Collection<String> = profiler.withMeasure(this) { facade.incrementalCache_getObsoleteMultifileClassFacades(target) }
+    private val inlines = arrayListOf<InlineRegistration>()
+
+    init {
+        eventManger.onCompilationFinished { flushInlines() }
+    }
 
-    override fun getStableMultifileFacadeParts(facadeInternalName: String): Collection<String>? = profiler.withMeasure(this) { facade.incrementalCache_getMultifileFacadeParts(target, facadeInternalName) }
+    override fun getObsoletePackageParts(): Collection<String> = obsoletePackageParts
 
-    override fun getPackagePartData(partInternalName: String): JvmPackagePartProto? = profiler.withMeasure(this) { facade.incrementalCache_getPackagePartData(target, partInternalName) }
+    override fun getObsoleteMultifileClasses(): Collection<String> = obsoleteMultifileClasses
 
-    override fun getMultifileFacade(partInternalName: String): String? = profiler.withMeasure(this) { facade.incrementalCache_getMultifileFacade(target, partInternalName) }
+    override fun getStableMultifileFacadeParts(facadeInternalName: String): Collection<String>? =
+            multifileFacadeParts.getOrPut(facadeInternalName) { profiler.withMeasure(this) { facade.incrementalCache_getMultifileFacadeParts(target, facadeInternalName) } }
 
-    override fun getModuleMappingData(): ByteArray? = profiler.withMeasure(this) { facade.incrementalCache_getModuleMappingData(target) }
+    override fun getPackagePartData(partInternalName: String): JvmPackagePartProto? =
+            packagePartData.getOrPut(partInternalName) { profiler.withMeasure(this) { facade.incrementalCache_getPackagePartData(target, partInternalName) } }
+
+    override fun getMultifileFacade(partInternalName: String): String? =
+            multifileFacades.getOrPut(partInternalName) { profiler.withMeasure(this) { facade.incrementalCache_getMultifileFacade(target, partInternalName) } }
+
+    override fun getModuleMappingData(): ByteArray? = moduleMappingData
 
     override fun registerInline(fromPath: String, jvmSignature: String, toPath: String) {
-        profiler.withMeasure(this) { facade.incrementalCache_registerInline(target, fromPath, jvmSignature, toPath) }
+        inlines.add(InlineRegistration(fromPath, jvmSignature, toPath))
+    }
+
+    override fun getClassFilePath(internalClassName: String): String =
+            classFilePaths.getOrPut(internalClassName) { profiler.withMeasure(this) { facade.incrementalCache_getClassFilePath(target, internalClassName) } }
+
+    override fun close() {
+        flushInlines()
+        profiler.withMeasure(this) { facade.incrementalCache_close(target) }
     }
 
-    override fun getClassFilePath(internalClassName: String): String = profiler.withMeasure(this) { facade.incrementalCache_getClassFilePath(target,internalClassName) }
+    private fun flushInlines() {
+        if (inlines.isEmpty()) return
 
-    override fun close(): Unit = profiler.withMeasure(this) { facade.incrementalCache_close(target) }
+        profiler.withMeasure(this) {
+            facade.incrementalCache_registerInlines(target, inlines)
+        }
+
+        inlines.clear()
+    }
+
+    private class NullableValuesCache<V : Any> {
+        private val map = hashMapOf<String, V?>()
+
+        fun getOrPut(key: String, compute: () -> V?): V? =
+                if (map.containsKey(key)) map[key] else compute().apply { map[key] = this }
+    }
 }
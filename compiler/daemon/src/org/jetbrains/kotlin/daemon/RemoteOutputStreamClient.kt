@@ -21,6 +21,9 @@ import org.jetbrains.kotlin.daemon.common.Profiler
 import org.jetbrains.kotlin.daemon.common.RemoteOutputStream
 import java.io.OutputStream
 
+// large enough to send the output of a typical compilation in a few rmi calls
+val REMOTE_STREAM_BUFFER_SIZE = 64 * 1024
+
 class RemoteOutputStreamClient(val remote: RemoteOutputStream, val profiler: Profiler = DummyProfiler()): OutputStream() {
     override fun write(data: ByteArray) {
         profiler.withMeasure(this) { remote.write(data, 0, data.size) }
@@ -70,6 +70,9 @@ public class JVMConfigurationKeys {
     public static final CompilerConfigurationKey<List<Module>> MODULES =
             CompilerConfigurationKey.create("module data");
 
+    public static final CompilerConfigurationKey<Integer> PARALLEL_BODY_RESOLUTION_THREADS =
+            CompilerConfigurationKey.create("number of threads to resolve function bodies with");
+
     public static final CompilerConfigurationKey<Boolean> LOAD_SCRIPT_CONFIGS =
             CompilerConfigurationKey.create("Load script configuration files from project directory tree");
 
@@ -21,9 +21,25 @@ import com.intellij.openapi.Disposable
 import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.components.ServiceManager
 import com.intellij.openapi.util.Computable
+import com.intellij.openapi.vfs.StandardFileSystems
 import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.util.containers.ContainerUtil
+import com.intellij.util.io.URLUtil
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.util.*
+import java.util.zip.CRC32
 
-class KotlinBinaryClassCache : Disposable {
+/**
+ * @param cacheJavaClassesInJars if true, class files from jars which turned out not to be Kotlin classes are remembered for the lifetime
+ * of this service (in the compiler daemon, across builds), so that they are not read again only to find out that there's no Kotlin metadata.
+ * Each jar is checked for changes once per compilation session (see [onJarFileSystemCleared]), and its classes are forgotten
+ * as soon as its length or central directory change, or if it is not used during a session
+ */
+class KotlinBinaryClassCache(private val cacheJavaClassesInJars: Boolean = false) : Disposable {
     private class RequestCache {
         internal var virtualFile: VirtualFile? = null
         internal var modificationStamp: Long = 0
@@ -44,14 +60,131 @@ class KotlinBinaryClassCache : Disposable {
         }
     }
 
+    // Jar entries are recreated by the jar file system whenever its handlers are dropped (the daemon does so after every build),
+    // so the classes are remembered by paths. Time stamps of entries are unreliable (e.g. they're all equal in reproducible jars),
+    // so the whole set of a jar is invalidated as soon as the jar file itself changes.
+    // Values are soft, so that classes of big jars don't stay in memory when it's low
+    private val javaClassesInJars = ContainerUtil.createConcurrentSoftValueMap<String, JavaClassesInJar>()
+
+    @Volatile private var session = 0
+
+    private class JavaClassesInJar(val fingerprint: JarFingerprint?, @Volatile var validatedInSession: Int) {
+        val entryPaths: MutableSet<String> = Collections.newSetFromMap(ContainerUtil.newConcurrentMap<String, Boolean>())
+    }
+
+    // The central directory of a jar holds sizes and CRCs of all its entries, so it changes whenever any entry does,
+    // even if the length and the modification time of the jar stay the same
+    private data class JarFingerprint(val length: Long, val centralDirectoryCrc: Long)
+
+    // Losing an entry to a concurrent update is fine, the classes will only be read once more
+    private fun getJavaClassesInJar(jarPath: String): JavaClassesInJar {
+        val currentSession = session
+        val cached = javaClassesInJars[jarPath]
+        if (cached != null && cached.validatedInSession == currentSession) return cached
+
+        val fingerprint = readJarFingerprint(File(jarPath))
+        if (cached != null && fingerprint != null && cached.fingerprint == fingerprint) {
+            cached.validatedInSession = currentSession
+            return cached
+        }
+
+        val classes = JavaClassesInJar(fingerprint, currentSession)
+        javaClassesInJars[jarPath] = classes
+        return classes
+    }
+
+    private fun startNewSession() {
+        val finishedSession = session
+        for (jarPath in javaClassesInJars.keys.toList()) {
+            val classes = javaClassesInJars[jarPath]
+            if (classes != null && classes.validatedInSession != finishedSession) {
+                javaClassesInJars.remove(jarPath)
+            }
+        }
+        session = finishedSession + 1
+    }
+
+    private fun isKnownJavaClass(file: VirtualFile): Boolean {
+        if (!cacheJavaClassesInJars || file.fileSystem.protocol != StandardFileSystems.JAR_PROTOCOL) return false
+
+        val (jarPath, entryPath) = splitJarEntryPath(file) ?: return false
+        return entryPath in getJavaClassesInJar(jarPath).entryPaths
+    }
+
+    private fun cacheResult(file: VirtualFile, aClass: VirtualFileKotlinClass?) {
+        if (!cacheJavaClassesInJars || aClass != null || file.fileSystem.protocol != StandardFileSystems.JAR_PROTOCOL) return
+
+        val (jarPath, entryPath) = splitJarEntryPath(file) ?: return
+        val classes = getJavaClassesInJar(jarPath)
+        // Changes of a jar can't be noticed without its fingerprint, so nothing is remembered for it
+        if (classes.fingerprint != null) {
+            classes.entryPaths.add(entryPath)
+        }
+    }
+
+    private fun splitJarEntryPath(file: VirtualFile): Pair<String, String>? {
+        val path = file.path
+        val separatorIndex = path.indexOf(URLUtil.JAR_SEPARATOR)
+        if (separatorIndex < 0) return null
+        return Pair(path.substring(0, separatorIndex), path.substring(separatorIndex + URLUtil.JAR_SEPARATOR.length))
+    }
+
+    // Reads the end of central directory record (see the ZIP file format specification) and computes the CRC of the central directory.
+    // Returns null for ZIP64 and malformed files
+    private fun readJarFingerprint(jar: File): JarFingerprint? {
+        try {
+            return RandomAccessFile(jar, "r").use { file -> readJarFingerprint(file) }
+        }
+        catch (e: IOException) {
+            return null
+        }
+    }
+
+    private fun readJarFingerprint(file: RandomAccessFile): JarFingerprint? {
+        val length = file.length()
+        val tailLength = Math.min(length, (END_OF_CENTRAL_DIRECTORY_SIZE + MAX_ZIP_COMMENT_LENGTH).toLong()).toInt()
+        val tail = ByteArray(tailLength)
+        file.seek(length - tailLength)
+        file.readFully(tail)
+
+        val buffer = ByteBuffer.wrap(tail).order(ByteOrder.LITTLE_ENDIAN)
+        for (offset in tailLength - END_OF_CENTRAL_DIRECTORY_SIZE downTo 0) {
+            if (buffer.getInt(offset) != END_OF_CENTRAL_DIRECTORY_SIGNATURE) continue
+
+            val centralDirectorySize = buffer.getInt(offset + 12).toLong() and 0xFFFFFFFFL
+            val centralDirectoryOffset = buffer.getInt(offset + 16).toLong() and 0xFFFFFFFFL
+            if (centralDirectoryOffset + centralDirectorySize > length) return null
+
+            val centralDirectory = ByteArray(centralDirectorySize.toInt())
+            file.seek(centralDirectoryOffset)
+            file.readFully(centralDirectory)
+
+            val crc = CRC32()
+            crc.update(centralDirectory)
+            return JarFingerprint(length, crc.value)
+        }
+        return null
+    }
+
     override fun dispose() {
         // This is only relevant for tests. We create a new instance of Application for each test, and so a new instance of this service is
         // also created for each test. However all tests share the same event dispatch thread, which would collect all instances of this
         // thread-local if they're not removed properly. Each instance would transitively retain VFS resulting in OutOfMemoryError
         cache.remove()
+        javaClassesInJars.clear()
     }
 
     companion object {
+        private val END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50
+        private val END_OF_CENTRAL_DIRECTORY_SIZE = 22
+        private val MAX_ZIP_COMMENT_LENGTH = 0xFFFF
+
+        // Should be called whenever the handlers of the jar file system are dropped, as the daemon does after each compilation session
+        fun onJarFileSystemCleared() {
+            if (ApplicationManager.getApplication() == null) return
+            ServiceManager.getService(KotlinBinaryClassCache::class.java)?.startNewSession()
+        }
+
         fun getKotlinBinaryClass(file: VirtualFile, fileContent: ByteArray? = null): KotlinJvmBinaryClass? {
             if (file.fileType !== JavaClassFileType.INSTANCE) return null
 
@@ -62,11 +195,17 @@ class KotlinBinaryClassCache : Disposable {
                 return requestCache.virtualFileKotlinClass
             }
 
+            if (service.isKnownJavaClass(file)) {
+                return requestCache.cache(file, null)
+            }
+
             val aClass = ApplicationManager.getApplication().runReadAction(Computable {
                 //noinspection deprecation
                 VirtualFileKotlinClass.create(file, fileContent)
             })
 
+            service.cacheResult(file, aClass)
+
             return requestCache.cache(file, aClass)
         }
     }
@@ -19,25 +19,149 @@ package org.jetbrains.kotlin.cfg
 import org.jetbrains.kotlin.descriptors.VariableDescriptor
 import java.util.*
 
-open class ControlFlowInfo<D> internal constructor(protected val map: MutableMap<VariableDescriptor, D> = hashMapOf()) :
-        MutableMap<VariableDescriptor, D> by map {
-    open fun copy() = ControlFlowInfo(HashMap(map))
+/**
+ * Assigns consecutive indices to variables, so that the control flow infos sharing these indices
+ * can keep variable states in packed arrays instead of hash maps.
+ */
+class VariableIndices {
+    private val indices = HashMap<VariableDescriptor, Int>()
+    private val variables = ArrayList<VariableDescriptor>()
+
+    fun getOrCreateIndex(variable: VariableDescriptor): Int =
+            indices.getOrPut(variable) {
+                variables.add(variable)
+                variables.size - 1
+            }
+
+    // -1 if the variable has no index yet
+    fun getIndex(variable: VariableDescriptor): Int = indices[variable] ?: -1
+
+    operator fun get(index: Int): VariableDescriptor = variables[index]
+}
+
+/**
+ * Variable states are encoded as 4-bit codes packed into longs, where code 0 means that there's no state for a variable.
+ * Copying and comparing infos doesn't depend on the number of variables then, only on the size of the packed array.
+ */
+abstract class ControlFlowInfo<D : Any> internal constructor(
+        val variableIndices: VariableIndices,
+        private var words: LongArray
+) : AbstractMap<VariableDescriptor, D>() {
+    abstract fun copy(): ControlFlowInfo<D>
+
+    internal abstract fun encode(value: D): Int
+
+    internal abstract fun decode(code: Int): D
+
+    protected fun copyWords(): LongArray = words.copyOf()
+
+    internal val wordCount: Int
+        get() = words.size
+
+    internal fun getWord(word: Int): Long = if (word < words.size) words[word] else 0L
+
+    internal fun getCode(index: Int): Int {
+        val word = getWord(index ushr CODES_PER_WORD_LOG)
+        return ((word ushr codeShift(index)) and CODE_MASK).toInt()
+    }
+
+    internal fun setCode(index: Int, code: Int) {
+        val word = index ushr CODES_PER_WORD_LOG
+        if (word >= words.size) {
+            if (code == 0) return
+            words = words.copyOf(word + 1)
+        }
+        val shift = codeShift(index)
+        words[word] = (words[word] and (CODE_MASK shl shift).inv()) or (code.toLong() shl shift)
+    }
 
     fun retainAll(predicate: (VariableDescriptor) -> Boolean): ControlFlowInfo<D> {
-        map.keys.retainAll(predicate)
+        for (index in 0..(words.size shl CODES_PER_WORD_LOG) - 1) {
+            if (getCode(index) != 0 && !predicate(variableIndices[index])) {
+                setCode(index, 0)
+            }
+        }
         return this
     }
 
-    override fun equals(other: Any?) = map == (other as? ControlFlowInfo<*>)?.map
+    override fun get(key: VariableDescriptor): D? {
+        val index = variableIndices.getIndex(key)
+        if (index < 0) return null
+        val code = getCode(index)
+        return if (code != 0) decode(code) else null
+    }
+
+    override fun containsKey(key: VariableDescriptor) = get(key) != null
+
+    override fun put(key: VariableDescriptor, value: D): D? {
+        val index = variableIndices.getOrCreateIndex(key)
+        val previousCode = getCode(index)
+        setCode(index, encode(value))
+        return if (previousCode != 0) decode(previousCode) else null
+    }
+
+    override val size: Int
+        get() = (0..(words.size shl CODES_PER_WORD_LOG) - 1).count { getCode(it) != 0 }
+
+    // A snapshot of the current states, changes to it don't affect this info
+    override val entries: MutableSet<MutableMap.MutableEntry<VariableDescriptor, D>>
+        get() {
+            val result = LinkedHashSet<MutableMap.MutableEntry<VariableDescriptor, D>>()
+            for (index in 0..(words.size shl CODES_PER_WORD_LOG) - 1) {
+                val code = getCode(index)
+                if (code != 0) {
+                    result.add(AbstractMap.SimpleEntry(variableIndices[index], decode(code)))
+                }
+            }
+            return result
+        }
+
+    // Follows the Map contract, the packed words are only compared when both infos decode them the same way
+    override fun equals(other: Any?): Boolean {
+        if (other === this) return true
+        if (other !is ControlFlowInfo<*> || other.javaClass != javaClass || other.variableIndices !== variableIndices) {
+            return super.equals(other)
+        }
+        for (word in 0..Math.max(wordCount, other.wordCount) - 1) {
+            if (getWord(word) != other.getWord(word)) return false
+        }
+        return true
+    }
+
+    // Same as the sum of the entry hash codes required by the Map contract, but without creating the entries
+    override fun hashCode(): Int {
+        var result = 0
+        for (index in 0..(words.size shl CODES_PER_WORD_LOG) - 1) {
+            val code = getCode(index)
+            if (code != 0) {
+                result += variableIndices[index].hashCode() xor decode(code).hashCode()
+            }
+        }
+        return result
+    }
+
+    override fun toString() = entries.joinToString(prefix = "{", postfix = "}")
+
+    companion object {
+        internal const val CODES_PER_WORD_LOG = 4
+        internal const val CODES_PER_WORD = 1 shl CODES_PER_WORD_LOG
+        private const val CODE_MASK = 0xFL
 
-    override fun hashCode() = map.hashCode()
+        private fun codeShift(index: Int) = (index and (CODES_PER_WORD - 1)) shl 2
 
-    override fun toString() = map.toString()
+        internal val NO_WORDS = LongArray(0)
+    }
 }
 
-class InitControlFlowInfo(map: MutableMap<VariableDescriptor, VariableControlFlowState> = hashMapOf()) :
-        ControlFlowInfo<VariableControlFlowState>(map) {
-    override fun copy() = InitControlFlowInfo(HashMap(map))
+class InitControlFlowInfo internal constructor(variableIndices: VariableIndices, words: LongArray) :
+        ControlFlowInfo<VariableControlFlowState>(variableIndices, words) {
+    constructor(variableIndices: VariableIndices) : this(variableIndices, NO_WORDS)
+
+    override fun copy() = InitControlFlowInfo(variableIndices, copyWords())
+
+    override fun encode(value: VariableControlFlowState) = 1 + (value.initState.ordinal shl 1) + (if (value.isDeclared) 1 else 0)
+
+    override fun decode(code: Int) = VariableControlFlowState.create(INIT_STATES[(code - 1) shr 1], (code - 1) and 1 != 0)
 
     // this = output of EXHAUSTIVE_WHEN_ELSE instruction
     // merge = input of MergeInstruction
@@ -51,11 +175,25 @@ class InitControlFlowInfo(map: MutableMap<VariableDescriptor, VariableControlFlo
         }
         return false
     }
+
+    companion object {
+        private val INIT_STATES = InitState.values()
+    }
 }
 
-class UseControlFlowInfo(map: MutableMap<VariableDescriptor, VariableUseState> = hashMapOf()) :
-        ControlFlowInfo<VariableUseState>(map) {
-    override fun copy() = UseControlFlowInfo(HashMap(map))
+class UseControlFlowInfo internal constructor(variableIndices: VariableIndices, words: LongArray) :
+        ControlFlowInfo<VariableUseState>(variableIndices, words) {
+    constructor(variableIndices: VariableIndices) : this(variableIndices, NO_WORDS)
+
+    override fun copy() = UseControlFlowInfo(variableIndices, copyWords())
+
+    override fun encode(value: VariableUseState) = 1 + value.ordinal
+
+    override fun decode(code: Int) = USE_STATES[code - 1]
+
+    companion object {
+        private val USE_STATES = VariableUseState.values()
+    }
 }
 
 enum class InitState(private val s: String) {
@@ -66,17 +66,44 @@ fun <I : ControlFlowInfo<*>> Pseudocode.collectData(
     initializeEdgesMap(edgesMap, initialInfo)
     edgesMap.put(getStartInstruction(traversalOrder), Edges(initialInfo, initialInfo))
 
-    val changed = BooleanArray(1)
-    changed[0] = true
-    while (changed[0]) {
-        changed[0] = false
+    val changes = DataChanges()
+    do {
+        changes.changed = false
         collectDataFromSubgraph(
                 traversalOrder, mergeDataWithLocalDeclarations, edgesMap,
-                mergeEdges, updateEdge, Collections.emptyList<Instruction>(), changed, false)
+                mergeEdges, updateEdge, Collections.emptyList<Instruction>(), changes, false)
     }
+    while (changes.changed)
     return edgesMap
 }
 
+/**
+ * Keeps track of when the data of instructions were last computed and last changed.
+ * The data of an instruction is a function of the data of the instructions it depends on,
+ * so it is recomputed only if some of them have changed since its last computation.
+ */
+private class DataChanges {
+    var changed = true
+
+    private var time = 0
+    private val lastComputation = HashMap<Instruction, Int>()
+    private val lastChange = HashMap<Instruction, Int>()
+
+    fun isUpToDate(instruction: Instruction, dependencies: Collection<Instruction>): Boolean {
+        val computedAt = lastComputation[instruction] ?: return false
+        return dependencies.none { dependency -> (lastChange[dependency] ?: -1) > computedAt }
+    }
+
+    fun computed(instruction: Instruction) {
+        lastComputation[instruction] = time++
+    }
+
+    fun changed(instruction: Instruction) {
+        changed = true
+        lastChange[instruction] = time++
+    }
+}
+
 private fun <I> Pseudocode.initializeEdgesMap(
         edgesMap: MutableMap<Instruction, Edges<I>>,
         initialInfo: I
@@ -98,7 +125,7 @@ private fun <I : ControlFlowInfo<*>> Pseudocode.collectDataFromSubgraph(
         mergeEdges: (Instruction, Collection<I>) -> Edges<I>,
         updateEdge: (Instruction, Instruction, I) -> I,
         previousSubGraphInstructions: Collection<Instruction>,
-        changed: BooleanArray,
+        changes: DataChanges,
         isLocal: Boolean
 ) {
     val instructions = getInstructions(traversalOrder)
@@ -116,9 +143,11 @@ private fun <I : ControlFlowInfo<*>> Pseudocode.collectDataFromSubgraph(
             val previous = if (mergeDataWithLocalDeclarations) previousInstructions else Collections.emptyList()
             subroutinePseudocode.collectDataFromSubgraph(
                     traversalOrder, mergeDataWithLocalDeclarations,
-                    edgesMap, mergeEdges, updateEdge, previous, changed, true)
+                    edgesMap, mergeEdges, updateEdge, previous, changes, true)
             if (mergeDataWithLocalDeclarations) {
                 val lastInstruction = subroutinePseudocode.getLastInstruction(traversalOrder)
+                if (changes.isUpToDate(instruction, listOf(lastInstruction))) continue
+                changes.computed(instruction)
                 val previousValue = edgesMap.get(instruction)
                 val newValue = edgesMap.get(lastInstruction)
                 val updatedValue =
@@ -127,10 +156,13 @@ private fun <I : ControlFlowInfo<*>> Pseudocode.collectDataFromSubgraph(
                         else
                             Edges(updateEdge(lastInstruction, instruction, newValue.incoming),
                                   updateEdge(lastInstruction, instruction, newValue.outgoing))
-                updateEdgeDataForInstruction(instruction, previousValue, updatedValue, edgesMap, changed)
+                updateEdgeDataForInstruction(instruction, previousValue, updatedValue, edgesMap, changes)
                 continue
             }
         }
+        if (changes.isUpToDate(instruction, previousInstructions)) continue
+        changes.computed(instruction)
+
         val previousDataValue = edgesMap.get(instruction)
 
         val incomingEdgesData = HashSet<I>()
@@ -143,7 +175,7 @@ private fun <I : ControlFlowInfo<*>> Pseudocode.collectDataFromSubgraph(
             }
         }
         val mergedData = mergeEdges(instruction, incomingEdgesData)
-        updateEdgeDataForInstruction(instruction, previousDataValue, mergedData, edgesMap, changed)
+        updateEdgeDataForInstruction(instruction, previousDataValue, mergedData, edgesMap, changes)
     }
 }
 
@@ -163,9 +195,9 @@ private fun getPreviousIncludingSubGraphInstructions(
 }
 
 private fun <I : ControlFlowInfo<*>> updateEdgeDataForInstruction(
-        instruction: Instruction, previousValue: Edges<I>?, newValue: Edges<I>?, edgesMap: MutableMap<Instruction, Edges<I>>, changed: BooleanArray) {
+        instruction: Instruction, previousValue: Edges<I>?, newValue: Edges<I>?, edgesMap: MutableMap<Instruction, Edges<I>>, changes: DataChanges) {
     if (previousValue != newValue && newValue != null) {
-        changed[0] = true
+        changes.changed(instruction)
         edgesMap.put(instruction, newValue)
     }
 }
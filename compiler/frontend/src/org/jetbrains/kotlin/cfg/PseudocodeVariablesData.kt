@@ -35,6 +35,8 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
 
     private val declaredVariablesForDeclaration = Maps.newHashMap<Pseudocode, Set<VariableDescriptor>>()
 
+    private val variableIndices = VariableIndices()
+
     val variableInitializers: Map<Instruction, Edges<InitControlFlowInfo>> by lazy {
         computeVariableInitializers()
     }
@@ -91,11 +93,11 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
         val blockScopeVariableInfo = pseudocodeVariableDataCollector.blockScopeVariableInfo
 
         return pseudocodeVariableDataCollector.collectData(
-                TraversalOrder.FORWARD, /*mergeDataWithLocalDeclarations=*/ true, InitControlFlowInfo()
+                TraversalOrder.FORWARD, /*mergeDataWithLocalDeclarations=*/ true, InitControlFlowInfo(variableIndices)
         ) {
             instruction: Instruction, incomingEdgesData: Collection<InitControlFlowInfo> ->
 
-            val enterInstructionData = mergeIncomingEdgesDataForInitializers(incomingEdgesData)
+            val enterInstructionData = mergeIncomingEdgesDataForInitializers(incomingEdgesData, variableIndices)
             val exitInstructionData = addVariableInitStateFromCurrentInstructionIfAny(
                     instruction, enterInstructionData, blockScopeVariableInfo)
             Edges(enterInstructionData, exitInstructionData)
@@ -151,7 +153,7 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
 
     val variableUseStatusData: Map<Instruction, Edges<UseControlFlowInfo>>
         get() = pseudocodeVariableDataCollector.collectData(
-                TraversalOrder.BACKWARD, true, UseControlFlowInfo()
+                TraversalOrder.BACKWARD, true, UseControlFlowInfo(variableIndices)
         ) {
             instruction: Instruction, incomingEdgesData: Collection<UseControlFlowInfo> ->
             val enterResult: UseControlFlowInfo
@@ -160,10 +162,17 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
                 enterResult = incomingEdgesData.single()
             }
             else {
-                enterResult = UseControlFlowInfo()
-                for (edgeData in incomingEdgesData) {
-                    for ((variableDescriptor, variableUseState) in edgeData) {
-                        enterResult.put(variableDescriptor, variableUseState.merge(enterResult[variableDescriptor]))
+                enterResult = UseControlFlowInfo(variableIndices)
+                forEachVariableIndex(incomingEdgesData) { index ->
+                    var variableUseState: VariableUseState? = null
+                    for (edgeData in incomingEdgesData) {
+                        val code = edgeData.getCode(index)
+                        if (code != 0) {
+                            variableUseState = edgeData.decode(code).merge(variableUseState)
+                        }
+                    }
+                    if (variableUseState != null) {
+                        enterResult.setCode(index, enterResult.encode(variableUseState))
                     }
                 }
             }
@@ -209,33 +218,42 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
         }
 
         private fun mergeIncomingEdgesDataForInitializers(
-                incomingEdgesData: Collection<InitControlFlowInfo>
+                incomingEdgesData: Collection<InitControlFlowInfo>,
+                variableIndices: VariableIndices
         ): InitControlFlowInfo {
             if (incomingEdgesData.size == 1) return incomingEdgesData.single()
-            val variablesInScope = Sets.newHashSet<VariableDescriptor>()
-            for (edgeData in incomingEdgesData) {
-                variablesInScope.addAll(edgeData.keys)
-            }
 
-            val enterInstructionData = InitControlFlowInfo()
-            for (variable in variablesInScope) {
+            val enterInstructionData = InitControlFlowInfo(variableIndices)
+            forEachVariableIndex(incomingEdgesData) { index ->
                 var initState: InitState? = null
                 var isDeclared = true
                 for (edgeData in incomingEdgesData) {
-                    val varControlFlowState = edgeData[variable]
-                    if (varControlFlowState != null) {
+                    val code = edgeData.getCode(index)
+                    if (code != 0) {
+                        val varControlFlowState = edgeData.decode(code)
                         initState = initState?.merge(varControlFlowState.initState) ?: varControlFlowState.initState
                         if (!varControlFlowState.isDeclared) {
                             isDeclared = false
                         }
                     }
                 }
-                if (initState == null) {
-                    throw AssertionError("An empty set of incoming edges data")
+                if (initState != null) {
+                    enterInstructionData.setCode(index, enterInstructionData.encode(VariableControlFlowState.create(initState, isDeclared)))
                 }
-                enterInstructionData.put(variable, VariableControlFlowState.create(initState, isDeclared))
             }
             return enterInstructionData
         }
+
+        // Iterates over the indices of the packed words which are non-empty in at least one of the infos
+        private inline fun forEachVariableIndex(infos: Collection<ControlFlowInfo<*>>, action: (Int) -> Unit) {
+            val wordCount = infos.maxBy { it.wordCount }?.wordCount ?: 0
+            for (word in 0..wordCount - 1) {
+                if (infos.all { it.getWord(word) == 0L }) continue
+                val firstIndex = word shl ControlFlowInfo.CODES_PER_WORD_LOG
+                for (index in firstIndex..firstIndex + ControlFlowInfo.CODES_PER_WORD - 1) {
+                    action(index)
+                }
+            }
+        }
     }
 }
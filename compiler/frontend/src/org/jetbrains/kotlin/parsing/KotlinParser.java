@@ -28,9 +28,15 @@ import org.jetbrains.kotlin.script.KotlinScriptDefinitionProvider;
 public class KotlinParser implements PsiParser {
 
     private final KotlinScriptDefinitionProvider scriptDefinitionProvider;
+    private final boolean parseBodiesLazily;
 
     public KotlinParser(Project project) {
+        this(project, true);
+    }
+
+    public KotlinParser(Project project, boolean parseBodiesLazily) {
         scriptDefinitionProvider = KotlinScriptDefinitionProvider.getInstance(project);
+        this.parseBodiesLazily = parseBodiesLazily;
     }
 
     @Override
@@ -42,7 +48,7 @@ public class KotlinParser implements PsiParser {
     // we need this method because we need psiFile
     @NotNull
     public ASTNode parse(IElementType iElementType, PsiBuilder psiBuilder, PsiFile psiFile) {
-        KotlinParsing jetParsing = KotlinParsing.createForTopLevel(new SemanticWhitespaceAwarePsiBuilderImpl(psiBuilder));
+        KotlinParsing jetParsing = KotlinParsing.createForTopLevel(new SemanticWhitespaceAwarePsiBuilderImpl(psiBuilder), parseBodiesLazily);
         if (scriptDefinitionProvider != null && scriptDefinitionProvider.isScript(psiFile)
             || psiFile.getName().endsWith(KotlinParserDefinition.STD_SCRIPT_EXT)) {
             jetParsing.parseScript();
@@ -73,4 +79,11 @@ public class KotlinParser implements PsiParser {
         jetParsing.parseBlockCodeFragment();
         return psiBuilder.getTreeBuilt();
     }
+
+    @NotNull
+    public static ASTNode parseBlockExpression(PsiBuilder psiBuilder) {
+        KotlinParsing jetParsing = KotlinParsing.createForTopLevel(new SemanticWhitespaceAwarePsiBuilderImpl(psiBuilder));
+        jetParsing.parseBlockExpression();
+        return psiBuilder.getTreeBuilt();
+    }
 }
@@ -38,17 +38,23 @@ import org.jetbrains.kotlin.kdoc.psi.impl.KDocLink
 import org.jetbrains.kotlin.lexer.KotlinLexer
 import org.jetbrains.kotlin.lexer.KtKeywordToken
 import org.jetbrains.kotlin.lexer.KtTokens
+import org.jetbrains.kotlin.psi.KtBlockExpression
 import org.jetbrains.kotlin.psi.KtFile
 import org.jetbrains.kotlin.psi.KtWhenEntry
 import org.jetbrains.kotlin.psi.psiUtil.getNonStrictParentOfType
 import org.jetbrains.kotlin.psi.stubs.elements.KtStubElementType
 import org.jetbrains.kotlin.psi.stubs.elements.KtStubElementTypes
 
-class KotlinParserDefinition : ParserDefinition {
+/**
+ * @param parseBodiesLazily whether block bodies of declarations are parsed on the first access, see [KotlinParsing.parseBlock].
+ * It pays off when most of the bodies are never looked at, as in the IDE; the command line compiler analyzes every body,
+ * so it parses them eagerly instead of lexing each body twice.
+ */
+class KotlinParserDefinition(private val parseBodiesLazily: Boolean = true) : ParserDefinition {
 
     override fun createLexer(project: Project): Lexer = KotlinLexer()
 
-    override fun createParser(project: Project): PsiParser = KotlinParser(project)
+    override fun createParser(project: Project): PsiParser = KotlinParser(project, parseBodiesLazily)
 
     override fun getFileNodeType(): IFileElementType = KtStubElementTypes.FILE
 
@@ -66,6 +72,7 @@ class KotlinParserDefinition : ParserDefinition {
             KtNodeTypes.TYPE_CODE_FRAGMENT, KtNodeTypes.EXPRESSION_CODE_FRAGMENT, KtNodeTypes.BLOCK_CODE_FRAGMENT -> ASTWrapperPsiElement(astNode)
             is KDocElementType -> elementType.createPsi(astNode)
             KDocTokens.MARKDOWN_LINK -> KDocLink(astNode)
+            KtNodeTypes.BLOCK -> KtBlockExpression(astNode)
             else -> (elementType as KtNodeType).createPsi(astNode)
         }
     }
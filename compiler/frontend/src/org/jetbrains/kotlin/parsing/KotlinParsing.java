@@ -57,14 +57,18 @@ public class KotlinParsing extends AbstractKotlinParsing {
             RECEIVER_KEYWORD, PARAM_KEYWORD, SETPARAM_KEYWORD, DELEGATE_KEYWORD);
 
     static KotlinParsing createForTopLevel(SemanticWhitespaceAwarePsiBuilder builder) {
-        KotlinParsing kotlinParsing = new KotlinParsing(builder);
+        return createForTopLevel(builder, false);
+    }
+
+    static KotlinParsing createForTopLevel(SemanticWhitespaceAwarePsiBuilder builder, boolean isLazy) {
+        KotlinParsing kotlinParsing = new KotlinParsing(builder, isLazy);
         kotlinParsing.myExpressionParsing = new KotlinExpressionParsing(builder, kotlinParsing);
         return kotlinParsing;
     }
 
     private static KotlinParsing createForByClause(SemanticWhitespaceAwarePsiBuilder builder) {
         final SemanticWhitespaceAwarePsiBuilderForByClause builderForByClause = new SemanticWhitespaceAwarePsiBuilderForByClause(builder);
-        KotlinParsing kotlinParsing = new KotlinParsing(builderForByClause);
+        KotlinParsing kotlinParsing = new KotlinParsing(builderForByClause, false);
         kotlinParsing.myExpressionParsing = new KotlinExpressionParsing(builderForByClause, kotlinParsing) {
             @Override
             protected boolean parseCallWithClosure() {
@@ -84,8 +88,12 @@ public class KotlinParsing extends AbstractKotlinParsing {
 
     private KotlinExpressionParsing myExpressionParsing;
 
-    private KotlinParsing(SemanticWhitespaceAwarePsiBuilder builder) {
+    // Declaration bodies are collapsed into lazy-parseable blocks instead of being parsed, see parseBlock(boolean)
+    private final boolean isLazy;
+
+    private KotlinParsing(SemanticWhitespaceAwarePsiBuilder builder, boolean isLazy) {
         super(builder);
+        this.isLazy = isLazy;
     }
 
     /*
@@ -155,6 +163,24 @@ public class KotlinParsing extends AbstractKotlinParsing {
         marker.done(BLOCK_CODE_FRAGMENT);
     }
 
+    /*
+     * Contents of a collapsed block (see parseBlock(boolean)), tokens that follow the block are reported as unexpected symbols
+     */
+    void parseBlockExpression() {
+        PsiBuilder.Marker block = mark();
+
+        myBuilder.enableNewlines();
+        expect(LBRACE, "Expecting '{' to open a block");
+
+        myExpressionParsing.parseStatements();
+
+        expect(RBRACE, "Expecting '}'");
+        checkForUnexpectedSymbols();
+        myBuilder.restoreNewlinesState();
+
+        block.done(BLOCK);
+    }
+
     void parseScript() {
         PsiBuilder.Marker fileMarker = mark();
 
@@ -1078,7 +1104,7 @@ public class KotlinParsing extends AbstractKotlinParsing {
         else if (at(INIT_KEYWORD)) {
             advance(); // init
             if (at(LBRACE)) {
-                parseBlock();
+                parseBlock(/* collapse = */ true);
             }
             else {
                 mark().error("Expecting '{' after 'init'");
@@ -1155,7 +1181,7 @@ public class KotlinParsing extends AbstractKotlinParsing {
         }
 
         if (at(LBRACE)) {
-            parseBlock();
+            parseBlock(/* collapse = */ true);
         }
     }
 
@@ -1618,7 +1644,7 @@ public class KotlinParsing extends AbstractKotlinParsing {
      */
     private void parseFunctionBody() {
         if (at(LBRACE)) {
-            parseBlock();
+            parseBlock(/* collapse = */ true);
         }
         else if (at(EQ)) {
             advance(); // EQ
@@ -1636,6 +1662,24 @@ public class KotlinParsing extends AbstractKotlinParsing {
      *   ;
      */
     void parseBlock() {
+        parseBlock(/* collapse = */ false);
+    }
+
+    /*
+     * When collapsing, brace-balanced block is not parsed but becomes a single lazy-parseable BLOCK node,
+     * its statements are parsed on the first access by KtBlockExpressionElementType
+     */
+    private void parseBlock(boolean collapse) {
+        if (collapse && isLazy && at(LBRACE)) {
+            PsiBuilder.Marker lazyBlock = mark();
+            if (advanceBalancedBlock()) {
+                lazyBlock.collapse(BLOCK);
+                return;
+            }
+            // No closing brace, the rest of the file would end up in the block: parse it as usual to recover
+            lazyBlock.rollbackTo();
+        }
+
         PsiBuilder.Marker block = mark();
 
         myBuilder.enableNewlines();
@@ -1649,6 +1693,21 @@ public class KotlinParsing extends AbstractKotlinParsing {
         block.done(BLOCK);
     }
 
+    private boolean advanceBalancedBlock() {
+        int braceCount = 0;
+        while (!eof()) {
+            if (_at(LBRACE)) {
+                braceCount++;
+            }
+            else if (_at(RBRACE)) {
+                braceCount--;
+            }
+            advance();
+            if (braceCount == 0) return true;
+        }
+        return false;
+    }
+
     /*
      * delegationSpecifier{","}
      */
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.tree.ILazyParseableElementType;
+import org.jetbrains.kotlin.idea.KotlinLanguage;
+import org.jetbrains.kotlin.parsing.KotlinParser;
+
+/**
+ * Block bodies of functions, accessors, secondary constructors and initializers are not parsed together with the file:
+ * the parser only collapses their tokens into a node of this type, and the statements are parsed when its children are requested.
+ */
+public class KtBlockExpressionElementType extends ILazyParseableElementType {
+    public KtBlockExpressionElementType() {
+        super("BLOCK", KotlinLanguage.INSTANCE);
+    }
+
+    @Override
+    public ASTNode parseContents(ASTNode chameleon) {
+        Project project = chameleon.getTreeParent().getPsi().getProject();
+        PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(project, chameleon, null, getLanguage(), chameleon.getChars());
+        return KotlinParser.parseBlockExpression(builder).getFirstChildNode();
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.resolve
+
+/**
+ * Number of threads [BodyResolver] may use to resolve bodies of top-level and member functions.
+ * Bodies are resolved one after another unless a container explicitly provides a greater value.
+ */
+open class BodyResolveParallelism {
+
+    open val threadCount: Int
+        get() = 1
+
+    class Fixed(override val threadCount: Int) : BodyResolveParallelism()
+
+    companion object {
+        @JvmField val SEQUENTIAL: BodyResolveParallelism = BodyResolveParallelism()
+
+        @JvmStatic fun create(threadCount: Int): BodyResolveParallelism =
+                if (threadCount > 1) Fixed(threadCount) else SEQUENTIAL
+    }
+}
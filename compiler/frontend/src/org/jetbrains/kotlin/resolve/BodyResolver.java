@@ -41,6 +41,8 @@ import org.jetbrains.kotlin.resolve.calls.smartcasts.DataFlowInfo;
 import org.jetbrains.kotlin.resolve.calls.util.CallMaker;
 import org.jetbrains.kotlin.resolve.lazy.ForceResolveUtil;
 import org.jetbrains.kotlin.resolve.scopes.*;
+import org.jetbrains.kotlin.storage.LockBasedLazyResolveStorageManager;
+import org.jetbrains.kotlin.storage.StorageManager;
 import org.jetbrains.kotlin.types.*;
 import org.jetbrains.kotlin.types.expressions.ExpressionTypingServices;
 import org.jetbrains.kotlin.types.expressions.PreliminaryDeclarationVisitor;
@@ -49,8 +51,12 @@ import org.jetbrains.kotlin.types.expressions.typeInfoFactory.TypeInfoFactoryKt;
 import org.jetbrains.kotlin.util.Box;
 import org.jetbrains.kotlin.util.ReenteringLazyValueComputationException;
 import org.jetbrains.kotlin.util.slicedMap.WritableSlice;
+import org.jetbrains.kotlin.utils.CompilerTracer;
+import org.jetbrains.kotlin.utils.ExceptionUtilsKt;
+import org.jetbrains.kotlin.utils.TraceEventSink;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import static org.jetbrains.kotlin.config.LanguageFeature.TopLevelSealedInheritance;
 import static org.jetbrains.kotlin.diagnostics.Errors.*;
@@ -72,6 +78,8 @@ public class BodyResolver {
     @NotNull private final KotlinBuiltIns builtIns;
     @NotNull private final OverloadChecker overloadChecker;
     @NotNull private final LanguageFeatureSettings languageFeatureSettings;
+    @NotNull private final StorageManager storageManager;
+    @NotNull private final BodyResolveParallelism bodyResolveParallelism;
 
     public BodyResolver(
             @NotNull AnnotationResolver annotationResolver,
@@ -87,7 +95,9 @@ public class BodyResolver {
             @NotNull AnnotationChecker annotationChecker,
             @NotNull KotlinBuiltIns builtIns,
             @NotNull OverloadChecker overloadChecker,
-            @NotNull LanguageFeatureSettings languageFeatureSettings
+            @NotNull LanguageFeatureSettings languageFeatureSettings,
+            @NotNull StorageManager storageManager,
+            @NotNull BodyResolveParallelism bodyResolveParallelism
     ) {
         this.annotationResolver = annotationResolver;
         this.bodyResolveCache = bodyResolveCache;
@@ -103,6 +113,8 @@ public class BodyResolver {
         this.valueParameterResolver = valueParameterResolver;
         this.builtIns = builtIns;
         this.languageFeatureSettings = languageFeatureSettings;
+        this.storageManager = storageManager;
+        this.bodyResolveParallelism = bodyResolveParallelism;
     }
 
     private void resolveBehaviorDeclarationBodies(@NotNull BodiesResolveContext c) {
@@ -746,6 +758,11 @@ public class BodyResolver {
     }
 
     private void resolveFunctionBodies(@NotNull BodiesResolveContext c) {
+        if (canResolveFunctionBodiesInParallel(c)) {
+            resolveFunctionBodiesInParallel(c);
+            return;
+        }
+
         for (Map.Entry<KtNamedFunction, SimpleFunctionDescriptor> entry : c.getFunctions().entrySet()) {
             KtNamedFunction declaration = entry.getKey();
 
@@ -762,6 +779,82 @@ public class BodyResolver {
         }
     }
 
+    private boolean canResolveFunctionBodiesInParallel(@NotNull BodiesResolveContext c) {
+        return bodyResolveParallelism.getThreadCount() > 1 &&
+               c.getFunctions().size() > 1 &&
+               !c.getTopDownAnalysisMode().isLocalDeclarations() &&
+               (bodyResolveCache instanceof BodyResolveCache.ThrowException ||
+                expressionTypingServices.getStatementFilter() == StatementFilter.NONE);
+    }
+
+    // Each body is resolved into its own trace on a worker thread, and the traces are then merged into the shared one in source order.
+    // The shared trace is only accessed under the storage manager lock, as lazy resolution triggered from bodies
+    // (e.g. of declarations with inferred types) writes to it through ResolveSession's lock-protected trace.
+    // Container components and checkers are used by all the workers at once, so any state they keep must be thread-safe
+    // (see InlineCheckerWrapper, PerformanceCounter)
+    private void resolveFunctionBodiesInParallel(@NotNull final BodiesResolveContext c) {
+        // Inferred return types are computed before the bodies, so that a body never depends on another one being resolved in parallel
+        for (SimpleFunctionDescriptor descriptor : c.getFunctions().values()) {
+            computeDeferredType(descriptor.getReturnType());
+        }
+
+        BindingTrace safeTrace = new LockBasedLazyResolveStorageManager(storageManager).createSafeTrace(trace);
+        final BindingContext sharedContext = safeTrace.getBindingContext();
+
+        // The tracer's sink is per thread, so the workers trace into the sink of the compilation explicitly
+        final TraceEventSink traceEventSink = CompilerTracer.INSTANCE.getSink();
+
+        int threadCount = Math.min(bodyResolveParallelism.getThreadCount(), c.getFunctions().size());
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<DelegatingBindingTrace>> bodyTraces = new ArrayList<Future<DelegatingBindingTrace>>(c.getFunctions().size());
+            for (Map.Entry<KtNamedFunction, SimpleFunctionDescriptor> entry : c.getFunctions().entrySet()) {
+                final KtNamedFunction declaration = entry.getKey();
+                final SimpleFunctionDescriptor descriptor = entry.getValue();
+
+                final LexicalScope scope = c.getDeclaringScope(declaration);
+                assert scope != null : "Scope is null: " + PsiUtilsKt.getElementTextWithContext(declaration);
+
+                bodyTraces.add(executor.submit(new Callable<DelegatingBindingTrace>() {
+                    @Override
+                    public DelegatingBindingTrace call() {
+                        CompilerTracer.INSTANCE.setSink(traceEventSink);
+                        try {
+                            DelegatingBindingTrace bodyTrace = new DelegatingBindingTrace(
+                                    sharedContext, false, AnalyzingUtils.formDebugNameForBindingTrace("trace to resolve body", declaration));
+                            resolveFunctionBody(c.getOuterDataFlowInfo(), bodyTrace, declaration, descriptor, scope);
+                            return bodyTrace;
+                        }
+                        finally {
+                            CompilerTracer.INSTANCE.setSink(TraceEventSink.NONE.INSTANCE);
+                        }
+                    }
+                }));
+            }
+
+            for (Future<DelegatingBindingTrace> bodyTrace : bodyTraces) {
+                getBodyTrace(bodyTrace).addOwnDataTo(safeTrace);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @NotNull
+    private static DelegatingBindingTrace getBodyTrace(@NotNull Future<DelegatingBindingTrace> future) {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException e) {
+            throw ExceptionUtilsKt.rethrow(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ExceptionUtilsKt.rethrow(e);
+        }
+    }
+
     public void resolveFunctionBody(
             @NotNull DataFlowInfo outerDataFlowInfo,
             @NotNull BindingTrace trace,
@@ -31,6 +31,7 @@ import org.jetbrains.kotlin.resolve.calls.smartcasts.DataFlowInfo
 import org.jetbrains.kotlin.resolve.lazy.*
 import org.jetbrains.kotlin.resolve.lazy.descriptors.LazyClassDescriptor
 import org.jetbrains.kotlin.resolve.lazy.descriptors.LazyScriptDescriptor
+import org.jetbrains.kotlin.utils.CompilerTracer
 import java.util.*
 
 class LazyTopDownAnalyzer(
@@ -183,26 +184,35 @@ class LazyTopDownAnalyzer(
             declaration.accept(visitor)
         }
 
-        createFunctionDescriptors(c, functions)
+        CompilerTracer.trace(CompilerTracer.FRONTEND, "resolve declaration headers") {
+            createFunctionDescriptors(c, functions)
 
-        createPropertyDescriptors(c, topLevelFqNames, properties)
+            createPropertyDescriptors(c, topLevelFqNames, properties)
 
-        createTypeAliasDescriptors(c, topLevelFqNames, typeAliases)
+            createTypeAliasDescriptors(c, topLevelFqNames, typeAliases)
 
-        resolveAllHeadersInClasses(c)
+            resolveAllHeadersInClasses(c)
+        }
+
+        CompilerTracer.trace(CompilerTracer.FRONTEND, "check declarations") {
+            declarationResolver.checkRedeclarationsInPackages(topLevelDescriptorProvider, topLevelFqNames)
+            declarationResolver.checkRedeclarations(c)
 
-        declarationResolver.checkRedeclarationsInPackages(topLevelDescriptorProvider, topLevelFqNames)
-        declarationResolver.checkRedeclarations(c)
+            overrideResolver.check(c)
 
-        overrideResolver.check(c)
+            varianceChecker.check(c)
 
-        varianceChecker.check(c)
+            declarationResolver.resolveAnnotationsOnFiles(c, fileScopeProvider)
 
-        declarationResolver.resolveAnnotationsOnFiles(c, fileScopeProvider)
+            overloadResolver.checkOverloads(c)
+        }
 
-        overloadResolver.checkOverloads(c)
+        CompilerTracer.counter(CompilerTracer.FRONTEND, "functions", c.functions.size.toLong())
+        CompilerTracer.counter(CompilerTracer.FRONTEND, "classes", c.declaredClasses.size.toLong())
 
-        bodyResolver.resolveBodies(c)
+        CompilerTracer.trace(CompilerTracer.FRONTEND, "resolve bodies") {
+            bodyResolver.resolveBodies(c)
+        }
 
         return c
     }
@@ -22,9 +22,12 @@ import org.jetbrains.kotlin.descriptors.FunctionDescriptor
 import org.jetbrains.kotlin.resolve.calls.model.ResolvedCall
 import org.jetbrains.kotlin.resolve.inline.InlineUtil
 import java.lang.ref.WeakReference
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
 
+// Instances of call checkers are shared between compilations, and function bodies may be resolved in parallel
 class InlineCheckerWrapper : CallChecker {
-    private var checkersCache: WeakReference<MutableMap<DeclarationDescriptor, CallChecker>>? = null
+    @Volatile private var checkersCache: WeakReference<ConcurrentMap<DeclarationDescriptor, CallChecker>>? = null
 
     override fun check(resolvedCall: ResolvedCall<*>, reportOn: PsiElement, context: CallCheckerContext) {
         if (context.isAnnotationContext) return
@@ -42,8 +45,9 @@ class InlineCheckerWrapper : CallChecker {
     }
 
     private fun getChecker(descriptor: FunctionDescriptor): CallChecker {
-        val map = checkersCache?.get() ?: hashMapOf()
-        checkersCache = checkersCache ?: WeakReference(map)
+        val map = checkersCache?.get() ?: ConcurrentHashMap<DeclarationDescriptor, CallChecker>().apply {
+            checkersCache = WeakReference(this)
+        }
         return map.getOrPut(descriptor) { InlineChecker(descriptor) }
     }
 }
@@ -46,6 +46,7 @@ import org.jetbrains.kotlin.types.DeferredType
 import org.jetbrains.kotlin.types.ErrorUtils
 import org.jetbrains.kotlin.types.isDynamic
 import org.jetbrains.kotlin.util.OperatorNameConventions
+import org.jetbrains.kotlin.util.PerformanceCounter
 import org.jetbrains.kotlin.utils.addToStdlib.check
 import org.jetbrains.kotlin.utils.sure
 
@@ -56,6 +57,11 @@ class NewResolutionOldInference(
         private val dynamicCallableDescriptors: DynamicCallableDescriptors,
         private val syntheticScopes: SyntheticScopes
 ) {
+    companion object {
+        // Ratio of these counters is the average number of candidates that were fully resolved per call
+        private val callsCounter = PerformanceCounter.create("Calls resolved by tower resolver")
+        private val candidatesCounter = PerformanceCounter.create("Candidates considered by tower resolver")
+    }
 
     sealed class ResolutionKind<D : CallableDescriptor> {
         abstract internal fun createTowerProcessor(
@@ -139,13 +145,17 @@ class NewResolutionOldInference(
         val dynamicScope = dynamicCallableDescriptors.createDynamicDescriptorScope(context.call, context.scope.ownerDescriptor)
         val scopeTower = ScopeTowerImpl(context, dynamicScope, syntheticScopes, context.call.createLookupLocation())
 
-        val processor = kind.createTowerProcessor(this, name, tracing, scopeTower, explicitReceiver, context)
-
         if (context.collectAllCandidates) {
+            val processor = kind.createTowerProcessor(this, name, tracing, scopeTower, explicitReceiver, context)
             return allCandidatesResult(towerResolver.collectAllCandidates(scopeTower, processor))
         }
 
-        val candidates = towerResolver.runResolve(scopeTower, processor, useOrder = kind != ResolutionKind.CallableReference)
+        callsCounter.increment()
+        val candidates = towerResolver.runResolve(
+                scopeTower,
+                { kind.createTowerProcessor(this, name, tracing, scopeTower, explicitReceiver, context) },
+                useOrder = kind != ResolutionKind.CallableReference
+        )
         return convertToOverloadResults(candidates, tracing, context)
     }
 
@@ -285,6 +295,7 @@ class NewResolutionOldInference(
                 explicitReceiverKind: ExplicitReceiverKind,
                 extensionReceiver: ReceiverValue?
         ): MyCandidate<D> {
+            candidatesCounter.increment()
             val candidateTrace = TemporaryBindingTrace.create(basicCallContext.trace, "Context for resolve candidate")
             val candidateCall = ResolvedCallImpl(
                     basicCallContext.call, towerCandidate.descriptor,
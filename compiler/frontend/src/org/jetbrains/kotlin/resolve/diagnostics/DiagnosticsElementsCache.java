@@ -18,38 +18,73 @@ package org.jetbrains.kotlin.resolve.diagnostics;
 
 import com.intellij.openapi.util.AtomicNotNullLazyValue;
 import com.intellij.psi.PsiElement;
-import com.intellij.util.containers.ConcurrentMultiMap;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.containers.MultiMap;
 import kotlin.jvm.functions.Function1;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.kotlin.diagnostics.Diagnostic;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentMap;
 
 public class DiagnosticsElementsCache {
-    private final Diagnostics diagnostics;
+    private final Iterable<Diagnostic> diagnostics;
     private final Function1<Diagnostic, Boolean> filter;
 
-    private final AtomicNotNullLazyValue<MultiMap<PsiElement, Diagnostic>> elementToDiagnostic = new AtomicNotNullLazyValue<MultiMap<PsiElement, Diagnostic>>() {
+    // Diagnostics are only grouped by file up front, the filter is applied to the diagnostics of a file when it's queried for the first time
+    private final AtomicNotNullLazyValue<MultiMap<PsiFile, Diagnostic>> fileToDiagnostic = new AtomicNotNullLazyValue<MultiMap<PsiFile, Diagnostic>>() {
         @NotNull
         @Override
-        protected MultiMap<PsiElement, Diagnostic> compute() {
-            return buildElementToDiagnosticCache(diagnostics, filter);
+        protected MultiMap<PsiFile, Diagnostic> compute() {
+            return buildFileToDiagnosticCache(diagnostics);
         }
     };
 
-    public DiagnosticsElementsCache(Diagnostics diagnostics, Function1<Diagnostic, Boolean> filter) {
+    private final ConcurrentMap<PsiFile, MultiMap<PsiElement, Diagnostic>> elementToDiagnosticByFile = ContainerUtil.newConcurrentMap();
+
+    public DiagnosticsElementsCache(@NotNull Iterable<Diagnostic> diagnostics, @NotNull Function1<Diagnostic, Boolean> filter) {
         this.diagnostics = diagnostics;
         this.filter = filter;
     }
 
     @NotNull
     public Collection<Diagnostic> getDiagnostics(@NotNull PsiElement psiElement) {
-        return elementToDiagnostic.getValue().get(psiElement);
+        if (!psiElement.isValid()) return Collections.emptyList();
+
+        PsiFile file = psiElement.getContainingFile();
+        if (file == null) return Collections.emptyList();
+
+        MultiMap<PsiElement, Diagnostic> elementToDiagnostic = elementToDiagnosticByFile.get(file);
+        if (elementToDiagnostic == null) {
+            elementToDiagnostic = buildElementToDiagnosticCache(fileToDiagnostic.getValue().get(file), filter);
+            MultiMap<PsiElement, Diagnostic> existing = elementToDiagnosticByFile.putIfAbsent(file, elementToDiagnostic);
+            if (existing != null) {
+                elementToDiagnostic = existing;
+            }
+        }
+
+        return elementToDiagnostic.get(psiElement);
+    }
+
+    private static MultiMap<PsiFile, Diagnostic> buildFileToDiagnosticCache(Iterable<Diagnostic> diagnostics) {
+        MultiMap<PsiFile, Diagnostic> fileToDiagnostic = new MultiMap<PsiFile, Diagnostic>();
+        for (Diagnostic diagnostic : diagnostics) {
+            PsiElement element = diagnostic.getPsiElement();
+            if (element.isValid()) {
+                fileToDiagnostic.putValue(element.getContainingFile(), diagnostic);
+            }
+        }
+
+        return fileToDiagnostic;
     }
 
-    private static MultiMap<PsiElement, Diagnostic> buildElementToDiagnosticCache(Diagnostics diagnostics, Function1<Diagnostic, Boolean> filter) {
-        MultiMap<PsiElement, Diagnostic> elementToDiagnostic = new ConcurrentMultiMap<PsiElement, Diagnostic>();
+    private static MultiMap<PsiElement, Diagnostic> buildElementToDiagnosticCache(
+            Collection<Diagnostic> diagnostics,
+            Function1<Diagnostic, Boolean> filter
+    ) {
+        MultiMap<PsiElement, Diagnostic> elementToDiagnostic = new MultiMap<PsiElement, Diagnostic>();
         for (Diagnostic diagnostic : diagnostics) {
             if (filter.invoke(diagnostic)) {
                 elementToDiagnostic.putValue(diagnostic.getPsiElement(), diagnostic);
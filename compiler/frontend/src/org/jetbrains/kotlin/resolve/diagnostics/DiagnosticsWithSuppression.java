@@ -37,7 +37,7 @@ public class DiagnosticsWithSuppression implements Diagnostics {
     public DiagnosticsWithSuppression(@NotNull BindingContext context, @NotNull Collection<Diagnostic> diagnostics) {
         this.diagnostics = diagnostics;
         this.kotlinSuppressCache = new BindingContextSuppressCache(context);
-        this.elementsCache = new DiagnosticsElementsCache(this, kotlinSuppressCache.getFilter());
+        this.elementsCache = new DiagnosticsElementsCache(diagnostics, kotlinSuppressCache.getFilter());
     }
 
     @NotNull
@@ -17,22 +17,24 @@
 package org.jetbrains.kotlin.resolve.diagnostics
 
 import com.google.common.collect.ImmutableSet
+import com.intellij.openapi.components.ServiceManager
 import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.extensions.ExtensionPointName
+import com.intellij.openapi.project.Project
 import com.intellij.psi.PsiElement
 import com.intellij.util.containers.ConcurrentWeakValueHashMap
+import com.intellij.util.containers.ContainerUtil
 import org.jetbrains.kotlin.builtins.KotlinBuiltIns
 import org.jetbrains.kotlin.descriptors.annotations.AnnotationDescriptor
 import org.jetbrains.kotlin.diagnostics.Diagnostic
 import org.jetbrains.kotlin.diagnostics.Severity
-import org.jetbrains.kotlin.psi.KtAnnotated
-import org.jetbrains.kotlin.psi.KtFile
-import org.jetbrains.kotlin.psi.KtStubbedPsiUtil
-import org.jetbrains.kotlin.psi.doNotAnalyze
+import org.jetbrains.kotlin.psi.*
+import org.jetbrains.kotlin.psi.psiUtil.isAncestor
 import org.jetbrains.kotlin.resolve.BindingContext
 import org.jetbrains.kotlin.resolve.constants.ArrayValue
 import org.jetbrains.kotlin.resolve.constants.StringValue
 import org.jetbrains.kotlin.util.ExtensionProvider
+import java.util.*
 
 interface SuppressStringProvider {
     operator fun get(annotationDescriptor: AnnotationDescriptor): List<String>
@@ -56,8 +58,9 @@ abstract class KotlinSuppressCache {
     private val ADDITIONAL_SUPPRESS_STRING_PROVIDERS = ExtensionProvider.create(SuppressStringProvider.EP_NAME)
     private val DIAGNOSTIC_SUPPRESSORS = ExtensionProvider.create(DiagnosticSuppressor.EP_NAME)
 
-    // The cache is weak: we're OK with losing it
+    // The caches are weak: we're OK with losing them
     private val suppressors = ConcurrentWeakValueHashMap<KtAnnotated, Suppressor>()
+    private val suppressionIndices = ContainerUtil.createConcurrentWeakKeySoftValueMap<KtFile, SuppressionIndex>()
 
     val filter: (Diagnostic) -> Boolean = { diagnostic: Diagnostic -> !isSuppressed(diagnostic) }
 
@@ -83,11 +86,21 @@ abstract class KotlinSuppressCache {
             }
         }
 
+        if (file is KtFile && indexSuppressionsByFile(file)) {
+            return getSuppressionIndex(file).isSuppressed(element, request.suppressKey, request.severity)
+        }
+
         val annotated = KtStubbedPsiUtil.getPsiOrStubParent(element, KtAnnotated::class.java, false) ?: return false
 
         return isSuppressedByAnnotated(request.suppressKey, request.severity, annotated, 0)
     }
 
+    /**
+     * Building the index of a file walks its whole tree, which loads the AST of stub-based files and expands lazily parsed
+     * blocks. This only pays off when diagnostics of the entire file are going to be checked anyway, as in the compiler;
+     * otherwise suppressions are looked up lazily along the parents of each element.
+     */
+    protected open fun indexSuppressionsByFile(file: KtFile): Boolean = false
 
     /*
        The cache is optimized for the case where no warnings are suppressed (most frequent one)
@@ -157,6 +170,62 @@ abstract class KotlinSuppressCache {
         return suppressor
     }
 
+    /*
+       The index is optimized for the case where no warnings are suppressed (most frequent one).
+
+       Suppressing strings are computed once per annotated element of a file, and the elements that suppress anything are
+       remembered as intervals of the file text, sorted by their start offsets, each linked to the closest interval enclosing it.
+       A request finds the last interval starting at or before the element in question with a binary search and then only
+       follows the enclosing intervals, and files without any suppressions answer immediately.
+     */
+    private fun getSuppressionIndex(file: KtFile): SuppressionIndex {
+        val cached = suppressionIndices[file]
+        if (cached != null && cached.modificationStamp == file.modificationStamp) return cached
+
+        val index = buildSuppressionIndex(file)
+        suppressionIndices.put(file, index)
+        return index
+    }
+
+    private fun buildSuppressionIndex(file: KtFile): SuppressionIndex {
+        val modificationStamp = file.modificationStamp
+        val intervals = ArrayList<SuppressionInterval>()
+
+        fun addInterval(annotated: KtAnnotated) {
+            if (annotated.annotationEntries.isEmpty()) return
+
+            val strings = getSuppressingStrings(annotated)
+            if (strings.isNotEmpty()) {
+                intervals.add(SuppressionInterval(annotated, strings))
+            }
+        }
+
+        addInterval(file)
+        file.accept(object : KtTreeVisitorVoid() {
+            override fun visitKtElement(element: KtElement) {
+                // Parents go before their children, which matters for elements with the same text range
+                if (element is KtAnnotated) {
+                    addInterval(element)
+                }
+                super.visitKtElement(element)
+            }
+        })
+
+        // Enclosing intervals go first among those with the same start offset
+        intervals.sortWith(compareBy<SuppressionInterval> { it.startOffset }.thenByDescending { it.endOffset })
+
+        val enclosing = ArrayDeque<SuppressionInterval>()
+        for (interval in intervals) {
+            while (enclosing.isNotEmpty() && !enclosing.peek().annotated.isAncestor(interval.annotated)) {
+                enclosing.pop()
+            }
+            interval.parent = enclosing.peek()
+            enclosing.push(interval)
+        }
+
+        return SuppressionIndex(modificationStamp, intervals)
+    }
+
     abstract fun getSuppressionAnnotations(annotated: KtAnnotated): List<AnnotationDescriptor>
 
     private fun getSuppressingStrings(annotated: KtAnnotated): Set<String> {
@@ -199,6 +268,52 @@ abstract class KotlinSuppressCache {
         }
     }
 
+    private class SuppressionInterval(val annotated: KtAnnotated, val strings: Set<String>) {
+        val startOffset: Int = annotated.textRange.startOffset
+        val endOffset: Int = annotated.textRange.endOffset
+
+        // The closest interval whose element is an ancestor of this one
+        var parent: SuppressionInterval? = null
+    }
+
+    private class SuppressionIndex(val modificationStamp: Long, private val intervals: List<SuppressionInterval>) {
+        fun isSuppressed(element: PsiElement, suppressionKey: String, severity: Severity): Boolean {
+            if (intervals.isEmpty()) return false
+
+            val range = element.textRange ?: return false
+
+            // Intervals are nested or disjoint, so every interval enclosing the element encloses the last one starting before it
+            var interval = findLastStartingAt(range.startOffset)
+            while (interval != null) {
+                // Ranges may coincide for empty elements, so the interval is only trusted if the element is actually inside
+                if (interval.endOffset >= range.endOffset &&
+                    isSuppressedByStrings(suppressionKey, interval.strings, severity) && interval.annotated.isAncestor(element)) {
+                    return true
+                }
+                interval = interval.parent
+            }
+            return false
+        }
+
+        // The last interval with the start offset not greater than the given one
+        private fun findLastStartingAt(offset: Int): SuppressionInterval? {
+            var low = 0
+            var high = intervals.size - 1
+            var result: SuppressionInterval? = null
+            while (low <= high) {
+                val middle = (low + high) / 2
+                if (intervals[middle].startOffset <= offset) {
+                    result = intervals[middle]
+                    low = middle + 1
+                }
+                else {
+                    high = middle - 1
+                }
+            }
+            return result
+        }
+    }
+
     private abstract class Suppressor protected constructor(val annotatedElement: KtAnnotated) {
         abstract fun isSuppressed(diagnostic: Diagnostic): Boolean
         abstract fun isSuppressed(suppressionKey: String, severity: Severity): Boolean
@@ -261,6 +376,8 @@ abstract class KotlinSuppressCache {
 }
 
 class BindingContextSuppressCache(val context: BindingContext) : KotlinSuppressCache() {
+    override fun indexSuppressionsByFile(file: KtFile) = FileSuppressionIndexing.isEnabled(file.project)
+
     override fun getSuppressionAnnotations(annotated: KtAnnotated): List<AnnotationDescriptor> {
         val descriptor = context.get(BindingContext.DECLARATION_TO_DESCRIPTOR, annotated)
 
@@ -272,3 +389,15 @@ class BindingContextSuppressCache(val context: BindingContext) : KotlinSuppressC
         }
     }
 }
+
+/**
+ * Registered as a project service by environments that check diagnostics of whole files at once (the compiler),
+ * so that [BindingContextSuppressCache] answers from a per-file index of suppressions instead of walking up the parents.
+ */
+class FileSuppressionIndexing {
+    companion object {
+        @JvmStatic
+        fun isEnabled(project: Project): Boolean =
+                ServiceManager.getService(project, FileSuppressionIndexing::class.java) != null
+    }
+}
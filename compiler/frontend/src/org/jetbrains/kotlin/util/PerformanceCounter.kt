@@ -24,7 +24,7 @@ import java.util.concurrent.atomic.AtomicLong
 
 /**
  * This counter is thread-safe for initialization and usage.
- * But it may calculate time and number of runs not precisely.
+ * But it may calculate time not precisely.
  */
 abstract class PerformanceCounter protected constructor(val name: String) {
     companion object {
@@ -74,8 +74,8 @@ abstract class PerformanceCounter protected constructor(val name: String) {
 
     internal val excludedFrom: MutableList<CounterWithExclude> = ArrayList()
 
-    private var count: Int = 0
-    private var totalTimeNanos: Long = 0
+    private val count = AtomicInteger()
+    private val totalTimeNanos = AtomicLong()
 
     init {
         synchronized(allCounters) {
@@ -84,11 +84,11 @@ abstract class PerformanceCounter protected constructor(val name: String) {
     }
 
     fun increment() {
-        count++
+        count.incrementAndGet()
     }
 
     fun <T> time(block: () -> T): T {
-        count++
+        count.incrementAndGet()
         if (!enabled) return block()
 
         excludedFrom.forEach { it.enterExcludedMethod() }
@@ -101,23 +101,25 @@ abstract class PerformanceCounter protected constructor(val name: String) {
     }
 
     fun reset() {
-        count = 0
-        totalTimeNanos = 0
+        count.set(0)
+        totalTimeNanos.set(0)
     }
 
     protected fun incrementTime(delta: Long) {
-        totalTimeNanos += delta
+        totalTimeNanos.addAndGet(delta)
     }
 
     protected abstract fun <T> countTime(block: () -> T): T
 
     fun report(consumer: (String) -> Unit) {
-        if (totalTimeNanos == 0L) {
-            consumer("$name performed $count times")
+        val runs = count.get()
+        val nanos = totalTimeNanos.get()
+        if (nanos == 0L) {
+            consumer("$name performed $runs times")
         }
         else {
-            val millis = TimeUnit.NANOSECONDS.toMillis(totalTimeNanos)
-            consumer("$name performed $count times, total time $millis ms")
+            val millis = TimeUnit.NANOSECONDS.toMillis(nanos)
+            consumer("$name performed $runs times, total time $millis ms")
         }
     }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.resolve.calls.tower
+
+import org.jetbrains.kotlin.builtins.KotlinBuiltIns
+import org.jetbrains.kotlin.descriptors.CallableDescriptor
+import org.jetbrains.kotlin.descriptors.ClassDescriptor
+import org.jetbrains.kotlin.resolve.scopes.receivers.ReceiverValue
+import org.jetbrains.kotlin.types.*
+import java.util.*
+
+/**
+ * Drops extensions that can't be called on the given receiver: the class of their receiver type
+ * is not among the classes of supertypes of the receiver type (and of its smart cast types).
+ *
+ * Such candidates are always inapplicable, so they can't change the result of a successful resolution,
+ * but they take part in reporting errors. See [TowerResolver.runResolve].
+ */
+internal class ExtensionReceiverFilter(private val scopeTower: ScopeTower) {
+    // Number of calls that dropped some candidates, lets the tower resolver tell which levels were affected
+    var filteringCount = 0
+        private set
+
+    // null if not all the possible types of a receiver are classes, so no candidates can be dropped for it
+    private val receiverSupertypeConstructors = HashMap<ReceiverValue, Set<TypeConstructor>?>()
+
+    fun <D : CallableDescriptor> filter(candidates: Collection<D>, extensionReceiver: ReceiverValue): Collection<D> {
+        if (candidates.isEmpty()) return candidates
+
+        val supertypeConstructors = getSupertypeConstructors(extensionReceiver) ?: return candidates
+        val result = candidates.filter { it.mayBeCalledOn(supertypeConstructors) }
+        if (result.size != candidates.size) {
+            filteringCount++
+        }
+        return result
+    }
+
+    private fun CallableDescriptor.mayBeCalledOn(supertypeConstructors: Set<TypeConstructor>): Boolean {
+        val receiverType = extensionReceiverParameter?.type ?: return true
+        if (receiverType.isError || receiverType.isFlexible() || KotlinBuiltIns.isAnyOrNullableAny(receiverType)) return true
+
+        val constructor = receiverType.constructor
+        return constructor.declarationDescriptor !is ClassDescriptor || constructor in supertypeConstructors
+    }
+
+    private fun getSupertypeConstructors(receiver: ReceiverValue): Set<TypeConstructor>? {
+        if (receiver in receiverSupertypeConstructors) return receiverSupertypeConstructors[receiver]
+
+        val result = computeSupertypeConstructors(receiver)
+        receiverSupertypeConstructors[receiver] = result
+        return result
+    }
+
+    private fun computeSupertypeConstructors(receiver: ReceiverValue): Set<TypeConstructor>? {
+        val result = HashSet<TypeConstructor>()
+        // Equal constructors of different classes (with the same FqName) may have different supertypes
+        val visited = Collections.newSetFromMap(IdentityHashMap<TypeConstructor, Boolean>())
+        val queue = ArrayDeque<KotlinType>()
+
+        for (type in scopeTower.dataFlowInfo.getAllPossibleTypes(receiver)) {
+            if (type.isDynamic()) return null
+            queue.add(type.lowerIfFlexible())
+            queue.add(type.upperIfFlexible())
+        }
+
+        while (!queue.isEmpty()) {
+            val type = queue.poll()
+            val constructor = type.constructor
+            if (!visited.add(constructor)) continue
+
+            // Nothing is a subtype of everything, anything is a subtype of error type
+            if (type.isError || KotlinBuiltIns.isNothingOrNullableNothing(type) || constructor.declarationDescriptor !is ClassDescriptor) {
+                return null
+            }
+
+            result.add(constructor)
+            queue.addAll(constructor.supertypes)
+        }
+
+        return result
+    }
+}
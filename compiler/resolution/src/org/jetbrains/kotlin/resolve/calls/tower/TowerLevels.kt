@@ -38,6 +38,7 @@ import org.jetbrains.kotlin.resolve.scopes.utils.collectVariables
 import org.jetbrains.kotlin.resolve.selectMostSpecificInEachOverridableGroup
 import org.jetbrains.kotlin.types.*
 import org.jetbrains.kotlin.types.typeUtil.getImmediateSuperclassNotAny
+import org.jetbrains.kotlin.util.OperatorNameConventions
 import org.jetbrains.kotlin.utils.SmartList
 import org.jetbrains.kotlin.utils.addIfNotNull
 import java.util.*
@@ -182,14 +183,35 @@ internal open class ScopeBasedTowerLevel protected constructor(
             }
 
     override fun getFunctions(name: Name, extensionReceiver: ReceiverValue?): Collection<CandidateWithBoundDispatchReceiver<FunctionDescriptor>>
-            = resolutionScope.getContributedFunctionsAndConstructors(name, location).map {
+            = resolutionScope.getContributedFunctionsAndConstructors(name, location).filterByExtensionReceiver(name, extensionReceiver).map {
                 createCandidateDescriptor(it, dispatchReceiver = null)
             }
+
+    protected open fun Collection<FunctionDescriptor>.filterByExtensionReceiver(
+            name: Name,
+            extensionReceiver: ReceiverValue?
+    ): Collection<FunctionDescriptor> = this
 }
+
+// Importing scopes may contain lots of extensions with the same name (e.g. star imports of DSL libraries),
+// so the ones that can't be called on the receiver are dropped before creating candidates for them.
+// Only functions are filtered: variables and invoke functions are processed by stateful invoke processors,
+// which can't be rerun for a single level (see TowerResolver.runResolve)
 internal class ImportingScopeBasedTowerLevel(
         scopeTower: ScopeTower,
-        importingScope: ImportingScope
-): ScopeBasedTowerLevel(scopeTower, importingScope)
+        private val importingScope: ImportingScope,
+        private val extensionReceiverFilter: ExtensionReceiverFilter?
+): ScopeBasedTowerLevel(scopeTower, importingScope) {
+    override fun Collection<FunctionDescriptor>.filterByExtensionReceiver(
+            name: Name,
+            extensionReceiver: ReceiverValue?
+    ): Collection<FunctionDescriptor> {
+        if (extensionReceiver == null || extensionReceiverFilter == null || name == OperatorNameConventions.INVOKE) return this
+        return extensionReceiverFilter.filter(this, extensionReceiver)
+    }
+
+    fun withoutExtensionReceiverFilter(): ImportingScopeBasedTowerLevel = ImportingScopeBasedTowerLevel(scopeTower, importingScope, null)
+}
 
 internal class SyntheticScopeBasedTowerLevel(
         scopeTower: ScopeTower,
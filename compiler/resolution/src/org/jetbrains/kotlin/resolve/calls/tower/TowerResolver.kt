@@ -76,17 +76,96 @@ interface ScopeTowerProcessor<out C> {
 class TowerResolver {
     fun <C: Candidate<*>> runResolve(
             scopeTower: ScopeTower,
-            processor: ScopeTowerProcessor<C>,
+            createProcessor: () -> ScopeTowerProcessor<C>,
             useOrder: Boolean
-    ): Collection<C> = scopeTower.run(processor, SuccessfulResultCollector { it.status }, useOrder)
+    ): Collection<C> {
+        // All candidates of a tower level are one group without order, so the dropped ones can't be put back separately
+        if (!useOrder) {
+            return scopeTower.run(createProcessor(), SuccessfulResultCollector { it.status }, false, extensionReceiverFilter = null)
+        }
+
+        val extensionReceiverFilter = ExtensionReceiverFilter(scopeTower)
+        val resultCollector = SuccessfulResultCollector<C> { it.status }
+        val filteredRun = FilteredTowerRun<C>()
+        val candidates = scopeTower.run(createProcessor(), resultCollector, useOrder, extensionReceiverFilter, filteredRun)
+        if (filteredRun.processedData.isEmpty()) return candidates
+
+        // Dropped extensions are inapplicable, so they can only be reported instead of other inapplicable candidates
+        val currentLevel = resultCollector.currentLevel
+        if (currentLevel != null && currentLevel < ResolutionCandidateApplicability.INAPPLICABLE) return candidates
+
+        return restoreFilteredCandidates(createProcessor, filteredRun)
+    }
+
+    // Candidates were collected while dropping extensions, and nothing better than an inapplicable candidate was found.
+    // The tower is not walked again: the result found before the first dropped extension and the groups recorded since
+    // are pushed to a new collector in the same order, and only the levels where something was dropped are processed again.
+    // The dropped candidates are functions of importing scopes (see ImportingScopeBasedTowerLevel), which go
+    // in the first group of a level, so they are pushed before the recorded groups of that level.
+    // A new processor is used for them, since processors keep state between tower levels.
+    private fun <C: Candidate<*>> restoreFilteredCandidates(
+            createProcessor: () -> ScopeTowerProcessor<C>,
+            filteredRun: FilteredTowerRun<C>
+    ): Collection<C> {
+        val resultCollector = SuccessfulResultCollector<C> { it.status }
+        resultCollector.pushCandidates(filteredRun.precedingCandidates)
+        var processor: ScopeTowerProcessor<C>? = null
+
+        for (data in filteredRun.processedData) {
+            if (data.hasFilteredCandidates) {
+                if (processor == null) processor = createProcessor()
+                resultCollector.pushCandidateGroups(processTowerData(processor, true, data.towerData.withUnfilteredFunctionsOnly()))
+            }
+            resultCollector.pushCandidateGroups(data.candidateGroups)
+
+            // Same rule as in runResolve: other recorded candidates can't replace an applicable one
+            val currentLevel = resultCollector.currentLevel
+            if (currentLevel != null && currentLevel < ResolutionCandidateApplicability.INAPPLICABLE) break
+        }
+
+        return resultCollector.getFinalCandidates()
+    }
+
+    private fun TowerData.withUnfilteredFunctionsOnly(): TowerData = when (this) {
+        is TowerData.TowerLevel -> TowerData.TowerLevel(UnfilteredFunctionsTowerLevel(level))
+        is TowerData.BothTowerLevelAndImplicitReceiver ->
+            TowerData.BothTowerLevelAndImplicitReceiver(UnfilteredFunctionsTowerLevel(level), implicitReceiver)
+        else -> throw IllegalStateException("Candidates can't be filtered without a tower level: $this")
+    }
+
+    // Other candidates of the level were not filtered, so they are already among the recorded ones
+    private class UnfilteredFunctionsTowerLevel(level: ScopeTowerLevel) : ScopeTowerLevel {
+        private val level = (level as ImportingScopeBasedTowerLevel).withoutExtensionReceiverFilter()
+
+        override fun getVariables(name: Name, extensionReceiver: ReceiverValue?): Collection<CandidateWithBoundDispatchReceiver<VariableDescriptor>>
+                = emptyList()
+
+        override fun getObjects(name: Name, extensionReceiver: ReceiverValue?): Collection<CandidateWithBoundDispatchReceiver<VariableDescriptor>>
+                = emptyList()
+
+        override fun getFunctions(name: Name, extensionReceiver: ReceiverValue?): Collection<CandidateWithBoundDispatchReceiver<FunctionDescriptor>>
+                = level.getFunctions(name, extensionReceiver)
+    }
+
+    private class ProcessedTowerData<out C>(
+            val towerData: TowerData,
+            val candidateGroups: List<Collection<C>>,
+            val hasFilteredCandidates: Boolean
+    )
+
+    private class FilteredTowerRun<C> {
+        // Candidates collected before the first dropped extension, the levels from there on are in processedData
+        var precedingCandidates: Collection<C> = emptyList()
+        val processedData = ArrayList<ProcessedTowerData<C>>()
+    }
 
     fun <C: Candidate<*>> collectAllCandidates(
             scopeTower: ScopeTower,
             processor: ScopeTowerProcessor<C>
     ): Collection<C>
-            = scopeTower.run(processor, AllCandidatesCollector { it.status }, false)
+            = scopeTower.run(processor, AllCandidatesCollector { it.status }, false, extensionReceiverFilter = null)
 
-    private fun ScopeTower.createNonLocalLevels(): List<ScopeTowerLevel> {
+    private fun ScopeTower.createNonLocalLevels(extensionReceiverFilter: ExtensionReceiverFilter?): List<ScopeTowerLevel> {
         val result = ArrayList<ScopeTowerLevel>()
 
         lexicalScope.parentsWithSelf.forEach { scope ->
@@ -96,7 +175,7 @@ class TowerResolver {
                 scope.implicitReceiver?.let { result.add(ReceiverScopeTowerLevel(this, it.value)) }
             }
             else {
-                result.add(ImportingScopeBasedTowerLevel(this, scope as ImportingScope))
+                result.add(ImportingScopeBasedTowerLevel(this, scope as ImportingScope, extensionReceiverFilter))
             }
         }
 
@@ -106,9 +185,25 @@ class TowerResolver {
     private fun <C> ScopeTower.run(
             processor: ScopeTowerProcessor<C>,
             resultCollector: ResultCollector<C>,
-            useOrder: Boolean
+            useOrder: Boolean,
+            extensionReceiverFilter: ExtensionReceiverFilter?,
+            filteredRun: FilteredTowerRun<C>? = null
     ): Collection<C> {
-        fun TowerData.process() = processTowerData(processor, resultCollector, useOrder, this)
+        fun TowerData.process(): Collection<C>? {
+            val filteringCount = extensionReceiverFilter?.filteringCount ?: 0
+            val candidateGroups = processTowerData(processor, useOrder, this)
+
+            // Every level is recorded from the first dropped extension on, whatever was found before it:
+            // hidden candidates don't count, and inapplicable ones may still be replaced by a dropped extension
+            if (extensionReceiverFilter != null && filteredRun != null && extensionReceiverFilter.filteringCount > 0) {
+                if (filteredRun.processedData.isEmpty()) {
+                    filteredRun.precedingCandidates = resultCollector.getFinalCandidates()
+                }
+                filteredRun.processedData.add(ProcessedTowerData(this, candidateGroups, extensionReceiverFilter.filteringCount != filteringCount))
+            }
+
+            return resultCollector.pushCandidateGroups(candidateGroups)
+        }
 
         val localLevels = lexicalScope.parentsWithSelf.
                 filterIsInstance<LexicalScope>().filter { it.kind.withLocalDescriptors }.
@@ -159,7 +254,7 @@ class TowerResolver {
 
                     // extension for implicit receiver
                     if (nonLocalLevels == null) {
-                        nonLocalLevels = createNonLocalLevels()
+                        nonLocalLevels = createNonLocalLevels(extensionReceiverFilter)
                     }
 
                     for (nonLocalLevel in nonLocalLevels) {
@@ -169,7 +264,7 @@ class TowerResolver {
             }
             else {
                 // functions with no receiver or extension for explicit receiver
-                TowerData.TowerLevel(ImportingScopeBasedTowerLevel(this, scope as ImportingScope)).process()?.let { return it }
+                TowerData.TowerLevel(ImportingScopeBasedTowerLevel(this, scope as ImportingScope, extensionReceiverFilter)).process()?.let { return it }
             }
         }
 
@@ -180,26 +275,28 @@ class TowerResolver {
             processor: ScopeTowerProcessor<C>,
             resultCollector: ResultCollector<C>,
             useOrder: Boolean
-    ): Collection<C> = processTowerData(processor, resultCollector, useOrder, TowerData.Empty) ?: resultCollector.getFinalCandidates()
+    ): Collection<C> = resultCollector.pushCandidateGroups(processTowerData(processor, useOrder, TowerData.Empty))
+                       ?: resultCollector.getFinalCandidates()
 
     private fun <C> processTowerData(
             processor: ScopeTowerProcessor<C>,
-            resultCollector: ResultCollector<C>,
             useOrder: Boolean,
             towerData: TowerData
-    ): Collection<C>? {
+    ): List<Collection<C>> {
         ProgressIndicatorAndCompilationCanceledStatus.checkCanceled()
 
-        val candidatesGroups = if (useOrder) {
+        return if (useOrder) {
             processor.process(towerData)
         }
         else {
             listOf(processor.process(towerData).flatMap { it })
         }
+    }
 
+    private fun <C> ResultCollector<C>.pushCandidateGroups(candidatesGroups: List<Collection<C>>): Collection<C>? {
         for (candidatesGroup in candidatesGroups) {
-            resultCollector.pushCandidates(candidatesGroup)
-            resultCollector.getSuccessfulCandidates()?.let { return it }
+            pushCandidates(candidatesGroup)
+            getSuccessfulCandidates()?.let { return it }
         }
 
         return null
@@ -235,7 +332,8 @@ class TowerResolver {
 
     class SuccessfulResultCollector<C>(getStatus: (C) -> ResolutionCandidateStatus): ResultCollector<C>(getStatus) {
         private var currentCandidates: Collection<C> = emptyList()
-        private var currentLevel: ResolutionCandidateApplicability? = null
+        var currentLevel: ResolutionCandidateApplicability? = null
+            private set
 
         override fun getSuccessfulCandidates(): Collection<C>? = getResolved() ?: getResolvedSynthetic()
 
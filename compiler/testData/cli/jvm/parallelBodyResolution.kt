@@ -0,0 +1,17 @@
+fun a() {
+    unresolvedA()
+}
+
+fun b() {
+    unresolvedB()
+}
+
+fun c() = 42
+
+fun d() {
+    c().unresolvedD()
+}
+
+fun e() {
+    unresolvedE()
+}
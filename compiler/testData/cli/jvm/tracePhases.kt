@@ -0,0 +1,8 @@
+inline fun twice(block: () -> Unit) {
+    block()
+    block()
+}
+
+fun main(args: Array<String>) {
+    twice { println(args.size) }
+}
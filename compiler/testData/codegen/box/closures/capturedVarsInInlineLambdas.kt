@@ -0,0 +1,81 @@
+inline fun call(f: () -> Unit) = f()
+
+inline fun repeatIndexed(times: Int, action: (Int) -> Unit) {
+    for (i in 0..times - 1) action(i)
+}
+
+fun callLater(f: () -> Unit) = f()
+
+fun primitives(): String {
+    var int = 0
+    var long = 0L
+    var double = 0.0
+    var char = 'a'
+    var boolean = false
+    repeatIndexed(3) {
+        int += it
+        long += it.toLong() * 1000000000L
+        double += 0.5
+        char++
+        boolean = !boolean
+    }
+    return "$int $long $double $char $boolean"
+}
+
+fun objects(): String {
+    var result: String? = null
+    var list = listOf<Int>()
+    repeatIndexed(3) {
+        result = (result ?: "") + it
+        call { list += it }
+    }
+    return "$result $list"
+}
+
+fun declaredInLoop(): Int {
+    var sum = 0
+    for (i in 1..3) {
+        var x = i
+        call { x *= 10 }
+        sum += x
+    }
+    return sum
+}
+
+fun postfixIncrement(): String {
+    var x = 0
+    var y = 0
+    call { y = x++ }
+    return "$x $y"
+}
+
+fun tryCatch(): Int {
+    var x = 1
+    try {
+        call {
+            x = 2
+            throw RuntimeException()
+        }
+    }
+    catch (e: RuntimeException) {
+        call { x += 40 }
+    }
+    return x
+}
+
+fun escaping(): Int {
+    var x = 0
+    call { x++ }
+    callLater { x += 10 }
+    return x
+}
+
+fun box(): String {
+    primitives().let { if (it != "3 3000000000 1.5 d true") return "fail primitives: $it" }
+    objects().let { if (it != "012 [0, 1, 2]") return "fail objects: $it" }
+    declaredInLoop().let { if (it != 60) return "fail declaredInLoop: $it" }
+    postfixIncrement().let { if (it != "1 0") return "fail postfixIncrement: $it" }
+    tryCatch().let { if (it != 42) return "fail tryCatch: $it" }
+    escaping().let { if (it != 11) return "fail escaping: $it" }
+    return "OK"
+}
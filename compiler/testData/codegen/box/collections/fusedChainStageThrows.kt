@@ -0,0 +1,40 @@
+// WITH_RUNTIME
+// FILE: J.java
+
+import java.util.*;
+
+public class J {
+    public static List<Integer> intsWithNull() {
+        return Arrays.asList(1, null, 3);
+    }
+
+    public static Integer nullInteger() {
+        return null;
+    }
+}
+
+// FILE: test.kt
+
+val platformNull = J.nullInteger()
+
+fun box(): String {
+    // Without fusion, a stage throws before any element reaches the next stages
+    var count = 0
+    try {
+        J.intsWithNull().map { it + 1 }.filter { it > 0 }.forEach { count++ }
+        return "Fail: NPE expected when unboxing the element"
+    }
+    catch (e: NullPointerException) {
+    }
+    if (count != 0) return "Fail: $count element(s) reached forEach before the first stage threw"
+
+    try {
+        listOf(1, 2, 3).filter { it > 0 }.map { if (it == 1) it else it + platformNull }.forEach { count++ }
+        return "Fail: NPE expected when unboxing the platform value"
+    }
+    catch (e: NullPointerException) {
+    }
+    if (count != 0) return "Fail: $count element(s) reached forEach before the second stage threw"
+
+    return "OK"
+}
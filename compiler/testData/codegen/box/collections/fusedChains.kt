@@ -0,0 +1,44 @@
+// WITH_RUNTIME
+
+import kotlin.test.assertEquals
+
+class Item(val name: String, val price: Int)
+
+fun box(): String {
+    val ints = listOf(3, -1, 4, -1, 5, 9, -2, 6)
+
+    assertEquals(54, ints.filter { it > 0 }.map { it * 2 }.sum())
+    assertEquals(listOf(6, 8, 10, 18, 12), ints.filterNot { it < 0 }.map { it * 2 })
+    assertEquals(listOf(1, -1, -1, 2, 4), ints.map { it - 1 }.filter { it % 2 == 0 }.map { it / 2 })
+    assertEquals(5, ints.filter { it > 0 }.count())
+    assertEquals(listOf(3, 4, 9, 6), ints.filter { it > 0 }.filterNot { it == 5 })
+    assertEquals(listOf(4L, 5L), ints.map { it.toLong() }.filter { it > 3L }.filterNot { it > 5L })
+    assertEquals(4, ints.map { it * it }.count { it > 10 })
+    assertEquals(27L, ints.map { it.toLong() }.filter { it > 0L }.sum())
+    assertEquals(13.5, ints.filter { it > 0 }.map { it / 2.0 }.sum())
+    assertEquals(13.5, ints.filter { it > 0 }.sumByDouble { it / 2.0 })
+    assertEquals(18, ints.filter { it > 0 && it != 9 }.sumBy { it })
+
+    val items = listOf(Item("a", 10), Item("bb", 20), Item("ccc", 30))
+    assertEquals(listOf("bb", "ccc"), items.filter { it.price > 10 }.map { it.name })
+    assertEquals(5, items.map { it.name }.filter { it.length > 1 }.sumBy { it.length })
+
+    var max = 0
+    var count = 0
+    ints.map { it * 10 }.filter { it < 60 }.forEach {
+        if (it > max) max = it
+        count++
+    }
+    assertEquals(50, max)
+    assertEquals(6, count)
+
+    // Not fused: the order of the side effects must stay the same
+    val log = StringBuilder()
+    val result = listOf(1, 2, 3).filter { log.append("f$it "); it != 2 }.map { log.append("m$it "); it }
+    assertEquals(listOf(1, 3), result)
+    assertEquals("f1 f2 f3 m1 m3 ", log.toString())
+
+    assertEquals(emptyList<Int>(), emptyList<Int>().filter { it > 0 }.map { it + 1 })
+
+    return "OK"
+}
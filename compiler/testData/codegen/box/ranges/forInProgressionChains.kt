@@ -0,0 +1,63 @@
+// WITH_RUNTIME
+
+import kotlin.test.assertEquals
+
+fun <T> collect(body: (MutableList<T>) -> Unit): List<T> {
+    val result = arrayListOf<T>()
+    body(result)
+    return result
+}
+
+fun illegalArgumentMessage(body: () -> Unit): String? {
+    try {
+        body()
+    }
+    catch (e: IllegalArgumentException) {
+        return e.message
+    }
+    throw AssertionError("IllegalArgumentException expected")
+}
+
+fun box(): String {
+    assertEquals(listOf(0, 1, 2), collect<Int> { for (i in 0 until 3) it.add(i) })
+    assertEquals(listOf<Int>(), collect<Int> { for (i in 0 until 0) it.add(i) })
+    assertEquals(listOf('a', 'b'), collect<Char> { for (c in 'a' until 'c') it.add(c) })
+    assertEquals(listOf(Long.MAX_VALUE - 1), collect<Long> { for (i in Long.MAX_VALUE - 1 until Long.MAX_VALUE) it.add(i) })
+    assertEquals(listOf<Int>(), collect<Int> { for (i in 0.toByte() until Byte.MIN_VALUE) it.add(i) })
+
+    assertEquals("The to argument value '${Int.MIN_VALUE}' was too small.", illegalArgumentMessage { for (i in 0 until Int.MIN_VALUE) {} })
+    assertEquals("The to argument value '${Long.MIN_VALUE}' was too small.", illegalArgumentMessage { for (i in 0L until Long.MIN_VALUE) {} })
+    illegalArgumentMessage { for (c in 'a' until Char.MIN_VALUE) {} }
+
+    assertEquals(listOf(2, 1, 0), collect<Int> { for (i in (0 until 3).reversed()) it.add(i) })
+    assertEquals(listOf(1, 2, 3), collect<Int> { for (i in (3 downTo 1).reversed()) it.add(i) })
+    assertEquals(listOf(2, 1, 0), collect<Int> { for (i in intArrayOf(5, 6, 7).indices.reversed()) it.add(i) })
+    assertEquals(listOf(10, 7, 4, 1), collect<Int> { for (i in (1..10).reversed() step 3) it.add(i) })
+    assertEquals(listOf(7, 4, 1), collect<Int> { for (i in ((1..9) step 3).reversed()) it.add(i) })
+    assertEquals(listOf(1, 5, 9), collect<Int> { for (i in 1..10 step 2 step 4) it.add(i) })
+    assertEquals(listOf(Int.MAX_VALUE - 2, Int.MAX_VALUE), collect<Int> { for (i in Int.MAX_VALUE - 2..Int.MAX_VALUE step 2) it.add(i) })
+    assertEquals(listOf(Int.MIN_VALUE + 2, Int.MIN_VALUE), collect<Int> { for (i in Int.MIN_VALUE + 2 downTo Int.MIN_VALUE step 2) it.add(i) })
+    assertEquals(listOf(0L, 5L), collect<Long> { for (i in 0L..9L step 5L) it.add(i) })
+    assertEquals(listOf('z', 'x'), collect<Char> { for (c in ('x'..'z').reversed() step 2) it.add(c) })
+
+    val range = 1..3
+    assertEquals(listOf(3, 1), collect<Int> { for (i in range.reversed() step 2) it.add(i) })
+
+    assertEquals("Step must be positive, was: 0.", illegalArgumentMessage { for (i in 0..10 step 0) {} })
+    assertEquals("Step must be positive, was: -1.", illegalArgumentMessage { for (i in 0L..10L step -1L) {} })
+
+    assertEquals(listOf("0a", "1b"), collect<String> { for ((i, s) in arrayOf("a", "b").withIndex()) it.add("$i$s") })
+    assertEquals(listOf(0, 6), collect<Int> { for ((i, x) in intArrayOf(5, 6).withIndex()) it.add(i * x) })
+    assertEquals(listOf("0a", "1b"), collect<String> { for ((i, s) in listOf("a", "b").withIndex()) it.add("$i$s") })
+
+    val sb = StringBuilder("ab")
+    assertEquals(listOf('a', 'b', 'c'), collect<Char> {
+        for (c in sb) {
+            it.add(c)
+            if (c == 'a') sb.append('c')
+        }
+    })
+    assertEquals(listOf<Char>(), collect<Char> { for (c in "") it.add(c) })
+
+    return "OK"
+}
@@ -0,0 +1,13 @@
+inline fun call(f: () -> Unit) = f()
+
+fun test(): Int {
+    var x = 0
+    call { x = x + 1 }
+    call { x += 2 }
+    return x
+}
+
+// 0 NEW kotlin/jvm/internal/Ref
+// 0 GETFIELD kotlin/jvm/internal/Ref
+// 0 PUTFIELD kotlin/jvm/internal/Ref
+// 1 LOCALVARIABLE x I
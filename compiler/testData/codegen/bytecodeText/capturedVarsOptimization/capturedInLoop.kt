@@ -0,0 +1,17 @@
+inline fun repeatIndexed(times: Int, action: (Int) -> Unit) {
+    for (i in 0..times - 1) action(i)
+}
+
+fun test(): String {
+    var sum = 0L
+    var last: String? = null
+    repeatIndexed(10) {
+        sum += it
+        last = it.toString()
+    }
+    return "$sum $last"
+}
+
+// 0 NEW kotlin/jvm/internal/Ref
+// 1 LOCALVARIABLE sum J
+// 1 LOCALVARIABLE last Ljava/lang/Object;
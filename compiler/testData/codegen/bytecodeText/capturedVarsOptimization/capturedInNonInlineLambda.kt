@@ -0,0 +1,16 @@
+inline fun call(f: () -> Unit) = f()
+
+fun callLater(f: () -> Unit) = f()
+
+fun test(): Int {
+    var x = 0
+    var y = 0
+    call { x++ }
+    callLater { x++ }
+    call { y += x }
+    return y
+}
+
+// 1 NEW kotlin/jvm/internal/Ref\$IntRef
+// 1 LOCALVARIABLE x Lkotlin/jvm/internal/Ref\$IntRef;
+// 1 LOCALVARIABLE y I
@@ -0,0 +1,7 @@
+// WITH_RUNTIME
+
+fun test(list: List<Int>): List<Int> = list.filter { it > 0 }.filterNot { it == 5 }
+
+// 1 NEW java/util/ArrayList
+// 1 INVOKEINTERFACE java/lang/Iterable.iterator
+// 0 valueOf
@@ -0,0 +1,8 @@
+// WITH_RUNTIME
+
+fun test(list: List<Int>): Int = list.filter { it > 0 }.map { it * 2 }.sum()
+
+// 0 NEW java/util/ArrayList
+// 1 INVOKEINTERFACE java/lang/Iterable.iterator
+// 0 sumOfInt
+// 0 valueOf
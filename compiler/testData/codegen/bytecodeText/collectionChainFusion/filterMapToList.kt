@@ -0,0 +1,7 @@
+// WITH_RUNTIME
+
+fun test(list: List<String>): List<Int> = list.filter { it.length > 1 }.map { it.length }
+
+// 1 NEW java/util/ArrayList
+// 1 INVOKEINTERFACE java/lang/Iterable.iterator
+// 0 collectionSizeOrDefault
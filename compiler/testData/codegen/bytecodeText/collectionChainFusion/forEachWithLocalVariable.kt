@@ -0,0 +1,12 @@
+// WITH_RUNTIME
+
+fun test(list: List<Long>): Long {
+    var max = 0L
+    list.filterNot { it < 0L }.map { it % 10L }.forEach {
+        if (it > max) max = it
+    }
+    return max
+}
+
+// 0 NEW java/util/ArrayList
+// 1 INVOKEINTERFACE java/lang/Iterable.iterator
@@ -0,0 +1,11 @@
+// WITH_RUNTIME
+
+fun test(list: List<Int>, log: StringBuilder): Int {
+    return list.filter { log.append(it); it > 0 }.map { it / 2 }.count { it != 0 }
+}
+
+fun testDivisionByVariable(list: List<Int>, divisor: Int): List<Int> {
+    return list.map { it / divisor }.filter { it > 0 }
+}
+
+// 3 NEW java/util/ArrayList
@@ -0,0 +1,17 @@
+// WITH_RUNTIME
+
+fun test(s: String, cs: CharSequence): Int {
+    var result = 0
+    for (c in s) {
+        result += c.toInt()
+    }
+    for (c in cs) {
+        result += c.toInt()
+    }
+    return result
+}
+
+// 0 iterator
+// 0 nextChar
+// 2 INVOKEINTERFACE java/lang/CharSequence.length
+// 2 INVOKEINTERFACE java/lang/CharSequence.charAt
@@ -0,0 +1,27 @@
+// WITH_RUNTIME
+
+fun test(a: IntArray, n: Int, s: Int): Int {
+    var result = 0
+    for (i in a.indices.reversed()) {
+        result += a[i]
+    }
+    for (i in (0 until n).reversed()) {
+        result += i
+    }
+    for (i in (n downTo 0).reversed() step s) {
+        result += i
+    }
+    for (i in 0..n step s step 2) {
+        result += i
+    }
+    return result
+}
+
+// 0 iterator
+// 0 reversed
+// 0 getFirst
+// 0 getLast
+// 0 getStep
+// 0 NEW kotlin/ranges
+// 3 Step must be positive
+// 3 INVOKESTATIC kotlin/internal/ProgressionUtilKt.getProgressionLastElement
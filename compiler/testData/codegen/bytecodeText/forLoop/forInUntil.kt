@@ -0,0 +1,22 @@
+// WITH_RUNTIME
+
+fun test(n: Int, m: Long, c: Char): Int {
+    var result = 0
+    for (i in 0 until n) {
+        result += i
+    }
+    for (i in 0L until m) {
+        result += i.toInt()
+    }
+    for (ch in 'a' until c) {
+        result += ch.toInt()
+    }
+    return result
+}
+
+// 0 iterator
+// 0 until
+// 0 getFirst
+// 0 getLast
+// 0 NEW kotlin/ranges
+// 3 The to argument value
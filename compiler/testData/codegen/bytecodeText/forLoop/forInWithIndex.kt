@@ -0,0 +1,21 @@
+// WITH_RUNTIME
+
+fun test(a: Array<String>, ia: IntArray, list: List<String>): Int {
+    var result = 0
+    for ((i, s) in a.withIndex()) {
+        result += i + s.length
+    }
+    for ((i, x) in ia.withIndex()) {
+        result += i * x
+    }
+    for ((i, s) in list.withIndex()) {
+        result += i + s.length
+    }
+    return result
+}
+
+// 0 withIndex
+// 0 IndexedValue
+// 0 component1
+// 0 component2
+// 1 INVOKEINTERFACE java/lang/Iterable.iterator
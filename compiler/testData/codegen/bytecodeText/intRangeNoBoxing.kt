@@ -11,7 +11,5 @@ fun foo() {
 // 1 INVOKEVIRTUAL kotlin/ranges/IntRange.getLast \(\)I
 // 0 INVOKEVIRTUAL kotlin/ranges/IntRange.getLast \(\)Ljava/lang/Integer;
 
-// 1 INVOKEVIRTUAL kotlin/ranges/IntProgression.getFirst \(\)I
-// 0 INVOKEVIRTUAL kotlin/ranges/IntProgression.getFirst \(\)Ljava/lang/Integer;
-// 1 INVOKEVIRTUAL kotlin/ranges/IntProgression.getLast \(\)I
-// 0 INVOKEVIRTUAL kotlin/ranges/IntProgression.getLast \(\)Ljava/lang/Integer;
\ No newline at end of file
+// 0 INVOKEVIRTUAL kotlin/ranges/IntProgression.getFirst
+// 0 INVOKEVIRTUAL kotlin/ranges/IntProgression.getLast
\ No newline at end of file
@@ -0,0 +1,8 @@
+// WITH_RUNTIME
+
+fun test(array: IntArray): Int = array.asIntSequence().filter { it > 0 }.map { it * 2 }.sum()
+
+fun testLong(array: LongArray): Long = array.asLongSequence().map { it + 1L }.filter { it % 2L == 0L }.sum()
+
+// 0 valueOf
+// 0 INVOKEINTERFACE kotlin/jvm/functions/Function1.invoke
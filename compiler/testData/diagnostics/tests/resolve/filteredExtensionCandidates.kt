@@ -0,0 +1,50 @@
+// FILE: a.kt
+package a
+
+class A
+
+fun A.foo() {}
+fun A.bar(i: Int) {}
+fun A.baz() {}
+
+// FILE: b.kt
+package b
+
+import a.*
+
+open class Base
+class Derived : Base()
+class B
+
+fun Base.baz() {}
+fun B.bar(s: String) {}
+
+fun testNotDropped(d: Derived, any: Any) {
+    d.baz()
+    if (any is A) <!DEBUG_INFO_SMARTCAST!>any<!>.foo()
+}
+
+fun testOnlyDropped(b: B) {
+    b.<!UNRESOLVED_REFERENCE_WRONG_RECEIVER!>foo<!>()
+}
+
+fun B.testOnlyDroppedImplicit() {
+    <!UNRESOLVED_REFERENCE_WRONG_RECEIVER!>foo<!>()
+}
+
+fun testDroppedAfterInapplicable(b: B) {
+    b.bar(<!CONSTANT_EXPECTED_TYPE_MISMATCH!>1<!>)
+}
+
+// FILE: c.kt
+package c
+
+import a.bar
+
+class C
+
+fun C.bar(s: String) {}
+
+fun testDroppedBeforeInapplicable(c: C) {
+    c.<!UNRESOLVED_REFERENCE_WRONG_RECEIVER!>bar<!>(1)
+}
@@ -0,0 +1,55 @@
+// FILE: a.kt
+package a
+
+class A
+
+fun A.foo() {}
+fun A.bar() {}
+fun A.baz() {}
+fun A.qux(i: Int) {}
+
+// FILE: b.kt
+package b
+
+import a.*
+
+open class Base
+class Derived : Base()
+
+@Deprecated("hidden", level = DeprecationLevel.HIDDEN)
+fun Derived.foo() {}
+
+@Deprecated("hidden", level = DeprecationLevel.HIDDEN)
+fun Derived.bar() {}
+fun Base.bar(s: String) {}
+
+@Deprecated("hidden", level = DeprecationLevel.HIDDEN)
+fun Derived.baz() {}
+fun Base.baz() {}
+
+fun Derived.testHiddenBeforeDropped() {
+    <!UNRESOLVED_REFERENCE_WRONG_RECEIVER!>foo<!>()
+}
+
+fun Derived.testHiddenAndInapplicableBeforeDropped() {
+    bar(<!NO_VALUE_FOR_PARAMETER!>)<!>
+}
+
+fun Derived.testHiddenAndUnfilteredBeforeDropped() {
+    baz()
+}
+
+// FILE: c.kt
+package c
+
+import a.qux
+
+class C
+
+@Deprecated("hidden", level = DeprecationLevel.HIDDEN)
+fun C.qux(i: Int) {}
+fun C.qux(s: String) {}
+
+fun C.testDroppedBeforeHiddenAndInapplicable() {
+    <!UNRESOLVED_REFERENCE_WRONG_RECEIVER!>qux<!>(1)
+}
@@ -0,0 +1,25 @@
+@Suppress("REDUNDANT_NULLABLE")
+class Outer {
+    @Suppress("UNNECESSARY_NOT_NULL_ASSERTION")
+    fun inner(): String?? = ""!! <!USELESS_CAST!>as String??<!>
+
+    fun sibling(): String?? = ""<!UNNECESSARY_NOT_NULL_ASSERTION!>!!<!>
+
+    @Suppress("USELESS_CAST")
+    class Nested {
+        fun foo(): String?? = ""<!UNNECESSARY_NOT_NULL_ASSERTION!>!!<!> as String??
+    }
+}
+
+class Next {
+    fun foo(): String?<!REDUNDANT_NULLABLE!>?<!> = null
+
+    fun params(@Suppress("REDUNDANT_NULLABLE") a: String??, b: String?<!REDUNDANT_NULLABLE!>?<!>) = a ?: b
+
+    fun locals(): Any? {
+        @Suppress("UNNECESSARY_NOT_NULL_ASSERTION")
+        val a = ""!!
+        val b = ""<!UNNECESSARY_NOT_NULL_ASSERTION!>!!<!>
+        return a + b
+    }
+}
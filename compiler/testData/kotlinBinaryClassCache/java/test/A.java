@@ -0,0 +1,5 @@
+package test;
+
+public class A {
+    public void foo() {}
+}
@@ -0,0 +1,5 @@
+package test
+
+class A {
+    fun foo(x: Int = 42) {}
+}
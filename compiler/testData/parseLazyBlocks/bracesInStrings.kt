@@ -0,0 +1,12 @@
+fun first(a: String) {
+    val b = "{"
+    val c = "}}"
+    val d = "${ if (a.isEmpty()) { "}" } else "{" }"
+    val e = """
+        }
+    """
+    val f = '{'
+    val g = '}'
+}
+
+fun second(a: String) = "$a{"
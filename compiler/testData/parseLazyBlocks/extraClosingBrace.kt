@@ -0,0 +1,12 @@
+fun first() {
+    foo()
+}
+}
+
+class A {
+    fun second() {
+        bar() }
+    }
+}
+
+fun third() { baz() }
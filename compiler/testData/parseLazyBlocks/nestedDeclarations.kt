@@ -0,0 +1,11 @@
+fun first() {
+    fun local() {
+        class Local {
+            init { }
+            fun member() { { it -> it } }
+        }
+    }
+    object : Any() {
+        override fun toString(): String { return "" }
+    }
+}
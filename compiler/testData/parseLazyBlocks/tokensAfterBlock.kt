@@ -0,0 +1,12 @@
+fun first() { foo() } bar baz
+
+class A {
+    constructor() { } )
+
+    init { foo() } 1 2
+
+    val x: Int
+        get() { return 1 } ;;
+
+    fun second() { } ]
+}
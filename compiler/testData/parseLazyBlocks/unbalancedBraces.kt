@@ -0,0 +1,7 @@
+fun first() {
+    if (true) {
+        foo()
+}
+
+fun second() {
+    bar()
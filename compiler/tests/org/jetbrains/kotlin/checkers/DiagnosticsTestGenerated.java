@@ -15036,6 +15036,18 @@ public class DiagnosticsTestGenerated extends AbstractDiagnosticsTest {
                 doTest(fileName);
             }
 
+            @TestMetadata("filteredExtensionCandidates.kt")
+            public void testFilteredExtensionCandidates() throws Exception {
+                String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/resolve/filteredExtensionCandidates.kt");
+                doTest(fileName);
+            }
+
+            @TestMetadata("filteredExtensionCandidatesWithHidden.kt")
+            public void testFilteredExtensionCandidatesWithHidden() throws Exception {
+                String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/resolve/filteredExtensionCandidatesWithHidden.kt");
+                doTest(fileName);
+            }
+
             @TestMetadata("HiddenDeclarations.kt")
             public void testHiddenDeclarations() throws Exception {
                 String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/resolve/HiddenDeclarations.kt");
@@ -19067,6 +19079,12 @@ public class DiagnosticsTestGenerated extends AbstractDiagnosticsTest {
                     doTest(fileName);
                 }
 
+                @TestMetadata("nestedAndAdjacent.kt")
+                public void testNestedAndAdjacent() throws Exception {
+                    String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/suppress/manyWarnings/nestedAndAdjacent.kt");
+                    doTest(fileName);
+                }
+
                 @TestMetadata("onClass.kt")
                 public void testOnClass() throws Exception {
                     String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/diagnostics/tests/suppress/manyWarnings/onClass.kt");
@@ -120,6 +120,20 @@ public abstract class AbstractCliTest extends TestCaseWithTmpdir {
             }
         }
 
+        List<String> containsList = InTextDirectivesUtils.findLinesWithPrefixesRemoved(content, "// CONTAINS: ");
+        for (String fileAndText : containsList) {
+            int separatorIndex = fileAndText.indexOf(": ");
+            String fileName = fileAndText.substring(0, separatorIndex);
+            String text = fileAndText.substring(separatorIndex + 2);
+            File file = new File(tmpdir, fileName);
+            if (!file.isFile()) {
+                diagnostics.add("File does not exist, but should contain '" + text + "': " + fileName);
+            }
+            else if (!FilesKt.readText(file, Charsets.UTF_8).contains(text)) {
+                diagnostics.add("File does not contain '" + text + "': " + fileName);
+            }
+        }
+
         if (!diagnostics.isEmpty()) {
             diagnostics.add(0, diagnostics.size() + " problem(s) found:");
             Assert.fail(StringsKt.join(diagnostics, "\n"));
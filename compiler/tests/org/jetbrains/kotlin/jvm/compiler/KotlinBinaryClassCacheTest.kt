@@ -0,0 +1,110 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.jvm.compiler
+
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.util.Disposer
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.openapi.vfs.StandardFileSystems
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.openapi.vfs.impl.ZipHandler
+import com.intellij.openapi.vfs.impl.jar.CoreJarFileSystem
+import com.intellij.util.io.URLUtil
+import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
+import org.jetbrains.kotlin.load.kotlin.KotlinBinaryClassCache
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import org.jetbrains.kotlin.test.KotlinTestWithEnvironmentManagement
+import org.jetbrains.kotlin.test.MockLibraryUtil
+import org.jetbrains.kotlin.test.TestJdkKind
+import org.jetbrains.kotlin.util.PerformanceCounter
+import org.picocontainer.MutablePicoContainer
+import java.io.File
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class KotlinBinaryClassCacheTest : KotlinTestWithEnvironmentManagement() {
+    fun testJarReplacedBetweenCompilations() {
+        val javaJar = MockLibraryUtil.compileLibraryToJar("$TEST_DATA_PATH/java", "javaA", false, false)
+        val kotlinJar = MockLibraryUtil.compileLibraryToJar("$TEST_DATA_PATH/kotlin", "kotlinA", false, false)
+        val jar = File(KotlinTestUtils.tmpDirForTest(this), "a.jar")
+        FileUtil.copy(javaJar, jar)
+
+        KotlinCoreEnvironment.createForTests(
+                testRootDisposable,
+                KotlinTestUtils.newConfiguration(ConfigurationKind.JDK_ONLY, TestJdkKind.MOCK_JDK),
+                EnvironmentConfigFiles.JVM_CONFIG_FILES
+        )
+        // The service is replaced rather than configured by the system property, which is only read when the application is created
+        val binaryClassCache = KotlinBinaryClassCache(cacheJavaClassesInJars = true)
+        Disposer.register(testRootDisposable, binaryClassCache)
+        with(ApplicationManager.getApplication().picoContainer as MutablePicoContainer) {
+            unregisterComponent(KotlinBinaryClassCache::class.java.name)
+            registerComponentInstance(KotlinBinaryClassCache::class.java.name, binaryClassCache)
+        }
+
+        val initialReadCount = getClassReadCount()
+        assertNull(KotlinBinaryClassCache.getKotlinBinaryClass(findClassInJar(jar)), "Java class is not expected to be a Kotlin class")
+        assertEquals(initialReadCount + 1, getClassReadCount())
+
+        // The class is now remembered as a Java class, so the entry created by the next compilation is not read at all
+        releaseJarCaches()
+        assertNull(KotlinBinaryClassCache.getKotlinBinaryClass(findClassInJar(jar)))
+        assertEquals(initialReadCount + 1, getClassReadCount(), "Remembered Java class is read again")
+
+        val lastModified = jar.lastModified()
+        FileUtil.copy(kotlinJar, jar)
+        // The jar is not recognized as changed by its modification time
+        jar.setLastModified(lastModified)
+        releaseJarCaches()
+
+        assertNotNull(KotlinBinaryClassCache.getKotlinBinaryClass(findClassInJar(jar)), "Kotlin class from the replaced jar is not found")
+        assertEquals(initialReadCount + 2, getClassReadCount())
+    }
+
+    private fun findClassInJar(jar: File): VirtualFile {
+        val jarFileSystem = VirtualFileManager.getInstance().getFileSystem(StandardFileSystems.JAR_PROTOCOL)
+        val path = jar.path + URLUtil.JAR_SEPARATOR + "test/A.class"
+        return jarFileSystem.findFileByPath(path) ?: error("Class file is not found: $path")
+    }
+
+    // The same as the daemon does after each compilation session
+    private fun releaseJarCaches() {
+        ZipHandler.clearFileAccessorCache()
+        (VirtualFileManager.getInstance().getFileSystem(StandardFileSystems.JAR_PROTOCOL) as CoreJarFileSystem).clearHandlersCache()
+        KotlinBinaryClassCache.onJarFileSystemCleared()
+    }
+
+    // Class files are read by VirtualFileKotlinClass.create, which counts its calls
+    private fun getClassReadCount(): Int {
+        var count: Int? = null
+        PerformanceCounter.report { line ->
+            if (line.startsWith(CLASS_READ_COUNTER_PREFIX)) {
+                count = line.removePrefix(CLASS_READ_COUNTER_PREFIX).substringBefore(" ").toInt()
+            }
+        }
+        return count ?: error("Counter is not found: $CLASS_READ_COUNTER_PREFIX")
+    }
+
+    companion object {
+        private val TEST_DATA_PATH = "compiler/testData/kotlinBinaryClassCache"
+        private val CLASS_READ_COUNTER_PREFIX = "Binary class from Kotlin file performed "
+    }
+}
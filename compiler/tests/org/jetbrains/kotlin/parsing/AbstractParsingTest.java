@@ -16,13 +16,21 @@
 
 package org.jetbrains.kotlin.parsing;
 
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
 import com.intellij.openapi.fileTypes.FileTypeManager;
 import com.intellij.openapi.fileTypes.FileTypeRegistry;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
 import com.intellij.openapi.util.Getter;
+import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.psi.PsiErrorElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.DebugUtil;
+import com.intellij.psi.impl.source.text.BlockSupportImpl;
+import com.intellij.psi.impl.source.text.DiffLog;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.PathUtil;
@@ -97,6 +105,45 @@ public abstract class AbstractParsingTest extends KtParsingTestCase {
         doBaseTest(filePath, KtNodeTypes.BLOCK_CODE_FRAGMENT);
     }
 
+    // Lazy parsing of declaration bodies must build the same tree as eager parsing, also after a body is edited and reparsed
+    protected void doLazyBlockParsingTest(@NotNull String filePath) throws Exception {
+        String text = loadFile(filePath);
+        String name = FileUtil.getNameWithoutExtension(PathUtil.getFileName(filePath));
+
+        PsiFile file = createPsiFile(name, text);
+        assertEquals(parseEagerly(file, text), childrenToString(file.getNode()));
+
+        // A fresh file, so that the edited body is still collapsed when the edit is reparsed
+        PsiFile editedFile = createPsiFile(name, text);
+        KtNamedFunction function = PsiTreeUtil.findChildOfType(editedFile, KtNamedFunction.class);
+        assertNotNull("No function to edit", function);
+        KtExpression body = function.getBodyExpression();
+        assertTrue("Function body should be a block", body instanceof KtBlockExpression);
+
+        int offset = body.getTextRange().getStartOffset() + 1;
+        String editedText = text.substring(0, offset) + "\nval inserted = \"{\"\n" + text.substring(offset);
+        DiffLog diffLog = new BlockSupportImpl(getProject()).reparseRange(
+                editedFile, new TextRange(offset, offset), editedText, new EmptyProgressIndicator(), text);
+        diffLog.performActualPsiChange(editedFile);
+
+        assertEquals(editedText, editedFile.getText());
+        assertEquals(parseEagerly(editedFile, editedText), childrenToString(editedFile.getNode()));
+    }
+
+    private String parseEagerly(@NotNull PsiFile file, @NotNull String text) {
+        KotlinParserDefinition definition = new KotlinParserDefinition(/* parseBodiesLazily = */ false);
+        PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(definition, definition.createLexer(getProject()), text);
+        return childrenToString(new KotlinParser(getProject(), false).parse(definition.getFileNodeType(), builder, file));
+    }
+
+    private static String childrenToString(@NotNull ASTNode node) {
+        StringBuilder result = new StringBuilder();
+        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+            result.append(DebugUtil.treeToString(child, false));
+        }
+        return result.toString();
+    }
+
     private void doBaseTest(@NotNull String filePath, @NotNull IElementType fileType) throws Exception {
         myFileExt = FileUtilRt.getExtension(PathUtil.getFileName(filePath));
         myFile = createFile(filePath, fileType);
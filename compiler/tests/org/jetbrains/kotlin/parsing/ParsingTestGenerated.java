@@ -2791,4 +2791,43 @@ public class ParsingTestGenerated extends AbstractParsingTest {
             doBlockCodeFragmentParsingTest(fileName);
         }
     }
+
+    @TestMetadata("compiler/testData/parseLazyBlocks")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class ParseLazyBlocks extends AbstractParsingTest {
+        public void testAllFilesPresentInParseLazyBlocks() throws Exception {
+            KotlinTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/parseLazyBlocks"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("bracesInStrings.kt")
+        public void testBracesInStrings() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/parseLazyBlocks/bracesInStrings.kt");
+            doLazyBlockParsingTest(fileName);
+        }
+
+        @TestMetadata("extraClosingBrace.kt")
+        public void testExtraClosingBrace() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/parseLazyBlocks/extraClosingBrace.kt");
+            doLazyBlockParsingTest(fileName);
+        }
+
+        @TestMetadata("nestedDeclarations.kt")
+        public void testNestedDeclarations() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/parseLazyBlocks/nestedDeclarations.kt");
+            doLazyBlockParsingTest(fileName);
+        }
+
+        @TestMetadata("tokensAfterBlock.kt")
+        public void testTokensAfterBlock() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/parseLazyBlocks/tokensAfterBlock.kt");
+            doLazyBlockParsingTest(fileName);
+        }
+
+        @TestMetadata("unbalancedBraces.kt")
+        public void testUnbalancedBraces() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/parseLazyBlocks/unbalancedBraces.kt");
+            doLazyBlockParsingTest(fileName);
+        }
+    }
 }
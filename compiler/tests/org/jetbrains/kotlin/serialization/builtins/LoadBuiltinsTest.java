@@ -22,6 +22,7 @@ import kotlin.Unit;
 import kotlin.collections.CollectionsKt;
 import kotlin.jvm.functions.Function1;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.builtins.BuiltInsPackageDataCache;
 import org.jetbrains.kotlin.builtins.DefaultBuiltIns;
 import org.jetbrains.kotlin.builtins.functions.BuiltInFictitiousFunctionClassFactory;
 import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
@@ -116,6 +117,7 @@ public class LoadBuiltinsTest extends KotlinTestWithEnvironment {
                 new BuiltInFictitiousFunctionClassFactory(storageManager, builtInsModule),
                 PlatformDependentDeclarationFilter.All.INSTANCE,
                 AdditionalClassPartsProvider.None.INSTANCE,
+                BuiltInsPackageDataCache.None.INSTANCE,
                 new Function1<String, InputStream>() {
                     @Override
                     public InputStream invoke(String path) {
@@ -142,6 +142,17 @@ public class KotlinOverridingTest extends KotlinTestWithEnvironment {
                 "fun <T1, X : Array<out T1>> a(a : Array<*>) : T1",
                 "fun <T, Y : Array<out T>> a(a : Array<in T>) : T");
 
+        assertNotOverridable(
+                "fun a(a : Int, b : String) : Int",
+                "fun a(a : Int, b : Any) : Int");
+
+        assertNotOverridable(
+                "fun <T1> a(a : T1, b : Array<T1>) : T1",
+                "fun <T> a(a : T, b : List<T>) : T");
+
+        assertOverridable(
+                "fun <T1> a(a : T1, b : Array<T1>) : T1",
+                "fun <T> a(a : T, b : Array<T>) : T");
     }
 
     private void assertOverridable(String superFun, String subFun) {
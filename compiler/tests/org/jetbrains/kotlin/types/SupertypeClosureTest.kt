@@ -0,0 +1,57 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.types
+
+import org.jetbrains.kotlin.descriptors.resolveClassByFqName
+import org.jetbrains.kotlin.incremental.components.NoLookupLocation
+import org.jetbrains.kotlin.name.FqName
+import org.jetbrains.kotlin.renderer.DescriptorRenderer
+import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import org.jetbrains.kotlin.test.KotlinTestWithEnvironment
+import org.jetbrains.kotlin.types.checker.KotlinTypeChecker
+import org.jetbrains.kotlin.types.checker.TypeCheckingProcedure
+
+class SupertypeClosureTest : KotlinTestWithEnvironment() {
+    override fun createEnvironment() = createEnvironmentWithMockJdk(ConfigurationKind.JDK_ONLY)
+
+    fun testErrorSupertype() {
+        val file = KotlinTestUtils.createFile("test.kt", """
+            interface Parent<T>
+            open class WithErrorSupertype<X> : Unresolved(), Parent<List<X>>
+            class Derived : WithErrorSupertype<String>()
+            interface Unrelated
+        """, project)
+        val module = JvmResolveUtil.analyze(file, environment).moduleDescriptor
+        fun classType(name: String) = module.resolveClassByFqName(FqName(name), NoLookupLocation.FROM_TEST)!!.defaultType
+
+        val derived = classType("Derived")
+        val parent = classType("Parent")
+
+        // The second lookup goes through the closure cached by the first one
+        for (attempt in 1..2) {
+            val supertype = TypeCheckingProcedure.findCorrespondingSupertype(derived, parent)
+            assertNotNull(supertype)
+            assertEquals("Parent<kotlin.collections.List<kotlin.String>>", DescriptorRenderer.FQ_NAMES_IN_TYPES.renderType(supertype!!))
+            assertNull(TypeCheckingProcedure.findCorrespondingSupertype(derived, classType("Unrelated")))
+        }
+
+        assertTrue(KotlinTypeChecker.DEFAULT.isSubtypeOf(derived, classType("WithErrorSupertype")))
+        assertFalse(KotlinTypeChecker.DEFAULT.isSubtypeOf(derived, classType("Unrelated")))
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.utils
+
+import java.io.File
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Collects events in memory and writes them to [destination] on [close] in the Chrome trace event format,
+ * which can be opened in chrome://tracing
+ */
+class ChromeTraceEventSink(private val destination: File) : TraceEventSink {
+    private class Event(
+            val phase: Char, val category: String, val name: String, val timeNanos: Long, val threadId: Long, val value: Long
+    )
+
+    private val startNanos = System.nanoTime()
+    private val events = ConcurrentLinkedQueue<Event>()
+
+    override fun begin(category: String, name: String, timeNanos: Long) {
+        events.add(Event('B', category, name, timeNanos, Thread.currentThread().id, 0))
+    }
+
+    override fun end(category: String, name: String, timeNanos: Long) {
+        events.add(Event('E', category, name, timeNanos, Thread.currentThread().id, 0))
+    }
+
+    override fun counter(category: String, name: String, value: Long, timeNanos: Long) {
+        events.add(Event('C', category, name, timeNanos, Thread.currentThread().id, value))
+    }
+
+    fun close() {
+        destination.parentFile?.mkdirs()
+        destination.bufferedWriter().use { writer ->
+            writer.append("{\"traceEvents\":[\n")
+            events.joinTo(writer, ",\n") { event ->
+                buildString {
+                    append("{\"name\":\"").append(jsonEscape(event.name))
+                    append("\",\"cat\":\"").append(jsonEscape(event.category))
+                    append("\",\"ph\":\"").append(event.phase)
+                    append("\",\"ts\":").append((event.timeNanos - startNanos) / 1000)
+                    append(",\"pid\":1,\"tid\":").append(event.threadId)
+                    if (event.phase == 'C') {
+                        append(",\"args\":{\"value\":").append(event.value).append("}")
+                    }
+                    append("}")
+                }
+            }
+            writer.append("\n],\"displayTimeUnit\":\"ms\"}\n")
+        }
+    }
+}
+
+private fun jsonEscape(value: String): String = buildString {
+    for (ch in value) {
+        when (ch) {
+            '\"' -> append("\\\"")
+            '\\' -> append("\\\\")
+            else -> if (ch.toInt() < 32) {
+                append("\\u" + Integer.toHexString(ch.toInt()).padStart(4, '0'))
+            }
+            else {
+                append(ch)
+            }
+        }
+    }
+}
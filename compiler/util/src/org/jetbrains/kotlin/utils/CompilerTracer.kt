@@ -0,0 +1,109 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.utils
+
+/**
+ * Receives begin/end events of compiler phases and counter values.
+ * Phases are nested per thread: every [end] closes the latest [begin] on the same thread.
+ */
+interface TraceEventSink {
+    fun begin(category: String, name: String, timeNanos: Long)
+
+    fun end(category: String, name: String, timeNanos: Long)
+
+    fun counter(category: String, name: String, value: Long, timeNanos: Long)
+
+    object NONE : TraceEventSink {
+        override fun begin(category: String, name: String, timeNanos: Long) {}
+        override fun end(category: String, name: String, timeNanos: Long) {}
+        override fun counter(category: String, name: String, value: Long, timeNanos: Long) {}
+    }
+}
+
+/**
+ * Entry point for tracing compiler phases.
+ * The sink is installed per thread for one compilation or build (see [withSink]), so that concurrent compilations in one process
+ * (the daemon) don't trace into each other's sinks. Code which moves work of a compilation to other threads
+ * (e.g. parallel body resolution) passes the sink to them explicitly.
+ * Unless a sink is installed, all methods return immediately without even reading the clock,
+ * so callers which compute event names eagerly should check [isEnabled] first.
+ */
+object CompilerTracer {
+    const val FRONTEND = "frontend"
+    const val BACKEND = "backend"
+    const val INLINE = "inline"
+    const val INCREMENTAL = "incremental"
+
+    private val currentSink = object : ThreadLocal<TraceEventSink>() {
+        override fun initialValue(): TraceEventSink = TraceEventSink.NONE
+    }
+
+    var sink: TraceEventSink
+        get() = currentSink.get()
+        set(value) {
+            if (value === TraceEventSink.NONE) currentSink.remove() else currentSink.set(value)
+        }
+
+    @JvmStatic
+    fun isEnabled(): Boolean = sink !== TraceEventSink.NONE
+
+    // Installs the sink on the current thread for the time of the block and restores the previous one afterwards
+    inline fun <T> withSink(sink: TraceEventSink, block: () -> T): T {
+        val previous = this.sink
+        this.sink = sink
+        try {
+            return block()
+        }
+        finally {
+            this.sink = previous
+        }
+    }
+
+    @JvmStatic
+    fun begin(category: String, name: String) {
+        val sink = sink
+        if (sink !== TraceEventSink.NONE) {
+            sink.begin(category, name, System.nanoTime())
+        }
+    }
+
+    @JvmStatic
+    fun end(category: String, name: String) {
+        val sink = sink
+        if (sink !== TraceEventSink.NONE) {
+            sink.end(category, name, System.nanoTime())
+        }
+    }
+
+    @JvmStatic
+    fun counter(category: String, name: String, value: Long) {
+        val sink = sink
+        if (sink !== TraceEventSink.NONE) {
+            sink.counter(category, name, value, System.nanoTime())
+        }
+    }
+
+    inline fun <T> trace(category: String, name: String, block: () -> T): T {
+        begin(category, name)
+        try {
+            return block()
+        }
+        finally {
+            end(category, name)
+        }
+    }
+}
@@ -32,6 +32,8 @@ import javax.inject.Inject
 class DeserializedDescriptorResolver(private val errorReporter: ErrorReporter) {
     lateinit var components: DeserializationComponents
 
+    private val protoDataCache = DeserializedProtoDataCache.getInstanceIfEnabled()
+
     // component dependency cycle
     @Inject
     fun setComponents(components: DeserializationComponentsForJava) {
@@ -42,7 +44,7 @@ class DeserializedDescriptorResolver(private val errorReporter: ErrorReporter) {
         val data = readData(kotlinClass, KOTLIN_CLASS) ?: return null
         val strings = kotlinClass.classHeader.strings.sure { "String table not found in $kotlinClass" }
         val classData = parseProto(kotlinClass) {
-            JvmProtoBufUtil.readClassDataFrom(data, strings)
+            protoDataCache?.getOrReadClassData(data, strings) ?: JvmProtoBufUtil.readClassDataFrom(data, strings)
         }
         val sourceElement = KotlinJvmBinarySourceElement(kotlinClass)
         return components.classDeserializer.deserializeClass(
@@ -55,7 +57,7 @@ class DeserializedDescriptorResolver(private val errorReporter: ErrorReporter) {
         val data = readData(kotlinClass, KOTLIN_FILE_FACADE_OR_MULTIFILE_CLASS_PART) ?: return null
         val strings = kotlinClass.classHeader.strings.sure { "String table not found in $kotlinClass" }
         val (nameResolver, packageProto) = parseProto(kotlinClass) {
-            JvmProtoBufUtil.readPackageDataFrom(data, strings)
+            protoDataCache?.getOrReadPackageData(data, strings) ?: JvmProtoBufUtil.readPackageDataFrom(data, strings)
         }
         val source = JvmPackagePartSource(kotlinClass)
         return DeserializedPackageMemberScope(descriptor, packageProto, nameResolver, source, components) {
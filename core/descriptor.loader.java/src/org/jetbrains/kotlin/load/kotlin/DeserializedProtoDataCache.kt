@@ -0,0 +1,100 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.load.kotlin
+
+import org.jetbrains.kotlin.serialization.ClassData
+import org.jetbrains.kotlin.serialization.PackageData
+import org.jetbrains.kotlin.serialization.jvm.JvmProtoBufUtil
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.SoftReference
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Process-wide cache of parsed class and package protos of compiled Kotlin classes, to be used by long-living processes
+ * (e.g. the compile daemon) which load the same libraries over and over again in different compilations.
+ *
+ * Entries are keyed by the contents of the metadata annotation, so a changed class file never hits a stale entry,
+ * and are softly referenced, so they are cleared by the GC under memory pressure.
+ * Parsed protos and [JvmNameResolver] are immutable, which makes it safe to share them between compilations.
+ */
+class DeserializedProtoDataCache private constructor() {
+    private val classes = SoftValueMap<ClassData>()
+    private val packageParts = SoftValueMap<PackageData>()
+
+    fun getOrReadClassData(data: Array<String>, strings: Array<String>): ClassData =
+            classes.getOrPut(MetadataKey(data, strings)) { JvmProtoBufUtil.readClassDataFrom(data, strings) }
+
+    fun getOrReadPackageData(data: Array<String>, strings: Array<String>): PackageData =
+            packageParts.getOrPut(MetadataKey(data, strings)) { JvmProtoBufUtil.readPackageDataFrom(data, strings) }
+
+    fun clear() {
+        classes.clear()
+        packageParts.clear()
+    }
+
+    private class MetadataKey(val data: Array<String>, val strings: Array<String>) {
+        private val hashCode = 31 * Arrays.hashCode(data) + Arrays.hashCode(strings)
+
+        override fun hashCode() = hashCode
+
+        override fun equals(other: Any?) =
+                other is MetadataKey && hashCode == other.hashCode && Arrays.equals(data, other.data) && Arrays.equals(strings, other.strings)
+    }
+
+    private class SoftValueMap<V : Any> {
+        private val map = ConcurrentHashMap<MetadataKey, KeyedSoftReference<V>>()
+        private val queue = ReferenceQueue<V>()
+
+        fun getOrPut(key: MetadataKey, compute: () -> V): V {
+            map[key]?.get()?.let { return it }
+
+            processQueue()
+            val value = compute()
+            map[key] = KeyedSoftReference(key, value, queue)
+            return value
+        }
+
+        fun clear() {
+            map.clear()
+            processQueue()
+        }
+
+        private fun processQueue() {
+            while (true) {
+                @Suppress("UNCHECKED_CAST")
+                val reference = queue.poll() as KeyedSoftReference<V>? ?: break
+                map.remove(reference.key, reference)
+            }
+        }
+    }
+
+    private class KeyedSoftReference<V>(val key: MetadataKey, value: V, queue: ReferenceQueue<V>) : SoftReference<V>(value, queue)
+
+    companion object {
+        const val ENABLED_PROPERTY = "kotlin.deserialization.proto.cache"
+
+        private val INSTANCE = DeserializedProtoDataCache()
+
+        /**
+         * Returns the shared cache if it's enabled in this process via [ENABLED_PROPERTY], or null otherwise.
+         */
+        @JvmStatic
+        fun getInstanceIfEnabled(): DeserializedProtoDataCache? =
+                if (System.getProperty(ENABLED_PROPERTY) == "true") INSTANCE else null
+    }
+}
@@ -20,23 +20,14 @@ import org.jetbrains.kotlin.descriptors.SourceElement
 import org.jetbrains.kotlin.name.ClassId
 import org.jetbrains.kotlin.serialization.ClassData
 import org.jetbrains.kotlin.serialization.ClassDataWithSource
-import org.jetbrains.kotlin.serialization.builtins.BuiltInsProtoBuf
 import org.jetbrains.kotlin.serialization.deserialization.ClassDataFinder
-import org.jetbrains.kotlin.serialization.deserialization.NameResolver
 
-class BuiltInsClassDataFinder(
-        proto: BuiltInsProtoBuf.BuiltIns,
-        private val nameResolver: NameResolver
-) : ClassDataFinder {
-    private val classIdToProto =
-            proto.class_List.associateBy { klass ->
-                nameResolver.getClassId(klass.fqName)
-            }
-
-    internal val allClassIds: Collection<ClassId> get() = classIdToProto.keys
+class BuiltInsClassDataFinder(private val data: () -> BuiltInsPackageData) : ClassDataFinder {
+    internal val allClassIds: Collection<ClassId> get() = data().classIdToProto.keys
 
     override fun findClassData(classId: ClassId): ClassDataWithSource? {
-        val classProto = classIdToProto[classId] ?: return null
-        return ClassDataWithSource(ClassData(nameResolver, classProto), SourceElement.NO_SOURCE)
+        val data = data()
+        val classProto = data.classIdToProto[classId] ?: return null
+        return ClassDataWithSource(ClassData(data.nameResolver, classProto), SourceElement.NO_SOURCE)
     }
 }
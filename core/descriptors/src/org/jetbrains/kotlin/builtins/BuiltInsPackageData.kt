@@ -0,0 +1,74 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.builtins
+
+import org.jetbrains.kotlin.name.ClassId
+import org.jetbrains.kotlin.serialization.ProtoBuf
+import org.jetbrains.kotlin.serialization.builtins.BuiltInsProtoBuf
+import org.jetbrains.kotlin.serialization.deserialization.NameResolverImpl
+import java.io.InputStream
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Parsed contents of a single .kotlin_builtins file. Instances are immutable and can be shared between built-ins modules.
+ */
+class BuiltInsPackageData(val proto: BuiltInsProtoBuf.BuiltIns) {
+    val nameResolver = NameResolverImpl(proto.strings, proto.qualifiedNames)
+
+    val classIdToProto: Map<ClassId, ProtoBuf.Class> by lazy {
+        proto.class_List.associateBy { klass ->
+            nameResolver.getClassId(klass.fqName)
+        }
+    }
+
+    companion object {
+        fun readFrom(stream: InputStream): BuiltInsPackageData {
+            val version = BuiltInsBinaryVersion.readFrom(stream)
+
+            if (!version.isCompatible()) {
+                // TODO: report a proper diagnostic
+                throw UnsupportedOperationException(
+                        "Kotlin built-in definition format version is not supported: " +
+                        "expected ${BuiltInsBinaryVersion.INSTANCE}, actual $version. " +
+                        "Please update Kotlin"
+                )
+            }
+
+            return BuiltInsPackageData(BuiltInsProtoBuf.BuiltIns.parseFrom(stream, BuiltInSerializerProtocol.extensionRegistry))
+        }
+    }
+}
+
+interface BuiltInsPackageDataCache {
+    fun getOrLoad(path: String, load: () -> BuiltInsPackageData): BuiltInsPackageData
+
+    object None : BuiltInsPackageDataCache {
+        override fun getOrLoad(path: String, load: () -> BuiltInsPackageData) = load()
+    }
+
+    /**
+     * Keeps the data loaded from the class loader of [KotlinBuiltIns] for the lifetime of that class loader. The path alone identifies
+     * the resource in this case, so all built-ins instances in the same JVM (e.g. several compilations in the daemon, or several
+     * reflection module data instances) parse each .kotlin_builtins file only once.
+     */
+    object ForKotlinBuiltInsClassLoader : BuiltInsPackageDataCache {
+        private val cache = ConcurrentHashMap<String, BuiltInsPackageData>()
+
+        override fun getOrLoad(path: String, load: () -> BuiltInsPackageData): BuiltInsPackageData =
+                cache[path] ?: load().let { data -> cache.putIfAbsent(path, data) ?: data }
+    }
+}
@@ -18,9 +18,7 @@ package org.jetbrains.kotlin.builtins
 
 import org.jetbrains.kotlin.descriptors.ModuleDescriptor
 import org.jetbrains.kotlin.name.FqName
-import org.jetbrains.kotlin.serialization.builtins.BuiltInsProtoBuf
 import org.jetbrains.kotlin.serialization.deserialization.DeserializedPackageFragment
-import org.jetbrains.kotlin.serialization.deserialization.NameResolverImpl
 import org.jetbrains.kotlin.serialization.deserialization.descriptors.DeserializedPackageMemberScope
 import org.jetbrains.kotlin.storage.StorageManager
 import java.io.InputStream
@@ -29,30 +27,24 @@ class BuiltInsPackageFragment(
         fqName: FqName,
         storageManager: StorageManager,
         module: ModuleDescriptor,
-        loadResource: (path: String) -> InputStream?
+        loadResource: (path: String) -> InputStream?,
+        dataCache: BuiltInsPackageDataCache = BuiltInsPackageDataCache.None
 ) : DeserializedPackageFragment(fqName, storageManager, module, loadResource) {
-    private val proto = loadResourceSure(BuiltInSerializerProtocol.getBuiltInsFilePath(fqName)).use { stream ->
-        val version = BuiltInsBinaryVersion.readFrom(stream)
-
-        if (!version.isCompatible()) {
-            // TODO: report a proper diagnostic
-            throw UnsupportedOperationException(
-                    "Kotlin built-in definition format version is not supported: " +
-                    "expected ${BuiltInsBinaryVersion.INSTANCE}, actual $version. " +
-                    "Please update Kotlin"
-            )
+    // The file is only read when something from this package is requested for the first time
+    private val data = storageManager.createLazyValue {
+        val path = BuiltInSerializerProtocol.getBuiltInsFilePath(fqName)
+        dataCache.getOrLoad(path) {
+            loadResourceSure(path).use { stream -> BuiltInsPackageData.readFrom(stream) }
         }
-
-        BuiltInsProtoBuf.BuiltIns.parseFrom(stream, BuiltInSerializerProtocol.extensionRegistry)
     }
 
-    private val nameResolver = NameResolverImpl(proto.strings, proto.qualifiedNames)
-
-    override val classDataFinder = BuiltInsClassDataFinder(proto, nameResolver)
+    override val classDataFinder = BuiltInsClassDataFinder(data)
 
     override fun computeMemberScope() =
-            DeserializedPackageMemberScope(
-                    this, proto.`package`, nameResolver, containerSource = null, components = components,
-                    classNames = { classDataFinder.allClassIds.filter { classId -> !classId.isNestedClass }.map { it.shortClassName } }
-            )
+            data().let { packageData ->
+                DeserializedPackageMemberScope(
+                        this, packageData.proto.`package`, packageData.nameResolver, containerSource = null, components = components,
+                        classNames = { classDataFinder.allClassIds.filter { classId -> !classId.isNestedClass }.map { it.shortClassName } }
+                )
+            }
 }
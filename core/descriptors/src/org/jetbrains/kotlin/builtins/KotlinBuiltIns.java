@@ -88,6 +88,7 @@ public abstract class KotlinBuiltIns {
                 new BuiltInFictitiousFunctionClassFactory(storageManager, builtInsModule),
                 getPlatformDependentDeclarationFilter(),
                 getAdditionalClassPartsProvider(),
+                BuiltInsPackageDataCache.ForKotlinBuiltInsClassLoader.INSTANCE,
                 new Function1<String, InputStream>() {
                     @Override
                     public InputStream invoke(String path) {
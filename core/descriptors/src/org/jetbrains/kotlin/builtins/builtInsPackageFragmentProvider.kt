@@ -32,10 +32,11 @@ fun createBuiltInPackageFragmentProvider(
         classDescriptorFactory: ClassDescriptorFactory,
         platformDependentDeclarationFilter: PlatformDependentDeclarationFilter,
         additionalClassPartsProvider: AdditionalClassPartsProvider = AdditionalClassPartsProvider.None,
+        dataCache: BuiltInsPackageDataCache = BuiltInsPackageDataCache.None,
         loadResource: (String) -> InputStream?
 ): PackageFragmentProvider {
     val packageFragments = packageFqNames.map { fqName ->
-        BuiltInsPackageFragment(fqName, storageManager, module, loadResource)
+        BuiltInsPackageFragment(fqName, storageManager, module, loadResource, dataCache)
     }
     val provider = PackageFragmentProviderImpl(packageFragments)
 
@@ -45,12 +45,14 @@ public class OverridingUtil {
                     ExternalOverridabilityCondition.class.getClassLoader()
             ));
 
-    public static final OverridingUtil DEFAULT = new OverridingUtil(new KotlinTypeChecker.TypeConstructorEquality() {
+    private static final KotlinTypeChecker.TypeConstructorEquality DEFAULT_EQUALITY = new KotlinTypeChecker.TypeConstructorEquality() {
         @Override
         public boolean equals(@NotNull TypeConstructor a, @NotNull TypeConstructor b) {
             return a.equals(b);
         }
-    });
+    };
+
+    public static final OverridingUtil DEFAULT = new OverridingUtil(DEFAULT_EQUALITY);
 
     @NotNull
     public static OverridingUtil createWithEqualityAxioms(@NotNull KotlinTypeChecker.TypeConstructorEquality equalityAxioms) {
@@ -157,6 +159,12 @@ public class OverridingUtil {
             return OverrideCompatibilityInfo.conflict("Type parameter number mismatch");
         }
 
+        // Members with the same name and number of parameters usually differ in classes of parameter types,
+        // which can be seen without creating a type checker and comparing type parameter bounds
+        if (equalityAxioms == DEFAULT_EQUALITY && haveDifferentErasedClasses(superValueParameters, subValueParameters)) {
+            return OverrideCompatibilityInfo.incompatible("Value parameter type mismatch");
+        }
+
         KotlinTypeChecker typeChecker = createTypeChecker(superTypeParameters, subTypeParameters);
 
         for (int i = 0; i < superTypeParameters.size(); i++) {
@@ -254,6 +262,27 @@ public class OverridingUtil {
         return null;
     }
 
+    private static boolean haveDifferentErasedClasses(@NotNull List<KotlinType> superTypes, @NotNull List<KotlinType> subTypes) {
+        for (int i = 0; i < superTypes.size(); i++) {
+            TypeConstructor superClass = getErasedClassConstructor(superTypes.get(i));
+            if (superClass == null) continue;
+
+            TypeConstructor subClass = getErasedClassConstructor(subTypes.get(i));
+            if (subClass != null && !superClass.equals(subClass)) return true;
+        }
+        return false;
+    }
+
+    // Returns null for types that may be equivalent to types with other constructors: type parameters
+    // (which are matched by position in super and sub descriptors), flexible and error types
+    @Nullable
+    private static TypeConstructor getErasedClassConstructor(@NotNull KotlinType type) {
+        if (type.isError() || FlexibleTypesKt.isFlexible(type)) return null;
+
+        TypeConstructor constructor = type.getConstructor();
+        return constructor.getDeclarationDescriptor() instanceof ClassDescriptor ? constructor : null;
+    }
+
     private static boolean areTypesEquivalent(
             @NotNull KotlinType typeInSuper,
             @NotNull KotlinType typeInSub,
@@ -49,8 +49,24 @@ abstract class AbstractTypeConstructor(storageManager: StorageManager) : TypeCon
                 }
 
                 supertypes.supertypesWithoutCycles = (resultWithoutCycles as? List<KotlinType>) ?: resultWithoutCycles.toList()
+                areSupertypesFinal = true
             })
 
+    // true when supertypes are computed and loops in them are disconnected, so 'getSupertypes' won't return anything else
+    @Volatile internal var areSupertypesFinal = false
+        private set
+
+    // Not a lazy value: a closure computed while some of the supertypes in the hierarchy are being resolved is incomplete
+    // and must not be cached, see SupertypeClosure.compute
+    @Volatile private var supertypeClosure: SupertypeClosure? = null
+
+    internal fun getSupertypeClosure(): SupertypeClosure? {
+        supertypeClosure?.let { return it }
+        val closure = SupertypeClosure.compute(this) ?: return null
+        supertypeClosure = closure
+        return closure
+    }
+
     protected abstract fun computeSupertypes(): Collection<KotlinType>
     protected abstract val supertypeLoopChecker: SupertypeLoopChecker
     protected open fun reportSupertypeLoopError(type: KotlinType) {}
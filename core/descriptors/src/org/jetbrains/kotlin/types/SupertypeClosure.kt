@@ -0,0 +1,72 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.types
+
+import java.util.*
+
+/**
+ * Constructors of all the (transitive) supertypes of some type constructor, each one with the path of supertypes leading to it.
+ * Paths are the same that breadth-first search in [org.jetbrains.kotlin.types.checker.findCorrespondingSupertype] finds,
+ * so corresponding supertype can be obtained by substituting along the path without traversing the whole hierarchy again.
+ */
+internal class SupertypeClosure private constructor(private val paths: Map<TypeConstructor, PathNode>) {
+    // 'type' is a supertype of 'previous.type' (or of the closure owner if 'previous' is null)
+    class PathNode(val type: KotlinType, val previous: PathNode?)
+
+    operator fun contains(constructor: TypeConstructor) = constructor in paths
+
+    fun getPath(constructor: TypeConstructor): PathNode? = paths[constructor]
+
+    companion object {
+        // Returns null if supertypes of some constructor in the hierarchy are not computed completely yet
+        // (i.e. we're in the middle of their computation), such closure can't be cached.
+        // Other constructors (e.g. error or intersection type constructors) get their supertypes on creation,
+        // so they never prevent caching
+        fun compute(typeConstructor: AbstractTypeConstructor): SupertypeClosure? {
+            if (!typeConstructor.hasFinalSupertypes()) return null
+
+            val paths = HashMap<TypeConstructor, PathNode>()
+            // Different constructors may be equal (e.g. classes with the same FqName from different modules),
+            // so supertypes of each of them should be visited as 'findCorrespondingSupertype' does
+            val visited = Collections.newSetFromMap(IdentityHashMap<TypeConstructor, Boolean>())
+            visited.add(typeConstructor)
+
+            val queue = ArrayDeque<PathNode>()
+            typeConstructor.getSupertypes().mapTo(queue) { PathNode(it, null) }
+
+            while (!queue.isEmpty()) {
+                val node = queue.poll()
+                val constructor = node.type.constructor
+                if (!visited.add(constructor)) continue
+
+                if (constructor is AbstractTypeConstructor && !constructor.hasFinalSupertypes()) return null
+
+                if (constructor !in paths) {
+                    paths[constructor] = node
+                }
+                constructor.getSupertypes().mapTo(queue) { PathNode(it, node) }
+            }
+
+            return SupertypeClosure(paths)
+        }
+
+        private fun AbstractTypeConstructor.hasFinalSupertypes(): Boolean {
+            getSupertypes()
+            return areSupertypesFinal
+        }
+    }
+}
@@ -22,6 +22,18 @@ import org.jetbrains.kotlin.types.TypeConstructor;
 import org.jetbrains.kotlin.types.TypeProjection;
 
 class TypeCheckerProcedureCallbacksImpl implements TypeCheckingProcedureCallbacks {
+    private final boolean typeConstructorsEqualOnlyIfEquals;
+
+    TypeCheckerProcedureCallbacksImpl() {
+        this(false);
+    }
+
+    // Only pass true if assertEqualTypeConstructors is not overridden in a subclass:
+    // then cached supertype closures of type constructors are used to find corresponding supertypes
+    TypeCheckerProcedureCallbacksImpl(boolean typeConstructorsEqualOnlyIfEquals) {
+        this.typeConstructorsEqualOnlyIfEquals = typeConstructorsEqualOnlyIfEquals;
+    }
+
     @Override
     public boolean assertEqualTypes(@NotNull KotlinType a, @NotNull KotlinType b, @NotNull TypeCheckingProcedure typeCheckingProcedure) {
         return typeCheckingProcedure.equalTypes(a, b);
@@ -32,6 +44,10 @@ class TypeCheckerProcedureCallbacksImpl implements TypeCheckingProcedureCallback
         return a.equals(b);
     }
 
+    public final boolean areTypeConstructorsEqualOnlyIfEquals() {
+        return typeConstructorsEqualOnlyIfEquals;
+    }
+
     @Override
     public boolean assertSubtype(@NotNull KotlinType subtype, @NotNull KotlinType supertype, @NotNull TypeCheckingProcedure typeCheckingProcedure) {
         return typeCheckingProcedure.isSubtypeOf(subtype, supertype);
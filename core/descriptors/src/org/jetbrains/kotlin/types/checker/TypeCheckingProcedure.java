@@ -33,7 +33,7 @@ public class TypeCheckingProcedure {
     // as the second parameter, applying the substitution of type arguments to it
     @Nullable
     public static KotlinType findCorrespondingSupertype(@NotNull KotlinType subtype, @NotNull KotlinType supertype) {
-        return findCorrespondingSupertype(subtype, supertype, new TypeCheckerProcedureCallbacksImpl());
+        return findCorrespondingSupertype(subtype, supertype, new TypeCheckerProcedureCallbacksImpl(true));
     }
 
     // This method returns the supertype of the first parameter that has the same constructor
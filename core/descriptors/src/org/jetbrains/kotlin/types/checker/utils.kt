@@ -18,6 +18,7 @@ package org.jetbrains.kotlin.types.checker
 
 import org.jetbrains.kotlin.renderer.DescriptorRenderer
 import org.jetbrains.kotlin.resolve.calls.inference.wrapWithCapturingSubstitution
+import org.jetbrains.kotlin.types.AbstractTypeConstructor
 import org.jetbrains.kotlin.types.KotlinType
 import org.jetbrains.kotlin.types.TypeConstructorSubstitution
 import org.jetbrains.kotlin.types.TypeUtils
@@ -31,49 +32,31 @@ fun findCorrespondingSupertype(
         subtype: KotlinType, supertype: KotlinType,
         typeCheckingProcedureCallbacks: TypeCheckingProcedureCallbacks
 ): KotlinType? {
+    val supertypeConstructor = supertype.constructor
+
+    val subtypeConstructor = subtype.constructor
+    if (subtypeConstructor is AbstractTypeConstructor && subtypeConstructor != supertypeConstructor &&
+        typeCheckingProcedureCallbacks is TypeCheckerProcedureCallbacksImpl &&
+        typeCheckingProcedureCallbacks.areTypeConstructorsEqualOnlyIfEquals()) {
+        val closure = subtypeConstructor.getSupertypeClosure()
+        if (closure != null) {
+            val path = closure.getPath(supertypeConstructor) ?: return null
+            val pathToSubtype = generateSequence(path.previous) { it.previous }.map { it.type } + subtype
+            return substituteAlongPath(path.type, pathToSubtype, supertype, typeCheckingProcedureCallbacks)
+        }
+    }
+
     val queue = ArrayDeque<SubtypePathNode>()
     queue.add(SubtypePathNode(subtype, null))
 
-    val supertypeConstructor = supertype.constructor
-
     while (!queue.isEmpty()) {
         val lastPathNode = queue.poll()
         val currentSubtype = lastPathNode.type
         val constructor = currentSubtype.constructor
 
         if (typeCheckingProcedureCallbacks.assertEqualTypeConstructors(constructor, supertypeConstructor)) {
-            var substituted = currentSubtype
-            var isAnyMarkedNullable = currentSubtype.isMarkedNullable
-
-            var currentPathNode = lastPathNode.previous
-
-            while (currentPathNode != null) {
-                val currentType = currentPathNode.type
-                if (currentType.arguments.any { it.projectionKind != Variance.INVARIANT }) {
-                    substituted = TypeConstructorSubstitution.create(currentType)
-                                        .wrapWithCapturingSubstitution().buildSubstitutor()
-                                        .safeSubstitute(substituted, Variance.INVARIANT)
-                                        .approximate()
-                }
-                else {
-                    substituted = TypeConstructorSubstitution.create(currentType)
-                                        .buildSubstitutor()
-                                        .safeSubstitute(substituted, Variance.INVARIANT)
-                }
-
-                isAnyMarkedNullable = isAnyMarkedNullable || currentType.isMarkedNullable
-
-                currentPathNode = currentPathNode.previous
-            }
-
-            if (!typeCheckingProcedureCallbacks.assertEqualTypeConstructors(substituted.constructor, supertypeConstructor)) {
-                throw AssertionError("Type constructors should be equals!" +
-                                     "substitutedSuperType: ${DescriptorRenderer.FQ_NAMES_IN_TYPES.renderType(substituted)}, " +
-                                     "foundSupertype: ${DescriptorRenderer.FQ_NAMES_IN_TYPES.renderType(currentSubtype)}, " +
-                                     "supertype: ${DescriptorRenderer.FQ_NAMES_IN_TYPES.renderType(supertype)}")
-            }
-
-            return TypeUtils.makeNullableAsSpecified(substituted, isAnyMarkedNullable)
+            val pathToSubtype = generateSequence(lastPathNode.previous) { it.previous }.map { it.type }
+            return substituteAlongPath(currentSubtype, pathToSubtype, supertype, typeCheckingProcedureCallbacks)
         }
 
         for (immediateSupertype in constructor.supertypes) {
@@ -84,4 +67,40 @@ fun findCorrespondingSupertype(
     return null
 }
 
+// 'pathToSubtype' starts with the type whose immediate supertype is 'foundSupertype' and ends with the subtype being checked
+private fun substituteAlongPath(
+        foundSupertype: KotlinType,
+        pathToSubtype: Sequence<KotlinType>,
+        supertype: KotlinType,
+        typeCheckingProcedureCallbacks: TypeCheckingProcedureCallbacks
+): KotlinType {
+    var substituted = foundSupertype
+    var isAnyMarkedNullable = foundSupertype.isMarkedNullable
+
+    for (currentType in pathToSubtype) {
+        if (currentType.arguments.any { it.projectionKind != Variance.INVARIANT }) {
+            substituted = TypeConstructorSubstitution.create(currentType)
+                                .wrapWithCapturingSubstitution().buildSubstitutor()
+                                .safeSubstitute(substituted, Variance.INVARIANT)
+                                .approximate()
+        }
+        else {
+            substituted = TypeConstructorSubstitution.create(currentType)
+                                .buildSubstitutor()
+                                .safeSubstitute(substituted, Variance.INVARIANT)
+        }
+
+        isAnyMarkedNullable = isAnyMarkedNullable || currentType.isMarkedNullable
+    }
+
+    if (!typeCheckingProcedureCallbacks.assertEqualTypeConstructors(substituted.constructor, supertype.constructor)) {
+        throw AssertionError("Type constructors should be equals!" +
+                             "substitutedSuperType: ${DescriptorRenderer.FQ_NAMES_IN_TYPES.renderType(substituted)}, " +
+                             "foundSupertype: ${DescriptorRenderer.FQ_NAMES_IN_TYPES.renderType(foundSupertype)}, " +
+                             "supertype: ${DescriptorRenderer.FQ_NAMES_IN_TYPES.renderType(supertype)}")
+    }
+
+    return TypeUtils.makeNullableAsSpecified(substituted, isAnyMarkedNullable)
+}
+
 private fun KotlinType.approximate() = approximateCapturedTypes(this).upper
@@ -197,6 +197,7 @@ fun main(args: Array<String>) {
             model("psi", testMethod = "doParsingTest", pattern = "^(.*)\\.kts?$")
             model("parseCodeFragment/expression", testMethod = "doExpressionCodeFragmentParsingTest", extension = "kt")
             model("parseCodeFragment/block", testMethod = "doBlockCodeFragmentParsingTest", extension = "kt")
+            model("parseLazyBlocks", testMethod = "doLazyBlockParsingTest", extension = "kt")
         }
 
         GenerateRangesCodegenTestData.main(arrayOf<String>())
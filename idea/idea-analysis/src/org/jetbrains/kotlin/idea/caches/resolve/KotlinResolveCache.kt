@@ -23,6 +23,7 @@ import com.intellij.openapi.project.Project
 import com.intellij.psi.PsiElement
 import com.intellij.psi.util.PsiTreeUtil
 import org.jetbrains.kotlin.analyzer.AnalysisResult
+import org.jetbrains.kotlin.asJava.KotlinCodeBlockModificationListener
 import org.jetbrains.kotlin.config.LanguageVersion
 import org.jetbrains.kotlin.container.ComponentProvider
 import org.jetbrains.kotlin.container.get
@@ -41,7 +42,23 @@ import org.jetbrains.kotlin.resolve.lazy.ResolveSession
 import java.util.*
 
 internal class PerFileAnalysisCache(val file: KtFile, val componentProvider: ComponentProvider) {
-    private val cache = HashMap<PsiElement, AnalysisResult>()
+    // The cache itself is dropped after a change "out of code block", so entries only need to track changes inside code blocks
+    private class CachedAnalysisResult(val result: AnalysisResult, private val analyzableElement: KtElement) {
+        private val modificationStamp: Long = modificationStamp()
+
+        fun isUpToDate() = modificationStamp == modificationStamp()
+
+        private fun modificationStamp(): Long {
+            val file = analyzableElement.containingFile
+            return if (file.isPhysical && analyzableElement is KtDeclaration && KotlinCodeBlockModificationListener.isBlockDeclaration(analyzableElement))
+                analyzableElement.getModificationStamp()
+            else
+                // results for the file, classes and non-physical files depend on all code blocks inside them
+                file.modificationStamp
+        }
+    }
+
+    private val cache = HashMap<PsiElement, CachedAnalysisResult>()
 
     private fun lookUp(analyzableElement: KtElement): AnalysisResult? {
         // Looking for parent elements that are already analyzed
@@ -53,9 +70,14 @@ internal class PerFileAnalysisCache(val file: KtFile, val componentProvider: Com
         for (current in analyzableElement.parentsWithSelf) {
             val cached = cache[current]
             if (cached != null) {
-                result = cached
-                toRemove.addAll(descendantsOfCurrent)
-                descendantsOfCurrent.clear()
+                if (cached.isUpToDate()) {
+                    result = cached.result
+                    toRemove.addAll(descendantsOfCurrent)
+                    descendantsOfCurrent.clear()
+                }
+                else {
+                    toRemove.add(current)
+                }
             }
 
             descendantsOfCurrent.add(current)
@@ -78,7 +100,7 @@ internal class PerFileAnalysisCache(val file: KtFile, val componentProvider: Com
 
             val result = analyze(analyzableParent)
 
-            cache[analyzableParent] = result
+            cache[analyzableParent] = CachedAnalysisResult(result, analyzableParent)
 
             return@synchronized result
         }
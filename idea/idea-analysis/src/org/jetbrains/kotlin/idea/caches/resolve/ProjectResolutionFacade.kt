@@ -66,7 +66,7 @@ internal class ProjectResolutionFacade(
                         return PerFileAnalysisCache(file!!, resolverProvider.resolverForProject.resolverForModule(file.getModuleInfo()).componentProvider)
                     }
                 }
-                CachedValueProvider.Result(results, PsiModificationTracker.MODIFICATION_COUNT, resolverProvider.exceptionTracker)
+                CachedValueProvider.Result(results, PsiModificationTracker.OUT_OF_CODE_BLOCK_MODIFICATION_COUNT, resolverProvider.exceptionTracker)
             }, false)
 
     fun getAnalysisResultsForElements(elements: Collection<KtElement>): AnalysisResult {
@@ -20,6 +20,7 @@ import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.vfs.VirtualFile
 import org.jetbrains.kotlin.builtins.BuiltInSerializerProtocol
 import org.jetbrains.kotlin.builtins.BuiltInsClassDataFinder
+import org.jetbrains.kotlin.builtins.BuiltInsPackageData
 import org.jetbrains.kotlin.builtins.DefaultBuiltIns
 import org.jetbrains.kotlin.builtins.KotlinBuiltIns
 import org.jetbrains.kotlin.descriptors.DeclarationDescriptor
@@ -46,9 +47,10 @@ class KotlinBuiltInDeserializerForDecompiler(
 
     init {
         val notFoundClasses = NotFoundClasses(storageManager, moduleDescriptor)
+        val packageData = BuiltInsPackageData(proto)
 
         deserializationComponents = DeserializationComponents(
-                storageManager, moduleDescriptor, BuiltInsClassDataFinder(proto, nameResolver),
+                storageManager, moduleDescriptor, BuiltInsClassDataFinder { packageData },
                 AnnotationAndConstantLoaderImpl(moduleDescriptor, notFoundClasses, BuiltInSerializerProtocol), packageFragmentProvider,
                 ResolveEverythingToKotlinAnyLocalClassifierResolver(builtIns), LoggingErrorReporter(LOG),
                 LookupTracker.DO_NOTHING, FlexibleTypeDeserializer.ThrowException, ClassDescriptorFactory.EMPTY,
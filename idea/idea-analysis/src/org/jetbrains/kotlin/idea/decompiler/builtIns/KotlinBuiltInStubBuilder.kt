@@ -22,6 +22,7 @@ import com.intellij.psi.stubs.PsiFileStub
 import com.intellij.util.indexing.FileContent
 import org.jetbrains.kotlin.builtins.BuiltInSerializerProtocol
 import org.jetbrains.kotlin.builtins.BuiltInsClassDataFinder
+import org.jetbrains.kotlin.builtins.BuiltInsPackageData
 import org.jetbrains.kotlin.idea.decompiler.common.AnnotationLoaderForStubBuilderImpl
 import org.jetbrains.kotlin.idea.decompiler.stubBuilder.*
 import org.jetbrains.kotlin.psi.stubs.KotlinStubVersions
@@ -44,8 +45,9 @@ class KotlinBuiltInStubBuilder : ClsStubBuilder() {
                 val packageProto = file.proto.`package`
                 val packageFqName = file.packageFqName
                 val nameResolver = file.nameResolver
+                val packageData = BuiltInsPackageData(file.proto)
                 val components = ClsStubBuilderComponents(
-                        BuiltInsClassDataFinder(file.proto, nameResolver),
+                        BuiltInsClassDataFinder { packageData },
                         AnnotationLoaderForStubBuilderImpl(BuiltInSerializerProtocol),
                         virtualFile
                 )
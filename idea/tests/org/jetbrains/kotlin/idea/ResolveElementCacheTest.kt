@@ -178,6 +178,37 @@ class C(param1: String = "", param2: Int = 0) {
         }
     }
 
+    fun testFullAnalysisSurvivesTypingInCodeBlock() {
+        doTest {
+            val aFun = members[0] as KtNamedFunction
+            val bFun = members[1] as KtNamedFunction
+            val aFunContext1 = aFun.analyzeFullyAndGetResult().bindingContext
+            val bFunContext1 = bFun.analyzeFullyAndGetResult().bindingContext
+
+            val documentManager = PsiDocumentManager.getInstance(project)
+            val document = documentManager.getDocument(file)!!
+            documentManager.doPostponedOperationsAndUnblockDocument(document)
+
+            // modify body of "b()" via document
+            val bBody = bFun.bodyExpression as KtBlockExpression
+            document.insertString(bBody.lBrace!!.startOffset + 1, "x()")
+            documentManager.commitAllDocuments()
+
+            val aFunContext2 = aFun.analyzeFullyAndGetResult().bindingContext
+            assert(aFunContext2 === aFunContext1) // change in other function's body should not affect analysis of other one
+
+            val bFunContext2 = bFun.analyzeFullyAndGetResult().bindingContext
+            assert(bFunContext2 !== bFunContext1)
+
+            // add parameter to "b()" this should invalidate all results
+            document.insertString(bFun.valueParameterList!!.startOffset + 1, "p: Int")
+            documentManager.commitAllDocuments()
+
+            val aFunContext3 = aFun.analyzeFullyAndGetResult().bindingContext
+            assert(aFunContext3 !== aFunContext1)
+        }
+    }
+
     fun testPartialResolveUsesFullResolveCached() {
         doTest {
             val statement1 = statements[0]
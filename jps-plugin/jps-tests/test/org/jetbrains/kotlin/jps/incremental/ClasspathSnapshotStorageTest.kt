@@ -0,0 +1,56 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.jps.incremental
+
+import com.intellij.testFramework.UsefulTestCase
+import org.jetbrains.kotlin.incremental.ChangeInfo
+import org.jetbrains.kotlin.incremental.ClasspathSnapshotStorage
+import org.jetbrains.kotlin.incremental.classpathEntryChanges
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import org.jetbrains.kotlin.test.MockLibraryUtil
+import java.io.File
+
+class ClasspathSnapshotStorageTest : UsefulTestCase() {
+    fun testClassChangedInDirectoryEntry() {
+        val testDir = KotlinTestUtils.tmpDir("classpathSnapshot")
+        val classesDir = File(testDir, "classes")
+        val storage = ClasspathSnapshotStorage(File(testDir, "snapshots"))
+
+        compile(testDir, classesDir, "package test\n\nclass A {\n    fun foo() {}\n}\n")
+        storage.update(listOf(classesDir))
+        val oldSnapshot = storage.load(classesDir)!!
+
+        // neither the length nor the modification time of the directory itself are expected to tell about the change
+        val directoryLastModified = classesDir.lastModified()
+        compile(testDir, classesDir, "package test\n\nclass A {\n    fun bar() {}\n}\n")
+        classesDir.setLastModified(directoryLastModified)
+
+        storage.update(listOf(classesDir))
+        val newSnapshot = storage.load(classesDir)!!
+
+        val changes = classpathEntryChanges(oldSnapshot, newSnapshot).changes.toList()
+        val changedMembers = changes.filterIsInstance<ChangeInfo.MembersChanged>().flatMap { it.names }.toSet()
+        assertEquals(setOf("foo", "bar"), changedMembers)
+    }
+
+    private fun compile(testDir: File, classesDir: File, source: String) {
+        val sourceFile = File(testDir, "sources/A.kt")
+        sourceFile.parentFile.mkdirs()
+        sourceFile.writeText(source)
+        MockLibraryUtil.compileKotlin(sourceFile.path, classesDir)
+    }
+}
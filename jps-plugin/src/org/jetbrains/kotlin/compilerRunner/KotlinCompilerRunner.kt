@@ -58,9 +58,13 @@ object KotlinCompilerRunner {
             messageCollector: MessageCollector,
             environment: CompilerEnvironment,
             moduleFile: File,
-            collector: OutputItemsCollector) {
+            collector: OutputItemsCollector,
+            tracePhasesOutputPath: String? = null) {
         val arguments = mergeBeans(commonArguments, k2jvmArguments)
         setupK2JvmArguments(moduleFile, arguments)
+        if (tracePhasesOutputPath != null) {
+            arguments.tracePhasesOutputPath = tracePhasesOutputPath
+        }
 
         runCompiler(K2JVM_COMPILER, arguments, compilerSettings.additionalArguments, messageCollector, collector, environment)
     }
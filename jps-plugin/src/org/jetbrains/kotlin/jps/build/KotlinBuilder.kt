@@ -64,11 +64,13 @@ import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCompil
 import org.jetbrains.kotlin.modules.TargetId
 import org.jetbrains.kotlin.progress.CompilationCanceledException
 import org.jetbrains.kotlin.progress.CompilationCanceledStatus
+import org.jetbrains.kotlin.utils.CompilerTracer
 import org.jetbrains.kotlin.utils.JsLibraryUtils
 import org.jetbrains.kotlin.utils.PathUtil
 import org.jetbrains.kotlin.utils.keysToMap
 import org.jetbrains.org.objectweb.asm.ClassReader
 import java.io.File
+import java.io.IOException
 import java.util.*
 
 class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
@@ -94,10 +96,27 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
         if (historyLabel != null) {
             LOG.info("Label in local history: $historyLabel")
         }
+
+        val tracePath = JpsKotlinCompilerSettings.getK2JvmCompilerArguments(context.projectDescriptor.project).tracePhasesOutputPath
+        if (tracePath != null) {
+            BUILD_TRACE_KEY.set(context, BuildTrace(tracePath))
+        }
     }
 
     override fun buildFinished(context: CompileContext?) {
         statisticsLogger.reportTotal()
+
+        val buildTrace = BUILD_TRACE_KEY.get(context)
+        if (context != null && buildTrace != null) {
+            BUILD_TRACE_KEY.set(context, null)
+            try {
+                buildTrace.close()
+            }
+            catch (e: IOException) {
+                context.processMessage(CompilerMessage(KOTLIN_BUILDER_NAME, BuildMessage.Kind.WARNING,
+                                                       "Could not write the trace of the build: ${e.message}"))
+            }
+        }
     }
 
     override fun chunkBuildStarted(context: CompileContext, chunk: ModuleChunk) {
@@ -138,7 +157,13 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
         val fsOperations = FSOperationsHelper(context, chunk, LOG)
 
         try {
-            val proposedExitCode = doBuild(chunk, context, dirtyFilesHolder, messageCollector, outputConsumer, fsOperations)
+            // Chunks may be built on different threads, so the trace of the build is installed for each of them
+            val buildTrace = BUILD_TRACE_KEY.get(context)
+            val proposedExitCode =
+                    if (buildTrace != null)
+                        buildTrace.trace { doBuild(chunk, context, dirtyFilesHolder, messageCollector, outputConsumer, fsOperations) }
+                    else
+                        doBuild(chunk, context, dirtyFilesHolder, messageCollector, outputConsumer, fsOperations)
 
             val actualExitCode = if (proposedExitCode == OK && fsOperations.hasMarkedDirty) ADDITIONAL_PASS_REQUIRED else proposedExitCode
 
@@ -535,21 +560,18 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
         assert(IncrementalCompilation.isEnabled()) { "updateKotlinIncrementalCache should not be called when incremental compilation disabled" }
 
         var changesInfo = CompilationResult.NO_CHANGES
-        for (generatedFile in generatedFiles) {
-            val ic = incrementalCaches[generatedFile.target]!!
-            val newChangesInfo =
-                    if (generatedFile is GeneratedJvmClass<ModuleBuildTarget>) {
-                        ic.saveFileToCache(generatedFile)
-                    }
-                    else if (generatedFile.outputFile.isModuleMappingFile()) {
-                        ic.saveModuleMappingToCache(generatedFile.sourceFiles, generatedFile.outputFile)
-                    }
-                    else {
-                        continue
-                    }
-
-            changesInfo += newChangesInfo
+        CompilerTracer.trace(CompilerTracer.INCREMENTAL, "save generated files to caches") {
+            for (generatedFile in generatedFiles) {
+                val ic = incrementalCaches[generatedFile.target]!!
+                if (generatedFile is GeneratedJvmClass<ModuleBuildTarget>) {
+                    changesInfo += ic.saveFileToCache(generatedFile)
+                }
+                else if (generatedFile.outputFile.isModuleMappingFile()) {
+                    changesInfo += ic.saveModuleMappingToCache(generatedFile.sourceFiles, generatedFile.outputFile)
+                }
+            }
         }
+        CompilerTracer.counter(CompilerTracer.INCREMENTAL, "generated files", generatedFiles.size.toLong())
 
         if (!compilationErrors) {
             incrementalCaches.values.forEach {
@@ -575,9 +597,11 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
         val lookupStorage = dataManager.getStorage(KotlinDataContainerTarget, JpsLookupStorageProvider)
 
         val removedFiles = chunk.targets.flatMap { KotlinSourceFileCollector.getRemovedKotlinFiles(dirtyFilesHolder, it) }
-        lookupStorage.removeLookupsFrom(filesToCompile.values().asSequence() + removedFiles.asSequence())
+        CompilerTracer.trace(CompilerTracer.INCREMENTAL, "update lookups") {
+            lookupStorage.removeLookupsFrom(filesToCompile.values().asSequence() + removedFiles.asSequence())
 
-        lookupStorage.addAll(lookupTracker.lookups.entrySet(), lookupTracker.pathInterner.values)
+            lookupStorage.addAll(lookupTracker.lookups.entrySet(), lookupTracker.pathInterner.values)
+        }
     }
 
     // if null is returned, nothing was done
@@ -682,7 +706,11 @@ class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
                                 + (if (totalRemovedFiles == 0) "" else " ($totalRemovedFiles removed files)")
                                 + " in " + filesToCompile.keySet().joinToString { it.presentableName })
 
-        KotlinCompilerRunner.runK2JvmCompiler(commonArguments, k2JvmArguments, compilerSettings, messageCollector, environment, moduleFile, outputItemCollector)
+        // The compiler runs in the daemon or is loaded by its own class loader, so it can't trace into the sink of the build
+        val compilerTracePath = BUILD_TRACE_KEY.get(context)?.nextCompilerTracePath()
+
+        KotlinCompilerRunner.runK2JvmCompiler(commonArguments, k2JvmArguments, compilerSettings, messageCollector, environment, moduleFile, outputItemCollector,
+                                              compilerTracePath)
         moduleFile.delete()
 
         return outputItemCollector
@@ -855,6 +883,8 @@ fun getDependentTargets(
 private fun getDependenciesRecursively(module: JpsModule, kind: JpsJavaClasspathKind): Set<JpsModule> =
         JpsJavaExtensionService.dependencies(module).includedIn(kind).recursivelyExportedOnly().modules
 
+private val BUILD_TRACE_KEY = Key.create<BuildTrace>("_kotlin_build_trace_")
+
 // TODO: investigate thread safety
 private val ALL_COMPILED_FILES_KEY = Key.create<MutableSet<File>>("_all_kotlin_compiled_files_")
 private fun getAllCompiledFilesContainer(context: CompileContext): MutableSet<File> {
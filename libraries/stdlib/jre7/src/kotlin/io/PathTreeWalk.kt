@@ -0,0 +1,337 @@
+@file:JvmMultifileClass
+@file:JvmName("FilesJRE7Kt")
+package kotlin.io
+
+import java.io.File
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.LinkOption
+import java.nio.file.Path
+import java.nio.file.attribute.BasicFileAttributes
+import java.util.*
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
+import java.util.concurrent.RecursiveAction
+
+/**
+ * A file visited by [PathTreeWalk] together with its [attributes].
+ * The attributes are read with one [Files.readAttributes] call per entry when the parent directory is listed
+ * (two for a broken symbolic link), so checking whether the entry is a directory, its size or modification time
+ * afterwards doesn't require further file system calls.
+ */
+public class PathEntry(public val path: Path, public val attributes: BasicFileAttributes) {
+    /** Returns this entry as a [File]. */
+    public val file: File
+        get() = path.toFile()
+
+    override fun toString(): String = path.toString()
+}
+
+/**
+ * A variant of [FileTreeWalk] based on `java.nio.file`, which lists directories with [Files.newDirectoryStream]
+ * and exposes the [BasicFileAttributes] of each visited file.
+ * It allows to iterate through all files inside [start] directory.
+ * If [start] is just a file, walker iterates only it.
+ * If [start] does not exist, walker does not do any iterations at all.
+ *
+ * Besides sequential iteration, the walk can be done in parallel with [forEachParallel].
+ *
+ * @param start directory to walk into.
+ * @param direction selects top-down or bottom-up order (in other words, parents first or children first).
+ * @param onEnter is called on any entered directory before its files are visited and before it is visited itself,
+ *  if `false` is returned, directory is not visited entirely.
+ * @param onLeave is called on any left directory after its files are visited and after it is visited itself.
+ * @param onFail is called on a directory when it's impossible to get its file list.
+ * @param maxDepth is maximum walking depth, it must be positive. With a value of 1,
+ * walker visits [start] and all its children, with a value of 2 also grandchildren, etc.
+ */
+public class PathTreeWalk private constructor(
+        private val start: Path,
+        private val direction: FileWalkDirection = FileWalkDirection.TOP_DOWN,
+        private val onEnter: ((Path) -> Boolean)?,
+        private val onLeave: ((Path) -> Unit)?,
+        private val onFail: ((f: Path, e: IOException) -> Unit)?,
+        private val maxDepth: Int = Int.MAX_VALUE
+) : Sequence<PathEntry> {
+
+    internal constructor(start: Path, direction: FileWalkDirection = FileWalkDirection.TOP_DOWN): this(start, direction, null, null, null)
+
+
+    /** Returns an iterator walking through files. */
+    override public fun iterator(): Iterator<PathEntry> = PathTreeWalkIterator()
+
+    /**
+     * Visits all files of this walk calling [action] on each of them, processing different subdirectories in parallel
+     * on a [ForkJoinPool] with the given [parallelism].
+     *
+     * [onEnter], [onLeave] and [maxDepth] keep their meaning. In top-down walk a directory is visited before its files,
+     * and in bottom-up walk after them, but there is no order between files of different directories,
+     * so [action] and the directory callbacks must be thread-safe.
+     */
+    public fun forEachParallel(parallelism: Int = Runtime.getRuntime().availableProcessors(), action: (PathEntry) -> Unit) {
+        val root = readEntry(start) ?: return
+        if (!root.attributes.isDirectory) {
+            action(root)
+            return
+        }
+
+        val pool = ForkJoinPool(parallelism)
+        try {
+            pool.invoke(DirectoryTask(root, 1, action))
+        }
+        finally {
+            pool.shutdown()
+        }
+    }
+
+    private inner class DirectoryTask(val directory: PathEntry, val depth: Int, val action: (PathEntry) -> Unit) : RecursiveAction() {
+        override fun compute() {
+            if (onEnter?.invoke(directory.path) == false) return
+
+            if (direction == FileWalkDirection.TOP_DOWN) {
+                action(directory)
+            }
+
+            val subdirectories = ArrayList<DirectoryTask>()
+            listEntries(directory.path)?.forEach { entry ->
+                if (entry.attributes.isDirectory && depth < maxDepth)
+                    subdirectories.add(DirectoryTask(entry, depth + 1, action))
+                else
+                    action(entry)
+            }
+            ForkJoinTask.invokeAll(subdirectories)
+
+            if (direction == FileWalkDirection.BOTTOM_UP) {
+                action(directory)
+            }
+            onLeave?.invoke(directory.path)
+        }
+    }
+
+    /** Reads the attributes of [path], following symbolic links unless the link is broken */
+    private fun readEntry(path: Path): PathEntry? {
+        val attributes = try {
+            Files.readAttributes(path, BasicFileAttributes::class.java)
+        }
+        catch (e: IOException) {
+            try {
+                Files.readAttributes(path, BasicFileAttributes::class.java, LinkOption.NOFOLLOW_LINKS)
+            }
+            catch (e: IOException) {
+                return null
+            }
+        }
+        return PathEntry(path, attributes)
+    }
+
+    /** Returns entries of [directory] or `null` if the directory can't be listed */
+    private fun listEntries(directory: Path): List<PathEntry>? {
+        val entries = ArrayList<PathEntry>()
+        try {
+            Files.newDirectoryStream(directory).use { stream ->
+                for (path in stream) {
+                    readEntry(path)?.let { entries.add(it) }
+                }
+            }
+        }
+        catch (e: IOException) {
+            onFail?.invoke(directory, e)
+            return null
+        }
+        return entries
+    }
+
+    /** Abstract class that encapsulates file visiting in some order, beginning from a given [root] */
+    private abstract class WalkState(val root: PathEntry) {
+        /** Call of this function proceeds to a next file for visiting and returns it */
+        abstract public fun step(): PathEntry?
+    }
+
+    private inner class PathTreeWalkIterator : AbstractIterator<PathEntry>() {
+
+        // Stack of directory states, beginning from the start directory
+        private val state = Stack<WalkState>()
+
+        init {
+            val root = readEntry(start)
+            if (root == null) {
+                done()
+            } else if (root.attributes.isDirectory) {
+                state.push(directoryState(root))
+            } else {
+                state.push(SingleEntryState(root))
+            }
+        }
+
+        override fun computeNext() {
+            val nextEntry = gotoNext()
+            if (nextEntry != null)
+                setNext(nextEntry)
+            else
+                done()
+        }
+
+        private fun directoryState(root: PathEntry): WalkState {
+            return when (direction) {
+                FileWalkDirection.TOP_DOWN -> TopDownDirectoryState(root)
+                FileWalkDirection.BOTTOM_UP -> BottomUpDirectoryState(root)
+            }
+        }
+
+        tailrec private fun gotoNext(): PathEntry? {
+            if (state.empty()) {
+                return null
+            }
+
+            val topState = state.peek()!!
+            val entry = topState.step()
+            if (entry == null) {
+                state.pop()
+                return gotoNext()
+            } else {
+                if (entry === topState.root || !entry.attributes.isDirectory || state.size >= maxDepth) {
+                    return entry
+                } else {
+                    state.push(directoryState(entry))
+                    return gotoNext()
+                }
+            }
+        }
+
+        /** Visiting in bottom-up order */
+        private inner class BottomUpDirectoryState(rootDir: PathEntry) : WalkState(rootDir) {
+
+            private var rootVisited = false
+
+            private var entries: List<PathEntry>? = null
+
+            private var index = 0
+
+            private var failed = false
+
+            /** First all children, then root directory */
+            override public fun step(): PathEntry? {
+                if (!failed && entries == null) {
+                    if (onEnter?.invoke(root.path) == false) {
+                        return null
+                    }
+
+                    entries = listEntries(root.path)
+                    failed = entries == null
+                }
+                val list = entries
+                if (list != null && index < list.size) {
+                    return list[index++]
+                } else if (!rootVisited) {
+                    rootVisited = true
+                    return root
+                } else {
+                    onLeave?.invoke(root.path)
+                    return null
+                }
+            }
+        }
+
+        /** Visiting in top-down order */
+        private inner class TopDownDirectoryState(rootDir: PathEntry) : WalkState(rootDir) {
+
+            private var rootVisited = false
+
+            private var entries: List<PathEntry>? = null
+
+            private var index = 0
+
+            /** First root directory, then all children */
+            override public fun step(): PathEntry? {
+                if (!rootVisited) {
+                    if (onEnter?.invoke(root.path) == false) {
+                        return null
+                    }
+
+                    rootVisited = true
+                    return root
+                }
+
+                if (entries == null) {
+                    val list = listEntries(root.path)
+                    if (list == null || list.isEmpty()) {
+                        onLeave?.invoke(root.path)
+                        return null
+                    }
+                    entries = list
+                }
+
+                val list = entries!!
+                if (index < list.size) {
+                    return list[index++]
+                } else {
+                    onLeave?.invoke(root.path)
+                    return null
+                }
+            }
+        }
+
+        private inner class SingleEntryState(rootEntry: PathEntry) : WalkState(rootEntry) {
+            private var visited: Boolean = false
+
+            override fun step(): PathEntry? {
+                if (visited) return null
+                visited = true
+                return root
+            }
+        }
+    }
+
+    /**
+     * Sets enter directory predicate [function].
+     * Enter [function] is called BEFORE the corresponding directory and its files are visited.
+     * If the [function] returns `false` the directory is not entered, and neither it nor its files are not visited.
+     */
+    public fun onEnter(function: (Path) -> Boolean): PathTreeWalk {
+        return PathTreeWalk(start, direction, onEnter = function, onLeave = onLeave, onFail = onFail, maxDepth = maxDepth)
+    }
+
+    /**
+     * Sets leave directory [function].
+     * Leave [function] is called AFTER the corresponding directory and its files are visited.
+     */
+    public fun onLeave(function: (Path) -> Unit): PathTreeWalk {
+        return PathTreeWalk(start, direction, onEnter, function, onFail, maxDepth)
+    }
+
+    /**
+     * Set fail entering directory [function].
+     * Fail [function] is called when walker is unable to get list of directory files.
+     * Enter and leave functions are called even in this case.
+     */
+    public fun onFail(function: (Path, IOException) -> Unit): PathTreeWalk {
+        return PathTreeWalk(start, direction, onEnter, onLeave, function, maxDepth)
+    }
+
+    /**
+     * Sets maximum [depth] of walk. Int.MAX_VALUE is used for unlimited.
+     * Negative and zero values are not allowed.
+     */
+    public fun maxDepth(depth: Int): PathTreeWalk {
+        if (depth <= 0)
+            throw IllegalArgumentException("depth must be positive, but was $depth.")
+        return PathTreeWalk(start, direction, onEnter, onLeave, onFail, depth)
+    }
+}
+
+/**
+ * Gets a sequence for visiting this directory and all its content together with the file attributes.
+ *
+ * @param direction walk direction, top-down (by default) or bottom-up.
+ */
+public fun Path.walk(direction: FileWalkDirection = FileWalkDirection.TOP_DOWN): PathTreeWalk =
+        PathTreeWalk(this, direction)
+
+/**
+ * Gets a sequence for visiting this directory and all its content together with the file attributes.
+ * Each visited file comes with its attributes, which are read with one [Files.readAttributes] call per file.
+ *
+ * @param direction walk direction, top-down (by default) or bottom-up.
+ */
+public fun File.walkWithAttributes(direction: FileWalkDirection = FileWalkDirection.TOP_DOWN): PathTreeWalk =
+        toPath().walk(direction)
@@ -0,0 +1,116 @@
+package kotlin.jdk7.test
+
+import org.junit.Test
+import java.io.File
+import java.util.*
+import java.util.concurrent.ConcurrentLinkedQueue
+import kotlin.test.*
+
+class PathTreeWalkTest {
+
+    private fun createTestFiles(): File {
+        val basedir = createTempDir()
+        File(basedir, "1/2").mkdirs()
+        File(basedir, "1/3").mkdirs()
+        File(basedir, "6").mkdirs()
+        File(basedir, "1/3/4.txt").writeText("4")
+        File(basedir, "1/3/5.txt").writeText("55")
+        File(basedir, "7.txt").writeText("7")
+        File(basedir, "8").writeText("8")
+        return basedir
+    }
+
+    private fun File.relativeNames(files: Iterable<File>): Set<String> =
+            files.map { it.relativeTo(this).path.replace(File.separatorChar, '/') }.toSet()
+
+    @Test fun sameFilesAsFileTreeWalk() {
+        val basedir = createTestFiles()
+        try {
+            for (direction in FileWalkDirection.values()) {
+                val expected = basedir.walk(direction).toList()
+                val actual = basedir.walkWithAttributes(direction).map { it.file }.toList()
+                assertEquals(basedir.relativeNames(expected), basedir.relativeNames(actual))
+                assertEquals(expected.size, actual.size)
+            }
+        }
+        finally {
+            basedir.deleteRecursively()
+        }
+    }
+
+    @Test fun attributes() {
+        val basedir = createTestFiles()
+        try {
+            val entries = basedir.walkWithAttributes().associateBy { it.file.relativeTo(basedir).path.replace(File.separatorChar, '/') }
+            assertTrue(entries["1/3"]!!.attributes.isDirectory)
+            assertTrue(entries["1/3/5.txt"]!!.attributes.isRegularFile)
+            assertEquals(2L, entries["1/3/5.txt"]!!.attributes.size())
+        }
+        finally {
+            basedir.deleteRecursively()
+        }
+    }
+
+    @Test fun topDownAndBottomUpOrder() {
+        val basedir = createTestFiles()
+        try {
+            val topDown = basedir.walkWithAttributes(FileWalkDirection.TOP_DOWN).map { it.file }.toList()
+            assertEquals(basedir, topDown.first())
+            assertTrue(topDown.indexOf(File(basedir, "1/3")) < topDown.indexOf(File(basedir, "1/3/4.txt")))
+
+            val bottomUp = basedir.walkWithAttributes(FileWalkDirection.BOTTOM_UP).map { it.file }.toList()
+            assertEquals(basedir, bottomUp.last())
+            assertTrue(bottomUp.indexOf(File(basedir, "1/3")) > bottomUp.indexOf(File(basedir, "1/3/4.txt")))
+        }
+        finally {
+            basedir.deleteRecursively()
+        }
+    }
+
+    @Test fun maxDepthAndOnEnter() {
+        val basedir = createTestFiles()
+        try {
+            assertEquals(setOf("", "1", "6", "7.txt", "8"),
+                         basedir.relativeNames(basedir.walkWithAttributes().maxDepth(1).map { it.file }.toList()))
+
+            val left = HashSet<File>()
+            val files = basedir.walkWithAttributes().onEnter { it.fileName.toString() != "3" }.onLeave { left.add(it.toFile()) }.map { it.file }.toList()
+            assertEquals(setOf("", "1", "1/2", "6", "7.txt", "8"), basedir.relativeNames(files))
+            assertEquals(setOf("", "1", "1/2", "6"), basedir.relativeNames(left))
+        }
+        finally {
+            basedir.deleteRecursively()
+        }
+    }
+
+    @Test fun parallel() {
+        val basedir = createTestFiles()
+        try {
+            for (direction in FileWalkDirection.values()) {
+                val visited = ConcurrentLinkedQueue<File>()
+                basedir.walkWithAttributes(direction).forEachParallel(parallelism = 4) { visited.add(it.file) }
+                assertEquals(basedir.relativeNames(basedir.walk(direction).toList()), basedir.relativeNames(visited))
+                assertEquals(basedir.walk(direction).count(), visited.size)
+            }
+
+            val visited = ConcurrentLinkedQueue<File>()
+            basedir.walkWithAttributes().onEnter { it.fileName.toString() != "3" }.forEachParallel { visited.add(it.file) }
+            assertEquals(setOf("", "1", "1/2", "6", "7.txt", "8"), basedir.relativeNames(visited))
+        }
+        finally {
+            basedir.deleteRecursively()
+        }
+    }
+
+    @Test fun singleFileAndMissingFile() {
+        val basedir = createTestFiles()
+        try {
+            val file = File(basedir, "7.txt")
+            assertEquals(listOf(file), file.walkWithAttributes().map { it.file }.toList())
+            assertEquals(0, File(basedir, "missing").walkWithAttributes().count())
+        }
+        finally {
+            basedir.deleteRecursively()
+        }
+    }
+}
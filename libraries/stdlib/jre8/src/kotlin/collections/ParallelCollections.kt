@@ -0,0 +1,360 @@
+@file:JvmName("ParallelCollectionsKt")
+package kotlin.collections
+
+import java.util.*
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.ForkJoinTask
+import java.util.concurrent.RecursiveAction
+
+/**
+ * Returns a list containing the results of applying the given [transform] function
+ * to each element in the original list.
+ *
+ * The elements are transformed in parallel on the common [ForkJoinPool],
+ * but the resulting list keeps the order of the original list.
+ */
+public fun <T, R> List<T>.parallelMap(transform: (T) -> R): List<R> {
+    val list = asRandomAccess()
+    return parallelMapIndices(size, { list[it] }, transform)
+}
+
+/**
+ * Returns a list containing the results of applying the given [transform] function
+ * to each element in the original array.
+ *
+ * The elements are transformed in parallel on the common [ForkJoinPool],
+ * but the resulting list keeps the order of the original array.
+ */
+public fun <T, R> Array<out T>.parallelMap(transform: (T) -> R): List<R> = parallelMapIndices(size, { this[it] }, transform)
+
+/**
+ * Returns a list containing the results of applying the given [transform] function
+ * to each element in the original array.
+ *
+ * The elements are transformed in parallel on the common [ForkJoinPool],
+ * but the resulting list keeps the order of the original array.
+ */
+public fun <R> IntArray.parallelMap(transform: (Int) -> R): List<R> = parallelMapIndices(size, { this[it] }, transform)
+
+/**
+ * Returns a list containing the results of applying the given [transform] function
+ * to each element in the original array.
+ *
+ * The elements are transformed in parallel on the common [ForkJoinPool],
+ * but the resulting list keeps the order of the original array.
+ */
+public fun <R> LongArray.parallelMap(transform: (Long) -> R): List<R> = parallelMapIndices(size, { this[it] }, transform)
+
+/**
+ * Returns a list containing the results of applying the given [transform] function
+ * to each element in the original array.
+ *
+ * The elements are transformed in parallel on the common [ForkJoinPool],
+ * but the resulting list keeps the order of the original array.
+ */
+public fun <R> DoubleArray.parallelMap(transform: (Double) -> R): List<R> = parallelMapIndices(size, { this[it] }, transform)
+
+
+/**
+ * Returns a list containing only elements matching the given [predicate].
+ *
+ * The [predicate] is evaluated in parallel on the common [ForkJoinPool],
+ * but the resulting list keeps the order of the original list.
+ */
+public fun <T> List<T>.parallelFilter(predicate: (T) -> Boolean): List<T> {
+    val list = asRandomAccess()
+    return parallelFilterIndices(size, { list[it] }, predicate)
+}
+
+/**
+ * Returns a list containing only elements matching the given [predicate].
+ *
+ * The [predicate] is evaluated in parallel on the common [ForkJoinPool],
+ * but the resulting list keeps the order of the original array.
+ */
+public fun <T> Array<out T>.parallelFilter(predicate: (T) -> Boolean): List<T> = parallelFilterIndices(size, { this[it] }, predicate)
+
+/**
+ * Returns a list containing only elements matching the given [predicate].
+ *
+ * The [predicate] is evaluated in parallel on the common [ForkJoinPool],
+ * but the resulting list keeps the order of the original array.
+ */
+public fun IntArray.parallelFilter(predicate: (Int) -> Boolean): List<Int> = parallelFilterIndices(size, { this[it] }, predicate)
+
+/**
+ * Returns a list containing only elements matching the given [predicate].
+ *
+ * The [predicate] is evaluated in parallel on the common [ForkJoinPool],
+ * but the resulting list keeps the order of the original array.
+ */
+public fun LongArray.parallelFilter(predicate: (Long) -> Boolean): List<Long> = parallelFilterIndices(size, { this[it] }, predicate)
+
+/**
+ * Returns a list containing only elements matching the given [predicate].
+ *
+ * The [predicate] is evaluated in parallel on the common [ForkJoinPool],
+ * but the resulting list keeps the order of the original array.
+ */
+public fun DoubleArray.parallelFilter(predicate: (Double) -> Boolean): List<Double> = parallelFilterIndices(size, { this[it] }, predicate)
+
+
+/**
+ * Groups elements of the original list by the key returned by the given [keySelector] function
+ * applied to each element and returns a map where each group key is associated with a list of corresponding elements.
+ *
+ * The keys are computed in parallel on the common [ForkJoinPool]. As with [groupBy], the returned map
+ * preserves the entry iteration order of the keys produced from the original list,
+ * and each group keeps the order of its elements in the original list.
+ */
+public fun <T, K> List<T>.parallelGroupBy(keySelector: (T) -> K): Map<K, List<T>> {
+    val list = asRandomAccess()
+    return parallelGroupIndices(size, { list[it] }, keySelector)
+}
+
+/**
+ * Groups elements of the original array by the key returned by the given [keySelector] function
+ * applied to each element and returns a map where each group key is associated with a list of corresponding elements.
+ *
+ * The keys are computed in parallel on the common [ForkJoinPool]. As with [groupBy], the returned map
+ * preserves the entry iteration order of the keys produced from the original array,
+ * and each group keeps the order of its elements in the original array.
+ */
+public fun <T, K> Array<out T>.parallelGroupBy(keySelector: (T) -> K): Map<K, List<T>> = parallelGroupIndices(size, { this[it] }, keySelector)
+
+/**
+ * Groups elements of the original array by the key returned by the given [keySelector] function
+ * applied to each element and returns a map where each group key is associated with a list of corresponding elements.
+ *
+ * The keys are computed in parallel on the common [ForkJoinPool]. As with [groupBy], the returned map
+ * preserves the entry iteration order of the keys produced from the original array,
+ * and each group keeps the order of its elements in the original array.
+ */
+public fun <K> IntArray.parallelGroupBy(keySelector: (Int) -> K): Map<K, List<Int>> = parallelGroupIndices(size, { this[it] }, keySelector)
+
+/**
+ * Groups elements of the original array by the key returned by the given [keySelector] function
+ * applied to each element and returns a map where each group key is associated with a list of corresponding elements.
+ *
+ * The keys are computed in parallel on the common [ForkJoinPool]. As with [groupBy], the returned map
+ * preserves the entry iteration order of the keys produced from the original array,
+ * and each group keeps the order of its elements in the original array.
+ */
+public fun <K> LongArray.parallelGroupBy(keySelector: (Long) -> K): Map<K, List<Long>> = parallelGroupIndices(size, { this[it] }, keySelector)
+
+/**
+ * Groups elements of the original array by the key returned by the given [keySelector] function
+ * applied to each element and returns a map where each group key is associated with a list of corresponding elements.
+ *
+ * The keys are computed in parallel on the common [ForkJoinPool]. As with [groupBy], the returned map
+ * preserves the entry iteration order of the keys produced from the original array,
+ * and each group keeps the order of its elements in the original array.
+ */
+public fun <K> DoubleArray.parallelGroupBy(keySelector: (Double) -> K): Map<K, List<Double>> = parallelGroupIndices(size, { this[it] }, keySelector)
+
+
+/**
+ * Performs the given [action] on each element of the list in parallel on the common [ForkJoinPool].
+ *
+ * The elements are not processed in any particular order, and [action] can be invoked concurrently from several threads.
+ */
+public fun <T> List<T>.parallelForEach(action: (T) -> Unit) {
+    val list = asRandomAccess()
+    parallelForEachIndex(size) { action(list[it]) }
+}
+
+/**
+ * Performs the given [action] on each element of the array in parallel on the common [ForkJoinPool].
+ *
+ * The elements are not processed in any particular order, and [action] can be invoked concurrently from several threads.
+ */
+public fun <T> Array<out T>.parallelForEach(action: (T) -> Unit): Unit = parallelForEachIndex(size) { action(this[it]) }
+
+/**
+ * Performs the given [action] on each element of the array in parallel on the common [ForkJoinPool].
+ *
+ * The elements are not processed in any particular order, and [action] can be invoked concurrently from several threads.
+ */
+public fun IntArray.parallelForEach(action: (Int) -> Unit): Unit = parallelForEachIndex(size) { action(this[it]) }
+
+/**
+ * Performs the given [action] on each element of the array in parallel on the common [ForkJoinPool].
+ *
+ * The elements are not processed in any particular order, and [action] can be invoked concurrently from several threads.
+ */
+public fun LongArray.parallelForEach(action: (Long) -> Unit): Unit = parallelForEachIndex(size) { action(this[it]) }
+
+/**
+ * Performs the given [action] on each element of the array in parallel on the common [ForkJoinPool].
+ *
+ * The elements are not processed in any particular order, and [action] can be invoked concurrently from several threads.
+ */
+public fun DoubleArray.parallelForEach(action: (Double) -> Unit): Unit = parallelForEachIndex(size) { action(this[it]) }
+
+
+/**
+ * Sorts elements in the list in-place according to the order specified with [comparator],
+ * using the parallel sort-merge of [Arrays.parallelSort].
+ *
+ * The sort is _stable_. It means that equal elements preserve their order relative to each other after sorting.
+ */
+public fun <T> MutableList<T>.parallelSortWith(comparator: Comparator<in T>) {
+    if (size <= 1) return
+    @Suppress("UNCHECKED_CAST")
+    val array = toTypedArray<Any?>() as Array<T>
+    Arrays.parallelSort(array, comparator)
+    val iterator = listIterator()
+    for (element in array) {
+        iterator.next()
+        iterator.set(element)
+    }
+}
+
+/**
+ * Sorts array in-place according to the order specified by the given [comparator],
+ * using the parallel sort-merge of [Arrays.parallelSort].
+ *
+ * The sort is _stable_. It means that equal elements preserve their order relative to each other after sorting.
+ */
+public fun <T> Array<out T>.parallelSortWith(comparator: Comparator<in T>) {
+    if (size > 1) Arrays.parallelSort(this, comparator)
+}
+
+/**
+ * Sorts the array in-place using the parallel sort-merge of [Arrays.parallelSort].
+ */
+public fun IntArray.parallelSort() {
+    if (size > 1) Arrays.parallelSort(this)
+}
+
+/**
+ * Sorts the array in-place using the parallel sort-merge of [Arrays.parallelSort].
+ */
+public fun LongArray.parallelSort() {
+    if (size > 1) Arrays.parallelSort(this)
+}
+
+/**
+ * Sorts the array in-place using the parallel sort-merge of [Arrays.parallelSort].
+ */
+public fun DoubleArray.parallelSort() {
+    if (size > 1) Arrays.parallelSort(this)
+}
+
+
+/** The number of chunks per worker thread the work is split into, so that uneven chunks can be balanced by work stealing. */
+private const val CHUNKS_PER_THREAD = 4
+
+/** Chunks are never made smaller than this, so that the forking overhead stays small relative to the work done per chunk. */
+private const val MIN_CHUNK_SIZE = 16
+
+private fun <T> List<T>.asRandomAccess(): List<T> = if (this is RandomAccess) this else ArrayList(this)
+
+private fun <T, R> parallelMapIndices(size: Int, element: (Int) -> T, transform: (T) -> R): List<R> {
+    @Suppress("UNCHECKED_CAST")
+    val result = arrayOfNulls<Any?>(size) as Array<R>
+    parallelForEachChunk(size) { from, to ->
+        for (index in from..to - 1) {
+            result[index] = transform(element(index))
+        }
+    }
+    return result.asList()
+}
+
+private fun <T> parallelFilterIndices(size: Int, element: (Int) -> T, predicate: (T) -> Boolean): List<T> {
+    val chunks = parallelMapChunks(size) { from, to ->
+        val filtered = ArrayList<T>()
+        for (index in from..to - 1) {
+            val item = element(index)
+            if (predicate(item)) filtered.add(item)
+        }
+        filtered
+    }
+    val result = ArrayList<T>(chunks.sumBy { it.size })
+    for (chunk in chunks) result.addAll(chunk)
+    return result
+}
+
+private fun <T, K> parallelGroupIndices(size: Int, element: (Int) -> T, keySelector: (T) -> K): Map<K, List<T>> {
+    val chunks = parallelMapChunks(size) { from, to ->
+        val groups = LinkedHashMap<K, MutableList<T>>()
+        for (index in from..to - 1) {
+            val item = element(index)
+            groups.getOrPut(keySelector(item)) { ArrayList<T>() }.add(item)
+        }
+        groups
+    }
+    val result = LinkedHashMap<K, MutableList<T>>()
+    for (chunk in chunks) {
+        for ((key, items) in chunk) {
+            val group = result[key]
+            if (group == null)
+                result[key] = items
+            else
+                group.addAll(items)
+        }
+    }
+    return result
+}
+
+private fun parallelForEachIndex(size: Int, action: (Int) -> Unit) {
+    parallelForEachChunk(size) { from, to ->
+        for (index in from..to - 1) {
+            action(index)
+        }
+    }
+}
+
+private fun <R> parallelMapChunks(size: Int, transform: (from: Int, to: Int) -> R): List<R> {
+    val chunkSize = chunkSize(size)
+    @Suppress("UNCHECKED_CAST")
+    val results = arrayOfNulls<Any?>(chunkCount(size, chunkSize)) as Array<R>
+    parallelForEachChunk(size) { from, to ->
+        results[from / chunkSize] = transform(from, to)
+    }
+    return results.asList()
+}
+
+/**
+ * Splits the index range `0 until size` into consecutive chunks and invokes [action]
+ * with the bounds of each of them. When there is more than one chunk, the chunks are processed
+ * by recursively forking [ChunkTask]s on the common [ForkJoinPool].
+ */
+private fun parallelForEachChunk(size: Int, action: (from: Int, to: Int) -> Unit) {
+    val chunkSize = chunkSize(size)
+    val chunkCount = chunkCount(size, chunkSize)
+    when (chunkCount) {
+        0 -> return
+        1 -> action(0, size)
+        else -> ChunkTask(0, chunkCount, chunkSize, size, action).invoke()
+    }
+}
+
+private fun chunkSize(size: Int): Int {
+    val chunks = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD
+    return Math.max(MIN_CHUNK_SIZE, (size + chunks - 1) / chunks)
+}
+
+private fun chunkCount(size: Int, chunkSize: Int): Int = (size + chunkSize - 1) / chunkSize
+
+private class ChunkTask(
+        val firstChunk: Int,
+        val lastChunk: Int,
+        val chunkSize: Int,
+        val size: Int,
+        val action: (from: Int, to: Int) -> Unit
+) : RecursiveAction() {
+
+    override fun compute() {
+        if (lastChunk - firstChunk == 1) {
+            val from = firstChunk * chunkSize
+            action(from, Math.min(from + chunkSize, size))
+        }
+        else {
+            val middleChunk = (firstChunk + lastChunk) ushr 1
+            ForkJoinTask.invokeAll(
+                    ChunkTask(firstChunk, middleChunk, chunkSize, size, action),
+                    ChunkTask(middleChunk, lastChunk, chunkSize, size, action))
+        }
+    }
+}
@@ -2,6 +2,7 @@
 package kotlin.streams
 
 import java.util.*
+import java.util.function.Consumer
 import java.util.stream.*
 
 /**
@@ -24,11 +25,123 @@ public fun LongStream.asSequence(): Sequence<Long> = Sequence { iterator() }
  */
 public fun DoubleStream.asSequence(): Sequence<Double> = Sequence { iterator() }
 
+/**
+ * Creates an [IntSequence] instance that wraps the original stream iterating through its elements without boxing.
+ */
+public fun IntStream.asIntSequence(): IntSequence = object : IntSequence {
+    override fun iterator(): IntIterator {
+        val iterator = this@asIntSequence.iterator()
+        return object : IntIterator() {
+            override fun hasNext(): Boolean = iterator.hasNext()
+            override fun nextInt(): Int = iterator.nextInt()
+        }
+    }
+}
+
+/**
+ * Creates a [LongSequence] instance that wraps the original stream iterating through its elements without boxing.
+ */
+public fun LongStream.asLongSequence(): LongSequence = object : LongSequence {
+    override fun iterator(): LongIterator {
+        val iterator = this@asLongSequence.iterator()
+        return object : LongIterator() {
+            override fun hasNext(): Boolean = iterator.hasNext()
+            override fun nextLong(): Long = iterator.nextLong()
+        }
+    }
+}
+
+/**
+ * Creates a [DoubleSequence] instance that wraps the original stream iterating through its elements without boxing.
+ */
+public fun DoubleStream.asDoubleSequence(): DoubleSequence = object : DoubleSequence {
+    override fun iterator(): DoubleIterator {
+        val iterator = this@asDoubleSequence.iterator()
+        return object : DoubleIterator() {
+            override fun hasNext(): Boolean = iterator.hasNext()
+            override fun nextDouble(): Double = iterator.nextDouble()
+        }
+    }
+}
+
 /**
  * Creates a sequential [Stream] instance that produces elements from the original sequence.
  */
 public fun <T> Sequence<T>.asStream(): Stream<T> = StreamSupport.stream({ Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED) }, Spliterator.ORDERED, false)
 
+/**
+ * Creates a sequential [IntStream] instance that produces elements from the original sequence without boxing.
+ */
+public fun IntSequence.asStream(): IntStream {
+    val sequence = this
+    return StreamSupport.intStream({ Spliterators.spliteratorUnknownSize(sequence.iterator().asPrimitiveIterator(), Spliterator.ORDERED) }, Spliterator.ORDERED, false)
+}
+
+/**
+ * Creates a sequential [LongStream] instance that produces elements from the original sequence without boxing.
+ */
+public fun LongSequence.asStream(): LongStream {
+    val sequence = this
+    return StreamSupport.longStream({ Spliterators.spliteratorUnknownSize(sequence.iterator().asPrimitiveIterator(), Spliterator.ORDERED) }, Spliterator.ORDERED, false)
+}
+
+/**
+ * Creates a sequential [DoubleStream] instance that produces elements from the original sequence without boxing.
+ */
+public fun DoubleSequence.asStream(): DoubleStream {
+    val sequence = this
+    return StreamSupport.doubleStream({ Spliterators.spliteratorUnknownSize(sequence.iterator().asPrimitiveIterator(), Spliterator.ORDERED) }, Spliterator.ORDERED, false)
+}
+
+/**
+ * Creates a sequential [Stream] instance that produces elements from the original list.
+ *
+ * Unlike `asSequence().asStream()`, the resulting stream knows its size and, for a random access list,
+ * splits by index ranges, so it can be efficiently processed in parallel.
+ * The list should not be modified while the stream is being consumed.
+ */
+public fun <T> List<T>.asStream(): Stream<T> =
+        if (this is RandomAccess)
+            StreamSupport.stream(RandomAccessListSpliterator(this, 0, size), false)
+        else
+            stream()
+
+/**
+ * Creates a sequential [Stream] instance that produces elements from the original array.
+ * The resulting stream knows its size and can be efficiently processed in parallel.
+ */
+public fun <T> Array<out T>.asStream(): Stream<T> = Arrays.stream(this)
+
+/**
+ * Creates a sequential [IntStream] instance that produces elements from the original array.
+ * The resulting stream knows its size and can be efficiently processed in parallel.
+ */
+public fun IntArray.asStream(): IntStream = Arrays.stream(this)
+
+/**
+ * Creates a sequential [LongStream] instance that produces elements from the original array.
+ * The resulting stream knows its size and can be efficiently processed in parallel.
+ */
+public fun LongArray.asStream(): LongStream = Arrays.stream(this)
+
+/**
+ * Creates a sequential [DoubleStream] instance that produces elements from the original array.
+ * The resulting stream knows its size and can be efficiently processed in parallel.
+ */
+public fun DoubleArray.asStream(): DoubleStream = Arrays.stream(this)
+
+/**
+ * Creates a sequential [IntStream] instance that produces all values of this range.
+ * The resulting stream knows its size and can be efficiently processed in parallel.
+ */
+public fun IntRange.asStream(): IntStream = if (isEmpty()) IntStream.empty() else IntStream.rangeClosed(first, last)
+
+/**
+ * Creates a sequential [LongStream] instance that produces all values of this range.
+ * The resulting stream knows its size and can be efficiently processed in parallel.
+ */
+public fun LongRange.asStream(): LongStream = if (isEmpty()) LongStream.empty() else LongStream.rangeClosed(first, last)
+
 /**
  * Returns a [List] containing all elements produced by this stream.
  */
@@ -49,3 +162,48 @@ public fun LongStream.toList(): List<Long> = toArray().asList()
  */
 public fun DoubleStream.toList(): List<Double> = toArray().asList()
 
+
+private class RandomAccessListSpliterator<T>(private val list: List<T>, private var index: Int, private val fence: Int) : Spliterator<T> {
+    override fun tryAdvance(action: Consumer<in T>): Boolean {
+        if (index >= fence) return false
+        action.accept(list[index++])
+        return true
+    }
+
+    override fun forEachRemaining(action: Consumer<in T>) {
+        val end = fence
+        var i = index
+        index = end
+        while (i < end) {
+            action.accept(list[i++])
+        }
+    }
+
+    override fun trySplit(): Spliterator<T>? {
+        val start = index
+        val mid = (start + fence) ushr 1
+        if (mid <= start) return null
+
+        index = mid
+        return RandomAccessListSpliterator(list, start, mid)
+    }
+
+    override fun estimateSize(): Long = (fence - index).toLong()
+
+    override fun characteristics(): Int = Spliterator.ORDERED or Spliterator.SIZED or Spliterator.SUBSIZED
+}
+
+private fun IntIterator.asPrimitiveIterator(): PrimitiveIterator.OfInt = object : PrimitiveIterator.OfInt {
+    override fun hasNext(): Boolean = this@asPrimitiveIterator.hasNext()
+    override fun nextInt(): Int = this@asPrimitiveIterator.nextInt()
+}
+
+private fun LongIterator.asPrimitiveIterator(): PrimitiveIterator.OfLong = object : PrimitiveIterator.OfLong {
+    override fun hasNext(): Boolean = this@asPrimitiveIterator.hasNext()
+    override fun nextLong(): Long = this@asPrimitiveIterator.nextLong()
+}
+
+private fun DoubleIterator.asPrimitiveIterator(): PrimitiveIterator.OfDouble = object : PrimitiveIterator.OfDouble {
+    override fun hasNext(): Boolean = this@asPrimitiveIterator.hasNext()
+    override fun nextDouble(): Double = this@asPrimitiveIterator.nextDouble()
+}
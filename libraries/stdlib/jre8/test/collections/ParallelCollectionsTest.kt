@@ -0,0 +1,77 @@
+package kotlin.jdk8.collections.test
+
+import org.junit.Test
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.test.*
+
+class ParallelCollectionsTest {
+
+    private val data = (0..9999).toList()
+
+    @Test fun parallelMap() {
+        assertEquals(data.map { it * 2 }, data.parallelMap { it * 2 })
+        assertEquals(data.map { it.toString() }, LinkedList(data).parallelMap { it.toString() })
+        assertEquals(data.map { it + 1 }, data.toTypedArray().parallelMap { it + 1 })
+        assertEquals(data.map { it + 1 }, data.toIntArray().parallelMap { it + 1 })
+        assertEquals(listOf(2L, 4L), longArrayOf(1L, 2L).parallelMap { it * 2 })
+        assertEquals(listOf(0.5), doubleArrayOf(1.0).parallelMap { it / 2 })
+        assertEquals(emptyList<Int>(), emptyList<Int>().parallelMap { it })
+    }
+
+    @Test fun parallelFilter() {
+        assertEquals(data.filter { it % 3 == 0 }, data.parallelFilter { it % 3 == 0 })
+        assertEquals(data.filter { it % 3 == 0 }, data.toIntArray().parallelFilter { it % 3 == 0 })
+        assertEquals(listOf("b"), arrayOf("a", "b").parallelFilter { it == "b" })
+        assertEquals(listOf(2L), longArrayOf(1L, 2L).parallelFilter { it > 1 })
+        assertEquals(emptyList<Double>(), doubleArrayOf(1.0).parallelFilter { it > 1 })
+    }
+
+    @Test fun parallelGroupBy() {
+        val expected = data.groupBy { it % 7 }
+        val actual = data.parallelGroupBy { it % 7 }
+        assertEquals(expected, actual)
+        assertEquals(expected.keys.toList(), actual.keys.toList())
+
+        assertEquals(data.groupBy { it.toString().length }, data.toIntArray().parallelGroupBy { it.toString().length })
+        assertEquals(mapOf(1 to listOf("a", "b"), 2 to listOf("cd")), arrayOf("a", "cd", "b").parallelGroupBy { it.length })
+    }
+
+    @Test fun parallelForEach() {
+        val sum = AtomicLong()
+        data.parallelForEach { sum.addAndGet(it.toLong()) }
+        assertEquals(data.sum().toLong(), sum.get())
+
+        val visited = ConcurrentHashMap.newKeySet<Int>()
+        data.toIntArray().parallelForEach { visited.add(it) }
+        assertEquals(data.toSet(), visited)
+    }
+
+    @Test fun parallelForEachPropagatesException() {
+        assertFailsWith<IllegalStateException> {
+            data.parallelForEach { if (it == 5000) throw IllegalStateException() }
+        }
+    }
+
+    @Test fun parallelSortWith() {
+        val shuffled = data.toMutableList().apply { Collections.shuffle(this, Random(42)) }
+        val comparator = compareBy<Int> { it % 10 }
+
+        val list = shuffled.toMutableList()
+        list.parallelSortWith(comparator)
+        assertEquals(shuffled.sortedWith(comparator), list)
+
+        val linkedList = LinkedList(shuffled)
+        linkedList.parallelSortWith(comparator)
+        assertEquals(shuffled.sortedWith(comparator), linkedList)
+
+        val array = shuffled.toTypedArray()
+        array.parallelSortWith(comparator)
+        assertEquals(shuffled.sortedWith(comparator), array.asList())
+
+        val ints = shuffled.toIntArray()
+        ints.parallelSort()
+        assertEquals(data, ints.asList())
+    }
+}
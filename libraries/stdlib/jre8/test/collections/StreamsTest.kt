@@ -2,6 +2,7 @@ package kotlin.jdk8.streams.test
 
 import kotlin.streams.*
 import org.junit.Test
+import java.util.*
 import java.util.stream.*
 import kotlin.test.*
 
@@ -51,4 +52,43 @@ class StreamsTest {
         assertEquals(expected, stream.limit(n.toLong()).toList())
     }
 
+    @Test fun listAsStream() {
+        val n = 100000
+        val list = (0 until n).toList()
+
+        val stream = list.asStream()
+        assertTrue(stream.spliterator().hasCharacteristics(Spliterator.SIZED))
+
+        assertEquals(list.map { it * 2 }, list.asStream().parallel().map { it * 2 }.toList())
+        assertEquals(n.toLong(), list.asStream().parallel().filter { it % 2 == 0 }.count() * 2)
+        assertEquals(listOf(2, 1), LinkedList(listOf(2, 1)).asStream().toList())
+    }
+
+    @Test fun arrayAsStream() {
+        val data = arrayOf("a", "b", "c")
+        assertEquals(data.asList(), data.asStream().parallel().toList())
+        assertEquals(listOf(1, 2), intArrayOf(1, 2).asStream().toList())
+        assertEquals(listOf(1L, 2L), longArrayOf(1L, 2L).asStream().toList())
+        assertEquals(listOf(1.0, 2.0), doubleArrayOf(1.0, 2.0).asStream().toList())
+    }
+
+    @Test fun rangeAsStream() {
+        assertEquals((1..10).toList(), (1..10).asStream().parallel().toList())
+        assertEquals((1L..10L).toList(), (1L..10L).asStream().parallel().toList())
+        assertEquals(0L, (1..0).asStream().count())
+        assertEquals(0L, (1L..0L).asStream().count())
+        assertEquals(10L, (1..10).asStream().spliterator().exactSizeIfKnown)
+    }
+
+    @Test fun primitiveSequenceAsStream() {
+        assertEquals(listOf(2, 4), (1..4).asIntSequence().filter { it % 2 == 0 }.asStream().toList())
+        assertEquals(listOf(1L, 2L), longArrayOf(1L, 2L).asLongSequence().asStream().toList())
+        assertEquals(3.0, doubleArrayOf(1.0, 2.0).asDoubleSequence().asStream().sum())
+    }
+
+    @Test fun streamAsPrimitiveSequence() {
+        assertEquals(6, IntStream.rangeClosed(1, 3).asIntSequence().sum())
+        assertEquals(listOf(1L, 2L), LongStream.of(1L, 2L).asLongSequence().asSequence().toList())
+        assertEquals(listOf(0.5), DoubleStream.of(0.5).asDoubleSequence().toDoubleArray().asList())
+    }
 }
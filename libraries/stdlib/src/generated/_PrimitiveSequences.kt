@@ -0,0 +1,468 @@
+@file:kotlin.jvm.JvmMultifileClass
+@file:kotlin.jvm.JvmName("PrimitiveSequencesKt")
+
+package kotlin.sequences
+
+//
+// NOTE THIS FILE IS AUTO-GENERATED by the GenerateStandardLib.kt
+// See: https://github.com/JetBrains/kotlin/tree/master/libraries/stdlib
+//
+
+import kotlin.comparisons.*
+import java.util.*
+
+import java.util.Collections // TODO: it's temporary while we have java.util.Collections in js
+
+/**
+ * Creates a [DoubleSequence] instance that wraps the original array returning its elements without boxing when being iterated.
+ */
+public fun DoubleArray.asDoubleSequence(): DoubleSequence {
+    return object : DoubleSequence {
+        override fun iterator(): DoubleIterator = this@asDoubleSequence.iterator()
+    }
+}
+
+/**
+ * Creates a [DoubleSequence] instance that unboxes the elements of the original sequence when being iterated.
+ */
+public fun Sequence<Double>.asDoubleSequence(): DoubleSequence {
+    return object : DoubleSequence {
+        override fun iterator(): DoubleIterator {
+            val iterator = this@asDoubleSequence.iterator()
+            return object : DoubleIterator() {
+                override fun hasNext(): Boolean = iterator.hasNext()
+                override fun nextDouble(): Double = iterator.next()
+            }
+        }
+    }
+}
+
+/**
+ * Creates an [IntSequence] instance that wraps the original array returning its elements without boxing when being iterated.
+ */
+public fun IntArray.asIntSequence(): IntSequence {
+    return object : IntSequence {
+        override fun iterator(): IntIterator = this@asIntSequence.iterator()
+    }
+}
+
+/**
+ * Creates an [IntSequence] instance that unboxes the elements of the original sequence when being iterated.
+ */
+public fun Sequence<Int>.asIntSequence(): IntSequence {
+    return object : IntSequence {
+        override fun iterator(): IntIterator {
+            val iterator = this@asIntSequence.iterator()
+            return object : IntIterator() {
+                override fun hasNext(): Boolean = iterator.hasNext()
+                override fun nextInt(): Int = iterator.next()
+            }
+        }
+    }
+}
+
+/**
+ * Creates an [IntSequence] instance that wraps the original progression returning its elements without boxing when being iterated.
+ */
+public fun IntProgression.asIntSequence(): IntSequence {
+    return object : IntSequence {
+        override fun iterator(): IntIterator = this@asIntSequence.iterator()
+    }
+}
+
+/**
+ * Creates a [LongSequence] instance that wraps the original array returning its elements without boxing when being iterated.
+ */
+public fun LongArray.asLongSequence(): LongSequence {
+    return object : LongSequence {
+        override fun iterator(): LongIterator = this@asLongSequence.iterator()
+    }
+}
+
+/**
+ * Creates a [LongSequence] instance that unboxes the elements of the original sequence when being iterated.
+ */
+public fun Sequence<Long>.asLongSequence(): LongSequence {
+    return object : LongSequence {
+        override fun iterator(): LongIterator {
+            val iterator = this@asLongSequence.iterator()
+            return object : LongIterator() {
+                override fun hasNext(): Boolean = iterator.hasNext()
+                override fun nextLong(): Long = iterator.next()
+            }
+        }
+    }
+}
+
+/**
+ * Creates a [LongSequence] instance that wraps the original progression returning its elements without boxing when being iterated.
+ */
+public fun LongProgression.asLongSequence(): LongSequence {
+    return object : LongSequence {
+        override fun iterator(): LongIterator = this@asLongSequence.iterator()
+    }
+}
+
+/**
+ * Creates a [Sequence] instance that wraps the original sequence boxing its elements when being iterated.
+ */
+public fun IntSequence.asSequence(): Sequence<Int> {
+    return Sequence { this.iterator() }
+}
+
+/**
+ * Creates a [Sequence] instance that wraps the original sequence boxing its elements when being iterated.
+ */
+public fun LongSequence.asSequence(): Sequence<Long> {
+    return Sequence { this.iterator() }
+}
+
+/**
+ * Creates a [Sequence] instance that wraps the original sequence boxing its elements when being iterated.
+ */
+public fun DoubleSequence.asSequence(): Sequence<Double> {
+    return Sequence { this.iterator() }
+}
+
+/**
+ * Returns an average value of elements in the sequence.
+ */
+public fun IntSequence.average(): Double {
+    var sum: Double = 0.0
+    var count: Int = 0
+    for (element in this) {
+        sum += element
+        count += 1
+    }
+    return if (count == 0) 0.0 else sum / count
+}
+
+/**
+ * Returns an average value of elements in the sequence.
+ */
+public fun LongSequence.average(): Double {
+    var sum: Double = 0.0
+    var count: Int = 0
+    for (element in this) {
+        sum += element
+        count += 1
+    }
+    return if (count == 0) 0.0 else sum / count
+}
+
+/**
+ * Returns an average value of elements in the sequence.
+ */
+public fun DoubleSequence.average(): Double {
+    var sum: Double = 0.0
+    var count: Int = 0
+    for (element in this) {
+        sum += element
+        count += 1
+    }
+    return if (count == 0) 0.0 else sum / count
+}
+
+/**
+ * Returns the number of elements in this sequence.
+ */
+public fun IntSequence.count(): Int {
+    var count = 0
+    for (element in this) count++
+    return count
+}
+
+/**
+ * Returns the number of elements in this sequence.
+ */
+public fun LongSequence.count(): Int {
+    var count = 0
+    for (element in this) count++
+    return count
+}
+
+/**
+ * Returns the number of elements in this sequence.
+ */
+public fun DoubleSequence.count(): Int {
+    var count = 0
+    for (element in this) count++
+    return count
+}
+
+/**
+ * Returns a sequence containing only elements matching the given [predicate].
+ */
+public inline fun IntSequence.filter(crossinline predicate: (Int) -> Boolean): IntSequence {
+    return object : IntSequence {
+        override fun iterator(): IntIterator = object : IntIterator() {
+            val iterator = this@filter.iterator()
+            var nextState: Int = -1 // -1 for unknown, 0 for done, 1 for continue
+            var nextItem: Int = 0
+
+            override fun nextInt(): Int {
+                if (!hasNext())
+                    throw NoSuchElementException()
+                nextState = -1
+                return nextItem
+            }
+
+            override fun hasNext(): Boolean {
+                while (nextState == -1) {
+                    if (!iterator.hasNext()) {
+                        nextState = 0
+                    }
+                    else {
+                        val item = iterator.nextInt()
+                        if (predicate(item)) {
+                            nextItem = item
+                            nextState = 1
+                        }
+                    }
+                }
+                return nextState == 1
+            }
+        }
+    }
+}
+
+/**
+ * Returns a sequence containing only elements matching the given [predicate].
+ */
+public inline fun LongSequence.filter(crossinline predicate: (Long) -> Boolean): LongSequence {
+    return object : LongSequence {
+        override fun iterator(): LongIterator = object : LongIterator() {
+            val iterator = this@filter.iterator()
+            var nextState: Int = -1 // -1 for unknown, 0 for done, 1 for continue
+            var nextItem: Long = 0L
+
+            override fun nextLong(): Long {
+                if (!hasNext())
+                    throw NoSuchElementException()
+                nextState = -1
+                return nextItem
+            }
+
+            override fun hasNext(): Boolean {
+                while (nextState == -1) {
+                    if (!iterator.hasNext()) {
+                        nextState = 0
+                    }
+                    else {
+                        val item = iterator.nextLong()
+                        if (predicate(item)) {
+                            nextItem = item
+                            nextState = 1
+                        }
+                    }
+                }
+                return nextState == 1
+            }
+        }
+    }
+}
+
+/**
+ * Returns a sequence containing only elements matching the given [predicate].
+ */
+public inline fun DoubleSequence.filter(crossinline predicate: (Double) -> Boolean): DoubleSequence {
+    return object : DoubleSequence {
+        override fun iterator(): DoubleIterator = object : DoubleIterator() {
+            val iterator = this@filter.iterator()
+            var nextState: Int = -1 // -1 for unknown, 0 for done, 1 for continue
+            var nextItem: Double = 0.0
+
+            override fun nextDouble(): Double {
+                if (!hasNext())
+                    throw NoSuchElementException()
+                nextState = -1
+                return nextItem
+            }
+
+            override fun hasNext(): Boolean {
+                while (nextState == -1) {
+                    if (!iterator.hasNext()) {
+                        nextState = 0
+                    }
+                    else {
+                        val item = iterator.nextDouble()
+                        if (predicate(item)) {
+                            nextItem = item
+                            nextState = 1
+                        }
+                    }
+                }
+                return nextState == 1
+            }
+        }
+    }
+}
+
+/**
+ * Accumulates value starting with [initial] value and applying [operation] from left to right to current accumulator value and each element.
+ */
+public inline fun <R> IntSequence.fold(initial: R, operation: (acc: R, Int) -> R): R {
+    var accumulator = initial
+    for (element in this) accumulator = operation(accumulator, element)
+    return accumulator
+}
+
+/**
+ * Accumulates value starting with [initial] value and applying [operation] from left to right to current accumulator value and each element.
+ */
+public inline fun <R> LongSequence.fold(initial: R, operation: (acc: R, Long) -> R): R {
+    var accumulator = initial
+    for (element in this) accumulator = operation(accumulator, element)
+    return accumulator
+}
+
+/**
+ * Accumulates value starting with [initial] value and applying [operation] from left to right to current accumulator value and each element.
+ */
+public inline fun <R> DoubleSequence.fold(initial: R, operation: (acc: R, Double) -> R): R {
+    var accumulator = initial
+    for (element in this) accumulator = operation(accumulator, element)
+    return accumulator
+}
+
+/**
+ * Performs the given [action] on each element.
+ */
+public inline fun IntSequence.forEach(action: (Int) -> Unit): Unit {
+    for (element in this) action(element)
+}
+
+/**
+ * Performs the given [action] on each element.
+ */
+public inline fun LongSequence.forEach(action: (Long) -> Unit): Unit {
+    for (element in this) action(element)
+}
+
+/**
+ * Performs the given [action] on each element.
+ */
+public inline fun DoubleSequence.forEach(action: (Double) -> Unit): Unit {
+    for (element in this) action(element)
+}
+
+/**
+ * Returns a sequence containing the results of applying the given [transform] function to each element in the original sequence.
+ */
+public inline fun IntSequence.map(crossinline transform: (Int) -> Int): IntSequence {
+    return object : IntSequence {
+        override fun iterator(): IntIterator = object : IntIterator() {
+            val iterator = this@map.iterator()
+
+            override fun nextInt(): Int = transform(iterator.nextInt())
+
+            override fun hasNext(): Boolean = iterator.hasNext()
+        }
+    }
+}
+
+/**
+ * Returns a sequence containing the results of applying the given [transform] function to each element in the original sequence.
+ */
+public inline fun LongSequence.map(crossinline transform: (Long) -> Long): LongSequence {
+    return object : LongSequence {
+        override fun iterator(): LongIterator = object : LongIterator() {
+            val iterator = this@map.iterator()
+
+            override fun nextLong(): Long = transform(iterator.nextLong())
+
+            override fun hasNext(): Boolean = iterator.hasNext()
+        }
+    }
+}
+
+/**
+ * Returns a sequence containing the results of applying the given [transform] function to each element in the original sequence.
+ */
+public inline fun DoubleSequence.map(crossinline transform: (Double) -> Double): DoubleSequence {
+    return object : DoubleSequence {
+        override fun iterator(): DoubleIterator = object : DoubleIterator() {
+            val iterator = this@map.iterator()
+
+            override fun nextDouble(): Double = transform(iterator.nextDouble())
+
+            override fun hasNext(): Boolean = iterator.hasNext()
+        }
+    }
+}
+
+/**
+ * Returns the sum of all elements in the sequence.
+ */
+public fun IntSequence.sum(): Int {
+    var sum: Int = 0
+    for (element in this) {
+        sum += element
+    }
+    return sum
+}
+
+/**
+ * Returns the sum of all elements in the sequence.
+ */
+public fun LongSequence.sum(): Long {
+    var sum: Long = 0L
+    for (element in this) {
+        sum += element
+    }
+    return sum
+}
+
+/**
+ * Returns the sum of all elements in the sequence.
+ */
+public fun DoubleSequence.sum(): Double {
+    var sum: Double = 0.0
+    for (element in this) {
+        sum += element
+    }
+    return sum
+}
+
+/**
+ * Returns an array of Double containing all of the elements of this sequence.
+ */
+public fun DoubleSequence.toDoubleArray(): DoubleArray {
+    var result = DoubleArray(10)
+    var size = 0
+    for (element in this) {
+        if (size == result.size)
+            result = result.copyOf(size * 2)
+        result[size++] = element
+    }
+    return if (size == result.size) result else result.copyOf(size)
+}
+
+/**
+ * Returns an array of Int containing all of the elements of this sequence.
+ */
+public fun IntSequence.toIntArray(): IntArray {
+    var result = IntArray(10)
+    var size = 0
+    for (element in this) {
+        if (size == result.size)
+            result = result.copyOf(size * 2)
+        result[size++] = element
+    }
+    return if (size == result.size) result else result.copyOf(size)
+}
+
+/**
+ * Returns an array of Long containing all of the elements of this sequence.
+ */
+public fun LongSequence.toLongArray(): LongArray {
+    var result = LongArray(10)
+    var size = 0
+    for (element in this) {
+        if (size == result.size)
+            result = result.copyOf(size * 2)
+        result[size++] = element
+    }
+    return if (size == result.size) result else result.copyOf(size)
+}
+
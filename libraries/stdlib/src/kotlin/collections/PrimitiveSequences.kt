@@ -0,0 +1,38 @@
+@file:kotlin.jvm.JvmMultifileClass
+@file:kotlin.jvm.JvmName("PrimitiveSequencesKt")
+
+package kotlin.sequences
+
+/**
+ * A sequence of [Int] values that are returned through an [IntIterator] without boxing.
+ * The values are evaluated lazily, and the sequence is potentially infinite.
+ */
+public interface IntSequence {
+    /**
+     * Returns an iterator that returns the values from the sequence.
+     */
+    public operator fun iterator(): IntIterator
+}
+
+/**
+ * A sequence of [Long] values that are returned through a [LongIterator] without boxing.
+ * The values are evaluated lazily, and the sequence is potentially infinite.
+ */
+public interface LongSequence {
+    /**
+     * Returns an iterator that returns the values from the sequence.
+     */
+    public operator fun iterator(): LongIterator
+}
+
+/**
+ * A sequence of [Double] values that are returned through a [DoubleIterator] without boxing.
+ * The values are evaluated lazily, and the sequence is potentially infinite.
+ */
+public interface DoubleSequence {
+    /**
+     * Returns an iterator that returns the values from the sequence.
+     */
+    public operator fun iterator(): DoubleIterator
+}
+
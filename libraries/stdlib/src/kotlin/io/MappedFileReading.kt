@@ -0,0 +1,240 @@
+@file:JvmVersion
+@file:JvmMultifileClass
+@file:JvmName("FilesKt")
+package kotlin.io
+
+import java.io.File
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.Charset
+
+/**
+ * Size of the file regions mapped into memory at once by the mapped line and chunk readers.
+ * A region for lines is extended when a single line doesn't fit into it.
+ */
+private const val MAPPED_REGION_SIZE: Int = 256 * 1024 * 1024
+
+private const val LF: Byte = 10
+private const val CR: Byte = 13
+
+/**
+ * Maps this file into memory and calls [action] for each line.
+ * Lines are separated by `"\n"`, `"\r\n"` or `"\r"`, like in [forEachLine].
+ * Default charset is UTF-8.
+ *
+ * Lines are passed as [CharSequence] views of the mapped bytes: a line is decoded only when its characters are accessed,
+ * lines consisting of ASCII characters are not decoded at all, and a [String] is only created by calling `toString()`.
+ * The views stay valid after this function returns.
+ *
+ * You may use this function on huge files. The [charset] must encode `'\n'` and `'\r'` as single bytes,
+ * like UTF-8, ASCII or ISO-8859-1 do.
+ *
+ * @param charset character set to use.
+ * @param action function to process file lines.
+ */
+public fun File.forEachMappedLine(charset: Charset = Charsets.UTF_8, action: (line: CharSequence) -> Unit): Unit {
+    useMappedLines(charset) { it.forEach(action) }
+}
+
+/**
+ * Maps this file into memory and calls the [block] callback giving it a sequence of all the lines in this file,
+ * closes the file once the processing is complete.
+ *
+ * Lines are [CharSequence] views of the mapped bytes, see [forEachMappedLine] for details.
+ *
+ * @param charset character set to use. By default uses UTF-8 charset.
+ * @return the value returned by [block].
+ */
+public fun <T> File.useMappedLines(charset: Charset = Charsets.UTF_8, block: (Sequence<CharSequence>) -> T): T =
+        useMappedLines(charset, MAPPED_REGION_SIZE, block)
+
+internal fun <T> File.useMappedLines(charset: Charset, regionSize: Int, block: (Sequence<CharSequence>) -> T): T {
+    checkLineSeparatorsAreSingleBytes(charset)
+    return RandomAccessFile(this, "r").use { file ->
+        val channel = file.channel
+        block(Sequence { MappedLineIterator(channel, charset, regionSize) }.constrainOnce())
+    }
+}
+
+/**
+ * Maps this file into memory and calls [action] for each chunk of [chunkSize] bytes, the last chunk may be shorter.
+ *
+ * Chunks are read-only [ByteBuffer] slices of the mapped file, no bytes are copied.
+ *
+ * @param chunkSize size of a chunk, must be positive.
+ * @param action function to process file chunks.
+ */
+public fun File.forEachMappedChunk(chunkSize: Int, action: (chunk: ByteBuffer) -> Unit): Unit {
+    require(chunkSize > 0) { "chunkSize must be positive, but was $chunkSize." }
+
+    RandomAccessFile(this, "r").use { file ->
+        val channel = file.channel
+        val size = channel.size()
+        val regionSize = Math.max(MAPPED_REGION_SIZE / chunkSize, 1).toLong() * chunkSize
+        var regionStart = 0L
+
+        while (regionStart < size) {
+            val regionLength = Math.min(regionSize, size - regionStart)
+            val region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionLength)
+
+            var chunkStart = 0
+            while (chunkStart < regionLength) {
+                val chunkEnd = Math.min(chunkStart.toLong() + chunkSize, regionLength).toInt()
+                action(region.viewOf(chunkStart, chunkEnd))
+                chunkStart = chunkEnd
+            }
+
+            regionStart += regionLength
+        }
+    }
+}
+
+private fun checkLineSeparatorsAreSingleBytes(charset: Charset) {
+    require("\n".toByteArray(charset).let { it.size == 1 && it[0] == LF } && "\r".toByteArray(charset).let { it.size == 1 && it[0] == CR }) {
+        "Charset $charset is not supported, line separators must be encoded as single bytes."
+    }
+}
+
+/** Returns a read-only view of the bytes of this buffer from [start] (inclusive) to [end] (exclusive) */
+private fun ByteBuffer.viewOf(start: Int, end: Int): ByteBuffer {
+    val view = duplicate()
+    view.limit(end)
+    view.position(start)
+    return view.slice().asReadOnlyBuffer()
+}
+
+private class MappedLineIterator(
+        private val channel: FileChannel,
+        private val charset: Charset,
+        private val regionSize: Int
+) : AbstractIterator<CharSequence>() {
+    private val size = channel.size()
+    private var regionStart = 0L
+    private var region: ByteBuffer? = null
+
+    override fun computeNext() {
+        var buffer = region
+        if (buffer == null || !buffer.hasRemaining()) {
+            buffer = mapNextRegion()
+            region = buffer
+            if (buffer == null) {
+                done()
+                return
+            }
+        }
+
+        val start = buffer.position()
+        val limit = buffer.limit()
+        var end = start
+        while (end < limit && !isLineBreak(buffer.get(end))) {
+            end++
+        }
+
+        var next = end
+        if (next < limit && buffer.get(next++) == CR && next < limit && buffer.get(next) == LF) {
+            next++
+        }
+        buffer.position(next)
+
+        setNext(MappedLine(buffer.viewOf(start, end), charset))
+    }
+
+    /**
+     * Maps the next region of the file so that it ends after a line break, unless it is the end of the file.
+     * If a single line doesn't fit into a region, the region is extended up to the maximal mapping size.
+     */
+    private fun mapNextRegion(): ByteBuffer? {
+        if (regionStart >= size) return null
+
+        var length = Math.min(regionSize.toLong(), size - regionStart).toInt()
+        while (true) {
+            val mapped = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, length.toLong())
+            val regionLength = if (regionStart + length == size) length else lastLineEnd(mapped, length)
+
+            if (regionLength > 0) {
+                mapped.limit(regionLength)
+                regionStart += regionLength
+                return mapped
+            }
+
+            if (length == Int.MAX_VALUE) {
+                throw IllegalStateException("Line starting at offset $regionStart is longer than ${Int.MAX_VALUE} bytes.")
+            }
+            length = Math.min(Math.min(length.toLong() * 2, Int.MAX_VALUE.toLong()), size - regionStart).toInt()
+        }
+    }
+
+    /** Returns the length of the [mapped] bytes up to and including the last line break, or 0 if there is no line break */
+    private fun lastLineEnd(mapped: ByteBuffer, length: Int): Int {
+        var index = length - 1
+        // a CR at the very end may be the first half of a CRLF split between regions
+        if (mapped.get(index) == CR) {
+            index--
+        }
+        while (index >= 0 && !isLineBreak(mapped.get(index))) {
+            index--
+        }
+        return index + 1
+    }
+
+    private fun isLineBreak(byte: Byte): Boolean = byte == LF || byte == CR
+}
+
+/**
+ * A line of a mapped file, which decodes its bytes only when characters are requested.
+ */
+private class MappedLine(private val bytes: ByteBuffer, private val charset: Charset) : CharSequence {
+    private var decoded: CharSequence? = null
+
+    private fun chars(): CharSequence {
+        decoded?.let { return it }
+
+        val result =
+                if (charset == Charsets.ISO_8859_1 || bytes.isAscii())
+                    ByteCharSequence(bytes)
+                else
+                    charset.decode(bytes.duplicate())
+        decoded = result
+        return result
+    }
+
+    override val length: Int
+        get() = chars().length
+
+    override fun get(index: Int): Char = chars()[index]
+
+    override fun subSequence(startIndex: Int, endIndex: Int): CharSequence = chars().subSequence(startIndex, endIndex)
+
+    override fun toString(): String = chars().toString()
+}
+
+/**
+ * A view of single-byte encoded characters.
+ */
+private class ByteCharSequence(private val bytes: ByteBuffer) : CharSequence {
+    override val length: Int
+        get() = bytes.remaining()
+
+    override fun get(index: Int): Char = (bytes.get(bytes.position() + index).toInt() and 0xFF).toChar()
+
+    override fun subSequence(startIndex: Int, endIndex: Int): CharSequence {
+        if (startIndex < 0 || endIndex > length || startIndex > endIndex) {
+            throw IndexOutOfBoundsException("startIndex: $startIndex, endIndex: $endIndex, length: $length")
+        }
+        return ByteCharSequence(bytes.viewOf(bytes.position() + startIndex, bytes.position() + endIndex))
+    }
+
+    override fun toString(): String {
+        val array = ByteArray(bytes.remaining())
+        bytes.duplicate().get(array)
+        return String(array, Charsets.ISO_8859_1)
+    }
+}
+
+private fun ByteBuffer.isAscii(): Boolean {
+    for (i in position()..limit() - 1) {
+        if (get(i) < 0) return false
+    }
+    return true
+}
@@ -0,0 +1,74 @@
+package test.collections
+
+import org.junit.Test as test
+import kotlin.test.*
+
+class PrimitiveSequenceTest {
+
+    @test fun fromArrays() {
+        assertEquals(listOf(1, 2, 3), intArrayOf(1, 2, 3).asIntSequence().asSequence().toList())
+        assertEquals(listOf(1L, 2L), longArrayOf(1L, 2L).asLongSequence().asSequence().toList())
+        assertEquals(listOf(0.5, 1.5), doubleArrayOf(0.5, 1.5).asDoubleSequence().asSequence().toList())
+        assertEquals(0, intArrayOf().asIntSequence().count())
+    }
+
+    @test fun fromProgressions() {
+        assertEquals(listOf(1, 3, 5), (1..5 step 2).asIntSequence().asSequence().toList())
+        assertEquals(listOf(3L, 2L, 1L), (3L downTo 1L).asLongSequence().asSequence().toList())
+        assertEquals(0, (1..0).asIntSequence().count())
+    }
+
+    @test fun fromBoxedSequence() {
+        val sequence = sequenceOf(1, 2, 3, 4).asIntSequence()
+        assertEquals(10, sequence.sum())
+        assertEquals(2.5, sequenceOf(2.0, 3.0).asDoubleSequence().average())
+        assertEquals(listOf(2L, 4L), sequenceOf(1L, 2L).asLongSequence().map { it * 2 }.asSequence().toList())
+    }
+
+    @test fun mapAndFilter() {
+        val sequence = (1..10).asIntSequence().filter { it % 2 == 0 }.map { it * it }
+        assertEquals(listOf(4, 16, 36, 64, 100), sequence.asSequence().toList())
+        assertEquals(220, sequence.sum())
+        // sequence can be iterated again
+        assertEquals(5, sequence.count())
+
+        val longs = (1L..4L).asLongSequence().map { it * 1000000000L }.filter { it > 1000000000L }
+        assertEquals(listOf(2000000000L, 3000000000L, 4000000000L), longs.asSequence().toList())
+
+        val doubles = doubleArrayOf(1.0, -2.0, 3.0).asDoubleSequence().filter { it > 0 }.map { it / 2 }
+        assertEquals(listOf(0.5, 1.5), doubles.asSequence().toList())
+    }
+
+    @test fun filterIterator() {
+        val iterator = intArrayOf(1, 2, 3).asIntSequence().filter { it > 1 }.iterator()
+        assertTrue(iterator.hasNext())
+        assertTrue(iterator.hasNext())
+        assertEquals(2, iterator.nextInt())
+        assertEquals(3, iterator.nextInt())
+        assertFalse(iterator.hasNext())
+        assertFails { iterator.nextInt() }
+    }
+
+    @test fun aggregates() {
+        val sequence = intArrayOf(3, 1, 4, 1, 5).asIntSequence()
+        assertEquals(14, sequence.sum())
+        assertEquals(2.8, sequence.average())
+        assertEquals(5, sequence.count())
+        assertEquals("31415", sequence.fold("") { acc, e -> acc + e })
+
+        var product = 1L
+        longArrayOf(2L, 3L, 7L).asLongSequence().forEach { product *= it }
+        assertEquals(42L, product)
+
+        assertEquals(0.0, doubleArrayOf().asDoubleSequence().average())
+        assertEquals(4.0, doubleArrayOf(1.5, 2.5).asDoubleSequence().sum())
+    }
+
+    @test fun toArray() {
+        assertEquals(listOf(0, 1, 2), (0..2).asIntSequence().toIntArray().asList())
+        assertEquals((0..99).toList(), (0..99).asIntSequence().toIntArray().asList())
+        assertEquals(0, (1..0).asIntSequence().toIntArray().size)
+        assertEquals(listOf(1L, 2L), longArrayOf(1L, 2L).asLongSequence().toLongArray().asList())
+        assertEquals(listOf(1.0), doubleArrayOf(1.0).asDoubleSequence().toDoubleArray().asList())
+    }
+}
@@ -199,3 +199,75 @@ class LineIteratorTest {
         reader.close()
     }
 }
+
+
+class MappedFileReadingTest {
+    private fun withTempFile(content: ByteArray, block: (File) -> Unit) {
+        val file = File.createTempFile("temp", System.nanoTime().toString())
+        try {
+            file.writeBytes(content)
+            block(file)
+        } finally {
+            file.delete()
+        }
+    }
+
+    @test fun mappedLines() {
+        for (text in listOf("", " ", " \n", " \n ", "Hello\r\nWorld\n\nAgain")) {
+            withTempFile(text.toByteArray()) { file ->
+                assertEquals(file.readLines(), file.useMappedLines { it.map { it.toString() }.toList() })
+
+                val lines = ArrayList<String>()
+                file.forEachMappedLine { lines.add(it.toString()) }
+                assertEquals(file.readLines(), lines)
+            }
+        }
+    }
+
+    @test fun mappedLinesWithCarriageReturns() {
+        for (text in listOf("\r", "a\rb", "a\r\rb\r\n", "a\r\n\rb\n\r")) {
+            withTempFile(text.toByteArray()) { file ->
+                assertEquals(file.readLines(), file.useMappedLines { it.map { it.toString() }.toList() })
+            }
+        }
+    }
+
+    @Suppress("INVISIBLE_MEMBER")
+    @test fun mappedLinesLongerThanRegion() {
+        val text = "a long line\r\nab\rabcdefgh\n\nlast line without break"
+        withTempFile(text.toByteArray()) { file ->
+            for (regionSize in 1..5) {
+                assertEquals(file.readLines(), file.useMappedLines(Charsets.UTF_8, regionSize) { it.map { it.toString() }.toList() },
+                             "region size $regionSize")
+            }
+        }
+    }
+
+    @test fun mappedLinesAsCharSequences() {
+        withTempFile("plain ascii\nnon-ascii: é中\n".toByteArray(Charsets.UTF_8)) { file ->
+            val lines = file.useMappedLines { it.toList() }
+            assertEquals(11, lines[0].length)
+            assertEquals('a', lines[0][2])
+            assertEquals("ascii", lines[0].subSequence(6, 11).toString())
+            assertTrue(lines[0].contains("ascii"))
+
+            assertEquals("non-ascii: é中", lines[1].toString())
+            assertEquals('中', lines[1][12])
+        }
+
+        withTempFile("café".toByteArray(Charsets.ISO_8859_1)) { file ->
+            assertEquals(listOf("café"), file.useMappedLines(Charsets.ISO_8859_1) { it.map { it.toString() }.toList() })
+        }
+    }
+
+    @test fun mappedChunks() {
+        val content = ByteArray(10) { it.toByte() }
+        withTempFile(content) { file ->
+            val chunks = ArrayList<List<Byte>>()
+            file.forEachMappedChunk(4) { chunk ->
+                chunks.add((0..chunk.remaining() - 1).map { chunk.get(it) })
+            }
+            assertEquals(listOf(listOf<Byte>(0, 1, 2, 3), listOf<Byte>(4, 5, 6, 7), listOf<Byte>(8, 9)), chunks)
+        }
+    }
+}
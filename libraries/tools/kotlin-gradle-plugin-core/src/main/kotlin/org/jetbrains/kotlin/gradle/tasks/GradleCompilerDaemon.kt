@@ -0,0 +1,162 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.gradle.tasks
+
+import org.gradle.api.logging.Logger
+import org.jetbrains.kotlin.cli.common.ExitCode
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageLocation
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity
+import org.jetbrains.kotlin.cli.common.messages.MessageCollector
+import org.jetbrains.kotlin.cli.jvm.K2JVMCompiler
+import org.jetbrains.kotlin.compilerRunner.CompilerOutputParser
+import org.jetbrains.kotlin.compilerRunner.OutputItemsCollector
+import org.jetbrains.kotlin.daemon.client.CompilationServices
+import org.jetbrains.kotlin.daemon.client.DaemonReportMessage
+import org.jetbrains.kotlin.daemon.client.DaemonReportingTargets
+import org.jetbrains.kotlin.daemon.client.KotlinCompilerClient
+import org.jetbrains.kotlin.daemon.common.*
+import java.io.BufferedReader
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.StringReader
+import java.rmi.ConnectException
+import java.rmi.ConnectIOException
+import java.rmi.NoSuchObjectException
+import java.rmi.RemoteException
+import java.util.*
+
+/**
+ * Runs compilation in the Kotlin compile daemon instead of the Gradle process.
+ * The connection is reused between builds, so the daemon keeps its warm JIT state and caches,
+ * and the Gradle daemon doesn't accumulate compiler classes and static state.
+ * A compile session is leased for each compilation and released when it is over.
+ */
+internal object GradleCompilerDaemon {
+    private @Volatile var connection: CompileService? = null
+
+    /**
+     * Returns null if the daemon is not available, in which case the caller should compile in-process.
+     */
+    fun compile(
+            args: List<String>,
+            services: CompilationServices,
+            messageCollector: MessageCollector,
+            outputItemsCollector: OutputItemsCollector,
+            logger: Logger,
+            retryOnConnectionError: Boolean = true
+    ): ExitCode? {
+        val daemon = getConnection(logger) ?: return null
+
+        val compilerOut = ByteArrayOutputStream()
+        val daemonOut = ByteArrayOutputStream()
+
+        // only called when the request never reached the daemon, so it is safe to send it again
+        fun retryOrNull(e: Exception): ExitCode? {
+            resetConnection()
+            if (retryOnConnectionError) {
+                logger.kotlinDebug("retrying once on daemon connection error: ${e.message}")
+                return compile(args, services, messageCollector, outputItemsCollector, logger, retryOnConnectionError = false)
+            }
+            logger.kotlinInfo("daemon connection error: ${e.message}, falling back to in-process compilation")
+            return null
+        }
+
+        val flagFile = File.createTempFile("kotlin-compiler-gradle-session-", "-is-running")
+        flagFile.deleteOnExit()
+        var sessionId: Int? = null
+
+        val res: Int = try {
+            sessionId = daemon.leaseCompileSession(flagFile.absolutePath).get()
+            KotlinCompilerClient.incrementalCompile(daemon, sessionId, CompileService.TargetPlatform.JVM,
+                                                    args.toTypedArray(), services, compilerOut, daemonOut)
+        }
+        catch (e: ConnectException) {
+            return retryOrNull(e)
+        }
+        catch (e: ConnectIOException) {
+            return retryOrNull(e)
+        }
+        catch (e: NoSuchObjectException) {
+            return retryOrNull(e)
+        }
+        catch (e: RemoteException) {
+            // the daemon may have already compiled (and reported to the incremental caches), so neither retry nor fall back
+            resetConnection()
+            messageCollector.report(CompilerMessageSeverity.ERROR, "Compile daemon connection error: ${e.message}", CompilerMessageLocation.NO_LOCATION)
+            return ExitCode.INTERNAL_ERROR
+        }
+        finally {
+            sessionId?.let { releaseSession(daemon, it, logger) }
+            flagFile.delete()
+        }
+
+        CompilerOutputParser.parseCompilerMessagesFromReader(messageCollector, BufferedReader(StringReader(compilerOut.toString())), outputItemsCollector)
+        BufferedReader(StringReader(daemonOut.toString())).forEachLine {
+            logger.kotlinDebug(it)
+        }
+
+        val exitCode = ExitCode.values().firstOrNull { it.code == res } ?: ExitCode.INTERNAL_ERROR
+        if (exitCode == ExitCode.INTERNAL_ERROR) {
+            messageCollector.report(CompilerMessageSeverity.ERROR, "Compiler terminated with internal error", CompilerMessageLocation.NO_LOCATION)
+        }
+        return exitCode
+    }
+
+    @Synchronized
+    private fun getConnection(logger: Logger): CompileService? {
+        connection?.let { return it }
+
+        val compilerId = CompilerId.makeCompilerId(compilerClasspath())
+        val daemonOptions = configureDaemonOptions()
+        val daemonJVMOptions = configureDaemonJVMOptions(inheritMemoryLimits = false, inheritAdditionalProperties = true)
+        val daemonReportMessages = ArrayList<DaemonReportMessage>()
+
+        val daemon = KotlinCompilerClient.connectToCompileService(compilerId, daemonJVMOptions, daemonOptions,
+                                                                  DaemonReportingTargets(null, daemonReportMessages),
+                                                                  autostart = true, checkId = true)
+
+        for (msg in daemonReportMessages) {
+            logger.kotlinDebug("daemon: ${msg.message}")
+        }
+
+        if (daemon == null) {
+            logger.kotlinInfo("Could not connect to kotlin compile daemon, compiling in-process")
+            return null
+        }
+
+        logger.kotlinDebug("Connected to kotlin compile daemon")
+        connection = daemon
+        return daemon
+    }
+
+    private fun releaseSession(daemon: CompileService, sessionId: Int, logger: Logger) {
+        try {
+            daemon.releaseCompileSession(sessionId)
+        }
+        catch (e: RemoteException) {
+            logger.kotlinDebug("could not release daemon session $sessionId: ${e.message}")
+        }
+    }
+
+    @Synchronized
+    private fun resetConnection() {
+        connection = null
+    }
+
+    private fun compilerClasspath(): File =
+            File(K2JVMCompiler::class.java.protectionDomain.codeSource.location.toURI())
+}
@@ -40,12 +40,14 @@ import org.jetbrains.kotlin.compilerRunner.OutputItemsCollector
 import org.jetbrains.kotlin.compilerRunner.OutputItemsCollectorImpl
 import org.jetbrains.kotlin.config.CompilerConfiguration
 import org.jetbrains.kotlin.config.Services
+import org.jetbrains.kotlin.daemon.client.CompilationServices
 import org.jetbrains.kotlin.incremental.*
 import org.jetbrains.kotlin.incremental.components.LookupTracker
 import org.jetbrains.kotlin.modules.TargetId
 import org.jetbrains.kotlin.progress.CompilationCanceledStatus
 import org.jetbrains.kotlin.utils.LibraryUtils
 import java.io.File
+import java.io.IOException
 import java.util.*
 
 const val DEFAULT_ANNOTATIONS = "org.jebrains.kotlin.gradle.defaultAnnotations"
@@ -53,6 +55,7 @@ const val ANNOTATIONS_PLUGIN_NAME = "org.jetbrains.kotlin.kapt"
 const val KOTLIN_BUILD_DIR_NAME = "kotlin"
 const val CACHES_DIR_NAME = "caches"
 const val DIRTY_SOURCES_FILE_NAME = "dirty-sources.txt"
+const val CLASSPATH_SNAPSHOTS_DIR_NAME = "classpath-snapshots"
 const val USING_EXPERIMENTAL_INCREMENTAL_MESSAGE = "Using experimental kotlin incremental compilation"
 
 abstract class AbstractKotlinCompile<T : CommonCompilerArguments>() : AbstractCompile() {
@@ -67,6 +70,8 @@ abstract class AbstractKotlinCompile<T : CommonCompilerArguments>() : AbstractCo
     // indicates that task should compile kotlin incrementally if possible
     // it's not possible when IncrementalTaskInputs#isIncremental returns false (i.e first build)
     var incremental: Boolean = false
+    // indicates that the compiler should be run in the kotlin compile daemon instead of the gradle process if possible
+    var useDaemon: Boolean = false
     var kotlinOptions: T = createBlankArgs()
     var compilerCalled: Boolean = false
     // TODO: consider more reliable approach (see usage)
@@ -157,6 +162,7 @@ open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
 
     private var kaptAnnotationsFileUpdater: AnnotationFileUpdater? = null
     private var kaptStubGeneratingMode = false
+    private var buildTrace: BuildTrace? = null
 
     override fun populateTargetSpecificArgs(args: K2JVMCompilerArguments) {
         // show kotlin compiler where to look for java source files
@@ -210,6 +216,44 @@ open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
     }
 
     override fun callCompiler(args: K2JVMCompilerArguments, sources: List<File>, isIncrementalRequested: Boolean, modified: List<File>, removed: List<File>) {
+        val tracePath = args.tracePhasesOutputPath
+        if (tracePath == null) {
+            doCallCompiler(args, sources, isIncrementalRequested, modified, removed)
+            return
+        }
+
+        // The trace covers the whole build, including the updates of incremental caches after each compilation
+        val trace = BuildTrace(tracePath)
+        buildTrace = trace
+        try {
+            trace.trace { doCallCompiler(args, sources, isIncrementalRequested, modified, removed) }
+        }
+        finally {
+            buildTrace = null
+            try {
+                trace.close()
+            }
+            catch (e: IOException) {
+                logger.warn("Could not write the trace of the build to $tracePath: ${e.message}")
+            }
+        }
+    }
+
+    // The daemon can't see the sink of the build, so the compiler there writes its own trace next to the build's one
+    private fun daemonArguments(args: K2JVMCompilerArguments): List<String> {
+        val trace = buildTrace ?: return ArgumentUtils.convertArgumentsToStringList(args)
+
+        val tracePath = args.tracePhasesOutputPath
+        args.tracePhasesOutputPath = trace.nextCompilerTracePath()
+        try {
+            return ArgumentUtils.convertArgumentsToStringList(args)
+        }
+        finally {
+            args.tracePhasesOutputPath = tracePath
+        }
+    }
+
+    private fun doCallCompiler(args: K2JVMCompilerArguments, sources: List<File>, isIncrementalRequested: Boolean, modified: List<File>, removed: List<File>) {
 
         fun projectRelativePath(f: File) = f.toRelativeString(project.projectDir)
 
@@ -226,6 +270,9 @@ open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
         val outputDir = destinationDir
         val caches = hashMapOf<TargetId, GradleIncrementalCacheImpl>()
         val lookupStorage = LookupStorage(File(cacheDirectory, "lookups"))
+        val classpathSnapshots = ClasspathSnapshotStorage(File(cacheDirectory, CLASSPATH_SNAPSHOTS_DIR_NAME))
+        // TODO: that doesn't look to wise - join it first and then split here, consider storing it somewhere in between
+        val classpath = args.classpath.split(File.pathSeparator).filter { it.isNotEmpty() }.map { File(it) }
         val lookupTracker = LookupTrackerImpl(LookupTracker.DO_NOTHING)
         var currentRemoved = removed.filter { it.isKotlinFile() }
         val allGeneratedFiles = hashSetOf<GeneratedFile<TargetId>>()
@@ -265,7 +312,6 @@ open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
         }
 
         fun dirtyKotlinSourcesFromGradle(): MutableSet<File> {
-            // TODO: handle classpath changes similarly - compare with cashed version (likely a big change, may be costly, some heuristics could be considered)
             val modifiedKotlinFiles = modified.filter { it.isKotlinFile() }.toMutableSet()
             val lookupSymbols = dirtyLookupSymbolsFromModifiedJavaFiles()
                     // TODO: add dirty lookups from modified kotlin files to reduce number of steps needed
@@ -279,31 +325,84 @@ open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
             return modifiedKotlinFiles
         }
 
-        fun isClassPathChanged(): Boolean {
-            // TODO: that doesn't look to wise - join it first and then split here, consider storing it somewhere in between
-            val classpath = args.classpath.split(File.pathSeparator).map { File(it) }.toHashSet()
-            val changedClasspath = modified.filter { classpath.contains(it) }
-            return changedClasspath.any()
+        // returns null if the changes or the class hierarchy they affect can't be fully determined
+        fun classpathChanges(): Pair<CompilationResult, ClasspathSubtypes>? {
+            // for a class directory, Gradle reports the changed class files inside it rather than the directory itself
+            val changedFiles = modified + removed
+            val changedEntries = (classpath.filter { entry -> changedFiles.any { it == entry || FileUtil.isAncestor(entry, it, true) } } +
+                                  removed.filter { it in classpathSnapshots }).toSet()
+            if (changedEntries.isEmpty()) return Pair(CompilationResult.NO_CHANGES, ClasspathSubtypes(emptyList()))
+
+            val snapshots = ArrayList<ClasspathEntrySnapshot>()
+            var result = CompilationResult.NO_CHANGES
+
+            for (entry in changedEntries) {
+                val previous = classpathSnapshots.load(entry)
+                if (previous == null) {
+                    logger.kotlinInfo("no ABI snapshot for changed classpath entry: $entry")
+                    return null
+                }
+                val current = if (entry.exists()) ClasspathEntrySnapshot.create(entry) else ClasspathEntrySnapshot.EMPTY
+                result += classpathEntryChanges(previous, current)
+                // old snapshot is needed as well: subtypes of removed classes or of removed supertypes are affected too
+                snapshots.add(previous)
+                snapshots.add(current)
+            }
+
+            if (result == CompilationResult.NO_CHANGES) return Pair(result, ClasspathSubtypes(snapshots))
+
+            // subtypes of a changed class can be declared in any other classpath entry
+            for (entry in classpath) {
+                if (entry in changedEntries || !entry.exists()) continue
+
+                val snapshot = classpathSnapshots.load(entry)
+                if (snapshot == null) {
+                    logger.kotlinInfo("no ABI snapshot for classpath entry: $entry")
+                    return null
+                }
+                snapshots.add(snapshot)
+            }
+
+            // subtypes declared in java sources of the module are not tracked by incremental caches
+            if (getSource().any { it.isJavaFile() }) {
+                logger.kotlinInfo("class hierarchy of java sources is unknown")
+                return null
+            }
+
+            return Pair(result, ClasspathSubtypes(snapshots))
+        }
+
+        fun dirtyKotlinSourcesFromClasspath(changes: CompilationResult, classpathSubtypes: ClasspathSubtypes): Set<File> {
+            if (changes == CompilationResult.NO_CHANGES) return emptySet()
+
+            val (dirtyLookupSymbols, dirtyClassFqNames) = changes.getDirtyData(targets.map(::getIncrementalCache), logAction, classpathSubtypes)
+            return mapLookupSymbolsToFiles(lookupStorage, dirtyLookupSymbols, logAction, ::projectRelativePath) +
+                   mapClassesFqNamesToFiles(targets.map(::getIncrementalCache), dirtyClassFqNames, logAction, ::projectRelativePath)
         }
 
         fun calculateSourcesToCompile(): Pair<Set<File>, Boolean> {
-            if (!incremental
-                || !isIncrementalRequested
-                // TODO: more precise will be not to rebuild unconditionally on classpath changes, but retrieve lookup info and try to find out which sources are affected by cp changes
-                || isClassPathChanged()
-                // so far considering it not incremental TODO: store java files in the cache and extract removed symbols from it here
-                || removed.any { it.isJavaFile() || it.hasClassFileExtension() }
-                || modified.any { it.hasClassFileExtension() }
-                || cacheVersions.any { it.checkVersion() != CacheVersion.Action.DO_NOTHING }
-            ) {
-                logger.kotlinInfo(if (!isIncrementalRequested) "clean caches on rebuild" else "classpath changed, rebuilding all kotlin files")
+            fun rebuild(reason: String): Pair<Set<File>, Boolean> {
+                logger.kotlinInfo(reason)
                 targets.forEach { getIncrementalCache(it).clean() }
                 lookupStorage.clean()
                 dirtySourcesSinceLastTimeFile.delete()
                 return Pair(sources.toSet(), false)
             }
 
+            if (!incremental || !isIncrementalRequested) return rebuild("clean caches on rebuild")
+
+            // so far considering it not incremental TODO: store java files in the cache and extract removed symbols from it here
+            if (removed.any { it.isJavaFile() || it.hasClassFileExtension() }
+                || modified.any { it.hasClassFileExtension() }
+                || cacheVersions.any { it.checkVersion() != CacheVersion.Action.DO_NOTHING }
+            ) {
+                return rebuild("rebuilding all kotlin files")
+            }
+
+            val (classpathChanges, classpathSubtypes) = classpathChanges() ?: return rebuild("classpath changed, rebuilding all kotlin files")
+
             val dirtyFiles = dirtyKotlinSourcesFromGradle()
+            dirtyFiles.addAll(dirtyKotlinSourcesFromClasspath(classpathChanges, classpathSubtypes))
             if (dirtySourcesSinceLastTimeFile.exists()) {
                 val files = dirtySourcesSinceLastTimeFile.readLines().map(::File).filter { it.exists() }
                 if (files.isNotEmpty()) {
@@ -412,6 +511,10 @@ open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
             }
         }
 
+        if (exitCode == ExitCode.OK) {
+            classpathSnapshots.update(classpath)
+        }
+
         anyClassesCompiled = allGeneratedFiles.isNotEmpty()
         processCompilerExitCode(exitCode)
     }
@@ -438,8 +541,15 @@ open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
                 }
             }
 
-            logger.kotlinDebug("compiling with args ${ArgumentUtils.convertArgumentsToStringList(args)}")
-            val exitCode = compiler.exec(messageCollector, makeCompileServices(incrementalCaches, lookupTracker, compilationCanceledStatus), args)
+            val argsList = ArgumentUtils.convertArgumentsToStringList(args)
+            logger.kotlinDebug("compiling with args $argsList")
+            val daemonExitCode =
+                    if (useDaemon) {
+                        val services = CompilationServices(IncrementalCompilationComponentsImpl(incrementalCaches, lookupTracker), compilationCanceledStatus)
+                        GradleCompilerDaemon.compile(daemonArguments(args), services, GradleMessageCollector(logger), outputItemCollector, logger)
+                    }
+                    else null
+            val exitCode = daemonExitCode ?: compiler.exec(messageCollector, makeCompileServices(incrementalCaches, lookupTracker, compilationCanceledStatus), args)
             return CompileChangedResults(
                     exitCode,
                     outputItemCollector.generatedFiles(
@@ -468,7 +578,11 @@ open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
         val messageCollector = GradleMessageCollector(logger)
 
         try {
-            logger.kotlinDebug("compiling with args ${ArgumentUtils.convertArgumentsToStringList(args)}")
+            val argsList = ArgumentUtils.convertArgumentsToStringList(args)
+            logger.kotlinDebug("compiling with args $argsList")
+            if (useDaemon) {
+                GradleCompilerDaemon.compile(daemonArguments(args), CompilationServices(), messageCollector, OutputItemsCollectorImpl(), logger)?.let { return it }
+            }
             return compiler.exec(messageCollector, Services.EMPTY, args)
         }
         finally {
@@ -16,7 +16,8 @@ fun mapKotlinTaskProperties(project: Project, task: AbstractCompile) {
 }
 
 private val propertyMappings = listOf(
-        KotlinPropertyMapping("kotlin.incremental", "incremental", String::toBoolean)
+        KotlinPropertyMapping("kotlin.incremental", "incremental", String::toBoolean),
+        KotlinPropertyMapping("kotlin.daemon", "useDaemon", String::toBoolean)
 )
 
 private class KotlinPropertyMapping<T>(
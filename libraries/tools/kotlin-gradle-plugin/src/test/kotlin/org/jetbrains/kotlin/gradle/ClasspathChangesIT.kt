@@ -0,0 +1,56 @@
+package org.jetbrains.kotlin.gradle
+
+import org.jetbrains.kotlin.gradle.util.getFileByName
+import org.jetbrains.kotlin.gradle.util.modify
+import org.junit.Test
+import kotlin.test.assertTrue
+
+class ClasspathChangesIT : BaseGradleIT() {
+    @Test
+    fun testJarClassIsModifiedIC() {
+        doTest(changeLibrary = { project ->
+            project.projectDir.getFileByName("Greeter.java").modify { it.replace("String greet()", "Object greet()") }
+        }) { project ->
+            assertSuccessful()
+            assertCompiledKotlinSources(project.relativizeToSubproject("app", project.projectDir.getFileByName("UsesGreeter.kt")))
+        }
+    }
+
+    @Test
+    fun testJarClassIsRemovedIC() {
+        doTest(changeLibrary = { project ->
+            val removableFile = project.projectDir.getFileByName("Removable.java")
+            assertTrue(removableFile.delete(), "Could not delete $removableFile")
+        }) { project ->
+            assertFailed()
+            assertContains("Unresolved reference: Removable")
+            assertCompiledKotlinSources(project.relativizeToSubproject("app", project.projectDir.getFileByName("UsesRemovable.kt")))
+        }
+    }
+
+    @Test
+    fun testJarSupertypeIsModifiedIC() {
+        // Impl.kt only refers to Middle, the change is reached through Middle's supertype declared inside the library
+        doTest(changeLibrary = { project ->
+            project.projectDir.getFileByName("Base.java").modify { it.replace("void foo()", "void foo(int x)") }
+        }) { project ->
+            assertSuccessful()
+            assertCompiledKotlinSources(project.relativizeToSubproject("app", project.projectDir.getFileByName("Impl.kt")))
+        }
+    }
+
+    private fun doTest(changeLibrary: (Project) -> Unit, checkRebuild: CompiledProject.(Project) -> Unit) {
+        val project = Project("classpathChanges", "2.10")
+        val buildOptions = defaultBuildOptions().copy(incremental = true)
+
+        project.build("build", options = buildOptions) {
+            assertSuccessful()
+        }
+
+        changeLibrary(project)
+
+        project.build("build", options = buildOptions) {
+            checkRebuild(project)
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package app
+
+import lib.Middle
+
+class Impl : Middle()
@@ -0,0 +1,3 @@
+package app
+
+fun unrelated() = 42
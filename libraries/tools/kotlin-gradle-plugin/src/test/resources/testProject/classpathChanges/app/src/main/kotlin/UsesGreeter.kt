@@ -0,0 +1,5 @@
+package app
+
+import lib.Greeter
+
+fun greeting() = Greeter().greet()
@@ -0,0 +1,5 @@
+package app
+
+import lib.Removable
+
+fun removable() = Removable()
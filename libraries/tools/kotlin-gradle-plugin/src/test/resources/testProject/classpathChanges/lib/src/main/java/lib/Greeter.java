@@ -0,0 +1,7 @@
+package lib;
+
+public class Greeter {
+    public String greet() {
+        return "Hello";
+    }
+}
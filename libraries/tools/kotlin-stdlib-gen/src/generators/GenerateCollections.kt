@@ -19,6 +19,7 @@ fun generateCollectionsAPI(outDir: File) {
             ::generators,
             ::strings,
             ::sequences,
+            ::primitiveSequences,
             ::specialJVM,
             ::ranges,
             ::numeric,
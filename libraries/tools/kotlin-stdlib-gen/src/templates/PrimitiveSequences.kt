@@ -0,0 +1,226 @@
+package templates
+
+import templates.Family.*
+
+private val sequencePrimitives = listOf(PrimitiveType.Int, PrimitiveType.Long, PrimitiveType.Double)
+
+fun primitiveSequences(): List<GenericFunction> {
+    val templates = arrayListOf<GenericFunction>()
+
+    for (primitive in sequencePrimitives) {
+        val sequenceType = "${primitive.name}Sequence"
+        val article = if (primitive == PrimitiveType.Int) "an" else "a"
+
+        templates add f("as$sequenceType()") {
+            only(ArraysOfPrimitives, Sequences, ProgressionsOfPrimitives)
+            onlyPrimitives(ArraysOfPrimitives, primitive)
+            onlyPrimitives(ProgressionsOfPrimitives, setOf(primitive) - PrimitiveType.Double)
+            sourceFile(SourceFile.PrimitiveSequences, ArraysOfPrimitives, Sequences, ProgressionsOfPrimitives)
+            doc { f -> "Creates $article [$sequenceType] instance that wraps the original ${f.collection} returning its ${f.element.pluralize()} without boxing when being iterated." }
+            doc(ProgressionsOfPrimitives) { "Creates $article [$sequenceType] instance that wraps the original progression returning its elements without boxing when being iterated." }
+            returns(sequenceType)
+            body {
+                """
+                return object : $sequenceType {
+                    override fun iterator(): ${primitive.name}Iterator = this@as$sequenceType.iterator()
+                }
+                """
+            }
+
+            customReceiver(Sequences) { "Sequence<${primitive.name}>" }
+            doc(Sequences) { "Creates $article [$sequenceType] instance that unboxes the elements of the original sequence when being iterated." }
+            body(Sequences) {
+                """
+                return object : $sequenceType {
+                    override fun iterator(): ${primitive.name}Iterator {
+                        val iterator = this@as$sequenceType.iterator()
+                        return object : ${primitive.name}Iterator() {
+                            override fun hasNext(): Boolean = iterator.hasNext()
+                            override fun next${primitive.name}(): ${primitive.name} = iterator.next()
+                        }
+                    }
+                }
+                """
+            }
+        }
+
+        templates add f("to${primitive.name}Array()") {
+            only(SequencesOfPrimitives)
+            onlyPrimitives(SequencesOfPrimitives, primitive)
+            doc { "Returns an array of ${primitive.name} containing all of the elements of this sequence." }
+            returns("${primitive.name}Array")
+            body {
+                """
+                var result = ${primitive.name}Array(10)
+                var size = 0
+                for (element in this) {
+                    if (size == result.size)
+                        result = result.copyOf(size * 2)
+                    result[size++] = element
+                }
+                return if (size == result.size) result else result.copyOf(size)
+                """
+            }
+        }
+    }
+
+    templates add f("asSequence()") {
+        only(SequencesOfPrimitives)
+        onlyPrimitives(SequencesOfPrimitives, sequencePrimitives.toSet())
+        doc { "Creates a [Sequence] instance that wraps the original sequence boxing its elements when being iterated." }
+        returns("Sequence<T>")
+        body {
+            """
+            return Sequence { this.iterator() }
+            """
+        }
+    }
+
+    templates add f("average()") {
+        only(SequencesOfPrimitives)
+        onlyPrimitives(SequencesOfPrimitives, sequencePrimitives.toSet())
+        doc { f -> "Returns an average value of elements in the ${f.collection}." }
+        returns("Double")
+        body {
+            """
+            var sum: Double = 0.0
+            var count: Int = 0
+            for (element in this) {
+                sum += element
+                count += 1
+            }
+            return if (count == 0) 0.0 else sum / count
+            """
+        }
+    }
+
+    templates add f("count()") {
+        only(SequencesOfPrimitives)
+        onlyPrimitives(SequencesOfPrimitives, sequencePrimitives.toSet())
+        doc { f -> "Returns the number of elements in this ${f.collection}." }
+        returns("Int")
+        body {
+            """
+            var count = 0
+            for (element in this) count++
+            return count
+            """
+        }
+    }
+
+    templates add f("filter(crossinline predicate: (T) -> Boolean)") {
+        only(SequencesOfPrimitives)
+        onlyPrimitives(SequencesOfPrimitives, sequencePrimitives.toSet())
+        // inlined together with the iterator, so that the predicate is called without boxing the elements
+        inline(true)
+        doc { f -> "Returns a ${f.collection} containing only elements matching the given [predicate]." }
+        returns("SELF")
+        for (primitive in sequencePrimitives) {
+            bodyForTypes(SequencesOfPrimitives, primitive) {
+                """
+                return object : ${primitive.name}Sequence {
+                    override fun iterator(): ${primitive.name}Iterator = object : ${primitive.name}Iterator() {
+                        val iterator = this@filter.iterator()
+                        var nextState: Int = -1 // -1 for unknown, 0 for done, 1 for continue
+                        var nextItem: ${primitive.name} = ZERO
+
+                        override fun next${primitive.name}(): ${primitive.name} {
+                            if (!hasNext())
+                                throw NoSuchElementException()
+                            nextState = -1
+                            return nextItem
+                        }
+
+                        override fun hasNext(): Boolean {
+                            while (nextState == -1) {
+                                if (!iterator.hasNext()) {
+                                    nextState = 0
+                                }
+                                else {
+                                    val item = iterator.next${primitive.name}()
+                                    if (predicate(item)) {
+                                        nextItem = item
+                                        nextState = 1
+                                    }
+                                }
+                            }
+                            return nextState == 1
+                        }
+                    }
+                }
+                """
+            }
+        }
+    }
+
+    templates add f("fold(initial: R, operation: (acc: R, T) -> R)") {
+        only(SequencesOfPrimitives)
+        onlyPrimitives(SequencesOfPrimitives, sequencePrimitives.toSet())
+        inline(true)
+        doc { "Accumulates value starting with [initial] value and applying [operation] from left to right to current accumulator value and each element." }
+        typeParam("R")
+        returns("R")
+        body {
+            """
+            var accumulator = initial
+            for (element in this) accumulator = operation(accumulator, element)
+            return accumulator
+            """
+        }
+    }
+
+    templates add f("forEach(action: (T) -> Unit)") {
+        only(SequencesOfPrimitives)
+        onlyPrimitives(SequencesOfPrimitives, sequencePrimitives.toSet())
+        inline(true)
+        doc { f -> "Performs the given [action] on each ${f.element}." }
+        returns("Unit")
+        body {
+            """
+            for (element in this) action(element)
+            """
+        }
+    }
+
+    templates add f("map(crossinline transform: (T) -> T)") {
+        only(SequencesOfPrimitives)
+        onlyPrimitives(SequencesOfPrimitives, sequencePrimitives.toSet())
+        // inlined together with the iterator, so that the transform is called without boxing the elements
+        inline(true)
+        doc { f -> "Returns a ${f.collection} containing the results of applying the given [transform] function to each ${f.element} in the original ${f.collection}." }
+        returns("SELF")
+        for (primitive in sequencePrimitives) {
+            bodyForTypes(SequencesOfPrimitives, primitive) {
+                """
+                return object : ${primitive.name}Sequence {
+                    override fun iterator(): ${primitive.name}Iterator = object : ${primitive.name}Iterator() {
+                        val iterator = this@map.iterator()
+
+                        override fun next${primitive.name}(): ${primitive.name} = transform(iterator.next${primitive.name}())
+
+                        override fun hasNext(): Boolean = iterator.hasNext()
+                    }
+                }
+                """
+            }
+        }
+    }
+
+    templates add f("sum()") {
+        only(SequencesOfPrimitives)
+        onlyPrimitives(SequencesOfPrimitives, sequencePrimitives.toSet())
+        doc { f -> "Returns the sum of all elements in the ${f.collection}." }
+        returns("SUM")
+        body {
+            """
+            var sum: SUM = ZERO
+            for (element in this) {
+                sum += element
+            }
+            return sum
+            """
+        }
+    }
+
+    return templates
+}
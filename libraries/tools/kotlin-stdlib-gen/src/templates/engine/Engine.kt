@@ -15,6 +15,7 @@ enum class Family {
     ArraysOfObjects,
     ArraysOfPrimitives,
     Sequences,
+    SequencesOfPrimitives,
     CharSequences,
     Strings,
     Ranges,
@@ -31,7 +32,7 @@ enum class Family {
     val code = CodeExtension(this)
 
     companion object {
-        val primitiveSpecializations = setOf(ArraysOfPrimitives, RangesOfPrimitives, ProgressionsOfPrimitives, Primitives)
+        val primitiveSpecializations = setOf(ArraysOfPrimitives, SequencesOfPrimitives, RangesOfPrimitives, ProgressionsOfPrimitives, Primitives)
         val defaultFamilies = setOf(Iterables, Sequences, ArraysOfObjects, ArraysOfPrimitives)
     }
 }
@@ -225,6 +226,7 @@ class GenericFunction(val signature: String, val keyword: String = "fun") {
     private fun getDefaultSourceFile(f: Family): SourceFile = when (f) {
         Iterables, Collections, Lists -> SourceFile.Collections
         Sequences -> SourceFile.Sequences
+        SequencesOfPrimitives -> SourceFile.PrimitiveSequences
         Sets -> SourceFile.Sets
         Ranges, RangesOfPrimitives, ProgressionsOfPrimitives -> SourceFile.Ranges
         ArraysOfObjects, InvariantArraysOfObjects, ArraysOfPrimitives -> SourceFile.Arrays
@@ -336,6 +338,7 @@ class GenericFunction(val signature: String, val keyword: String = "fun") {
             CharSequences -> "CharSequence"
             Ranges -> "ClosedRange<$isAsteriskOrT>"
             ArraysOfPrimitives -> primitive?.let { it.name + "Array" } ?: throw IllegalArgumentException("Primitive array should specify primitive type")
+            SequencesOfPrimitives -> primitive?.let { it.name + "Sequence" } ?: throw IllegalArgumentException("Primitive sequence should specify primitive type")
             RangesOfPrimitives -> primitive?.let { it.name + "Range" } ?: throw IllegalArgumentException("Primitive range should specify primitive type")
             ProgressionsOfPrimitives -> primitive?.let { it.name + "Progression" } ?: throw IllegalArgumentException("Primitive progression should specify primitive type")
             Primitives -> primitive?.let { it.name } ?: throw IllegalArgumentException("Primitive should specify primitive type")
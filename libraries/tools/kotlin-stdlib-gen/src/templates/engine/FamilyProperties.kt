@@ -28,13 +28,14 @@ object DocExtensions {
         get() = when (this) {
             CharSequences -> "char sequence"
             ArraysOfObjects, ArraysOfPrimitives, InvariantArraysOfObjects -> "array"
+            SequencesOfPrimitives -> "sequence"
             Strings, Sequences, Maps, Lists, Sets, Ranges -> name.singularize().decapitalize()
             else -> "collection"
         }
 
     val Family.mapResult: String
         get() = when (this) {
-            Sequences -> "sequence"
+            Sequences, SequencesOfPrimitives -> "sequence"
             else -> "list"
         }
 